@@ -0,0 +1,27 @@
+package org.se.lab.benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: runs JMH with the given arguments and writes
+ * the results to jmh-yyyyMMdd-HHmmss.json, unless -rf or -rff is given, so
+ * runs before and after a change can be diffed.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+		if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+			String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+			jmhArgs.addAll(Arrays.asList("-rf", "json", "-rff", "jmh-" + stamp + ".json"));
+		}
+		org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+	}
+}
@@ -0,0 +1,118 @@
+package org.se.lab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Community;
+import org.se.lab.data.CommunityDAOImpl;
+import org.se.lab.data.User;
+
+/**
+ * Communities of one user and the membership check of the community page:
+ * the former findAll-and-filter scan, which initializes every member list,
+ * against the queries on the (users_id, community_id) index of
+ * user_community.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class CommunityMembershipBenchmark {
+
+	private static final int MEMBERSHIPS_PER_USER = 10;
+
+	@Param({ "5000" })
+	private int communities;
+
+	@Param({ "10000" })
+	private int users;
+
+	private EntityManagerFactory factory;
+	private EntityManager em;
+	private CommunityDAOImpl dao;
+
+	private int userId;
+	private int communityId;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = EmbeddedDatabase.open("memberships", 50);
+		em = factory.createEntityManager();
+		dao = new CommunityDAOImpl();
+		dao.setEntityManager(em);
+
+		em.getTransaction().begin();
+		List<Community> communityList = new ArrayList<>();
+		for (int i = 0; i < communities; i++) {
+			Community community = new Community("community" + i, "Community number " + i);
+			em.persist(community);
+			communityList.add(community);
+		}
+		for (int i = 0; i < users; i++) {
+			User user = new User("user" + i, "password" + i);
+			for (int m = 0; m < MEMBERSHIPS_PER_USER && m < communities; m++) {
+				user.addCommunity(communityList.get((i + m * 7) % communities));
+			}
+			em.persist(user);
+			if (i == users / 2) {
+				userId = user.getId();
+				communityId = user.getCommunities().get(MEMBERSHIPS_PER_USER / 2).getId();
+			}
+			if (i % 500 == 0)
+				em.flush();
+		}
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		em.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public List<Community> findAllAndFilter() {
+		em.clear();
+		User user = em.find(User.class, userId);
+		return dao.findAll().stream().filter(community -> community.getUsers().contains(user))
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Community> findByMember() {
+		em.clear();
+		return dao.findByMember(userId);
+	}
+
+	@Benchmark
+	public boolean isMemberByScan() {
+		return findAllAndFilter().stream().anyMatch(community -> community.getId() == communityId);
+	}
+
+	@Benchmark
+	public boolean isMember() {
+		em.clear();
+		return dao.isMember(userId, communityId);
+	}
+}
@@ -0,0 +1,83 @@
+package org.se.lab.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.service.ContactSuggestion;
+import org.se.lab.service.impl.ContactGraph;
+
+/**
+ * Queries of the in-memory contact graph with 1M edges by default: people
+ * you may know, mutual contacts of two users and contact updates, which are
+ * merged into the arrays every ContactGraph.MAX_PENDING changes. Setup
+ * prints the heap used by the graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class ContactGraphBenchmark {
+
+	@Param({ "20000" })
+	private int users;
+
+	@Param({ "50" })
+	private int contactsPerUser;
+
+	private ContactGraph graph;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+		graph = new ContactGraph();
+		ContactGraph.Loader loader = graph.loader();
+		for (int userId = 1; userId <= users; userId++) {
+			for (int i = 0; i < contactsPerUser; i++) {
+				loader.add(userId, 1 + random.nextInt(users));
+			}
+		}
+		loader.load();
+		System.out.println("\n" + graph.size() + " edges, " + graph.getMemoryBytes() / 1024 + " KB");
+	}
+
+	private int randomUser() {
+		return 1 + ThreadLocalRandom.current().nextInt(users);
+	}
+
+	@Benchmark
+	public List<ContactSuggestion> suggest() {
+		return graph.suggest(randomUser(), 10);
+	}
+
+	@Benchmark
+	public int[] mutualContacts() {
+		return graph.mutualContacts(randomUser(), randomUser());
+	}
+
+	@Benchmark
+	public void addAndRemove() {
+		int userId = randomUser();
+		int contactId = randomUser();
+		if (graph.hasContact(userId, contactId)) {
+			graph.remove(userId, contactId);
+		} else {
+			graph.add(userId, contactId);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package org.se.lab.benchmarks;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Community;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostDAOImpl;
+import org.se.lab.data.User;
+
+/**
+ * DAOImplTemplate CRUD and the PostDAO stream queries against the seeded
+ * database. The persistence context is cleared before every read, so each
+ * call pays for the SQL and the hydration like the first access in a request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class DaoBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private EntityManager em;
+	private PostDAOImpl postDAO;
+	private SeededDatabase db;
+	private int maxPostId;
+
+	@Setup
+	public void setup(SeededDatabase db) {
+		this.db = db;
+		em = db.getEntityManager();
+		postDAO = new PostDAOImpl();
+		postDAO.setEntityManager(em);
+		maxPostId = db.users * SeededDatabase.POSTS_PER_USER;
+	}
+
+	@Benchmark
+	public Post crudCycle() {
+		User author = em.getReference(User.class, randomUser().getId());
+		em.getTransaction().begin();
+		Post post = postDAO.insert(new Post(null, null, author, "crud", new Date()));
+		em.flush();
+		em.clear();
+		Post found = postDAO.findById(post.getId());
+		found.setText("crud updated");
+		postDAO.update(found);
+		em.flush();
+		postDAO.delete(found);
+		em.getTransaction().commit();
+		em.clear();
+		return found;
+	}
+
+	@Benchmark
+	public Post findById() {
+		em.clear();
+		return postDAO.findById(ThreadLocalRandom.current().nextInt(1, maxPostId + 1));
+	}
+
+	@Benchmark
+	public List<Post> getPostsForUser() {
+		em.clear();
+		return postDAO.getPostsForUser(randomUser());
+	}
+
+	@Benchmark
+	public Page<Post> getPostsForUserPage() {
+		em.clear();
+		return postDAO.getPostsForUser(randomUser(), null, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public List<Post> getPostsForCommunity() {
+		em.clear();
+		return postDAO.getPostsForCommunity(randomCommunity());
+	}
+
+	@Benchmark
+	public Page<Post> getPostsForCommunityPage() {
+		em.clear();
+		return postDAO.getPostsForCommunity(randomCommunity(), null, PAGE_SIZE);
+	}
+
+	private User randomUser() {
+		return db.user(ThreadLocalRandom.current().nextInt(db.users));
+	}
+
+	private Community randomCommunity() {
+		return db.community(ThreadLocalRandom.current().nextInt(db.getCommunityCount()));
+	}
+}
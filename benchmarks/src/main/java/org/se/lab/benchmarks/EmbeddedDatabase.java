@@ -0,0 +1,26 @@
+package org.se.lab.benchmarks;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.se.lab.data.PersistenceProfile;
+
+/**
+ * The "pse" persistence unit on PersistenceProfile.EMBEDDED, a separate
+ * in-memory database per benchmark.
+ */
+final class EmbeddedDatabase {
+
+	private EmbeddedDatabase() {
+	}
+
+	/**
+	 * @param name database name, every name is a separate database
+	 * @param batchSize hibernate.jdbc.batch_size
+	 */
+	static EntityManagerFactory open(String name, int batchSize) {
+		return PersistenceProfile.EMBEDDED.createEntityManagerFactory(name,
+				Collections.singletonMap("hibernate.jdbc.batch_size", String.valueOf(batchSize)));
+	}
+}
@@ -0,0 +1,82 @@
+package org.se.lab.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+
+/**
+ * Construction and setter validation of the entities every request creates or
+ * hydrates: Post, User and Community.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+	private User user;
+	private Community community;
+	private Post post;
+	private Date created;
+	private String text;
+	private String tooLong;
+
+	@Setup
+	public void setup() {
+		user = new User("author", "password");
+		community = new Community("community", "A community");
+		created = new Date();
+		text = "A typical post, a sentence or two about what is going on today.";
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() <= Post.MAX_TEXT_LENGTH)
+			sb.append(text);
+		tooLong = sb.toString();
+		post = new Post(null, community, user, text, created);
+	}
+
+	@Benchmark
+	public Post constructPost() {
+		return new Post(null, community, user, text, created);
+	}
+
+	@Benchmark
+	public User constructUser() {
+		return new User("username", "password");
+	}
+
+	@Benchmark
+	public Community constructCommunity() {
+		return new Community("name", "description");
+	}
+
+	@Benchmark
+	public Post setText() {
+		post.setText(text);
+		return post;
+	}
+
+	@Benchmark
+	public Object rejectText() {
+		try {
+			post.setText(tooLong);
+			return post;
+		} catch (IllegalArgumentException e) {
+			return e;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package org.se.lab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.impl.KWayMergeIterator;
+
+/**
+ * Latency of one home feed page assembled from k sources (own posts, contacts,
+ * communities): heap based k-way merge of the newest-first sources against
+ * loading every post of every source and sorting.
+ *
+ * The merge touches at most pageSize + 1 posts per source, which is also all a
+ * keyset query per source returns; the sort has to load and order all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HomeFeedMergeBenchmark {
+
+	private static final Comparator<Post> NEWEST_FIRST =
+			Comparator.comparing(Post::getCreated).thenComparingInt(Post::getId).reversed();
+
+	@Param({ "4", "16", "64", "256" })
+	private int sources;
+
+	@Param({ "200" })
+	private int postsPerSource;
+
+	@Param({ "20" })
+	private int pageSize;
+
+	private List<List<Post>> streams;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		long now = System.currentTimeMillis();
+		int id = 1;
+		streams = new ArrayList<>(sources);
+		for (int s = 0; s < sources; s++) {
+			User author = new User("user" + s, "***");
+			author.setId(s + 1);
+			List<Post> stream = new ArrayList<>(postsPerSource);
+			for (int i = 0; i < postsPerSource; i++) {
+				Post post = new Post(null, null, author, "post " + id, new Date(now - random.nextInt(30 * 86400) * 1000L));
+				post.setId(id++);
+				stream.add(post);
+			}
+			stream.sort(NEWEST_FIRST);
+			streams.add(stream);
+		}
+	}
+
+	@Benchmark
+	public void kWayMerge(Blackhole bh) {
+		List<Iterator<Post>> cursors = new ArrayList<>(sources);
+		for (List<Post> stream : streams) {
+			cursors.add(stream.iterator());
+		}
+		Iterator<Post> merged = new KWayMergeIterator<>(cursors, NEWEST_FIRST);
+		for (int i = 0; i < pageSize && merged.hasNext(); i++) {
+			bh.consume(merged.next());
+		}
+	}
+
+	@Benchmark
+	public void loadAllAndSort(Blackhole bh) {
+		List<Post> all = new ArrayList<>(sources * postsPerSource);
+		for (List<Post> stream : streams) {
+			all.addAll(stream);
+		}
+		all.sort(NEWEST_FIRST);
+		for (int i = 0; i < pageSize && i < all.size(); i++) {
+			bh.consume(all.get(i));
+		}
+	}
+}
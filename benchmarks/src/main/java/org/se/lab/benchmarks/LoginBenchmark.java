@@ -0,0 +1,107 @@
+package org.se.lab.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.User;
+import org.se.lab.service.ServiceException;
+import org.se.lab.service.dao.UserDAO;
+import org.se.lab.service.impl.CredentialStore;
+import org.se.lab.service.impl.PasswordHasher;
+import org.se.lab.service.impl.PasswordVerifier;
+import org.se.lab.service.impl.UserServiceImpl;
+
+/**
+ * Login latency under 500 concurrent logins: UserServiceImpl#login with the
+ * password hashed on the bounded PasswordVerifier pool. The UserDAO answers
+ * from memory, so only hashing and queueing are measured.
+ *
+ * SampleTime reports the percentiles of all logins, the counters tell how
+ * many were accepted and how many were rejected at once because the pool
+ * and its queue were full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(500)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class LoginBenchmark {
+
+	private static final String USERNAME = "user";
+	private static final String PASSWORD = "password";
+	// long enough that no queued login times out, so the queue limit alone bounds the wait
+	private static final long TIMEOUT_MILLIS = 60000L;
+
+	@Param({ "10000", "100000" })
+	private int iterations;
+
+	@Param({ "64", "1024" })
+	private int queueLimit;
+
+	private PasswordVerifier verifier;
+	private UserServiceImpl userService;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Logins {
+		public long accepted;
+		public long rejected;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		verifier = new PasswordVerifier();
+		verifier.configure(new PasswordHasher(iterations), Runtime.getRuntime().availableProcessors(), queueLimit,
+				TIMEOUT_MILLIS);
+
+		User user = new User(USERNAME, PASSWORD);
+		user.setId(1);
+		user.setPassword(verifier.hash(PASSWORD));
+		UserDAO userDAO = (UserDAO) Proxy.newProxyInstance(UserDAO.class.getClassLoader(),
+				new Class<?>[] { UserDAO.class }, (proxy, method, args) -> {
+					if (method.getName().equals("findByUsername"))
+						return USERNAME.equals(args[0]) ? user : null;
+					throw new UnsupportedOperationException(method.getName());
+				});
+
+		CredentialStore credentialStore = new CredentialStore();
+		Wiring.inject(credentialStore, "userDAO", userDAO);
+		userService = new UserServiceImpl();
+		Wiring.inject(userService, "credentialStore", credentialStore);
+		Wiring.inject(userService, "passwordVerifier", verifier);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		verifier.stop();
+	}
+
+	@Benchmark
+	public User login(Logins logins) {
+		try {
+			User user = userService.login(USERNAME, PASSWORD);
+			logins.accepted++;
+			return user;
+		} catch (ServiceException e) {
+			logins.rejected++;
+			return null;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.se.lab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostDAOImpl;
+import org.se.lab.data.User;
+
+/**
+ * Inserting 1M posts into an embedded H2 database (MySQL mode):
+ * one statement round trip per post, as with IDENTITY ids, against
+ * PostDAOImpl#insertAll with pooled ids and JDBC batches.
+ *
+ * Run a smaller load with e.g. -p posts=100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class PostBulkInsertBenchmark {
+
+	// posts handed to insertAll at once, as an import would read them
+	private static final int CHUNK_SIZE = 10000;
+
+	@Param({ "1000000" })
+	private int posts;
+
+	@Param({ "50" })
+	private int batchSize;
+
+	private EntityManagerFactory factory;
+	private EntityManager em;
+	private PostDAOImpl dao;
+	private User author;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = EmbeddedDatabase.open("bulk", batchSize);
+		em = factory.createEntityManager();
+		dao = new PostDAOImpl();
+		dao.setEntityManager(em);
+
+		em.getTransaction().begin();
+		author = new User("bulk", "***");
+		em.persist(author);
+		em.getTransaction().commit();
+	}
+
+	@Setup(Level.Iteration)
+	public void deletePosts() {
+		em.getTransaction().begin();
+		em.createQuery("DELETE FROM Post").executeUpdate();
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		em.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public void insertOneByOne() {
+		em.getTransaction().begin();
+		for (int i = 1; i <= posts; i++) {
+			dao.insert(newPost(i));
+			// the INSERT goes out right away, as for an IDENTITY id
+			em.flush();
+			em.clear();
+		}
+		em.getTransaction().commit();
+	}
+
+	@Benchmark
+	public void insertAll() {
+		em.getTransaction().begin();
+		List<Post> chunk = new ArrayList<>(CHUNK_SIZE);
+		for (int i = 1; i <= posts; i++) {
+			chunk.add(newPost(i));
+			if (chunk.size() == CHUNK_SIZE || i == posts) {
+				dao.insertAll(chunk, batchSize);
+				chunk.clear();
+			}
+		}
+		em.getTransaction().commit();
+	}
+
+	private Post newPost(int i) {
+		return new Post(null, null, author, "Bulk post " + i, new Date(i * 1000L));
+	}
+}
@@ -0,0 +1,125 @@
+package org.se.lab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostDAOImpl;
+import org.se.lab.data.User;
+
+/**
+ * Constructing 100k posts and hydrating 100k posts from embedded H2, both
+ * followed by the getter, hashCode and equals calls of rendering a page.
+ * Logging is configured like in production by log4j.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class PostHydrationBenchmark {
+
+	private static final int USERS = 100;
+	private static final int COMMUNITIES = 10;
+
+	@Param({ "100000" })
+	private int posts;
+
+	private EntityManagerFactory factory;
+	private EntityManager em;
+	private List<User> users = new ArrayList<>();
+	private List<Community> communities = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = EmbeddedDatabase.open("hydration", 50);
+		em = factory.createEntityManager();
+		PostDAOImpl dao = new PostDAOImpl();
+		dao.setEntityManager(em);
+
+		em.getTransaction().begin();
+		for (int i = 0; i < USERS; i++) {
+			User user = new User("user" + i, "***");
+			em.persist(user);
+			users.add(user);
+		}
+		for (int i = 0; i < COMMUNITIES; i++) {
+			Community community = new Community("community" + i, "Community " + i);
+			em.persist(community);
+			communities.add(community);
+		}
+		List<Post> seed = new ArrayList<>(posts);
+		for (int i = 0; i < posts; i++) {
+			seed.add(newPost(i));
+		}
+		dao.insertAll(seed, 50);
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		em.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public void construct(Blackhole bh) {
+		List<Post> constructed = new ArrayList<>(posts);
+		for (int i = 0; i < posts; i++) {
+			constructed.add(newPost(i));
+		}
+		render(constructed, bh);
+	}
+
+	@Benchmark
+	public void hydrate(Blackhole bh) {
+		em.clear();
+		render(em.createQuery(HYDRATE_QUERY, Post.class).getResultList(), bh);
+	}
+
+	private Post newPost(int i) {
+		return new Post(null, communities.get(i % COMMUNITIES), users.get(i % USERS), "Post number " + i,
+				new Date(i * 1000L));
+	}
+
+	// what a page of posts does: getters from EL, a set of posts
+	private static void render(List<Post> loaded, Blackhole bh) {
+		Set<Post> seen = new HashSet<>(loaded.size() * 2);
+		for (Post post : loaded) {
+			bh.consume(post.getId());
+			bh.consume(post.getText());
+			bh.consume(post.getCreated());
+			bh.consume(post.getUser());
+			bh.consume(post.getCommunity());
+			bh.consume(post.getLikeCount());
+			seen.add(post);
+		}
+		bh.consume(seen.size());
+	}
+
+	private static final String HYDRATE_QUERY = "SELECT p FROM Post p JOIN FETCH p.user LEFT JOIN FETCH p.community";
+}
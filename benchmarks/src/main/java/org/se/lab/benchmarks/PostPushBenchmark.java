@@ -0,0 +1,171 @@
+package org.se.lab.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.PostEvent;
+import org.se.lab.service.dao.CommunityDAO;
+import org.se.lab.service.impl.ContactGraph;
+import org.se.lab.service.impl.ContactGraphIndex;
+import org.se.lab.service.impl.PostPushHub;
+import org.se.lab.service.impl.PushConnection;
+
+/**
+ * Broadcast of one new post to 10k idle push connections on one node, as
+ * PostPushHub runs it on its executor after ActivityStreamServiceImpl#insert: one
+ * connection per user, a tenth of them on a community page. The stalled
+ * percentage of clients never completes a send, so their queues stay full and
+ * every further notification drops the oldest. Setup prints the heap used per
+ * connection, TearDown the notifications sent and dropped.
+ *
+ * The sockets themselves are left out, they are the container's; this
+ * measures what the hub adds per post and per open page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class PostPushBenchmark {
+
+	@Param({ "10000" })
+	private int connections;
+
+	@Param({ "50" })
+	private int contactsPerUser;
+
+	@Param({ "100" })
+	private int communities;
+
+	@Param({ "10" })
+	private int stalledPercent;
+
+	private PostPushHub hub;
+	private final List<PushConnection> opened = new ArrayList<>();
+	private PostEvent[] events;
+
+	// completes every send at once, like an idle client reading its socket
+	private static final PushConnection.Transport IDLE = new PushConnection.Transport() {
+		@Override
+		public void send(String message, Consumer<Throwable> done) {
+			done.accept(null);
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	// never completes a send, like a client that stopped reading
+	private static final PushConnection.Transport STALLED = new PushConnection.Transport() {
+		@Override
+		public void send(String message, Consumer<Throwable> done) {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+		ContactGraphIndex contactGraphIndex = new ContactGraphIndex();
+		ContactGraph.Loader loader = contactGraphIndex.getGraph().loader();
+		for (int userId = 1; userId <= connections; userId++) {
+			for (int i = 0; i < contactsPerUser; i++) {
+				loader.add(userId, 1 + random.nextInt(connections));
+			}
+		}
+		loader.load();
+
+		CommunityDAO communityDAO = (CommunityDAO) Proxy.newProxyInstance(CommunityDAO.class.getClassLoader(),
+				new Class<?>[] { CommunityDAO.class }, (proxy, method, args) -> {
+					if (method.getName().equals("findByMember"))
+						return memberships((Integer) args[0]);
+					throw new UnsupportedOperationException(method.getName());
+				});
+
+		hub = new PostPushHub();
+		Wiring.inject(hub, "contactGraphIndex", contactGraphIndex);
+		Wiring.inject(hub, "communityDAO", communityDAO);
+
+		long before = usedHeap();
+		for (int userId = 1; userId <= connections; userId++) {
+			int communityId = random.nextInt(10) == 0 ? 1 + random.nextInt(communities) : 0;
+			PushConnection.Transport transport = random.nextInt(100) < stalledPercent ? STALLED : IDLE;
+			opened.add(hub.connect(userId, communityId, transport));
+		}
+		long perConnection = (usedHeap() - before) / connections;
+		System.out.println("\n" + hub.getConnectionCount() + " connections, " + perConnection + " bytes each");
+
+		events = new PostEvent[1024];
+		for (int i = 0; i < events.length; i++) {
+			User author = new User("user" + i, "***");
+			author.setId(1 + random.nextInt(connections));
+			Community community = null;
+			if (random.nextInt(4) == 0) {
+				community = new Community("community" + i, "Benchmark");
+				community.setId(1 + random.nextInt(communities));
+			}
+			Post post = new Post(null, community, author, "Hello", new Date());
+			post.setId(i + 1);
+			events[i] = PostEvent.created(post);
+		}
+	}
+
+	// three communities per user, the same ones on every call
+	private List<Community> memberships(int userId) {
+		Random random = new Random(userId);
+		List<Community> memberOf = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Community community = new Community("community", "Benchmark");
+			community.setId(1 + random.nextInt(communities));
+			memberOf.add(community);
+		}
+		return memberOf;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	@TearDown(Level.Trial)
+	public void report() {
+		long sent = 0;
+		for (PushConnection connection : opened) {
+			sent += connection.getSent();
+		}
+		System.out.println("\n" + sent + " sent, " + hub.getDropped() + " dropped");
+	}
+
+	@Benchmark
+	public void broadcast() {
+		hub.broadcast(events[ThreadLocalRandom.current().nextInt(events.length)]);
+	}
+}
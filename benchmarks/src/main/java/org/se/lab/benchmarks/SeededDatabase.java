@@ -0,0 +1,140 @@
+package org.se.lab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostDAOImpl;
+import org.se.lab.data.User;
+import org.se.lab.data.UserContact;
+
+/**
+ * Embedded H2 database seeded once per fork with volumes of a busy
+ * installation, derived from the number of users:
+ * <ul>
+ * <li>one community per 20 users, every user member of 5 communities</li>
+ * <li>50 contacts per user</li>
+ * <li>50 posts per user, every fourth one in a community, one in ten a reply</li>
+ * </ul>
+ * The seed is fixed, so every run sees the same data.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+	static final int MEMBERSHIPS_PER_USER = 5;
+	static final int CONTACTS_PER_USER = 50;
+	static final int POSTS_PER_USER = 50;
+
+	// entities per flush and clear while seeding
+	private static final int CHUNK_SIZE = 5000;
+
+	@Param({ "2000" })
+	public int users;
+
+	private EntityManagerFactory factory;
+	private EntityManager em;
+
+	// detached, ordered by id
+	private final List<User> userList = new ArrayList<>();
+	private final List<Community> communityList = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void seed() {
+		factory = EmbeddedDatabase.open("seeded", 50);
+		em = factory.createEntityManager();
+		Random random = new Random(42);
+		long started = System.nanoTime();
+
+		em.getTransaction().begin();
+		int communities = Math.max(1, users / 20);
+		for (int i = 0; i < communities; i++) {
+			Community community = new Community("community" + i, "Community number " + i);
+			em.persist(community);
+			communityList.add(community);
+		}
+		for (int i = 0; i < users; i++) {
+			User user = new User("user" + i, "password" + i);
+			for (int m = 0; m < MEMBERSHIPS_PER_USER && m < communities; m++) {
+				user.addCommunity(communityList.get((i + m * 7) % communities));
+			}
+			em.persist(user);
+			userList.add(user);
+		}
+		em.flush();
+
+		for (int i = 0; i < users; i++) {
+			for (int c = 1; c <= CONTACTS_PER_USER && c < users; c++) {
+				em.persist(new UserContact(userList.get(i), userList.get((i + c * 13) % users).getId()));
+			}
+			if (i % (CHUNK_SIZE / CONTACTS_PER_USER) == 0)
+				em.flush();
+		}
+		em.flush();
+
+		PostDAOImpl postDAO = new PostDAOImpl();
+		postDAO.setEntityManager(em);
+		List<Post> posts = new ArrayList<>(CHUNK_SIZE);
+		List<Post> roots = new ArrayList<>();
+		int total = users * POSTS_PER_USER;
+		for (int i = 0; i < total; i++) {
+			User author = userList.get(random.nextInt(users));
+			Community in = i % 4 == 0 ? communityList.get(random.nextInt(communities)) : null;
+			Post parent = i % 10 == 9 && !roots.isEmpty() ? roots.get(random.nextInt(roots.size())) : null;
+			Post post = new Post(parent, in, author, "Seeded post " + i + " about topic " + random.nextInt(500),
+					new Date(1500000000000L + i * 60000L));
+			posts.add(post);
+			if (parent == null && roots.size() < 10000)
+				roots.add(post);
+			if (posts.size() == CHUNK_SIZE) {
+				postDAO.insertAll(posts, 50);
+				posts.clear();
+			}
+		}
+		postDAO.insertAll(posts, 50);
+		em.getTransaction().commit();
+		em.clear();
+
+		System.out.printf("%nseeded %d users, %d communities, %d contacts, %d posts in %d ms%n", users, communities,
+				users * CONTACTS_PER_USER, total, (System.nanoTime() - started) / 1000000);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		em.close();
+		factory.close();
+	}
+
+	public EntityManager getEntityManager() {
+		return em;
+	}
+
+	/**
+	 * @return (User) detached user, i from 0 to users - 1
+	 */
+	public User user(int i) {
+		return userList.get(i);
+	}
+
+	/**
+	 * @return (Community) detached community, i from 0 to number of communities - 1
+	 */
+	public Community community(int i) {
+		return communityList.get(i);
+	}
+
+	public int getCommunityCount() {
+		return communityList.size();
+	}
+}
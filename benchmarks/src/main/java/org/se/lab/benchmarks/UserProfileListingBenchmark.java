@@ -0,0 +1,95 @@
+package org.se.lab.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.User;
+import org.se.lab.data.UserProfile;
+import org.se.lab.data.UserProfileDAOImpl;
+import org.se.lab.data.UserProfileSummary;
+
+/**
+ * Loading the user overview: every UserProfile entity, with picture and the
+ * eagerly fetched owning user, against the UserProfileSummary projection.
+ * Run with -prof gc to compare the bytes allocated per listing
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx3g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class UserProfileListingBenchmark {
+
+	@Param({ "10000" })
+	private int profiles;
+
+	@Param({ "32768" })
+	private int pictureSize;
+
+	private EntityManagerFactory factory;
+	private EntityManager em;
+	private UserProfileDAOImpl dao;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = EmbeddedDatabase.open("profiles", 50);
+		em = factory.createEntityManager();
+		dao = new UserProfileDAOImpl();
+		dao.setEntityManager(em);
+
+		byte[] picture = new byte[pictureSize];
+		em.getTransaction().begin();
+		for (int i = 0; i < profiles; i++) {
+			UserProfile profile = new UserProfile("First" + i, "Last" + i, "Street " + i, "8010", "Graz",
+					"Austria", "A" + (i % 100), "Team " + (i % 20), "user" + i + "@example.org", "0316", "0664",
+					"Profile number " + i);
+			profile.setPicture(picture);
+			em.persist(profile);
+			User user = new User("user" + i, "password");
+			user.setUserProfile(profile);
+			em.persist(user);
+			if (i % 500 == 0) {
+				em.flush();
+				em.clear();
+			}
+		}
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		em.close();
+		factory.close();
+	}
+
+	@Benchmark
+	public List<UserProfile> findAll() {
+		em.clear();
+		return dao.findAll();
+	}
+
+	@Benchmark
+	public List<UserProfileSummary> findAllSummaries() {
+		em.clear();
+		return dao.findAllSummaries();
+	}
+}
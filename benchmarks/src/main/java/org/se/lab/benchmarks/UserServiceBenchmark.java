@@ -0,0 +1,73 @@
+package org.se.lab.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.se.lab.data.Community;
+import org.se.lab.data.User;
+import org.se.lab.data.UserSummary;
+import org.se.lab.service.impl.UserServiceImpl;
+import org.se.lab.service.impl.UserSummaryLoader;
+
+/**
+ * UserServiceImpl calls of the profile and community pages against the seeded
+ * database, wired with the real DAOs. Every call starts with an empty
+ * persistence context and UserSummaryLoader, like a new request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class UserServiceBenchmark {
+
+	private EntityManager em;
+	private UserServiceImpl userService;
+	private SeededDatabase db;
+	private Object userDAO;
+
+	@Setup
+	public void setup(SeededDatabase db) {
+		this.db = db;
+		em = db.getEntityManager();
+		userService = new UserServiceImpl();
+		userDAO = Wiring.dao("org.se.lab.data.UserDAOImpl", em);
+		Wiring.inject(userService, "userDAO", userDAO);
+		Wiring.inject(userService, "userContactDAO", Wiring.dao("org.se.lab.data.UserContactDAOImpl", em));
+		Wiring.inject(userService, "userProfileDAO", Wiring.dao("org.se.lab.data.UserProfileDAOImpl", em));
+		Wiring.inject(userService, "communityDAO", Wiring.dao("org.se.lab.data.CommunityDAOImpl", em));
+	}
+
+	@Benchmark
+	public List<UserSummary> getContactsOfUser() {
+		em.clear();
+		UserSummaryLoader loader = new UserSummaryLoader();
+		Wiring.inject(loader, "userDAO", userDAO);
+		Wiring.inject(userService, "userSummaryLoader", loader);
+		return userService.getContactsOfUser(randomUser());
+	}
+
+	@Benchmark
+	public List<Community> getAllCommunitiesForUser() {
+		em.clear();
+		return userService.getAllCommunitiesForUser(randomUser());
+	}
+
+	private User randomUser() {
+		return db.user(ThreadLocalRandom.current().nextInt(db.users));
+	}
+}
@@ -0,0 +1,58 @@
+package org.se.lab.benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Does what CDI does in the container: creates DAOs and services, also
+ * package private ones like UserDAOImpl, and sets their @Inject fields.
+ */
+final class Wiring {
+
+	private Wiring() {
+	}
+
+	/**
+	 * @return new instance of the named class, created with its no-arg constructor
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T create(String className) {
+		try {
+			Constructor<?> constructor = Class.forName(className).getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return (T) constructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Can't create " + className, e);
+		}
+	}
+
+	/**
+	 * @return new DAO of the named class using the given EntityManager
+	 */
+	static <T> T dao(String className, EntityManager em) {
+		T dao = create(className);
+		inject(dao, "em", em);
+		return dao;
+	}
+
+	/**
+	 * Sets the named field, declared by the class of target or a superclass
+	 */
+	static void inject(Object target, String fieldName, Object value) {
+		for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(fieldName);
+				field.setAccessible(true);
+				field.set(target, value);
+				return;
+			} catch (NoSuchFieldException e) {
+				// try the superclass
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Can't set " + fieldName, e);
+			}
+		}
+		throw new IllegalArgumentException("No field " + fieldName + " in " + target.getClass());
+	}
+}
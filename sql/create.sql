@@ -66,6 +66,16 @@ DROP TABLE `pse`.`users`;
 
 DROP TABLE `pse`.`user_community`;
 
+DROP TABLE `pse`.`timeline`;
+
+DROP TABLE `pse`.`post_like`;
+
+DROP TABLE `pse`.`id_generator`;
+
+DROP TABLE `pse`.`picture_variant`;
+
+DROP TABLE `pse`.`conversation`;
+
 CREATE TABLE `pse`.`userprofile` (
 	`id` INT NOT NULL,
 	`address` VARCHAR(255),
@@ -78,6 +88,7 @@ CREATE TABLE `pse`.`userprofile` (
 	`mobile` VARCHAR(255),
 	`phone` VARCHAR(255),
 	`picture` MEDIUMBLOB,
+	`picture_hash` VARCHAR(32),
 	`plz` VARCHAR(255),
 	`room` VARCHAR(255),
 	`team` VARCHAR(255),
@@ -102,7 +113,10 @@ CREATE TABLE `pse`.`post` (
 	`text` VARCHAR(1024),
 	`fk_community_id` INT,
 	`parent_post_id` INT,
+	`root_post_id` INT,
+	`depth` INT NOT NULL DEFAULT 0,
 	`fk_user_id` INT,
+	`like_count` BIGINT NOT NULL DEFAULT 0,
 	PRIMARY KEY (`id`)
 ) ENGINE=InnoDB;
 
@@ -115,8 +129,10 @@ CREATE TABLE `pse`.`likes` (
 CREATE TABLE `pse`.`private_message` (
 	`id` INT NOT NULL,
 	`text` VARCHAR(255),
+	`created` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
 	`fk_user_id_receiver` INT,
 	`fk_user_id_sender` INT,
+	`fk_conversation_id` INT,
 	PRIMARY KEY (`id`)
 ) ENGINE=InnoDB;
 
@@ -131,6 +147,7 @@ CREATE TABLE `pse`.`community` (
 	`description` VARCHAR(255),
 	`name` VARCHAR(255) NOT NULL,
 	`picture` TINYBLOB,
+	`picture_hash` VARCHAR(32),
 	`enumeration_id` INT,
 	PRIMARY KEY (`id`)
 ) ENGINE=InnoDB;
@@ -148,6 +165,35 @@ CREATE TABLE `pse`.`user_community` (
 	`community_id` INT NOT NULL
 ) ENGINE=InnoDB;
 
+CREATE TABLE `pse`.`timeline` (
+	`user_id` INT NOT NULL,
+	`post_id` INT NOT NULL,
+	`created` DATETIME NOT NULL,
+	PRIMARY KEY (`user_id`, `post_id`)
+) ENGINE=InnoDB;
+
+CREATE TABLE `pse`.`id_generator` (
+	`name` VARCHAR(255) NOT NULL,
+	`next_value` BIGINT,
+	PRIMARY KEY (`name`)
+) ENGINE=InnoDB;
+
+CREATE TABLE `pse`.`picture_variant` (
+	`owner` VARCHAR(16) NOT NULL,
+	`owner_id` INT NOT NULL,
+	`variant` VARCHAR(16) NOT NULL,
+	`source_hash` VARCHAR(32) NOT NULL,
+	`data` MEDIUMBLOB NOT NULL,
+	PRIMARY KEY (`owner`, `owner_id`, `variant`)
+) ENGINE=InnoDB;
+
+CREATE TABLE `pse`.`post_like` (
+	`post_id` INT NOT NULL,
+	`user_id` INT NOT NULL,
+	`enumeration_id` INT NOT NULL,
+	PRIMARY KEY (`post_id`, `user_id`)
+) ENGINE=InnoDB;
+
 CREATE INDEX `FKcmombhhasank864ums4swd519` ON `pse`.`users` (`fk_userprofile` ASC);
 
 CREATE UNIQUE INDEX `UK_r43af9ap4edm43mmtq01oddj6` ON `pse`.`users` (`username` ASC);
@@ -180,3 +226,39 @@ CREATE INDEX `FKmjbhmvq38xehsknjxd2jl7r0u` ON `pse`.`private_message` (`fk_user_
 
 CREATE INDEX `FKowd6f4s7x9f3w50pvlo6x3b41` ON `pse`.`likes` (`post_id` ASC);
 
+CREATE INDEX `idx_post_user_created` ON `pse`.`post` (`fk_user_id` ASC, `created` ASC, `id` ASC);
+
+CREATE INDEX `idx_post_community_created` ON `pse`.`post` (`fk_community_id` ASC, `created` ASC, `id` ASC);
+
+CREATE INDEX `idx_post_root_depth` ON `pse`.`post` (`root_post_id` ASC, `depth` ASC);
+
+CREATE INDEX `idx_timeline_user_created` ON `pse`.`timeline` (`user_id` ASC, `created` ASC, `post_id` ASC);
+
+CREATE TABLE `pse`.`conversation` (
+	`id` INT NOT NULL AUTO_INCREMENT,
+	`fk_user_id_low` INT NOT NULL,
+	`fk_user_id_high` INT NOT NULL,
+	`last_message_at` DATETIME NOT NULL,
+	`last_message_id` INT NOT NULL DEFAULT 0,
+	`read_message_id_low` INT NOT NULL DEFAULT 0,
+	`read_message_id_high` INT NOT NULL DEFAULT 0,
+	PRIMARY KEY (`id`)
+) ENGINE=InnoDB;
+
+CREATE UNIQUE INDEX `uk_conversation_users` ON `pse`.`conversation` (`fk_user_id_low` ASC, `fk_user_id_high` ASC);
+
+CREATE INDEX `idx_conversation_low_last` ON `pse`.`conversation` (`fk_user_id_low` ASC, `last_message_at` ASC, `id` ASC);
+
+CREATE INDEX `idx_conversation_high_last` ON `pse`.`conversation` (`fk_user_id_high` ASC, `last_message_at` ASC, `id` ASC);
+
+CREATE INDEX `idx_private_message_conversation_created` ON `pse`.`private_message` (`fk_conversation_id` ASC, `created` ASC, `id` ASC);
+
+CREATE INDEX `idx_user_community_member` ON `pse`.`user_community` (`users_id` ASC, `community_id` ASC);
+
+CREATE INDEX `idx_community_name` ON `pse`.`community` (`name` ASC);
+
+CREATE INDEX `idx_userprofile_lastname` ON `pse`.`userprofile` (`lastname` ASC);
+
+ALTER TABLE `pse`.`timeline` ADD CONSTRAINT `fk_timeline_post` FOREIGN KEY (`post_id`) REFERENCES `pse`.`post` (`id`);
+
+ALTER TABLE `pse`.`post_like` ADD CONSTRAINT `fk_post_like_post` FOREIGN KEY (`post_id`) REFERENCES `pse`.`post` (`id`);
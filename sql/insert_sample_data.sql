@@ -2,8 +2,11 @@ SET FOREIGN_KEY_CHECKS = 0;
 TRUNCATE enumeration;
 TRUNCATE enumeration_item;
 TRUNCATE private_message;
+TRUNCATE conversation;
 TRUNCATE contact;
 TRUNCATE post;
+TRUNCATE timeline;
+TRUNCATE post_like;
 TRUNCATE user_community;
 TRUNCATE userprofile;
 TRUNCATE users;
@@ -16,6 +19,7 @@ ALTER TABLE enumeration AUTO_INCREMENT = 1;
 ALTER TABLE enumeration_item AUTO_INCREMENT = 1; 
 ALTER TABLE post AUTO_INCREMENT = 1; 
 ALTER TABLE private_message AUTO_INCREMENT = 1; 
+ALTER TABLE conversation AUTO_INCREMENT = 1; 
 ALTER TABLE user_community AUTO_INCREMENT = 1; 
 ALTER TABLE userprofile AUTO_INCREMENT = 1; 
 ALTER TABLE users AUTO_INCREMENT = 1; 
@@ -585,3 +589,30 @@ insert into user_community (users_id, community_id) values (7, 1);
 insert into user_community (users_id, community_id) values (7, 2);
 insert into user_community (users_id, community_id) values (7, 3);
 insert into user_community (users_id, community_id) values (7, 4);
+
+-- copy the legacy likes to post_like and count them, see Like
+INSERT IGNORE INTO post_like (post_id, user_id, enumeration_id) SELECT DISTINCT post_id, user_id, enumeration_id FROM likes;
+UPDATE post SET like_count = (SELECT COUNT(*) FROM post_like l WHERE l.post_id = post.id);
+
+-- home timelines of the posts above (same as the backfill job, see TimelineDAOImpl)
+INSERT INTO timeline (user_id, post_id, created)
+SELECT p.fk_user_id, p.id, p.created FROM post p WHERE p.parent_post_id IS NULL
+UNION
+SELECT c.user_id, p.id, p.created FROM post p JOIN contact c ON c.fk_contact_id = p.fk_user_id WHERE p.parent_post_id IS NULL
+UNION
+SELECT uc.users_id, p.id, p.created FROM post p JOIN user_community uc ON uc.community_id = p.fk_community_id WHERE p.parent_post_id IS NULL;
+
+-- pooled post id generator (allocation size 50, see Post): hand out ids above the seeded posts
+REPLACE INTO id_generator (name, next_value) SELECT 'post', COALESCE(MAX(id), 0) + 50 FROM post;
+
+-- content hashes of the seeded pictures, see PictureHash
+UPDATE userprofile SET picture_hash = LEFT(SHA2(picture, 256), 32) WHERE picture IS NOT NULL;
+UPDATE community SET picture_hash = LEFT(SHA2(picture, 256), 32) WHERE picture IS NOT NULL;
+
+-- one conversation per pair of users, see Conversation
+INSERT INTO conversation (fk_user_id_low, fk_user_id_high, last_message_at, last_message_id)
+SELECT LEAST(fk_user_id_sender, fk_user_id_receiver), GREATEST(fk_user_id_sender, fk_user_id_receiver), MAX(created), MAX(id)
+FROM private_message GROUP BY LEAST(fk_user_id_sender, fk_user_id_receiver), GREATEST(fk_user_id_sender, fk_user_id_receiver);
+UPDATE private_message m JOIN conversation c
+ON c.fk_user_id_low = LEAST(m.fk_user_id_sender, m.fk_user_id_receiver) AND c.fk_user_id_high = GREATEST(m.fk_user_id_sender, m.fk_user_id_receiver)
+SET m.fk_conversation_id = c.id;
@@ -6,13 +6,18 @@ SET FOREIGN_KEY_CHECKS = 0;
 TRUNCATE enumeration;
 TRUNCATE enumeration_item;
 TRUNCATE private_message;
+TRUNCATE conversation;
 TRUNCATE contact;
 TRUNCATE post;
 TRUNCATE user_community;
 TRUNCATE userprofile;
 TRUNCATE users;
 TRUNCATE community;
+TRUNCATE timeline;
 TRUNCATE likes;
+TRUNCATE post_like;
+TRUNCATE id_generator;
+TRUNCATE picture_variant;
 SET FOREIGN_KEY_CHECKS = 1;
 
 ALTER TABLE community AUTO_INCREMENT = 1; 
@@ -21,6 +26,7 @@ ALTER TABLE enumeration AUTO_INCREMENT = 1;
 ALTER TABLE enumeration_item AUTO_INCREMENT = 1; 
 ALTER TABLE post AUTO_INCREMENT = 1; 
 ALTER TABLE private_message AUTO_INCREMENT = 1; 
+ALTER TABLE conversation AUTO_INCREMENT = 1; 
 ALTER TABLE user_community AUTO_INCREMENT = 1; 
 ALTER TABLE userprofile AUTO_INCREMENT = 1; 
 ALTER TABLE users AUTO_INCREMENT = 1; 
@@ -9,8 +9,12 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 
 import org.hibernate.annotations.Type;
@@ -27,10 +31,61 @@ import javax.persistence.JoinColumn;
  */
 
 @Entity
-@Table(name = "community")
+@Table(name = "community", indexes = {
+		// table pages ordered by name, see CommunityDAO#findPage
+		@Index(name = "idx_community_name", columnList = "name") })
+@NamedQueries({
+	@NamedQuery(name = Community.FIND_ALL, query = "SELECT c FROM Community c"),
+	@NamedQuery(name = Community.DELETE_BY_IDS, query = "DELETE FROM Community c WHERE c.id IN :ids"),
+	@NamedQuery(name = Community.FIND_BY_NAME, query = "SELECT c FROM Community c WHERE c.name = :name"),
+	@NamedQuery(name = Community.FIND_BY_STATE, query = "SELECT c FROM Community c WHERE c.state.id = :stateId"),
+	// pages of a state in primary key order, continued after the last id; runs on the
+	// enumeration_id index, InnoDB appends the primary key to secondary indexes
+	@NamedQuery(name = Community.FIND_PAGE_BY_STATE, query = "SELECT c FROM Community c WHERE c.state.id = :stateId"
+			+ " ORDER BY c.id"),
+	@NamedQuery(name = Community.FIND_PAGE_BY_STATE_AFTER, query = "SELECT c FROM Community c WHERE c.state.id = :stateId"
+			+ " AND c.id > :lastId ORDER BY c.id"),
+	// table pages filtered by a name prefix, one query per sort order; ties are broken by id
+	@NamedQuery(name = Community.FIND_BY_STATES_ORDER_BY_ID, query = Community.BY_STATES + " ORDER BY c.id"),
+	@NamedQuery(name = Community.FIND_BY_STATES_ORDER_BY_ID_DESC, query = Community.BY_STATES + " ORDER BY c.id DESC"),
+	@NamedQuery(name = Community.FIND_BY_STATES_ORDER_BY_NAME, query = Community.BY_STATES
+			+ " ORDER BY c.name, c.id"),
+	@NamedQuery(name = Community.FIND_BY_STATES_ORDER_BY_NAME_DESC, query = Community.BY_STATES
+			+ " ORDER BY c.name DESC, c.id DESC"),
+	@NamedQuery(name = Community.COUNT_BY_STATES, query = "SELECT COUNT(c) FROM Community c"
+			+ " WHERE c.state.id IN :stateIds AND c.name LIKE :name ESCAPE '!'"),
+	@NamedQuery(name = Community.FIND_PICTURE_HASH, query = "SELECT c.pictureHash FROM Community c WHERE c.id = :id"),
+	@NamedQuery(name = Community.FIND_PICTURE, query = "SELECT c.picture FROM Community c WHERE c.id = :id"),
+	// both run on the (users_id, community_id) index of user_community, see User#communities
+	@NamedQuery(name = Community.FIND_BY_MEMBER, query = "SELECT c FROM User u JOIN u.communities c"
+			+ " WHERE u.id = :userId ORDER BY c.id") })
+@NamedNativeQuery(name = Community.IS_MEMBER, query = "SELECT 1 FROM user_community"
+		+ " WHERE users_id = ?1 AND community_id = ?2")
 public class Community implements Serializable {
 
 	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see DAOImplTemplate and CommunityDAOImpl
+	 */
+	public static final String FIND_ALL = "Community.findAll";
+	public static final String DELETE_BY_IDS = "Community.deleteByIds";
+	public static final String FIND_BY_NAME = "Community.findByName";
+	public static final String FIND_BY_STATE = "Community.findByState";
+	public static final String FIND_PAGE_BY_STATE = "Community.findPageByState";
+	public static final String FIND_PAGE_BY_STATE_AFTER = "Community.findPageByStateAfter";
+	public static final String FIND_BY_STATES_ORDER_BY_ID = "Community.findByStatesOrderById";
+	public static final String FIND_BY_STATES_ORDER_BY_ID_DESC = "Community.findByStatesOrderByIdDesc";
+	public static final String FIND_BY_STATES_ORDER_BY_NAME = "Community.findByStatesOrderByName";
+	public static final String FIND_BY_STATES_ORDER_BY_NAME_DESC = "Community.findByStatesOrderByNameDesc";
+	public static final String COUNT_BY_STATES = "Community.countByStates";
+	public static final String FIND_BY_MEMBER = "Community.findByMember";
+	public static final String IS_MEMBER = "Community.isMember";
+	public static final String FIND_PICTURE_HASH = "Community.findPictureHash";
+	public static final String FIND_PICTURE = "Community.findPicture";
+	static final String BY_STATES = "SELECT c FROM Community c WHERE c.state.id IN :stateIds"
+			+ " AND c.name LIKE :name ESCAPE '!'";
+
 	private static final int MAX_TEXT_LENGTH = 65535;
 	private static final String MAX_TEXT_LENGTH_ERROR = "The given text is to long for field description. Max length = "
 			+ MAX_TEXT_LENGTH;
@@ -110,6 +165,17 @@ public class Community implements Serializable {
 
 	public void setPicture(byte[] picture) {
 		this.picture = picture;
+		this.pictureHash = PictureHash.of(picture);
+	}
+
+	/**
+	 * content hash of the picture, see PictureHash. Null if there is no picture
+	 */
+	@Column(name = "picture_hash", length = PictureHash.LENGTH)
+	private String pictureHash;
+
+	public String getPictureHash() {
+		return pictureHash;
 	}
 
 	/**
@@ -155,7 +221,8 @@ public class Community implements Serializable {
 		if (state == null)
 			throw new IllegalArgumentException();
 
-		state.setCom(this);
+		// no back reference: coms is the inverse side and never written, and
+		// shared Enumerations would collect every community passing through
 		this.state = state;
 	}
 
@@ -1,19 +1,22 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Root;
 
 import org.se.lab.service.dao.CommunityDAO;
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.hibernate.Hibernate;
 
 public class CommunityDAOImpl extends DAOImplTemplate<Community> implements CommunityDAO{
-	private final Logger LOG = Logger.getLogger(CommunityDAOImpl.class);
+	private static final Log LOG = Log.get(CommunityDAOImpl.class);
+
+	// ids of the community states in the enumeration table
+	private static final int PENDING = 1;
+	private static final int APPROVED = 2;
 	
 	/*
 	 * class constructor
@@ -28,17 +31,15 @@ public class CommunityDAOImpl extends DAOImplTemplate<Community> implements Comm
 	
 	@Override
 	public Community findById(int id) {
-		LOG.info("findById(int " + id + ")");
+		LOG.info("findById(int {})", id);
 		Community c  = em.find(Community.class, id);
 		return initializeCom(c);
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Community> findAll() {
 		LOG.info("findAll()");
-		final String hql = "SELECT c FROM " + Community.class.getName() + " AS c";
-		List<Community> coms = em.createQuery(hql).getResultList();
+		List<Community> coms = super.findAll();
 		for(Community c : coms) {
 			initializeCom(c);
 		}
@@ -47,14 +48,11 @@ public class CommunityDAOImpl extends DAOImplTemplate<Community> implements Comm
 	
 	@Override
 	public Community findByName(String name) {
-		LOG.info("findByName(name = " + name + ")");
-		CriteriaBuilder builder = em.getCriteriaBuilder();
-		CriteriaQuery<Community> criteria = builder.createQuery(Community.class);
-		Root<Community> community = criteria.from(Community.class);
-		criteria.where(builder.equal(community.get("name"), name));
-		TypedQuery<Community> query = em.createQuery(criteria);
+		LOG.info("findByName(name = {})", name);
 		try {
-			Community c = query.getSingleResult();
+			Community c = em.createNamedQuery(Community.FIND_BY_NAME, Community.class)
+					.setParameter("name", name)
+					.getSingleResult();
 			return initializeCom(c);
 		} catch (NoResultException e) {
 			return null;
@@ -64,44 +62,60 @@ public class CommunityDAOImpl extends DAOImplTemplate<Community> implements Comm
 	@Override
 	public List<Community> findPendingCommunities() {
 		LOG.info("findPendingCommunites()");
-		CriteriaBuilder builder = em.getCriteriaBuilder();
-		CriteriaQuery<Community> criteria = builder.createQuery(Community.class);
-		Root<Community> community = criteria.from(Community.class);
-		criteria.where(builder.equal(community.get("state"), new Enumeration(1)));
-		TypedQuery<Community> query = em.createQuery(criteria);
-		try {
-			List <Community> coms = query.getResultList();
-			for(Community c : coms) {
-				initializeCom(c);
-			}
-			return coms;
-		} catch (NoResultException e) {
-			return null;
-		}
+		return findByState(PENDING);
 	}
 
 	@Override
 	public List<Community> findApprovedCommunities() {
 		LOG.info("findApprovedCommunites()");
-		CriteriaBuilder builder = em.getCriteriaBuilder();
-		CriteriaQuery<Community> criteria = builder.createQuery(Community.class);
-		Root<Community> community = criteria.from(Community.class);
-		criteria.where(builder.equal(community.get("state"), new Enumeration(2)));
-		TypedQuery<Community> query = em.createQuery(criteria);
-		try {
-			List <Community> coms = query.getResultList();
-			for(Community c : coms) {
-				initializeCom(c);
-			}
-			return coms;
-		} catch (NoResultException e) {
-			return null;
-		}
+		return findByState(APPROVED);
+	}
+
+	@Override
+	public Page<Community> findApprovedPage(int lastId, int pageSize) {
+		LOG.debug("findApprovedPage(lastId = {}, pageSize = {})", lastId, pageSize);
+		TypedQuery<Community> query = lastId > 0
+				? em.createNamedQuery(Community.FIND_PAGE_BY_STATE_AFTER, Community.class).setParameter("lastId", lastId)
+				: em.createNamedQuery(Community.FIND_PAGE_BY_STATE, Community.class);
+		List<Community> rows = query.setParameter("stateId", APPROVED)
+				.setMaxResults(pageSize + 1)
+				.getResultList();
+		if (rows.size() <= pageSize)
+			return new Page<Community>(rows, null);
+		List<Community> items = new ArrayList<Community>(rows.subList(0, pageSize));
+		return new Page<Community>(items, String.valueOf(items.get(pageSize - 1).getId()));
+	}
+
+	@Override
+	public List<Community> findPage(Collection<Integer> stateIds, String namePrefix, String sortField,
+			boolean descending, int first, int pageSize) {
+		LOG.debug("findPage(stateIds = {}, namePrefix = {}, sortField = {}, descending = {}, first = {}, pageSize = {})",
+				stateIds, namePrefix, sortField, descending, first, pageSize);
+		String query;
+		if ("name".equals(sortField))
+			query = descending ? Community.FIND_BY_STATES_ORDER_BY_NAME_DESC : Community.FIND_BY_STATES_ORDER_BY_NAME;
+		else
+			query = descending ? Community.FIND_BY_STATES_ORDER_BY_ID_DESC : Community.FIND_BY_STATES_ORDER_BY_ID;
+		return em.createNamedQuery(query, Community.class)
+				.setParameter("stateIds", stateIds)
+				.setParameter("name", startsWith(namePrefix))
+				.setFirstResult(first)
+				.setMaxResults(pageSize)
+				.getResultList();
+	}
+
+	@Override
+	public long count(Collection<Integer> stateIds, String namePrefix) {
+		LOG.debug("count(stateIds = {}, namePrefix = {})", stateIds, namePrefix);
+		return em.createNamedQuery(Community.COUNT_BY_STATES, Long.class)
+				.setParameter("stateIds", stateIds)
+				.setParameter("name", startsWith(namePrefix))
+				.getSingleResult();
 	}
 
 	@Override
 	public Community createCommunity(String name, String description) {
-		LOG.info("createCommunity(name = "+ name +", description = "+ description + ")");
+		LOG.info("createCommunity(name = {}, description = {})", name, description);
 		Community c = new Community();
 		c.setName(name);
 		c.setDescription(description);
@@ -112,6 +126,25 @@ public class CommunityDAOImpl extends DAOImplTemplate<Community> implements Comm
 	}
 	
 	
+	@Override
+	public List<Community> findByMember(int userId) {
+		LOG.info("findByMember(userId = {})", userId);
+		return em.createNamedQuery(Community.FIND_BY_MEMBER, Community.class)
+				.setParameter("userId", userId)
+				.getResultList();
+	}
+
+	@Override
+	public boolean isMember(int userId, int communityId) {
+		LOG.debug("isMember(userId = {}, communityId = {})", userId, communityId);
+		return !em.createNamedQuery(Community.IS_MEMBER)
+				.setParameter(1, userId)
+				.setParameter(2, communityId)
+				.setMaxResults(1)
+				.getResultList()
+				.isEmpty();
+	}
+	
 	private Enumeration getValidEnumeration(Enumeration find) {
 		if (find != null )
 			return find;
@@ -123,10 +156,19 @@ public class CommunityDAOImpl extends DAOImplTemplate<Community> implements Comm
 	/*
 	 * helper
 	 */
+	private List<Community> findByState(int stateId) {
+		List<Community> coms = em.createNamedQuery(Community.FIND_BY_STATE, Community.class)
+				.setParameter("stateId", stateId)
+				.getResultList();
+		for (Community c : coms) {
+			initializeCom(c);
+		}
+		return coms;
+	}
+
 	private Community initializeCom(Community c) {
 		Hibernate.initialize(c.getState());
 		Hibernate.initialize(c.getUsers());
 		return c;
 	}
-	
 }
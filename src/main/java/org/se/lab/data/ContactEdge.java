@@ -0,0 +1,38 @@
+package org.se.lab.data;
+
+/**
+ * One row of the contact table, loaded with a constructor expression to build
+ * the contact graph without loading UserContact and User entities.
+ */
+public final class ContactEdge {
+
+	private final int id;
+	private final int userId;
+	private final int contactId;
+
+	public ContactEdge(Integer id, Integer userId, Integer contactId) {
+		this.id = id;
+		this.userId = userId;
+		this.contactId = contactId;
+	}
+
+	/**
+	 * @return id of the UserContact, the key to page by
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public int getContactId() {
+		return contactId;
+	}
+
+	@Override
+	public String toString() {
+		return "ContactEdge [id=" + id + ", userId=" + userId + ", contactId=" + contactId + "]";
+	}
+}
@@ -0,0 +1,257 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+
+/**
+ *
+ * The private messages between two users, whoever sent them. The pair is
+ * stored ordered, the lower user id first, so there is one conversation per
+ * pair of users.
+ *
+ * The conversation keeps the position of its latest message, which orders
+ * the inbox, and a read mark per participant: the id of the latest message
+ * the participant has seen. Message ids ascend, so every message with a
+ * higher id is unread.
+ *
+ */
+@Entity
+@Table(name = "conversation",
+		uniqueConstraints = @UniqueConstraint(name = "uk_conversation_users", columnNames = { "fk_user_id_low", "fk_user_id_high" }),
+		indexes = {
+		// inbox of either participant, latest message first, see PrivateMessageDAO
+		@Index(name = "idx_conversation_low_last", columnList = "fk_user_id_low, last_message_at, id"),
+		@Index(name = "idx_conversation_high_last", columnList = "fk_user_id_high, last_message_at, id") })
+@NamedQueries({
+	@NamedQuery(name = Conversation.FIND_ALL, query = "SELECT c FROM Conversation c"),
+	@NamedQuery(name = Conversation.DELETE_BY_IDS, query = "DELETE FROM Conversation c WHERE c.id IN :ids"),
+	@NamedQuery(name = Conversation.FIND_BY_USERS, query = "SELECT c FROM Conversation c"
+			+ " WHERE c.lowUserId = :lowUserId AND c.highUserId = :highUserId"),
+	// Keyset pagination, served by the (fk_user_id_low|fk_user_id_high, last_message_at, id) indexes
+	@NamedQuery(name = Conversation.FIND_PAGE_BY_LOW_USER, query = Conversation.BY_LOW_USER + Conversation.PAGE_ORDER),
+	@NamedQuery(name = Conversation.FIND_PAGE_BY_LOW_USER_AFTER,
+			query = Conversation.BY_LOW_USER + Conversation.PAGE_AFTER + Conversation.PAGE_ORDER),
+	@NamedQuery(name = Conversation.FIND_PAGE_BY_HIGH_USER, query = Conversation.BY_HIGH_USER + Conversation.PAGE_ORDER),
+	@NamedQuery(name = Conversation.FIND_PAGE_BY_HIGH_USER_AFTER,
+			query = Conversation.BY_HIGH_USER + Conversation.PAGE_AFTER + Conversation.PAGE_ORDER) })
+// First message of a pair: a concurrent first message waits for this row and skips its own
+@NamedNativeQuery(name = Conversation.INSERT_IF_ABSENT, query = "INSERT IGNORE INTO conversation"
+		+ " (fk_user_id_low, fk_user_id_high, last_message_at, last_message_id, read_message_id_low, read_message_id_high)"
+		+ " VALUES (?1, ?2, ?3, 0, 0, 0)")
+public class Conversation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see DAOImplTemplate and PrivateMessageDAOImpl
+	 */
+	public static final String FIND_ALL = "Conversation.findAll";
+	public static final String DELETE_BY_IDS = "Conversation.deleteByIds";
+	public static final String FIND_BY_USERS = "Conversation.findByUsers";
+	public static final String INSERT_IF_ABSENT = "Conversation.insertIfAbsent";
+	public static final String FIND_PAGE_BY_LOW_USER = "Conversation.findPageByLowUser";
+	public static final String FIND_PAGE_BY_LOW_USER_AFTER = "Conversation.findPageByLowUserAfter";
+	public static final String FIND_PAGE_BY_HIGH_USER = "Conversation.findPageByHighUser";
+	public static final String FIND_PAGE_BY_HIGH_USER_AFTER = "Conversation.findPageByHighUserAfter";
+
+	static final String BY_LOW_USER = "SELECT c FROM Conversation c WHERE c.lowUserId = :userId";
+	static final String BY_HIGH_USER = "SELECT c FROM Conversation c WHERE c.highUserId = :userId";
+	static final String PAGE_ORDER = " ORDER BY c.lastMessageAt DESC, c.id DESC";
+	static final String PAGE_AFTER = " AND (c.lastMessageAt < :created OR (c.lastMessageAt = :created AND c.id < :lastId))";
+
+	/**
+	 * Inbox order: latest message first, on equal time the higher id first
+	 */
+	public static final Comparator<Conversation> LATEST_FIRST = Comparator
+			.comparing(Conversation::getLastMessageAt).thenComparingInt(Conversation::getId).reversed();
+
+	// Exception messages
+	private static final String ID_INVALID_ERROR = "The given id is less than 1";
+	private static final String CREATED_NULL_ERROR = "The given created timestamp must not be null";
+	private static final String MESSAGE_INVALID_ERROR = "The given message does not belong to this conversation";
+	private static final String PARTICIPANT_INVALID_ERROR = "The given user does not take part in this conversation";
+
+	/**
+	 * @param userId
+	 * @param otherId
+	 * @param created time of the first message
+	 *
+	 * @throws IllegalArgumentException.class if an id is less than 1 or created is null
+	 */
+	public Conversation(int userId, int otherId, Date created) {
+		if (userId < 1 || otherId < 1)
+			throw new IllegalArgumentException(ID_INVALID_ERROR);
+		if (created == null)
+			throw new IllegalArgumentException(CREATED_NULL_ERROR);
+		this.lowUserId = Math.min(userId, otherId);
+		this.highUserId = Math.max(userId, otherId);
+		this.lastMessageAt = created;
+	}
+
+	/**
+	 * Constructor for Hibernate
+	 */
+	protected Conversation() {
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private int id;
+
+	public int getId() {
+		return id;
+	}
+
+	@Column(name = "fk_user_id_low", nullable = false)
+	private int lowUserId;
+
+	public int getLowUserId() {
+		return lowUserId;
+	}
+
+	@Column(name = "fk_user_id_high", nullable = false)
+	private int highUserId;
+
+	public int getHighUserId() {
+		return highUserId;
+	}
+
+	@Column(name = "last_message_at", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date lastMessageAt;
+
+	public Date getLastMessageAt() {
+		return lastMessageAt;
+	}
+
+	@Column(name = "last_message_id", nullable = false)
+	private int lastMessageId;
+
+	public int getLastMessageId() {
+		return lastMessageId;
+	}
+
+	@Column(name = "read_message_id_low", nullable = false)
+	private int lowReadMessageId;
+
+	@Column(name = "read_message_id_high", nullable = false)
+	private int highReadMessageId;
+
+	/*
+	 * Participants
+	 */
+
+	public boolean hasParticipant(int userId) {
+		return userId == lowUserId || userId == highUserId;
+	}
+
+	/**
+	 * @param userId participant
+	 * @return (int) id of the other participant
+	 *
+	 * @throws IllegalArgumentException.class if the user takes no part
+	 */
+	public int getOtherUserId(int userId) {
+		checkParticipant(userId);
+		return userId == lowUserId ? highUserId : lowUserId;
+	}
+
+	/**
+	 * @param userId participant
+	 * @return (int) id of the latest message the participant has read, 0 if none
+	 *
+	 * @throws IllegalArgumentException.class if the user takes no part
+	 */
+	public int getReadMessageId(int userId) {
+		checkParticipant(userId);
+		return userId == lowUserId ? lowReadMessageId : highReadMessageId;
+	}
+
+	/**
+	 * @param userId participant
+	 * @return (boolean) true if the latest message is unread by the participant
+	 */
+	public boolean isUnread(int userId) {
+		return lastMessageId > getReadMessageId(userId);
+	}
+
+	/**
+	 * Moves the read mark of the participant forward, never back
+	 *
+	 * @param userId participant
+	 * @param messageId latest message seen
+	 *
+	 * @throws IllegalArgumentException.class if the user takes no part
+	 */
+	public void markRead(int userId, int messageId) {
+		checkParticipant(userId);
+		if (userId == lowUserId)
+			lowReadMessageId = Math.max(lowReadMessageId, messageId);
+		if (userId == highUserId)
+			highReadMessageId = Math.max(highReadMessageId, messageId);
+	}
+
+	/**
+	 * Records a persisted message as latest message, unless a later one is
+	 * known, and marks it read by its sender
+	 *
+	 * @param message
+	 *
+	 * @throws IllegalArgumentException.class if the message belongs to another conversation
+	 */
+	public void messageAdded(PrivateMessage message) {
+		if (message.getConversation() != this)
+			throw new IllegalArgumentException(MESSAGE_INVALID_ERROR);
+		if (lastMessageId == 0 || !message.getCreated().before(lastMessageAt)) {
+			lastMessageAt = message.getCreated();
+			lastMessageId = message.getID();
+		}
+		markRead(message.getUserSender().getId(), message.getID());
+	}
+
+	private void checkParticipant(int userId) {
+		if (!hasParticipant(userId))
+			throw new IllegalArgumentException(PARTICIPANT_INVALID_ERROR);
+	}
+
+	/*
+	 * Object methods
+	 */
+
+	@Override
+	public int hashCode() {
+		return 31 * lowUserId + highUserId;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		Conversation other = (Conversation) obj;
+		return lowUserId == other.lowUserId && highUserId == other.highUserId;
+	}
+
+	@Override
+	public String toString() {
+		return "Conversation [id=" + id + ", users=" + lowUserId + "/" + highUserId + ", lastMessageAt="
+				+ lastMessageAt + ", lastMessageId=" + lastMessageId + "]";
+	}
+}
@@ -1,11 +1,23 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.BiConsumer;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.se.lab.service.dao.DAOTemplate;
 
+/**
+ * CRUD and bulk methods of the DAOs. Every entity E declares the named queries
+ * "E.findAll" and "E.deleteByIds" (with the parameter ids) used here; the
+ * DAOs run named queries only, which Hibernate parses once at boot.
+ * insertInBatches is reserved to the DAOs of entities with pooled ids.
+ */
 public abstract class DAOImplTemplate<E> implements DAOTemplate<E> {
 	/*
 	 * Constructor injection
@@ -13,6 +25,10 @@ public abstract class DAOImplTemplate<E> implements DAOTemplate<E> {
 	@PersistenceContext
 	protected EntityManager em;
 
+	// named queries every entity declares
+	private static final String FIND_ALL = "findAll";
+	private static final String DELETE_BY_IDS = "deleteByIds";
+
 	public DAOImplTemplate() {}
 	
 	/**
@@ -54,10 +70,105 @@ public abstract class DAOImplTemplate<E> implements DAOTemplate<E> {
 		return em.find(getEntityClass(), id);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<E> findAll() {
-		final String hql = "SELECT u FROM " + getEntityClass().getName() + " AS u";
-		return em.createQuery(hql).getResultList();
+		return em.createNamedQuery(queryName(FIND_ALL), getEntityClass()).getResultList();
+	}
+
+	/*
+	 * Bulk methods
+	 */
+
+	@Override
+	public void updateAll(Collection<E> entities, int batchSize) {
+		writeInBatches(entities, batchSize, StatelessSession::update);
+	}
+
+	@Override
+	public int deleteByIds(Collection<Integer> ids, int batchSize) {
+		checkBatchSize(batchSize);
+		String deleteByIds = queryName(DELETE_BY_IDS);
+		List<Integer> all = new ArrayList<Integer>(ids);
+		int deleted = 0;
+		try (StatelessSession session = openStatelessSession()) {
+			for (int from = 0; from < all.size(); from += batchSize) {
+				List<Integer> chunk = all.subList(from, Math.min(from + batchSize, all.size()));
+				deleted += session.getNamedQuery(deleteByIds).setParameterList("ids", chunk).executeUpdate();
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Inserts all given entities, batchSize rows per round trip, for the
+	 * insertAll of DAOs whose entity has pooled ids
+	 * @param entities
+	 * @param batchSize
+	 * @return (List<E>) the inserted entities, ids assigned
+	 */
+	protected List<E> insertInBatches(Collection<E> entities, int batchSize) {
+		writeInBatches(entities, batchSize, (session, entity) -> {
+			beforeInsert(entity);
+			session.insert(entity);
+		});
+		return new ArrayList<E>(entities);
+	}
+
+	/**
+	 * Called by insertInBatches right before each entity is written.
+	 * The StatelessSession does not run JPA lifecycle callbacks.
+	 * @param entity
+	 */
+	protected void beforeInsert(E entity) {
+	}
+
+	/**
+	 * LIKE pattern matching all values starting with the given prefix, for
+	 * queries declaring ESCAPE '!'
+	 * @param prefix null or empty matches every value
+	 * @return (String) prefix with !, % and _ escaped, followed by %
+	 */
+	protected static String startsWith(String prefix) {
+		if (prefix == null)
+			return "%";
+		return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+	}
+
+	/*
+	 * Runs the writes on the connection of the current EntityManager, so they
+	 * join its transaction. The JDBC batch is sent every batchSize entities;
+	 * ids only come from the pooled generator, IDENTITY ids disable batching.
+	 */
+	private void writeInBatches(Collection<E> entities, int batchSize, BiConsumer<StatelessSession, E> write) {
+		checkBatchSize(batchSize);
+		try (StatelessSession session = openStatelessSession()) {
+			int count = 0;
+			for (E entity : entities) {
+				write.accept(session, entity);
+				if (++count % batchSize == 0)
+					executeBatch(session);
+			}
+			executeBatch(session);
+		}
+	}
+
+	private String queryName(String query) {
+		return getEntityClass().getSimpleName() + "." + query;
+	}
+
+	private StatelessSession openStatelessSession() {
+		// pending changes of the persistence context must hit the database first
+		em.flush();
+		Session session = em.unwrap(Session.class);
+		return session.getSessionFactory().openStatelessSession(((SessionImplementor) session).connection());
+	}
+
+	private static void executeBatch(StatelessSession session) {
+		((SessionImplementor) session).getJdbcCoordinator().executeBatch();
+	}
+
+	private static void checkBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("The given batch size is less than 1");
 	}
 }
@@ -4,6 +4,7 @@ import javax.persistence.*;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -16,9 +17,20 @@ import java.util.List;
 
 @Entity
 @Table(name = "enumeration")
+@NamedQueries({
+	@NamedQuery(name = Enumeration.FIND_ALL, query = "SELECT e FROM Enumeration e"),
+	@NamedQuery(name = Enumeration.DELETE_BY_IDS, query = "DELETE FROM Enumeration e WHERE e.id IN :ids"),
+	@NamedQuery(name = Enumeration.FIND_REFERENCES, query = "SELECT e.id, e.name FROM Enumeration e ORDER BY e.id") })
 public class Enumeration implements Serializable {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Named queries, see DAOImplTemplate and EnumerationDAOImpl
+	 */
+	public static final String FIND_ALL = "Enumeration.findAll";
+	public static final String DELETE_BY_IDS = "Enumeration.deleteByIds";
+	public static final String FIND_REFERENCES = "Enumeration.findReferences";
+
 	/**
 	 * constructor for Hibernate
 	 */
@@ -32,6 +44,24 @@ public class Enumeration implements Serializable {
 		setId(id);
 	}
 
+	/**
+	 * Detached Enumeration carrying only id and name, with empty unmodifiable
+	 * collections. Can be shared between threads and used as the target of
+	 * associations, e.g. Community#setState, but not to change its own.
+	 * @param id
+	 * @param name
+	 * @return (Enumeration) reference
+	 */
+	public static Enumeration reference(int id, String name) {
+		Enumeration e = new Enumeration(id);
+		e.setName(name);
+		e.userroles = Collections.emptyList();
+		e.coms = Collections.emptyList();
+		e.liked = Collections.emptyList();
+		e.likedby = Collections.emptyList();
+		return e;
+	}
+
 	/**
 	 * unique identifier for the enumeration. Auto-generated/incremented by database
 	 */
@@ -111,11 +141,13 @@ public class Enumeration implements Serializable {
 
 	/*
 	 * Like (Post,User,Enumeration) Post Column
+	 * Legacy: both columns are written independently, new likes use the Like entity
 	 */
+	@Deprecated
 	@ManyToMany
 	@JoinTable(name = "likes", 
 			joinColumns = @JoinColumn(name = "enumeration_id", referencedColumnName = "id"), 
-			inverseJoinColumns = @JoinColumn(name = "post_id"))
+			inverseJoinColumns = @JoinColumn(name = "post_id", columnDefinition = "INT"))
 	
 	private List<Post> liked = new ArrayList<Post>();
 
@@ -135,7 +167,9 @@ public class Enumeration implements Serializable {
 	
 	/*
 	 * Like (Post,User,Enumeration) User Column
+	 * Legacy, see above
 	 */
+	@Deprecated
 	@ManyToMany
 	@JoinTable(name = "likes", joinColumns = @JoinColumn(name = "enumeration_id", referencedColumnName = "id"), 
 			   inverseJoinColumns = @JoinColumn(name = "user_id"))
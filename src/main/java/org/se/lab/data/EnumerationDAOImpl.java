@@ -1,29 +1,30 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.EnumerationDAO;
 
 public class EnumerationDAOImpl extends DAOImplTemplate<Enumeration> implements EnumerationDAO {
 
-	private final Logger LOG = Logger.getLogger(EnumerationDAOImpl.class);
+	private static final Log LOG = Log.get(EnumerationDAOImpl.class);
 
 	@Override
 	public Enumeration insert(Enumeration enumeration) {
-		LOG.info("insert(" + enumeration + ")");
+		LOG.info("insert({})", enumeration);
 		return super.insert(enumeration);
 	}
 
 	@Override
 	public Enumeration update(Enumeration enumeration) {
-		LOG.info("update(" + enumeration + ")");
+		LOG.info("update({})", enumeration);
 		return super.update(enumeration);
 	}
 
 	@Override
 	public void delete(Enumeration enumeration) {
-		LOG.info("delete(" + enumeration + ")");
+		LOG.info("delete({})", enumeration);
 		super.delete(enumeration);
 	}
 	
@@ -64,7 +65,7 @@ public class EnumerationDAOImpl extends DAOImplTemplate<Enumeration> implements
 	
 	@Override
 	public Enumeration findById(int id) {
-		LOG.info("findById(" + id + ")");       
+		LOG.info("findById({})", id);       
         return super.findById(id);
 	}
 
@@ -74,6 +75,16 @@ public class EnumerationDAOImpl extends DAOImplTemplate<Enumeration> implements
         return super.findAll();		
 	}
 
+	@Override
+	public List<Enumeration> findAllReferences() {
+		LOG.info("findAllReferences()");
+		List<Enumeration> references = new ArrayList<Enumeration>();
+		for (Object[] row : em.createNamedQuery(Enumeration.FIND_REFERENCES, Object[].class).getResultList()) {
+			references.add(Enumeration.reference((Integer) row[0], (String) row[1]));
+		}
+		return references;
+	}
+
 	@Override
 	public List<User> findUsersByEnumeration(int id) {
 		return findById(id).getUser();
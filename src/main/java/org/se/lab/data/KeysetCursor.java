@@ -0,0 +1,139 @@
+package org.se.lab.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ *
+ * Position of the last row of a page in a (created, id) ordered result.
+ *
+ * The next page starts strictly after this position, so the database can seek
+ * into the (…, created, id) index instead of skipping over all previous rows.
+ * To clients the cursor is handed out as an opaque, URL safe token.
+ *
+ */
+public final class KeysetCursor {
+
+	private static final String SEPARATOR = ":";
+
+	// Exception messages
+	private static final String CREATED_NULL_ERROR = "The given created timestamp must not be null";
+	private static final String ID_INVALID_ERROR = "The given id is less than 1";
+	private static final String TOKEN_INVALID_ERROR = "The given continuation token is invalid";
+
+	private final long created;
+	private final int id;
+
+	public KeysetCursor(Date created, int id) {
+		if (created == null)
+			throw new IllegalArgumentException(CREATED_NULL_ERROR);
+		if (id < 1)
+			throw new IllegalArgumentException(ID_INVALID_ERROR);
+		this.created = created.getTime();
+		this.id = id;
+	}
+
+	/**
+	 * Cursor pointing at the given post
+	 *
+	 * @param post
+	 * @return (KeysetCursor) cursor
+	 */
+	public static KeysetCursor of(Post post) {
+		return new KeysetCursor(post.getCreated(), post.getId());
+	}
+
+	/**
+	 * Cursor pointing at the given private message
+	 *
+	 * @param message
+	 * @return (KeysetCursor) cursor
+	 */
+	public static KeysetCursor of(PrivateMessage message) {
+		return new KeysetCursor(message.getCreated(), message.getID());
+	}
+
+	/**
+	 * Cursor pointing at the given conversation, by its latest message
+	 *
+	 * @param conversation
+	 * @return (KeysetCursor) cursor
+	 */
+	public static KeysetCursor of(Conversation conversation) {
+		return new KeysetCursor(conversation.getLastMessageAt(), conversation.getId());
+	}
+
+	public Date getCreated() {
+		return new Date(created);
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Encodes this cursor as opaque continuation token
+	 *
+	 * @return (String) token
+	 */
+	public String encode() {
+		String raw = created + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Decodes a continuation token created by {@link #encode()}
+	 *
+	 * @param token
+	 * @return (KeysetCursor) cursor or null if token is null or empty
+	 *
+	 * @throws IllegalArgumentException.class if the token is malformed
+	 */
+	public static KeysetCursor decode(String token) {
+		if (token == null || token.isEmpty())
+			return null;
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+			int split = raw.indexOf(SEPARATOR);
+			if (split < 0)
+				throw new IllegalArgumentException(TOKEN_INVALID_ERROR);
+			long created = Long.parseLong(raw.substring(0, split));
+			int id = Integer.parseInt(raw.substring(split + 1));
+			return new KeysetCursor(new Date(created), id);
+		} catch (IllegalArgumentException e) {
+			// also covers NumberFormatException and invalid Base64
+			throw new IllegalArgumentException(TOKEN_INVALID_ERROR, e);
+		}
+	}
+
+	/*
+	 * Object methods
+	 */
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (created ^ (created >>> 32));
+		result = prime * result + id;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		KeysetCursor other = (KeysetCursor) obj;
+		return created == other.created && id == other.id;
+	}
+
+	@Override
+	public String toString() {
+		return "KeysetCursor [created=" + created + ", id=" + id + "]";
+	}
+}
@@ -0,0 +1,146 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ *
+ * Reaction of one user to one post. The primary key (post_id, user_id) makes
+ * sure a user reacts to a post at most once; the reaction itself is an
+ * Enumeration, e.g. LIKE.
+ *
+ */
+@Entity
+@IdClass(Like.Key.class)
+@Table(name = "post_like")
+@NamedQuery(name = Like.DELETE_FOR_POST, query = "DELETE FROM Like l WHERE l.postId = :postId")
+public class Like implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see LikeDAOImpl
+	 */
+	public static final String DELETE_FOR_POST = "Like.deleteForPost";
+
+	// Exception messages
+	private static final String ID_INVALID_ERROR = "The given id is less than 1";
+	private static final String REACTION_NULL_ERROR = "The given reaction must not be null";
+
+	public Like(int postId, int userId, Enumeration reaction) {
+		if (postId < 1 || userId < 1)
+			throw new IllegalArgumentException(ID_INVALID_ERROR);
+		this.postId = postId;
+		this.userId = userId;
+		setReaction(reaction);
+	}
+
+	/**
+	 * Constructor for Hibernate
+	 */
+	protected Like() {
+	}
+
+	@Id
+	@Column(name = "post_id")
+	private int postId;
+
+	public int getPostId() {
+		return postId;
+	}
+
+	@Id
+	@Column(name = "user_id")
+	private int userId;
+
+	public int getUserId() {
+		return userId;
+	}
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "enumeration_id")
+	private Enumeration reaction;
+
+	public Enumeration getReaction() {
+		return reaction;
+	}
+
+	/**
+	 * Setter for the reaction, a user may change it without a new Like
+	 * 
+	 * @param reaction
+	 * 
+	 * @throws IllegalArgumentException.class if given reaction is null
+	 */
+	public void setReaction(Enumeration reaction) {
+		if (reaction == null)
+			throw new IllegalArgumentException(REACTION_NULL_ERROR);
+		this.reaction = reaction;
+	}
+
+	/**
+	 * Composite primary key (post_id, user_id)
+	 */
+	public static class Key implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private int postId;
+		private int userId;
+
+		public Key() {
+		}
+
+		public Key(int postId, int userId) {
+			this.postId = postId;
+			this.userId = userId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * postId + userId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return postId == other.postId && userId == other.userId;
+		}
+	}
+
+	/*
+	 * Object methods
+	 */
+
+	@Override
+	public int hashCode() {
+		return 31 * postId + userId;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		Like other = (Like) obj;
+		return postId == other.postId && userId == other.userId;
+	}
+
+	@Override
+	public String toString() {
+		return "Like [postId=" + postId + ", userId=" + userId + "]";
+	}
+}
@@ -0,0 +1,60 @@
+package org.se.lab.data;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.se.lab.log.Log;
+import org.se.lab.service.dao.LikeDAO;
+
+public class LikeDAOImpl implements LikeDAO {
+
+	private static final Log LOG = Log.get(LikeDAOImpl.class);
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public LikeDAOImpl() {}
+
+	/**
+	 * Set the EntityManager for DAO
+	 * @param em
+	 */
+	public void setEntityManager(EntityManager em) {
+		this.em = em;
+	}
+
+	@Override
+	public Like find(int postId, int userId) {
+		LOG.debug("find({}, {})", postId, userId);
+		return em.find(Like.class, new Like.Key(postId, userId));
+	}
+
+	@Override
+	public Like insert(Like like) {
+		LOG.debug("insert({})", like);
+		em.persist(like);
+		em.flush();
+		return like;
+	}
+
+	@Override
+	public void delete(Like like) {
+		LOG.debug("delete({})", like);
+		em.remove(em.contains(like) ? like : em.merge(like));
+	}
+
+	@Override
+	public int deleteForPost(int postId) {
+		LOG.debug("deleteForPost({})", postId);
+		return em.createNamedQuery(Like.DELETE_FOR_POST).setParameter("postId", postId).executeUpdate();
+	}
+
+	@Override
+	public int addToLikeCount(int postId, long delta) {
+		LOG.debug("addToLikeCount({}, {})", postId, delta);
+		return em.createNamedQuery(Post.ADD_TO_LIKE_COUNT)
+				.setParameter("delta", delta)
+				.setParameter("postId", postId)
+				.executeUpdate();
+	}
+}
@@ -0,0 +1,66 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ *
+ * One page of a keyset paginated result together with the continuation token
+ * for the next page. The token is null on the last page.
+ *
+ */
+public final class Page<E> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<E> items;
+	private final String continuation;
+
+	public Page(List<E> items, String continuation) {
+		if (items == null)
+			throw new IllegalArgumentException("The given items must not be null");
+		this.items = Collections.unmodifiableList(items);
+		this.continuation = continuation;
+	}
+
+	/**
+	 * Builds a page from rows fetched with a limit of pageSize + 1. The extra
+	 * row only signals that there is a next page and is not part of the page.
+	 *
+	 * @param rows
+	 * @param pageSize
+	 * @param cursorOf
+	 *            maps the last row of the page to its cursor
+	 * @return (Page) page
+	 */
+	public static <E> Page<E> of(List<E> rows, int pageSize, Function<E, KeysetCursor> cursorOf) {
+		if (rows.size() <= pageSize)
+			return new Page<E>(new ArrayList<E>(rows), null);
+		List<E> items = new ArrayList<E>(rows.subList(0, pageSize));
+		return new Page<E>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+	}
+
+	public static <E> Page<E> empty() {
+		return new Page<E>(new ArrayList<E>(), null);
+	}
+
+	public List<E> getItems() {
+		return items;
+	}
+
+	public String getContinuation() {
+		return continuation;
+	}
+
+	public boolean hasMore() {
+		return continuation != null;
+	}
+
+	@Override
+	public String toString() {
+		return "Page [size=" + items.size() + ", continuation=" + continuation + "]";
+	}
+}
@@ -0,0 +1,118 @@
+package org.se.lab.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.se.lab.log.Log;
+import org.se.lab.service.dao.PictureDAO;
+
+public class PictureDAOImpl implements PictureDAO {
+
+	private static final Log LOG = Log.get(PictureDAOImpl.class);
+
+	private static final int BUFFER_SIZE = 8192;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public PictureDAOImpl() {}
+
+	/**
+	 * Set the EntityManager for DAO
+	 * @param em
+	 */
+	public void setEntityManager(EntityManager em) {
+		this.em = em;
+	}
+
+	@Override
+	public String findPictureHash(PictureOwner owner, int id) {
+		LOG.debug("findPictureHash({}, {})", owner, id);
+		List<String> hashes = em.createNamedQuery(owner.getHashQuery(), String.class)
+				.setParameter("id", id)
+				.getResultList();
+		return hashes.isEmpty() ? null : hashes.get(0);
+	}
+
+	@Override
+	public byte[] findPicture(PictureOwner owner, int id) {
+		LOG.debug("findPicture({}, {})", owner, id);
+		List<byte[]> pictures = em.createNamedQuery(owner.getPictureQuery(), byte[].class)
+				.setParameter("id", id)
+				.getResultList();
+		return pictures.isEmpty() ? null : pictures.get(0);
+	}
+
+	@Override
+	public String findVariantHash(PictureOwner owner, int id, PictureSize variant) {
+		LOG.debug("findVariantHash({}, {}, {})", owner, id, variant);
+		List<String> hashes = em.createNamedQuery(PictureVariant.FIND_SOURCE_HASH, String.class)
+				.setParameter("owner", owner)
+				.setParameter("id", id)
+				.setParameter("variant", variant)
+				.getResultList();
+		return hashes.isEmpty() ? null : hashes.get(0);
+	}
+
+	@Override
+	public void saveVariants(Collection<PictureVariant> variants) {
+		LOG.debug("saveVariants({} variants)", variants.size());
+		for (PictureVariant variant : variants) {
+			em.merge(variant);
+		}
+		em.flush();
+	}
+
+	@Override
+	public byte[] readPicture(PictureOwner owner, int id, PictureSize size) {
+		LOG.debug("readPicture({}, {}, {})", owner, id, size);
+		// the blob is read through the JDBC stream, never as a byte[] of the entity
+		return em.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(size == PictureSize.ORIGINAL
+					? String.format(PICTURE_SQL, owner.getTableName()) : VARIANT_SQL)) {
+				if (size == PictureSize.ORIGINAL) {
+					statement.setInt(1, id);
+				} else {
+					statement.setString(1, owner.name());
+					statement.setInt(2, id);
+					statement.setString(3, size.name());
+				}
+				try (ResultSet rs = statement.executeQuery()) {
+					if (!rs.next())
+						return null;
+					try (InputStream in = rs.getBinaryStream(1)) {
+						return in == null ? null : read(in);
+					}
+				} catch (IOException e) {
+					throw new SQLException("Can't read picture of " + owner + " " + id, e);
+				}
+			}
+		});
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	/*
+	 * JDBC statements, the blobs are streamed
+	 */
+	private static final String PICTURE_SQL = "SELECT picture FROM %s WHERE id = ?";
+	private static final String VARIANT_SQL = "SELECT data FROM picture_variant WHERE owner = ? AND owner_id = ? AND variant = ?";
+}
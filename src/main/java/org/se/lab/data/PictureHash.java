@@ -0,0 +1,42 @@
+package org.se.lab.data;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hash of a picture: the first 128 bits of its SHA-256 digest as 32
+ * lower case hex digits, the same value as LEFT(SHA2(picture, 256), 32) in
+ * MySQL. Stored next to the picture, so the image URL and its ETag change
+ * with the content and can be checked without reading the blob.
+ */
+public final class PictureHash {
+
+	public static final int LENGTH = 32;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private PictureHash() {
+	}
+
+	/**
+	 * @param picture
+	 * @return (String) hash of the picture, null if picture is null or empty
+	 */
+	public static String of(byte[] picture) {
+		if (picture == null || picture.length == 0)
+			return null;
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(picture);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+		char[] hex = new char[LENGTH];
+		for (int i = 0; i < LENGTH / 2; i++) {
+			hex[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+			hex[2 * i + 1] = HEX[digest[i] & 0xf];
+		}
+		return new String(hex);
+	}
+}
@@ -0,0 +1,43 @@
+package org.se.lab.data;
+
+/**
+ * Entities having a picture and a picture_hash column
+ */
+public enum PictureOwner {
+	PROFILE("UserProfile", "userprofile", UserProfile.FIND_PICTURE_HASH, UserProfile.FIND_PICTURE),
+	COMMUNITY("Community", "community", Community.FIND_PICTURE_HASH, Community.FIND_PICTURE);
+
+	private final String entityName;
+	private final String tableName;
+	private final String hashQuery;
+	private final String pictureQuery;
+
+	private PictureOwner(String entityName, String tableName, String hashQuery, String pictureQuery) {
+		this.entityName = entityName;
+		this.tableName = tableName;
+		this.hashQuery = hashQuery;
+		this.pictureQuery = pictureQuery;
+	}
+
+	public String getEntityName() {
+		return entityName;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * @return name of the query selecting the picture hash by :id
+	 */
+	public String getHashQuery() {
+		return hashQuery;
+	}
+
+	/**
+	 * @return name of the query selecting the picture by :id
+	 */
+	public String getPictureQuery() {
+		return pictureQuery;
+	}
+}
@@ -0,0 +1,27 @@
+package org.se.lab.data;
+
+/**
+ * Size variants of a picture. THUMB and MEDIUM are scaled down to fit into a
+ * square of maxEdge pixels and stored as PictureVariant, ORIGINAL is the
+ * uploaded picture itself.
+ */
+public enum PictureSize {
+	/** avatars and lists, 48px at 2x */
+	THUMB(96),
+	/** profile and community pages */
+	MEDIUM(300),
+	ORIGINAL(0);
+
+	private final int maxEdge;
+
+	private PictureSize(int maxEdge) {
+		this.maxEdge = maxEdge;
+	}
+
+	/**
+	 * @return (int) longest edge in pixels, 0 for ORIGINAL
+	 */
+	public int getMaxEdge() {
+		return maxEdge;
+	}
+}
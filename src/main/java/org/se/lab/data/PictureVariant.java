@@ -0,0 +1,160 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ *
+ * Scaled down copy of the picture of a UserProfile or Community, stored next
+ * to the original. sourceHash is the PictureHash of the original it was made
+ * from; a variant whose sourceHash differs from the current picture_hash is
+ * stale and gets regenerated.
+ *
+ */
+@Entity
+@IdClass(PictureVariant.Key.class)
+@Table(name = "picture_variant")
+@NamedQuery(name = PictureVariant.FIND_SOURCE_HASH, query = "SELECT v.sourceHash FROM PictureVariant v"
+		+ " WHERE v.owner = :owner AND v.ownerId = :id AND v.variant = :variant")
+public class PictureVariant implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see PictureDAOImpl
+	 */
+	public static final String FIND_SOURCE_HASH = "PictureVariant.findSourceHash";
+
+	// Exception messages
+	private static final String ID_INVALID_ERROR = "The given id is less than 1";
+	private static final String ARGUMENT_NULL_ERROR = "The given owner, variant, hash and data must not be null";
+	private static final String SIZE_INVALID_ERROR = "The original is no variant";
+
+	public PictureVariant(PictureOwner owner, int ownerId, PictureSize variant, String sourceHash, byte[] data) {
+		if (ownerId < 1)
+			throw new IllegalArgumentException(ID_INVALID_ERROR);
+		if (owner == null || variant == null || sourceHash == null || data == null)
+			throw new IllegalArgumentException(ARGUMENT_NULL_ERROR);
+		if (variant == PictureSize.ORIGINAL)
+			throw new IllegalArgumentException(SIZE_INVALID_ERROR);
+		this.owner = owner;
+		this.ownerId = ownerId;
+		this.variant = variant;
+		this.sourceHash = sourceHash;
+		this.data = data;
+	}
+
+	/**
+	 * Constructor for Hibernate
+	 */
+	protected PictureVariant() {
+	}
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(name = "owner", length = 16)
+	private PictureOwner owner;
+
+	public PictureOwner getOwner() {
+		return owner;
+	}
+
+	@Id
+	@Column(name = "owner_id")
+	private int ownerId;
+
+	public int getOwnerId() {
+		return ownerId;
+	}
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(name = "variant", length = 16)
+	private PictureSize variant;
+
+	public PictureSize getVariant() {
+		return variant;
+	}
+
+	@Column(name = "source_hash", length = PictureHash.LENGTH, nullable = false)
+	private String sourceHash;
+
+	public String getSourceHash() {
+		return sourceHash;
+	}
+
+	@Column(name = "data", columnDefinition = "mediumblob", nullable = false)
+	private byte[] data;
+
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Composite primary key (owner, owner_id, variant)
+	 */
+	public static class Key implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private PictureOwner owner;
+		private int ownerId;
+		private PictureSize variant;
+
+		public Key() {
+		}
+
+		public Key(PictureOwner owner, int ownerId, PictureSize variant) {
+			this.owner = owner;
+			this.ownerId = ownerId;
+			this.variant = variant;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * owner.ordinal() + ownerId) * 31 + variant.ordinal();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return owner == other.owner && ownerId == other.ownerId && variant == other.variant;
+		}
+	}
+
+	/*
+	 * Object methods
+	 */
+
+	@Override
+	public int hashCode() {
+		return new Key(owner, ownerId, variant).hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		PictureVariant other = (PictureVariant) obj;
+		return owner == other.owner && ownerId == other.ownerId && variant == other.variant;
+	}
+
+	@Override
+	public String toString() {
+		return "PictureVariant [owner=" + owner + ", ownerId=" + ownerId + ", variant=" + variant + ", sourceHash="
+				+ sourceHash + ", bytes=" + data.length + "]";
+	}
+}
@@ -11,26 +11,89 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
-import javax.persistence.Transient;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
+import org.hibernate.Hibernate;
 
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 
 @Entity
-@Table(name = "post")
+@Table(name = "post", indexes = {
+		// keyset pagination of user and community streams, see PostDAO
+		@Index(name = "idx_post_user_created", columnList = "fk_user_id, created, id"),
+		@Index(name = "idx_post_community_created", columnList = "fk_community_id, created, id"),
+		// whole reply trees in one query, see PostDAO#findThreadPosts
+		@Index(name = "idx_post_root_depth", columnList = "root_post_id, depth") })
+@NamedQueries({
+	@NamedQuery(name = Post.FIND_ALL, query = "SELECT p FROM Post p"),
+	@NamedQuery(name = Post.DELETE_BY_IDS, query = "DELETE FROM Post p WHERE p.id IN :ids"),
+	@NamedQuery(name = Post.FIND_BY_USER, query = Post.BY_USER),
+	@NamedQuery(name = Post.FIND_BY_COMMUNITY, query = Post.BY_COMMUNITY),
+	// Keyset pagination, served by the (fk_user_id|fk_community_id, created, id) indexes
+	@NamedQuery(name = Post.FIND_PAGE_BY_USER, query = Post.BY_USER + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_PAGE_BY_USER_AFTER, query = Post.BY_USER + Post.PAGE_AFTER + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_PAGE_BY_COMMUNITY, query = Post.BY_COMMUNITY + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_PAGE_BY_COMMUNITY_AFTER, query = Post.BY_COMMUNITY + Post.PAGE_AFTER + Post.PAGE_ORDER),
+	// Top level posts only, for the merged home feed; replies are shown below their parent
+	@NamedQuery(name = Post.FIND_ROOT_PAGE_BY_USER, query = Post.BY_USER + Post.ROOTS_ONLY + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_ROOT_PAGE_BY_USER_AFTER,
+			query = Post.BY_USER + Post.ROOTS_ONLY + Post.PAGE_AFTER + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_ROOT_PAGE_BY_COMMUNITY, query = Post.BY_COMMUNITY + Post.ROOTS_ONLY + Post.PAGE_ORDER),
+	@NamedQuery(name = Post.FIND_ROOT_PAGE_BY_COMMUNITY_AFTER,
+			query = Post.BY_COMMUNITY + Post.ROOTS_ONLY + Post.PAGE_AFTER + Post.PAGE_ORDER),
+	// Served by the primary key and the (root_post_id, depth) index
+	@NamedQuery(name = Post.FIND_THREADS, query = "SELECT p FROM Post p JOIN FETCH p.user LEFT JOIN FETCH p.community"
+			+ " WHERE (p.id IN :rootIds OR p.rootPostId IN :rootIds) AND p.depth <= :maxDepth"
+			+ " ORDER BY p.depth, p.created, p.id"),
+	@NamedQuery(name = Post.FIND_BY_IDS, query = "SELECT p FROM Post p JOIN FETCH p.user LEFT JOIN FETCH p.community"
+			+ " WHERE p.id IN :ids"),
+	@NamedQuery(name = Post.FIND_TEXTS_AFTER, query = "SELECT NEW org.se.lab.data.PostText(p.id, p.user.id, c.id, p.text)"
+			+ " FROM Post p LEFT JOIN p.community c WHERE p.id > :afterId ORDER BY p.id"),
+	@NamedQuery(name = Post.FIND_MAX_ID, query = "SELECT MAX(p.id) FROM Post p"),
+	@NamedQuery(name = Post.ADD_TO_LIKE_COUNT, query = "UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId") })
 public class Post implements Serializable {
 
 	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see DAOImplTemplate, PostDAOImpl, LikeDAOImpl and TimelineDAOImpl
+	 */
+	public static final String FIND_ALL = "Post.findAll";
+	public static final String DELETE_BY_IDS = "Post.deleteByIds";
+	public static final String FIND_BY_USER = "Post.findByUser";
+	public static final String FIND_BY_COMMUNITY = "Post.findByCommunity";
+	public static final String FIND_PAGE_BY_USER = "Post.findPageByUser";
+	public static final String FIND_PAGE_BY_USER_AFTER = "Post.findPageByUserAfter";
+	public static final String FIND_PAGE_BY_COMMUNITY = "Post.findPageByCommunity";
+	public static final String FIND_PAGE_BY_COMMUNITY_AFTER = "Post.findPageByCommunityAfter";
+	public static final String FIND_ROOT_PAGE_BY_USER = "Post.findRootPageByUser";
+	public static final String FIND_ROOT_PAGE_BY_USER_AFTER = "Post.findRootPageByUserAfter";
+	public static final String FIND_ROOT_PAGE_BY_COMMUNITY = "Post.findRootPageByCommunity";
+	public static final String FIND_ROOT_PAGE_BY_COMMUNITY_AFTER = "Post.findRootPageByCommunityAfter";
+	public static final String FIND_THREADS = "Post.findThreads";
+	public static final String FIND_BY_IDS = "Post.findByIds";
+	public static final String FIND_TEXTS_AFTER = "Post.findTextsAfter";
+	public static final String FIND_MAX_ID = "Post.findMaxId";
+	public static final String ADD_TO_LIKE_COUNT = "Post.addToLikeCount";
+
+	static final String BY_USER = "SELECT p FROM Post p WHERE p.user.id = :id";
+	static final String BY_COMMUNITY = "SELECT p FROM Post p WHERE p.community.id = :id";
+	static final String ROOTS_ONLY = " AND p.parentpost IS NULL";
+	static final String PAGE_ORDER = " ORDER BY p.created DESC, p.id DESC";
+	static final String PAGE_AFTER = " AND (p.created < :created OR (p.created = :created AND p.id < :lastId))";
 	
-	@Transient
-	private Logger LOG = Logger.getLogger(Post.class);
+	private static final Log LOG = Log.get(Post.class);
 
 	// Constants
 	public static final int MAX_TEXT_LENGTH = 1024;
@@ -58,13 +121,13 @@ public class Post implements Serializable {
 
 	public Post(Post parentpost, Community community, User user, String text, Date created) {
 		LOG.debug("New Post");
-		LOG.trace(
-				String.format("\t{\n\tparentpost: %s,\n\tcommunity: %s\n\tuser: %s\n\ttext: %s\n\tcreated: %s",
+		if (LOG.isTraceEnabled())
+			LOG.trace("\t{\n\tparentpost: {},\n\tcommunity: {}\n\tuser: {}\n\ttext: {}\n\tcreated: {}",
 				parentpost,
 				community,
 				user,
 				text,
-				created ));
+				created);
 		setParentpost(parentpost);
 		setCommunity(community);
 		setUser(user);
@@ -73,13 +136,17 @@ public class Post implements Serializable {
 	}
 
 	/*
-	 * Columns: id, parent_post_id, fk_community_id, fk_user_id, text, created
+	 * Columns: id, parent_post_id, root_post_id, depth, fk_community_id, fk_user_id, text, created, like_count
 	 */
 
 	// id
+	// pooled table generator: hands out 50 ids per round trip and keeps JDBC
+	// batching enabled; the column stays AUTO_INCREMENT for the SQL seed scripts
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	@Column(name = "id")
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "post_id")
+	@TableGenerator(name = "post_id", table = "id_generator", pkColumnName = "name",
+			valueColumnName = "next_value", pkColumnValue = "post", allocationSize = 50)
+	@Column(name = "id", columnDefinition = "INT NOT NULL AUTO_INCREMENT")
 	private int id;
 
 	/**
@@ -88,7 +155,7 @@ public class Post implements Serializable {
 	 * @return: (int) id
 	 */
 	public int getId() {
-		LOG.debug("getID -> " + id);
+		LOG.debug("getID -> {}", id);
 		return id;
 	}
 
@@ -100,15 +167,16 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given id less than 1
 	 */
 	public void setId(int id) {
-		LOG.debug("setId(" + id + ")");
+		LOG.debug("setId({})", id);
 		if (id < 1)
 			throw new IllegalArgumentException(ID_INVALID_ERROR);
 		this.id = id;
 	}
 
 	// parent_post_id
-	@ManyToOne(fetch = FetchType.EAGER)
-	@JoinColumn(name = "parent_post_id")
+	@ManyToOne(fetch = FetchType.LAZY)
+	// plain INT, join columns would otherwise copy AUTO_INCREMENT from the id column
+	@JoinColumn(name = "parent_post_id", columnDefinition = "INT")
 	private Post parentpost;
 
 	/**
@@ -117,7 +185,7 @@ public class Post implements Serializable {
 	 * @return (Post) parentpost
 	 */
 	public Post getParentpost() {
-		LOG.debug("getParentPost -> " + parentpost);
+		LOG.debug("getParentPost -> {}", parentpost);
 		return parentpost;
 	}
 
@@ -129,17 +197,62 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if Post is reply to itself
 	 */
 	public void setParentpost(Post parentpost) {
-		LOG.debug("setParentpost(" + parentpost + ")");
+		LOG.debug("setParentpost({})", parentpost);
 		// Parent post can be null
 		if (parentpost != null && this.id != 0 && parentpost.getId() == this.id)
 			throw new IllegalArgumentException(SELF_REFERENTIAL_ERROR);
 		this.parentpost = parentpost;
-		if (parentpost != null && !parentpost.getChildPosts().contains(this))
+		// children of a loaded parent are lazy, never load them just to add a reply
+		if (parentpost != null && Hibernate.isInitialized(parentpost.getChildPosts())
+				&& !parentpost.getChildPosts().contains(this))
 			parentpost.addChildPost(this);
 	}
 
+	// root_post_id, null for top level posts
+	@Column(name = "root_post_id")
+	private Integer rootPostId;
+
+	/**
+	 * Getter for the id of the top level post of the thread this post belongs to
+	 * 
+	 * @return (int) id of the root post, the own id for top level posts
+	 */
+	public int getRootPostId() {
+		LOG.debug("getRootPostId -> {}", rootPostId);
+		return rootPostId == null ? id : rootPostId;
+	}
+
+	// depth, 0 for top level posts
+	@Column(name = "depth", nullable = false)
+	private int depth;
+
+	/**
+	 * Getter for the depth of this post in its thread
+	 * 
+	 * @return (int) 0 for top level posts, parent depth + 1 for replies
+	 */
+	public int getDepth() {
+		LOG.debug("getDepth -> {}", depth);
+		return depth;
+	}
+
+	/**
+	 * Derives root_post_id and depth from the parent post, so a whole thread
+	 * can be loaded with one query on (root_post_id, depth)
+	 */
+	@PrePersist
+	protected void prePersist() {
+		if (parentpost == null) {
+			rootPostId = null;
+			depth = 0;
+		} else {
+			rootPostId = parentpost.getRootPostId();
+			depth = parentpost.getDepth() + 1;
+		}
+	}
+
 	// unmapped child_post
-	@OneToMany(mappedBy = "parentpost", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "parentpost", fetch = FetchType.LAZY)
 	private List<Post> children = new ArrayList<Post>();
 
 	/**
@@ -148,7 +261,7 @@ public class Post implements Serializable {
 	 * @return (List<Post>) children
 	 */
 	public List<Post> getChildPosts() {
-		LOG.debug("getChildPosts -> " + children);
+		LOG.debug("getChildPosts -> {}", children);
 		return children;
 	}
 
@@ -161,7 +274,7 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given post is null
 	 */
 	public void addChildPost(Post post) {
-		LOG.debug("addChildPost(" + post + ")");
+		LOG.debug("addChildPost({})", post);
 		if (post == null)
 			throw new IllegalArgumentException(POST_NULL_ERROR);
 		if (children.contains(post))
@@ -181,7 +294,7 @@ public class Post implements Serializable {
 	 * @return (Community) community
 	 */
 	public Community getCommunity() {
-		LOG.debug("getCommunity -> " + community);
+		LOG.debug("getCommunity -> {}", community);
 		return community;
 	}
 
@@ -193,7 +306,7 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given community is null
 	 */
 	public void setCommunity(Community community) {
-		LOG.debug("setCommunity(" + community + ")");
+		LOG.debug("setCommunity({})", community);
 		this.community = community;
 	}
 
@@ -208,7 +321,7 @@ public class Post implements Serializable {
 	 * @return (User) user
 	 */
 	public User getUser() {
-		LOG.debug("getUser -> " + user);
+		LOG.debug("getUser -> {}", user);
 		return user;
 	}
 
@@ -220,13 +333,29 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given user is null
 	 */
 	public void setUser(User user) {
-		LOG.debug("setUser(" + user + ")");
+		LOG.debug("setUser({})", user);
 		if (user == null)
 			throw new IllegalArgumentException(USER_NULL_ERROR);
 		this.user = user;
 	}
 
-	// Likes
+	// like_count, written by the LikeCounter only, never by merging a Post
+	@Column(name = "like_count", nullable = false, updatable = false)
+	private long likeCount;
+
+	/**
+	 * Getter for the number of Likes of this post as of the last flush of the
+	 * LikeCounter; loaded with the post, so counts cost no extra query
+	 * 
+	 * @return (long) likeCount
+	 */
+	public long getLikeCount() {
+		LOG.debug("getLikeCount -> {}", likeCount);
+		return likeCount;
+	}
+
+	// Likes, legacy mapping of the likes table, see Like
+	@Deprecated
 	@ManyToMany(mappedBy = "liked")
 	private List<Enumeration> likes = new ArrayList<Enumeration>();
 
@@ -236,7 +365,7 @@ public class Post implements Serializable {
 	 * @return (EnumerationItem) likes
 	 */
 	public List<Enumeration> getLikes() {
-		LOG.debug("getLikes -> " + likes);
+		LOG.debug("getLikes -> {}", likes);
 		return likes;
 	}
 
@@ -249,7 +378,7 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given Enumeration is null
 	 */
 	public void addLike(Enumeration like) {
-		LOG.debug("addLikeToPost(" + like + ")");
+		LOG.debug("addLikeToPost({})", like);
 		if (like == null)
 			throw new IllegalArgumentException(LIKE_NULL_ERROR);
 		if (!like.getLikedPosts().contains(this))
@@ -269,7 +398,7 @@ public class Post implements Serializable {
 	 * @return (String) text
 	 */
 	public String getText() {
-		LOG.debug("getText -> " + text);
+		LOG.debug("getText -> {}", text);
 		return text;
 	}
 
@@ -282,7 +411,7 @@ public class Post implements Serializable {
 	 * character limit of 1024 characters
 	 */
 	public void setText(String text) {
-		LOG.debug("setText(" + text + ")");
+		LOG.debug("setText({})", text);
 		if (text == null)
 			throw new IllegalArgumentException(TEXT_NULL_ERROR);
 		if (text.length() > MAX_TEXT_LENGTH)
@@ -301,7 +430,7 @@ public class Post implements Serializable {
 	 * @return (Date) created
 	 */
 	public Date getCreated() {
-		LOG.debug("getCreated -> " + created);
+		LOG.debug("getCreated -> {}", created);
 		return created;
 	}
 
@@ -313,7 +442,7 @@ public class Post implements Serializable {
 	 * @throws IllegalArgumentException.class if given created is null
 	 */
 	public void setCreated(Date created) {
-		LOG.debug("setCreated(" + created + ")");
+		LOG.debug("setCreated({})", created);
 		if (created == null)
 			throw new IllegalArgumentException(CREATED_NULL_ERROR);
 		this.created = created;
@@ -325,13 +454,13 @@ public class Post implements Serializable {
 
 	@Override
 	public int hashCode() {
-		LOG.debug("hashCode -> " + id);
+		LOG.debug("hashCode -> {}", id);
 		return id;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		LOG.debug(this + ".equals(" + obj + ")");
+		LOG.debug("{}.equals({})", this, obj);
 		if (this == obj)
 			return true;
 		if (obj == null)
@@ -346,8 +475,9 @@ public class Post implements Serializable {
 	@Override
 	public String toString() {
 		LOG.trace("toString");
+		// only the id of the lazy parent, toString must not load it
 		return String.format(TOSTRING_MSG, this.id, this.text, this.created, this.user, this.community,
-				this.parentpost);
+				this.parentpost == null ? null : this.parentpost.getId());
 	}
 
 	// end
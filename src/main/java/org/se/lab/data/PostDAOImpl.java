@@ -1,9 +1,14 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
-import org.apache.log4j.Logger;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.PostDAO;
 
 public class PostDAOImpl extends DAOImplTemplate<Post> implements PostDAO {
@@ -15,28 +20,28 @@ public class PostDAOImpl extends DAOImplTemplate<Post> implements PostDAO {
 	// DAOImplTemplate insert
 	@Override
 	public Post insert(Post post) {
-		LOG.debug("insert(" + post + ")");
+		LOG.debug("insert({})", post);
 		return super.insert(post);
 	}
 
 	// DAOImplTemplate update
 	@Override
 	public Post update(Post post) {
-		LOG.debug("merge(" + post + ")");
+		LOG.debug("merge({})", post);
 		return super.update(post);
 	}
 
 	// DAOImplTemplate delete
 	@Override
 	public void delete(Post post) {
-		LOG.debug("delete(" + post + ")");
+		LOG.debug("delete({})", post);
 		super.delete(post);
 	}
 	
 	// DAOImplTemplate findById
 	@Override
 	public Post findById(int id) {
-		LOG.debug("findById(" + id + ")");
+		LOG.debug("findById({})", id);
 		return super.findById(id);
 	}
 	
@@ -51,6 +56,18 @@ public class PostDAOImpl extends DAOImplTemplate<Post> implements PostDAO {
 	protected Class<Post> getEntityClass() {
 		return Post.class;
 	}
+
+	@Override
+	public List<Post> insertAll(Collection<Post> posts, int batchSize) {
+		LOG.debug("insertAll({}, {})", posts.size(), batchSize);
+		return insertInBatches(posts, batchSize);
+	}
+
+	// DAOImplTemplate insertInBatches: root and depth of replies, parents are written first
+	@Override
+	protected void beforeInsert(Post post) {
+		post.prePersist();
+	}
 	
 	/*
 	 * End DAOImplTemplate
@@ -62,21 +79,96 @@ public class PostDAOImpl extends DAOImplTemplate<Post> implements PostDAO {
 	 */
 	@Override
 	public Post insert(Post post, Community community) {
-		LOG.debug("insert(" + post + ", " + community + ")");
+		LOG.debug("insert({}, {})", post, community);
 		post.setCommunity(community);
 		return insert(post);
 	}
 
 	@Override
 	public List<Post> getPostsForUser(User user) {
-		LOG.debug("findPostsForUser(" + user + ")");
-		return super.em.createQuery(POST_FOR_USER_QUERY, Post.class).setParameter("id", user.getId()) .getResultList();
+		LOG.debug("findPostsForUser({})", user);
+		return super.em.createNamedQuery(Post.FIND_BY_USER, Post.class).setParameter("id", user.getId()) .getResultList();
 	}
 
 	@Override
 	public List<Post> getPostsForCommunity(Community community) {
-		LOG.debug("findPostsForCommunity(" + community + ")");
-		return super.em.createQuery(POST_FOR_COMMUNITY_QUERY, Post.class).setParameter("id", community.getId()) .getResultList();
+		LOG.debug("findPostsForCommunity({})", community);
+		return super.em.createNamedQuery(Post.FIND_BY_COMMUNITY, Post.class).setParameter("id", community.getId()) .getResultList();
+	}
+
+	@Override
+	public Page<Post> getPostsForUser(User user, KeysetCursor after, int pageSize) {
+		LOG.debug("getPostsForUser({}, {}, {})", user, after, pageSize);
+		return getPostsForUser(user.getId(), after, pageSize);
+	}
+
+	@Override
+	public Page<Post> getPostsForUser(int userId, KeysetCursor after, int pageSize) {
+		return findPage(Post.FIND_PAGE_BY_USER, Post.FIND_PAGE_BY_USER_AFTER, userId, after, pageSize);
+	}
+
+	@Override
+	public Page<Post> getPostsForCommunity(Community community, KeysetCursor after, int pageSize) {
+		LOG.debug("getPostsForCommunity({}, {}, {})", community, after, pageSize);
+		return findPage(Post.FIND_PAGE_BY_COMMUNITY, Post.FIND_PAGE_BY_COMMUNITY_AFTER, community.getId(), after, pageSize);
+	}
+
+	@Override
+	public Page<Post> getRootPostsForUser(int userId, KeysetCursor after, int pageSize) {
+		LOG.debug("getRootPostsForUser({}, {}, {})", userId, after, pageSize);
+		return findPage(Post.FIND_ROOT_PAGE_BY_USER, Post.FIND_ROOT_PAGE_BY_USER_AFTER, userId, after, pageSize);
+	}
+
+	@Override
+	public Page<Post> getRootPostsForCommunity(int communityId, KeysetCursor after, int pageSize) {
+		LOG.debug("getRootPostsForCommunity({}, {}, {})", communityId, after, pageSize);
+		return findPage(Post.FIND_ROOT_PAGE_BY_COMMUNITY, Post.FIND_ROOT_PAGE_BY_COMMUNITY_AFTER, communityId, after, pageSize);
+	}
+	
+	@Override
+	public List<Post> findThreadPosts(Collection<Integer> rootIds, int maxDepth) {
+		LOG.debug("findThreadPosts({}, {})", rootIds, maxDepth);
+		if (rootIds.isEmpty())
+			return new ArrayList<Post>();
+		return em.createNamedQuery(Post.FIND_THREADS, Post.class)
+				.setParameter("rootIds", rootIds)
+				.setParameter("maxDepth", maxDepth)
+				.getResultList();
+	}
+
+	@Override
+	public List<Post> findByIds(Collection<Integer> ids) {
+		LOG.debug("findByIds({})", ids);
+		if (ids.isEmpty())
+			return new ArrayList<Post>();
+		return em.createNamedQuery(Post.FIND_BY_IDS, Post.class)
+				.setParameter("ids", ids)
+				.getResultList();
+	}
+	
+	@Override
+	public List<PostText> findTextsAfter(int afterId, int maxResults) {
+		LOG.debug("findTextsAfter({}, {})", afterId, maxResults);
+		return em.createNamedQuery(Post.FIND_TEXTS_AFTER, PostText.class)
+				.setParameter("afterId", afterId)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	/*
+	 * Fetches one row more than requested to find out if there is a next page
+	 */
+	private Page<Post> findPage(String firstQuery, String afterQuery, int id, KeysetCursor after, int pageSize) {
+		TypedQuery<Post> query;
+		if (after == null) {
+			query = em.createNamedQuery(firstQuery, Post.class);
+		} else {
+			query = em.createNamedQuery(afterQuery, Post.class)
+					.setParameter("created", after.getCreated(), TemporalType.TIMESTAMP)
+					.setParameter("lastId", after.getId());
+		}
+		List<Post> rows = query.setParameter("id", id).setMaxResults(pageSize + 1).getResultList();
+		return Page.of(rows, pageSize, KeysetCursor::of);
 	}
 	
 	
@@ -104,14 +196,7 @@ public class PostDAOImpl extends DAOImplTemplate<Post> implements PostDAO {
 	/*
 	 * Logger
 	 */
-	private final Logger LOG = Logger.getLogger(PostDAOImpl.class);
-	
-	/*
-	 * Queries
-	 */
-	private static final String POST_FOR_USER_QUERY = "SELECT p FROM Post p WHERE p.user.id = :id";
-	private static final String POST_FOR_COMMUNITY_QUERY = "SELECT p FROM Post p WHERE p.community.id = :id";
-	// private static final String ALL_POST_QUERY = "SELECT p FROM Post p";
+	private static final Log LOG = Log.get(PostDAOImpl.class);
 
 
 }
@@ -0,0 +1,44 @@
+package org.se.lab.data;
+
+/**
+ * Id, author, community and text of a post, loaded with a constructor
+ * expression instead of the entity, for jobs reading every post once.
+ */
+public final class PostText {
+
+	private final int id;
+	private final int userId;
+	private final int communityId;
+	private final String text;
+
+	public PostText(Integer id, Integer userId, Integer communityId, String text) {
+		this.id = id;
+		this.userId = userId;
+		this.communityId = communityId == null ? 0 : communityId;
+		this.text = text;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return id of the community of the post, 0 if none
+	 */
+	public int getCommunityId() {
+		return communityId;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return "PostText [id=" + id + ", userId=" + userId + ", communityId=" + communityId + "]";
+	}
+}
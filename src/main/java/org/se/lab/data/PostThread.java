@@ -0,0 +1,101 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * A post together with its replies, assembled in memory from the rows of one
+ * thread query (see PostDAO#findThreadPosts).
+ *
+ */
+public final class PostThread implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Post post;
+	private final List<PostThread> replies = new ArrayList<PostThread>();
+	private int omittedReplies;
+
+	public PostThread(Post post) {
+		if (post == null)
+			throw new IllegalArgumentException("The given post must not be null");
+		this.post = post;
+	}
+
+	/**
+	 * Builds the threads of the given posts in O(n) from rows ordered by depth,
+	 * so every parent is seen before its replies. Replies beyond maxReplies of a
+	 * node are only counted, together with their whole subtree.
+	 *
+	 * @param posts
+	 *            posts to build the threads for
+	 * @param rows
+	 *            posts of the threads, ordered by depth
+	 * @param maxReplies
+	 *            maximum number of replies kept per node
+	 * @return (List<PostThread>) one thread per given post, in the same order
+	 */
+	public static List<PostThread> assemble(List<Post> posts, List<Post> rows, int maxReplies) {
+		Map<Integer, PostThread> nodes = new HashMap<Integer, PostThread>(rows.size() * 2);
+		for (Post row : rows) {
+			if (row.getParentpost() == null) {
+				nodes.put(row.getId(), new PostThread(row));
+				continue;
+			}
+			PostThread parent = nodes.get(row.getParentpost().getId());
+			if (parent == null)
+				continue; // parent was cut off by the cap
+			if (parent.replies.size() < maxReplies) {
+				PostThread node = new PostThread(row);
+				parent.replies.add(node);
+				nodes.put(row.getId(), node);
+			} else {
+				parent.omittedReplies++;
+			}
+		}
+
+		List<PostThread> threads = new ArrayList<PostThread>(posts.size());
+		for (Post post : posts) {
+			PostThread thread = nodes.get(post.getId());
+			threads.add(thread == null ? new PostThread(post) : thread);
+		}
+		return threads;
+	}
+
+	public Post getPost() {
+		return post;
+	}
+
+	public List<PostThread> getReplies() {
+		return Collections.unmodifiableList(replies);
+	}
+
+	/**
+	 * @return (List<Post>) the posts of the direct replies
+	 */
+	public List<Post> getReplyPosts() {
+		List<Post> posts = new ArrayList<Post>(replies.size());
+		for (PostThread reply : replies) {
+			posts.add(reply.post);
+		}
+		return posts;
+	}
+
+	/**
+	 * @return (int) number of direct replies left out because of the cap
+	 */
+	public int getOmittedReplies() {
+		return omittedReplies;
+	}
+
+	@Override
+	public String toString() {
+		return "PostThread [post=" + post.getId() + ", replies=" + replies.size() + ", omitted=" + omittedReplies
+				+ "]";
+	}
+}
@@ -1,29 +1,57 @@
 package org.se.lab.data;
 
 import java.io.Serializable;
+import java.util.Date;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
-import javax.persistence.Transient;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 
 
 @Entity
-@Table(name="private_message")
+@Table(name="private_message", indexes = {
+		// keyset pagination of a conversation, see PrivateMessageDAO
+		@Index(name = "idx_private_message_conversation_created", columnList = "fk_conversation_id, created, id") })
+@NamedQueries({
+	@NamedQuery(name = PrivateMessage.FIND_ALL, query = "SELECT m FROM PrivateMessage m"),
+	@NamedQuery(name = PrivateMessage.DELETE_BY_IDS, query = "DELETE FROM PrivateMessage m WHERE m.id IN :ids"),
+	// Keyset pagination, served by the (fk_conversation_id, created, id) index
+	@NamedQuery(name = PrivateMessage.FIND_PAGE_BY_CONVERSATION,
+			query = PrivateMessage.BY_CONVERSATION + PrivateMessage.PAGE_ORDER),
+	@NamedQuery(name = PrivateMessage.FIND_PAGE_BY_CONVERSATION_AFTER,
+			query = PrivateMessage.BY_CONVERSATION + PrivateMessage.PAGE_AFTER + PrivateMessage.PAGE_ORDER) })
 public class PrivateMessage implements Serializable
 {
 	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see DAOImplTemplate and PrivateMessageDAOImpl
+	 */
+	public static final String FIND_ALL = "PrivateMessage.findAll";
+	public static final String DELETE_BY_IDS = "PrivateMessage.deleteByIds";
+	public static final String FIND_PAGE_BY_CONVERSATION = "PrivateMessage.findPageByConversation";
+	public static final String FIND_PAGE_BY_CONVERSATION_AFTER = "PrivateMessage.findPageByConversationAfter";
+
+	static final String BY_CONVERSATION = "SELECT m FROM PrivateMessage m JOIN FETCH m.usersender JOIN FETCH m.userreceiver"
+			+ " WHERE m.conversation.id = :id";
+	static final String PAGE_ORDER = " ORDER BY m.created DESC, m.ID DESC";
+	static final String PAGE_AFTER = " AND (m.created < :created OR (m.created = :created AND m.ID < :lastId))";
 	
-	@Transient
-	private Logger LOG = Logger.getLogger(Post.class);
+	private static final Log LOG = Log.get(PrivateMessage.class);
 	
 	/**
 	 * Private Message Constants
@@ -41,18 +69,27 @@ public class PrivateMessage implements Serializable
 				+ MAX_TEXT_LENGTH
 				+ " characters";
 		private static final String TEXT_WHITESPACE_ERROR = "The given text must have charakters not only whitespaces";
+		private static final String CREATED_NULL_ERROR = "The given created timestamp must not be null";
+		private static final String CONVERSATION_NULL_ERROR = "The given conversation must not be null";
 	
 	public PrivateMessage(String text, User sender, User receiver )
+	{
+		this(text, sender, receiver, new Date());
+	}
+	
+	public PrivateMessage(String text, User sender, User receiver, Date created)
 	{
 		LOG.debug("New Private Message");
-		LOG.trace(
-				String.format("\t{\n\ttext: %s,\n\tsender: %s\n\treceiver:",
+		if (LOG.isTraceEnabled())
+			LOG.trace("\t{\n\ttext: {},\n\tsender: {}\n\treceiver: {}\n\tcreated: {}",
 				text,
 				sender,
-				receiver));
+				receiver,
+				created);
 		setText(text);
 		setUserSender(sender);
 		setUserReceiver(receiver);
+		setCreated(created);
 	}
 	
 	protected PrivateMessage()
@@ -95,12 +132,12 @@ public class PrivateMessage implements Serializable
 	@Column(name="text")
 	private String text;
 	public String getText() {
-		LOG.debug("getText -> " + text);
+		LOG.debug("getText -> {}", text);
 		return text;
 	}
 
 	public void setText(String text) {
-		LOG.debug("setText(" + text + ")");
+		LOG.debug("setText({})", text);
 		if (text == null)
 			throw new IllegalArgumentException(TEXT_NULL_ERROR);
 		if (text.length() > MAX_TEXT_LENGTH)
@@ -167,6 +204,59 @@ public class PrivateMessage implements Serializable
     public User getUserReceiver(){
         return userreceiver;
     }
+    
+    
+    /**
+	 * Getter for the "created" timestamp of this message
+	 * 
+	 * @return (Date) created
+	 */
+	@Column(name = "created", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date created;
+
+	public Date getCreated() {
+		return created;
+	}
+
+	/**
+	 * Setter for the "created" timestamp of this message
+	 * 
+	 * @param created
+	 * 
+	 * @throws IllegalArgumentException.class if given created is null
+	 */
+	public void setCreated(Date created) {
+		if (created == null)
+			throw new IllegalArgumentException(CREATED_NULL_ERROR);
+		this.created = created;
+	}
+	
+	
+	/**
+	 * Conversation of sender and receiver, assigned by
+	 * PrivateMessageDAO#insert if not set
+	 * 
+	 * @return (Conversation) conversation or null before the insert
+	 */
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "fk_conversation_id")
+	private Conversation conversation;
+
+	public Conversation getConversation() {
+		return conversation;
+	}
+
+	/**
+	 * @param conversation
+	 * 
+	 * @throws IllegalArgumentException.class if given conversation is null
+	 */
+	public void setConversation(Conversation conversation) {
+		if (conversation == null)
+			throw new IllegalArgumentException(CONVERSATION_NULL_ERROR);
+		this.conversation = conversation;
+	}
 	
 	
 
@@ -1,25 +1,35 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.log4j.Logger;
+import javax.persistence.LockModeType;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.PrivateMessageDAO;
 
 public class PrivateMessageDAOImpl extends DAOImplTemplate<PrivateMessage> implements PrivateMessageDAO
 {
 	
-	private final Logger LOG = Logger.getLogger(UserProfileDAOImpl.class);
+	private static final Log LOG = Log.get(PrivateMessageDAOImpl.class);
     
 
 	@Override
 	public PrivateMessage insert(PrivateMessage privatemessage) {
-		LOG.info("insert(" + privatemessage + ")");
-        return super.insert(privatemessage);
+		LOG.info("insert({})", privatemessage);
+		Conversation conversation = privatemessage.getConversation() == null
+				? lockConversation(privatemessage) : lock(privatemessage.getConversation());
+		privatemessage.setConversation(conversation);
+		super.insert(privatemessage);
+		conversation.messageAdded(privatemessage);
+		return privatemessage;
 	}
 
 	@Override
 	public void delete(PrivateMessage privatemessage) {
-		LOG.info("delete(" + privatemessage + ")");
+		LOG.info("delete({})", privatemessage);
         super.delete(privatemessage);
 	}
 
@@ -31,12 +41,129 @@ public class PrivateMessageDAOImpl extends DAOImplTemplate<PrivateMessage> imple
 
 	@Override
 	public PrivateMessage findById(int id) {
-		LOG.info("findById(" + id + ")");
+		LOG.info("findById({})", id);
         return super.findById(id);
 	}
 
+	@Override
+	public Conversation findConversation(int userId, int otherId) {
+		LOG.debug("findConversation({}, {})", userId, otherId);
+		List<Conversation> conversations = findByUsers(userId, otherId).getResultList();
+		return conversations.isEmpty() ? null : conversations.get(0);
+	}
+
+	/*
+	 * Both participant columns are paged separately, each by its own index,
+	 * and the two pages merged; a conversation with oneself is in both.
+	 */
+	@Override
+	public Page<Conversation> getConversations(int userId, KeysetCursor after, int pageSize) {
+		LOG.debug("getConversations({}, {}, {})", userId, after, pageSize);
+		List<Conversation> rows = new ArrayList<>(findConversationPage(Conversation.FIND_PAGE_BY_LOW_USER,
+				Conversation.FIND_PAGE_BY_LOW_USER_AFTER, userId, after, pageSize));
+		for (Conversation conversation : findConversationPage(Conversation.FIND_PAGE_BY_HIGH_USER,
+				Conversation.FIND_PAGE_BY_HIGH_USER_AFTER, userId, after, pageSize)) {
+			if (!rows.contains(conversation))
+				rows.add(conversation);
+		}
+		rows.sort(Conversation.LATEST_FIRST);
+		return Page.of(rows.subList(0, Math.min(rows.size(), pageSize + 1)), pageSize, KeysetCursor::of);
+	}
+
+	@Override
+	public Page<PrivateMessage> getMessages(Conversation conversation, KeysetCursor after, int pageSize) {
+		LOG.debug("getMessages({}, {}, {})", conversation, after, pageSize);
+		TypedQuery<PrivateMessage> query;
+		if (after == null) {
+			query = em.createNamedQuery(PrivateMessage.FIND_PAGE_BY_CONVERSATION, PrivateMessage.class);
+		} else {
+			query = em.createNamedQuery(PrivateMessage.FIND_PAGE_BY_CONVERSATION_AFTER, PrivateMessage.class)
+					.setParameter("created", after.getCreated(), TemporalType.TIMESTAMP)
+					.setParameter("lastId", after.getId());
+		}
+		List<PrivateMessage> rows = query.setParameter("id", conversation.getId())
+				.setMaxResults(pageSize + 1).getResultList();
+		return Page.of(rows, pageSize, KeysetCursor::of);
+	}
+
+	@Override
+	public Conversation markRead(Conversation conversation, int userId, int messageId) {
+		LOG.debug("markRead({}, {}, {})", conversation, userId, messageId);
+		Conversation locked = lock(conversation);
+		locked.markRead(userId, messageId);
+		return locked;
+	}
+
 	@Override
 	protected Class<PrivateMessage> getEntityClass() {
 		return PrivateMessage.class;
 	}
+
+	/*
+	 * Conversations: a sender and a reader of the same conversation lock its
+	 * row, so neither overwrites the latest message or read mark of the other
+	 */
+
+	private Conversation lockConversation(PrivateMessage privatemessage) {
+		int senderId = idOf(privatemessage.getUserSender());
+		int receiverId = idOf(privatemessage.getUserReceiver());
+		List<Conversation> conversations = findByUsers(senderId, receiverId)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList();
+		if (!conversations.isEmpty())
+			return conversations.get(0);
+		// A locking read of a missing row locks nothing, so two first messages
+		// of a pair would both persist one. The row is created unless present,
+		// a concurrent insert of the pair waits for the other's commit and is
+		// skipped; then both lock the same row.
+		Conversation created = new Conversation(senderId, receiverId, privatemessage.getCreated());
+		em.createNamedQuery(Conversation.INSERT_IF_ABSENT)
+				.setParameter(1, created.getLowUserId())
+				.setParameter(2, created.getHighUserId())
+				.setParameter(3, created.getLastMessageAt(), TemporalType.TIMESTAMP)
+				.executeUpdate();
+		return findByUsers(senderId, receiverId)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getSingleResult();
+	}
+
+	// current state of the conversation, locked; once locked in this
+	// transaction the managed state is current
+	private Conversation lock(Conversation conversation) {
+		if (em.contains(conversation)) {
+			if (em.getLockMode(conversation) != LockModeType.PESSIMISTIC_WRITE) {
+				em.flush();
+				em.refresh(conversation, LockModeType.PESSIMISTIC_WRITE);
+			}
+			return conversation;
+		}
+		return em.find(Conversation.class, conversation.getId(), LockModeType.PESSIMISTIC_WRITE);
+	}
+
+	private TypedQuery<Conversation> findByUsers(int userId, int otherId) {
+		return em.createNamedQuery(Conversation.FIND_BY_USERS, Conversation.class)
+				.setParameter("lowUserId", Math.min(userId, otherId))
+				.setParameter("highUserId", Math.max(userId, otherId));
+	}
+
+	private List<Conversation> findConversationPage(String firstQuery, String afterQuery, int userId,
+			KeysetCursor after, int pageSize) {
+		TypedQuery<Conversation> query;
+		if (after == null) {
+			query = em.createNamedQuery(firstQuery, Conversation.class);
+		} else {
+			query = em.createNamedQuery(afterQuery, Conversation.class)
+					.setParameter("created", after.getCreated(), TemporalType.TIMESTAMP)
+					.setParameter("lastId", after.getId());
+		}
+		return query.setParameter("userId", userId).setMaxResults(pageSize + 1).getResultList();
+	}
+
+	// users new to the persistence context are persisted first, as the
+	// cascade of the message would, to know their ids
+	private int idOf(User user) {
+		if (user.getId() == 0)
+			em.persist(user);
+		return user.getId();
+	}
 }
@@ -0,0 +1,80 @@
+package org.se.lab.data;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+
+/**
+ * Snapshot of the query plan cache counters: HQL translations, see
+ * QueryPlanCounter, and query executions from the Hibernate statistics,
+ * which need hibernate.generate_statistics. Named queries are translated
+ * once at boot; the difference of two snapshots shows how many executions
+ * in between found their plan in the cache. Without statistics the
+ * executions stay 0, see countsExecutions.
+ */
+public final class QueryPlanStatistics {
+
+	private final long translated;
+	private final long executed;
+
+	QueryPlanStatistics(long translated, long executed) {
+		this.translated = translated;
+		this.executed = executed;
+	}
+
+	/**
+	 * @param factory factory of the "pse" persistence unit
+	 * @return (QueryPlanStatistics) counters since boot
+	 */
+	public static QueryPlanStatistics of(EntityManagerFactory factory) {
+		long executed = factory.unwrap(SessionFactory.class).getStatistics().getQueryExecutionCount();
+		return new QueryPlanStatistics(QueryPlanCounter.getTranslated(), executed);
+	}
+
+	/**
+	 * @param factory factory of the "pse" persistence unit
+	 * @return (boolean) true if hibernate.generate_statistics is set, i.e.
+	 *         the snapshots carry executions and a hit rate
+	 */
+	public static boolean countsExecutions(EntityManagerFactory factory) {
+		return factory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled();
+	}
+
+	/**
+	 * @param earlier snapshot taken before this one
+	 * @return (QueryPlanStatistics) counters between both snapshots
+	 */
+	public QueryPlanStatistics since(QueryPlanStatistics earlier) {
+		return new QueryPlanStatistics(translated - earlier.translated, executed - earlier.executed);
+	}
+
+	/**
+	 * @return (long) HQL queries translated, i.e. query plan cache misses
+	 */
+	public long getTranslated() {
+		return translated;
+	}
+
+	/**
+	 * @return (long) HQL queries executed
+	 */
+	public long getExecuted() {
+		return executed;
+	}
+
+	/**
+	 * @return (double) share of executions without translation, 1.0 if
+	 *         nothing was executed
+	 */
+	public double getHitRate() {
+		if (executed == 0)
+			return 1.0;
+		return Math.max(0.0, 1.0 - (double) translated / executed);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("QueryPlanStatistics [translated=%d, executed=%d, hitRate=%.3f]", translated, executed,
+				getHitRate());
+	}
+}
@@ -0,0 +1,94 @@
+package org.se.lab.data;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.se.lab.log.Log;
+import org.se.lab.service.dao.TimelineDAO;
+
+public class TimelineDAOImpl implements TimelineDAO {
+
+	private static final Log LOG = Log.get(TimelineDAOImpl.class);
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public TimelineDAOImpl() {}
+
+	/**
+	 * Set the EntityManager for DAO
+	 * @param em
+	 */
+	public void setEntityManager(EntityManager em) {
+		this.em = em;
+	}
+
+	@Override
+	public void insertEntries(int postId, Date created, Collection<Integer> userIds) {
+		LOG.debug("insertEntries({}, {} users)", postId, userIds.size());
+		if (userIds.isEmpty())
+			return;
+		// one statement per batch; rows a concurrent rebuildRange already wrote are skipped
+		em.createNamedQuery(TimelineEntry.INSERT_IF_ABSENT)
+				.setParameter(1, postId)
+				.setParameter(2, created, TemporalType.TIMESTAMP)
+				.setParameter(3, userIds)
+				.executeUpdate();
+	}
+
+	@Override
+	public int deleteEntriesForPost(int postId) {
+		LOG.debug("deleteEntriesForPost({})", postId);
+		return em.createNamedQuery(TimelineEntry.DELETE_FOR_POST).setParameter("postId", postId).executeUpdate();
+	}
+
+	@Override
+	public Page<Post> getTimeline(int userId, KeysetCursor after, int pageSize) {
+		LOG.debug("getTimeline({}, {}, {})", userId, after, pageSize);
+		TypedQuery<Post> query;
+		if (after == null) {
+			query = em.createNamedQuery(TimelineEntry.FIND_TIMELINE, Post.class);
+		} else {
+			query = em.createNamedQuery(TimelineEntry.FIND_TIMELINE_AFTER, Post.class)
+					.setParameter("created", after.getCreated(), TemporalType.TIMESTAMP)
+					.setParameter("lastId", after.getId());
+		}
+		List<Post> rows = query.setParameter("userId", userId).setMaxResults(pageSize + 1).getResultList();
+		return Page.of(rows, pageSize, KeysetCursor::of);
+	}
+
+	@Override
+	public List<Integer> findFollowerIds(int authorId) {
+		return em.createNamedQuery(UserContact.FIND_FOLLOWER_IDS, Integer.class).setParameter("authorId", authorId).getResultList();
+	}
+
+	@Override
+	public List<Integer> findMemberIds(int communityId, int afterUserId, int batchSize) {
+		return em.createNamedQuery(TimelineEntry.FIND_MEMBER_IDS, Integer.class)
+				.setParameter("communityId", communityId)
+				.setParameter("afterUserId", afterUserId)
+				.setMaxResults(batchSize)
+				.getResultList();
+	}
+
+	@Override
+	public int rebuildRange(int fromPostId, int toPostId) {
+		LOG.info("rebuildRange({}, {})", fromPostId, toPostId);
+		em.createNamedQuery(TimelineEntry.DELETE_RANGE).setParameter(1, fromPostId).setParameter(2, toPostId).executeUpdate();
+		return em.createNamedQuery(TimelineEntry.REBUILD_RANGE).setParameter(1, fromPostId).setParameter(2, toPostId)
+				.executeUpdate();
+	}
+
+	@Override
+	public int findMaxPostId() {
+		Integer max = em.createNamedQuery(Post.FIND_MAX_ID, Integer.class).getSingleResult();
+		return max == null ? 0 : max;
+	}
+
+}
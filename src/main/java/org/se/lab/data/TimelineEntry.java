@@ -0,0 +1,183 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ *
+ * One row of the materialized home timeline: post_id shows up in the home
+ * stream of user_id. Rows are written by the fan-out when a post is created
+ * and are read with a single range scan over (user_id, created, post_id).
+ *
+ */
+@Entity
+@IdClass(TimelineEntry.Key.class)
+@Table(name = "timeline", indexes = {
+		@Index(name = "idx_timeline_user_created", columnList = "user_id, created, post_id") })
+@NamedQueries({
+	@NamedQuery(name = TimelineEntry.DELETE_FOR_POST, query = "DELETE FROM TimelineEntry t WHERE t.postId = :postId"),
+	@NamedQuery(name = TimelineEntry.FIND_TIMELINE, query = "SELECT t.post FROM TimelineEntry t WHERE t.userId = :userId"
+			+ " ORDER BY t.created DESC, t.postId DESC"),
+	@NamedQuery(name = TimelineEntry.FIND_TIMELINE_AFTER, query = "SELECT t.post FROM TimelineEntry t WHERE t.userId = :userId"
+			+ " AND (t.created < :created OR (t.created = :created AND t.postId < :lastId))"
+			+ " ORDER BY t.created DESC, t.postId DESC"),
+	@NamedQuery(name = TimelineEntry.FIND_MEMBER_IDS, query = "SELECT u.id FROM Community c JOIN c.users u"
+			+ " WHERE c.id = :communityId AND u.id > :afterUserId ORDER BY u.id") })
+@NamedNativeQueries({
+	// Fan-out and backfill may write the same rows concurrently, both skip rows that already exist
+	@NamedNativeQuery(name = TimelineEntry.INSERT_IF_ABSENT, query = "INSERT IGNORE INTO timeline (user_id, post_id, created)"
+			+ " SELECT u.id, ?1, ?2 FROM users u WHERE u.id IN (?3)"),
+	@NamedNativeQuery(name = TimelineEntry.DELETE_RANGE, query = "DELETE FROM timeline WHERE post_id BETWEEN ?1 AND ?2"),
+	// Backfill: author, followers of the author and members of the community; UNION removes duplicates
+	@NamedNativeQuery(name = TimelineEntry.REBUILD_RANGE, query = "INSERT IGNORE INTO timeline (user_id, post_id, created)"
+			+ " SELECT p.fk_user_id, p.id, p.created FROM post p"
+			+ " WHERE p.id BETWEEN ?1 AND ?2 AND p.parent_post_id IS NULL AND p.created IS NOT NULL"
+			+ " UNION"
+			+ " SELECT c.user_id, p.id, p.created FROM post p JOIN contact c ON c.fk_contact_id = p.fk_user_id"
+			+ " WHERE p.id BETWEEN ?1 AND ?2 AND p.parent_post_id IS NULL AND p.created IS NOT NULL"
+			+ " UNION"
+			+ " SELECT uc.users_id, p.id, p.created FROM post p JOIN user_community uc ON uc.community_id = p.fk_community_id"
+			+ " WHERE p.id BETWEEN ?1 AND ?2 AND p.parent_post_id IS NULL AND p.created IS NOT NULL") })
+public class TimelineEntry implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Named queries, see TimelineDAOImpl
+	 */
+	public static final String DELETE_FOR_POST = "TimelineEntry.deleteForPost";
+	public static final String FIND_TIMELINE = "TimelineEntry.findTimeline";
+	public static final String FIND_TIMELINE_AFTER = "TimelineEntry.findTimelineAfter";
+	public static final String FIND_MEMBER_IDS = "TimelineEntry.findMemberIds";
+	public static final String INSERT_IF_ABSENT = "TimelineEntry.insertIfAbsent";
+	public static final String DELETE_RANGE = "TimelineEntry.deleteRange";
+	public static final String REBUILD_RANGE = "TimelineEntry.rebuildRange";
+
+	// Exception messages
+	private static final String ID_INVALID_ERROR = "The given id is less than 1";
+	private static final String CREATED_NULL_ERROR = "The given created timestamp must not be null";
+
+	public TimelineEntry(int userId, int postId, Date created) {
+		if (userId < 1 || postId < 1)
+			throw new IllegalArgumentException(ID_INVALID_ERROR);
+		if (created == null)
+			throw new IllegalArgumentException(CREATED_NULL_ERROR);
+		this.userId = userId;
+		this.postId = postId;
+		this.created = created;
+	}
+
+	/**
+	 * Constructor for Hibernate
+	 */
+	protected TimelineEntry() {
+	}
+
+	@Id
+	@Column(name = "user_id")
+	private int userId;
+
+	public int getUserId() {
+		return userId;
+	}
+
+	@Id
+	@Column(name = "post_id")
+	private int postId;
+
+	public int getPostId() {
+		return postId;
+	}
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "post_id", insertable = false, updatable = false)
+	private Post post;
+
+	public Post getPost() {
+		return post;
+	}
+
+	/**
+	 * copy of post.created, so paging never has to join the post table
+	 */
+	@Column(name = "created", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date created;
+
+	public Date getCreated() {
+		return created;
+	}
+
+	/**
+	 * Composite primary key (user_id, post_id)
+	 */
+	public static class Key implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private int userId;
+		private int postId;
+
+		public Key() {
+		}
+
+		public Key(int userId, int postId) {
+			this.userId = userId;
+			this.postId = postId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * userId + postId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return userId == other.userId && postId == other.postId;
+		}
+	}
+
+	/*
+	 * Object methods
+	 */
+
+	@Override
+	public int hashCode() {
+		return 31 * userId + postId;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		TimelineEntry other = (TimelineEntry) obj;
+		return userId == other.userId && postId == other.postId;
+	}
+
+	@Override
+	public String toString() {
+		return "TimelineEntry [userId=" + userId + ", postId=" + postId + ", created=" + created + "]";
+	}
+}
@@ -2,7 +2,7 @@ package org.se.lab.data;
 
 import javax.persistence.*;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -10,12 +10,42 @@ import java.util.List;
 
 @Entity
 @Table(name="users")
+@NamedQueries({
+	@NamedQuery(name = User.FIND_ALL, query = "SELECT u FROM User u"),
+	@NamedQuery(name = User.DELETE_BY_IDS, query = "DELETE FROM User u WHERE u.id IN :ids"),
+	@NamedQuery(name = User.FIND_BY_USERNAME, query = "SELECT u FROM User u WHERE u.username = :username"),
+	@NamedQuery(name = User.FIND_SUMMARIES_BY_IDS, query = "SELECT NEW org.se.lab.data.UserSummary(u.id, u.username)"
+			+ " FROM User u WHERE u.id IN :ids ORDER BY u.id") })
+@NamedEntityGraphs({
+	@NamedEntityGraph(name = User.GRAPH_BASIC),
+	@NamedEntityGraph(name = User.GRAPH_AUTH, attributeNodes = @NamedAttributeNode("roles")),
+	@NamedEntityGraph(name = User.GRAPH_PROFILE_PAGE, attributeNodes = {
+			@NamedAttributeNode("userprofile"), @NamedAttributeNode("communities"),
+			@NamedAttributeNode("usercontacts") }),
+	@NamedEntityGraph(name = User.GRAPH_FULL, attributeNodes = {
+			@NamedAttributeNode("userprofile"), @NamedAttributeNode("communities"),
+			@NamedAttributeNode("usercontacts"), @NamedAttributeNode("roles"), @NamedAttributeNode("likes") }) })
 public class User implements Serializable
 {
 	private static final long serialVersionUID = 1L;
 	
-	@Transient
-	private Logger LOG = Logger.getLogger(User.class);
+	/**
+	 * Entity graphs of the UserFetchProfiles
+	 */
+	public static final String GRAPH_BASIC = "User.basic";
+	public static final String GRAPH_AUTH = "User.auth";
+	public static final String GRAPH_PROFILE_PAGE = "User.profilePage";
+	public static final String GRAPH_FULL = "User.full";
+
+	/**
+	 * Named queries, see DAOImplTemplate and UserDAOImpl
+	 */
+	public static final String FIND_ALL = "User.findAll";
+	public static final String DELETE_BY_IDS = "User.deleteByIds";
+	public static final String FIND_BY_USERNAME = "User.findByUsername";
+	public static final String FIND_SUMMARIES_BY_IDS = "User.findSummariesByIds";
+	
+	private static final Log LOG = Log.get(User.class);
 	
 	
 	/**
@@ -35,10 +65,7 @@ public class User implements Serializable
 	public User(String username, String password)
 	{
 		LOG.debug("New User");
-		LOG.trace(
-				String.format("\t{\n\tusername: %s,\n\tpassword: %s",
-				username,
-				password));
+		LOG.trace("\t{\n\tusername: {},\n\tpassword: ***", username);
 		setUsername(username);
 		setPassword(password);
 	}
@@ -135,7 +162,7 @@ public class User implements Serializable
 		this.password = password;
 	}
 
-	@OneToOne
+	@OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="fk_userprofile")
 	private UserProfile userprofile;
 
@@ -154,7 +181,9 @@ public class User implements Serializable
 	@ManyToMany
 	@JoinTable(name = "user_community", 
 	joinColumns = @JoinColumn(name = "users_id", referencedColumnName = "id"), 
-	inverseJoinColumns = @JoinColumn(name = "community_id"))
+	inverseJoinColumns = @JoinColumn(name = "community_id"),
+	// membership lookups by user, see CommunityDAO#findByMember and #isMember
+	indexes = @Index(name = "idx_user_community_member", columnList = "users_id, community_id"))
 	private List<Community> communities = new ArrayList<Community>();
 	public void addCommunity(Community community) {
 		if(community == null)
@@ -167,7 +196,7 @@ public class User implements Serializable
 	}
 
 
-	@OneToMany(mappedBy="user",fetch = FetchType.EAGER)
+	@OneToMany(mappedBy="user")
 	private List<UserContact> usercontacts = new ArrayList<>();
 
 	public void addUserContacts(UserContact usercontact) {
@@ -13,10 +13,32 @@ import java.io.Serializable;
 
 @Entity
 @Table(name = "contact")
+@NamedQueries({
+    @NamedQuery(name = UserContact.FIND_ALL, query = "SELECT uc FROM UserContact uc"),
+    @NamedQuery(name = UserContact.DELETE_BY_IDS, query = "DELETE FROM UserContact uc WHERE uc.id IN :ids"),
+    @NamedQuery(name = UserContact.FIND_BY_USER, query = "SELECT uc FROM UserContact uc WHERE uc.user.id = :userId"),
+    @NamedQuery(name = UserContact.FIND_ID_BY_USER_AND_CONTACT, query = "SELECT uc.id FROM UserContact uc"
+            + " WHERE uc.user.id = :userId AND uc.contact = :contactId"),
+    @NamedQuery(name = UserContact.DELETE_BY_USER_AND_CONTACT, query = "DELETE FROM UserContact uc"
+            + " WHERE uc.user.id = :userId AND uc.contact = :contactId"),
+    @NamedQuery(name = UserContact.FIND_EDGES, query = "SELECT NEW org.se.lab.data.ContactEdge(uc.id, uc.user.id, uc.contact)"
+            + " FROM UserContact uc WHERE uc.id > :afterId ORDER BY uc.id"),
+    @NamedQuery(name = UserContact.FIND_FOLLOWER_IDS, query = "SELECT uc.user.id FROM UserContact uc WHERE uc.contact = :authorId") })
 public class UserContact implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Named queries, see DAOImplTemplate, UserContactDAOImpl and TimelineDAOImpl
+     */
+    public static final String FIND_ALL = "UserContact.findAll";
+    public static final String DELETE_BY_IDS = "UserContact.deleteByIds";
+    public static final String FIND_BY_USER = "UserContact.findByUser";
+    public static final String FIND_ID_BY_USER_AND_CONTACT = "UserContact.findIdByUserAndContact";
+    public static final String DELETE_BY_USER_AND_CONTACT = "UserContact.deleteByUserAndContact";
+    public static final String FIND_EDGES = "UserContact.findEdges";
+    public static final String FIND_FOLLOWER_IDS = "UserContact.findFollowerIds";
+
     /**
      *
      * @param user
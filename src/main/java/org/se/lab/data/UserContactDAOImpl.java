@@ -1,13 +1,13 @@
 package org.se.lab.data;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.UserContactDAO;
 
 import java.util.List;
 
 public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements UserContactDAO {
 
-    private final Logger LOG = Logger.getLogger(UserDAOImpl.class);
+    private static final Log LOG = Log.get(UserContactDAOImpl.class);
 
     /**
      * insert method to add a new contact in DB.
@@ -15,7 +15,7 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 
     @Override
     public UserContact insert(UserContact contact) {
-        LOG.info("insert(" + contact + ")");
+        LOG.info("insert({})", contact);
         return super.insert(contact);
     }
 
@@ -25,7 +25,7 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 
     @Override
     public UserContact update(UserContact contact) {
-        LOG.info("update(" + contact + ")");
+        LOG.info("update({})", contact);
         return super.update(contact);
     }
 
@@ -35,7 +35,7 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 
     @Override
     public void delete(UserContact contact) {
-        LOG.info("delete(" + contact + ")");
+        LOG.info("delete({})", contact);
         super.delete(contact);
     }
 
@@ -55,7 +55,7 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 
     @Override
     public UserContact findById(int id) {
-        LOG.info("findById(" + id + ")");
+        LOG.info("findById({})", id);
         return super.findById(id);
     }
 
@@ -64,14 +64,18 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
      * @param contactId
      * @param userId
      *
-     * checks if user exists in DB.
+     * checks if user exists in DB: reads at most one id, no UserContact is loaded.
      *
      */
 
     @Override
     public boolean doesContactExistForUserId(int contactId,int userId){
-        final String hql = "SELECT uc FROM " + UserContact.class.getName() + " AS uc WHERE uc.user = " + userId + " AND uc.contact = " + contactId;
-        return em.createQuery(hql).getResultList().isEmpty() ? false : true;
+        return !em.createNamedQuery(UserContact.FIND_ID_BY_USER_AND_CONTACT, Integer.class)
+                .setParameter("userId", userId)
+                .setParameter("contactId", contactId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
     }
 
     /**
@@ -85,14 +89,26 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 
     @Override
     public void deleteContactForUserIdAndContactId(int contactId,int userId){
-        final String hql = "DELETE FROM " + UserContact.class.getName() + " AS uc WHERE uc.user = " + userId + " AND uc.contact = " + contactId;
-        em.createQuery(hql).executeUpdate();
+        em.createNamedQuery(UserContact.DELETE_BY_USER_AND_CONTACT)
+                .setParameter("userId", userId)
+                .setParameter("contactId", contactId)
+                .executeUpdate();
     }
 
 	@Override
     public List<UserContact> findContactsbyUser(User user){
-        final String hql = "SELECT uc FROM " + UserContact.class.getName() + " AS uc WHERE uc.user = " + user.getId();
-        return em.createQuery(hql, UserContact.class).getResultList();
+        return em.createNamedQuery(UserContact.FIND_BY_USER, UserContact.class)
+                .setParameter("userId", user.getId())
+                .getResultList();
+    }
+
+    @Override
+    public List<ContactEdge> findEdges(int afterId, int maxResults) {
+        LOG.debug("findEdges({}, {})", afterId, maxResults);
+        return em.createNamedQuery(UserContact.FIND_EDGES, ContactEdge.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(maxResults)
+                .getResultList();
     }
 
 	@Override
@@ -100,5 +116,4 @@ public class UserContactDAOImpl extends DAOImplTemplate<UserContact> implements
 		return UserContact.class;
 	}
 
-
 }
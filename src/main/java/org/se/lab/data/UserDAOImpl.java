@@ -1,19 +1,21 @@
 package org.se.lab.data;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.UserDAO;
 import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.metadata.ClassMetadata;
 
+import javax.persistence.AttributeNode;
 import javax.persistence.NoResultException;
-import javax.persistence.TypedQuery;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Root;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.TreeSet;
 
 class UserDAOImpl extends DAOImplTemplate<User> implements UserDAO {
-	private final Logger LOG = Logger.getLogger(UserDAOImpl.class);
+	private static final Log LOG = Log.get(UserDAOImpl.class);
 
 	/*
 	 * class constructor
@@ -28,48 +30,74 @@ class UserDAOImpl extends DAOImplTemplate<User> implements UserDAO {
 
 	@Override
 	public User findById(int id) {
-		LOG.info("findById(" + id + ")");
+		return findById(id, UserFetchProfile.FULL);
+	}
+
+	@Override
+	public User findById(int id, UserFetchProfile profile) {
+		LOG.info("findById({}, {})", id, profile);
 		User u = em.find(User.class, id);
 		if (u != null) {
-			return initializeUser(u);
+			return initializeUser(u, profile);
 		}
 		return null;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<User> findAll() {
-		LOG.info("findAll()");
-		final String hql = "SELECT u FROM " + User.class.getName() + " AS u";
-		List<User> users = em.createQuery(hql).getResultList();
+		return findAll(UserFetchProfile.FULL);
+	}
+
+	@Override
+	public List<User> findAll(UserFetchProfile profile) {
+		LOG.info("findAll({})", profile);
+		List<User> users = super.findAll();
 		for (User u : users) {
-			initializeUser(u);
+			initializeUser(u, profile);
 		}
 		return users;
 	}
 
 	@Override
 	public User findByUsername(String username) {
-		CriteriaBuilder builder = em.getCriteriaBuilder();
-		CriteriaQuery<User> criteria = builder.createQuery(User.class);
-		Root<User> user = criteria.from(User.class);
-		criteria.where(builder.equal(user.get("username"), username));
-		TypedQuery<User> query = em.createQuery(criteria);
+		return findByUsername(username, UserFetchProfile.FULL);
+	}
+
+	@Override
+	public User findByUsername(String username, UserFetchProfile profile) {
+		LOG.info("findByUsername({}, {})", username, profile);
 		try {
-			User u = query.getSingleResult();
-			return initializeUser(u);
+			User u = em.createNamedQuery(User.FIND_BY_USERNAME, User.class)
+					.setParameter("username", username)
+					.getSingleResult();
+			return initializeUser(u, profile);
 		} catch (NoResultException e) {
 			return null;
 		}
 	}
 
+	@Override
+	public List<UserSummary> findSummariesByIds(Collection<Integer> ids) {
+		LOG.debug("findSummariesByIds({} ids)", ids.size());
+		// sorted and distinct, so the chunks are ordered as well
+		List<Integer> remaining = new ArrayList<>(new TreeSet<>(ids));
+		List<UserSummary> summaries = new ArrayList<>(remaining.size());
+		for (int from = 0; from < remaining.size(); from += MAX_IDS_PER_QUERY) {
+			List<Integer> chunk = remaining.subList(from, Math.min(from + MAX_IDS_PER_QUERY, remaining.size()));
+			summaries.addAll(em.createNamedQuery(User.FIND_SUMMARIES_BY_IDS, UserSummary.class)
+					.setParameter("ids", chunk)
+					.getResultList());
+		}
+		return summaries;
+	}
+
 	/*
 	 * Factory methods
 	 */
 
 	@Override
 	public User createUser(String username, String password) {
-		LOG.info("createArticle(\"" + username + "\"," + "***" + ")");
+		LOG.info("createArticle(\"{}\",***)", username);
 
 		User u = new User();
 		u.setUsername(username);
@@ -82,13 +110,17 @@ class UserDAOImpl extends DAOImplTemplate<User> implements UserDAO {
 	 * Helper
 	 */
 
-	private User initializeUser(User u){
-		Hibernate.initialize(u.getLikes());
-		Hibernate.initialize(u.getCommunities());
-		Hibernate.initialize(u.getRoles());
-		Hibernate.initialize(u.getUserContacts());
-		Hibernate.initialize(u.getPrivateMessagesReceiver());
-		Hibernate.initialize(u.getPrivateMessagesSender());
+	/*
+	 * Initializes the attribute nodes of the profile's entity graph one select
+	 * each. Passing the graph as load graph does not work with Hibernate 5.1:
+	 * the collections are bags, and joining more than one of them fails for
+	 * queries (MultipleBagFetchException) and duplicates elements for find.
+	 */
+	private User initializeUser(User u, UserFetchProfile profile) {
+		ClassMetadata metadata = em.unwrap(Session.class).getSessionFactory().getClassMetadata(User.class);
+		for (AttributeNode<?> node : em.getEntityGraph(profile.getGraphName()).getAttributeNodes()) {
+			Hibernate.initialize(metadata.getPropertyValue(u, node.getAttributeName()));
+		}
 		return u;
 	}
 }
@@ -0,0 +1,31 @@
+package org.se.lab.data;
+
+/**
+ *
+ * Parts of a User loaded by the UserDAO lookups, each backed by a named
+ * entity graph of User. Callers choose the smallest profile covering what
+ * they read; everything outside the graph stays lazy.
+ *
+ * BASIC: columns of the users table only
+ * AUTH: BASIC and the roles, for login and role checks
+ * PROFILE_PAGE: BASIC, user profile, communities and contacts
+ * FULL: all associations, including likes; private messages stay lazy,
+ *       they are paged by conversation, see PrivateMessageDAO
+ *
+ */
+public enum UserFetchProfile {
+	BASIC(User.GRAPH_BASIC), AUTH(User.GRAPH_AUTH), PROFILE_PAGE(User.GRAPH_PROFILE_PAGE), FULL(User.GRAPH_FULL);
+
+	private final String graphName;
+
+	private UserFetchProfile(String graphName) {
+		this.graphName = graphName;
+	}
+
+	/**
+	 * @return (String) name of the NamedEntityGraph declared on User
+	 */
+	public String getGraphName() {
+		return graphName;
+	}
+}
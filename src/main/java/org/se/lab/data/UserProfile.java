@@ -12,11 +12,48 @@ import java.io.Serializable;
  */
 
 @Entity
-@Table(name = "userprofile")
+@Table(name = "userprofile", indexes = {
+        // table pages ordered by lastname, see UserProfileDAO#findSummaries
+        @Index(name = "idx_userprofile_lastname", columnList = "lastname") })
+@NamedQueries({
+    @NamedQuery(name = UserProfile.FIND_ALL, query = "SELECT p FROM UserProfile p"),
+    @NamedQuery(name = UserProfile.DELETE_BY_IDS, query = "DELETE FROM UserProfile p WHERE p.id IN :ids"),
+    @NamedQuery(name = UserProfile.FIND_SUMMARIES, query = UserProfile.SUMMARIES + " ORDER BY p.id"),
+    // table pages filtered by a lastname prefix, one query per sort order; ties are broken by id
+    @NamedQuery(name = UserProfile.FIND_SUMMARIES_ORDER_BY_ID, query = UserProfile.SUMMARIES_BY_LASTNAME
+            + " ORDER BY p.id"),
+    @NamedQuery(name = UserProfile.FIND_SUMMARIES_ORDER_BY_ID_DESC, query = UserProfile.SUMMARIES_BY_LASTNAME
+            + " ORDER BY p.id DESC"),
+    @NamedQuery(name = UserProfile.FIND_SUMMARIES_ORDER_BY_LASTNAME, query = UserProfile.SUMMARIES_BY_LASTNAME
+            + " ORDER BY p.lastname, p.id"),
+    @NamedQuery(name = UserProfile.FIND_SUMMARIES_ORDER_BY_LASTNAME_DESC, query = UserProfile.SUMMARIES_BY_LASTNAME
+            + " ORDER BY p.lastname DESC, p.id DESC"),
+    @NamedQuery(name = UserProfile.COUNT_BY_LASTNAME, query = "SELECT COUNT(p) FROM UserProfile p"
+            + " WHERE p.lastname LIKE :lastname ESCAPE '!'"),
+    @NamedQuery(name = UserProfile.FIND_PICTURE_HASH, query = "SELECT p.pictureHash FROM UserProfile p WHERE p.id = :id"),
+    @NamedQuery(name = UserProfile.FIND_PICTURE, query = "SELECT p.picture FROM UserProfile p WHERE p.id = :id") })
 public class UserProfile implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Named queries, see DAOImplTemplate, UserProfileDAOImpl and PictureDAOImpl
+     */
+    public static final String FIND_ALL = "UserProfile.findAll";
+    public static final String DELETE_BY_IDS = "UserProfile.deleteByIds";
+    public static final String FIND_SUMMARIES = "UserProfile.findSummaries";
+    public static final String FIND_SUMMARIES_ORDER_BY_ID = "UserProfile.findSummariesOrderById";
+    public static final String FIND_SUMMARIES_ORDER_BY_ID_DESC = "UserProfile.findSummariesOrderByIdDesc";
+    public static final String FIND_SUMMARIES_ORDER_BY_LASTNAME = "UserProfile.findSummariesOrderByLastname";
+    public static final String FIND_SUMMARIES_ORDER_BY_LASTNAME_DESC = "UserProfile.findSummariesOrderByLastnameDesc";
+    public static final String COUNT_BY_LASTNAME = "UserProfile.countByLastname";
+    public static final String FIND_PICTURE_HASH = "UserProfile.findPictureHash";
+    public static final String FIND_PICTURE = "UserProfile.findPicture";
+
+    static final String SUMMARIES = "SELECT NEW org.se.lab.data.UserProfileSummary("
+            + "p.id, p.firstname, p.lastname, p.team, p.city, p.description, p.pictureHash) FROM UserProfile p";
+    static final String SUMMARIES_BY_LASTNAME = SUMMARIES + " WHERE p.lastname LIKE :lastname ESCAPE '!'";
+
     /**
      * UserProfile Class Constructor
      *
@@ -125,6 +162,18 @@ public class UserProfile implements Serializable {
 
     public void setPicture(byte[] picture) {
         this.picture = picture;
+        this.pictureHash = PictureHash.of(picture);
+    }
+
+    /**
+     * pictureHash content hash of the picture, see PictureHash. Null if there is no picture.
+     */
+
+    @Column(name = "picture_hash", length = PictureHash.LENGTH)
+    private String pictureHash;
+
+    public String getPictureHash() {
+        return pictureHash;
     }
 
 
@@ -1,13 +1,13 @@
 package org.se.lab.data;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.service.dao.UserProfileDAO;
 
 import java.util.List;
 
 public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements UserProfileDAO {
 
-    private final Logger LOG = Logger.getLogger(UserProfileDAOImpl.class);
+    private static final Log LOG = Log.get(UserProfileDAOImpl.class);
 
 
 
@@ -17,7 +17,7 @@ public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements
 
     @Override
     public UserProfile insert(UserProfile up) {
-        LOG.info("insert(" + up + ")");
+        LOG.info("insert({})", up);
         return super.insert(up);
     }
 
@@ -27,7 +27,7 @@ public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements
 
     @Override
     public UserProfile update(UserProfile up) {
-        LOG.info("update(" + up + ")");
+        LOG.info("update({})", up);
         return super.update(up);
     }
 
@@ -37,7 +37,7 @@ public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements
 
     @Override
     public void delete(UserProfile up) {
-        LOG.info("delete(" + up + ")");
+        LOG.info("delete({})", up);
         super.delete(up);
     }
 
@@ -47,7 +47,7 @@ public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements
 
     @Override
     public UserProfile findById(int id) {
-        LOG.info("findById(" + id + ")");
+        LOG.info("findById({})", id);
         return super.findById(id);
     }
 
@@ -61,6 +61,40 @@ public class UserProfileDAOImpl extends DAOImplTemplate<UserProfile> implements
         return super.findAll();
     }
 
+    /**
+     * find all summaries method to list all existing userprofiles without pictures.
+     */
+
+    @Override
+    public List<UserProfileSummary> findAllSummaries() {
+        LOG.info("findAllSummaries()");
+        return em.createNamedQuery(UserProfile.FIND_SUMMARIES, UserProfileSummary.class).getResultList();
+    }
+
+    @Override
+    public List<UserProfileSummary> findSummaries(String lastnamePrefix, String sortField, boolean descending,
+            int first, int pageSize) {
+        LOG.debug("findSummaries({}, {}, {}, {}, {})", lastnamePrefix, sortField, descending, first, pageSize);
+        String query;
+        if ("lastname".equals(sortField))
+            query = descending ? UserProfile.FIND_SUMMARIES_ORDER_BY_LASTNAME_DESC : UserProfile.FIND_SUMMARIES_ORDER_BY_LASTNAME;
+        else
+            query = descending ? UserProfile.FIND_SUMMARIES_ORDER_BY_ID_DESC : UserProfile.FIND_SUMMARIES_ORDER_BY_ID;
+        return em.createNamedQuery(query, UserProfileSummary.class)
+                .setParameter("lastname", startsWith(lastnamePrefix))
+                .setFirstResult(first)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    @Override
+    public long count(String lastnamePrefix) {
+        LOG.debug("count({})", lastnamePrefix);
+        return em.createNamedQuery(UserProfile.COUNT_BY_LASTNAME, Long.class)
+                .setParameter("lastname", startsWith(lastnamePrefix))
+                .getSingleResult();
+    }
+
 	@Override
 	protected Class<UserProfile> getEntityClass() {
 		return UserProfile.class;
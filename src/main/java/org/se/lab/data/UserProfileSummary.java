@@ -0,0 +1,71 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+
+/**
+ * Id, name, team, city, description and picture hash of a user profile,
+ * loaded with a constructor expression for overview and listing pages. Unlike
+ * the UserProfile entity it never loads the picture or the owning user.
+ */
+public final class UserProfileSummary implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int id;
+	private final String firstname;
+	private final String lastname;
+	private final String team;
+	private final String city;
+	private final String description;
+	private final String pictureHash;
+
+	public UserProfileSummary(Integer id, String firstname, String lastname, String team, String city,
+			String description, String pictureHash) {
+		this.id = id;
+		this.firstname = firstname;
+		this.lastname = lastname;
+		this.team = team;
+		this.city = city;
+		this.description = description;
+		this.pictureHash = pictureHash;
+	}
+
+	/**
+	 * @return id of the UserProfile
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public String getFirstname() {
+		return firstname;
+	}
+
+	public String getLastname() {
+		return lastname;
+	}
+
+	public String getTeam() {
+		return team;
+	}
+
+	public String getCity() {
+		return city;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return content hash of the picture, null if there is none
+	 */
+	public String getPictureHash() {
+		return pictureHash;
+	}
+
+	@Override
+	public String toString() {
+		return "UserProfileSummary [id=" + id + ", firstname=" + firstname + ", lastname=" + lastname + "]";
+	}
+}
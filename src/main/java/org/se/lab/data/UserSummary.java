@@ -0,0 +1,37 @@
+package org.se.lab.data;
+
+import java.io.Serializable;
+
+/**
+ * Id and username of a user, loaded with a constructor expression for contact
+ * lists. Unlike the User entity it never loads the eager contacts or any of
+ * the lazy collections.
+ */
+public final class UserSummary implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int id;
+	private final String username;
+
+	public UserSummary(Integer id, String username) {
+		this.id = id;
+		this.username = username;
+	}
+
+	/**
+	 * @return id of the User
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	@Override
+	public String toString() {
+		return "UserSummary [id=" + id + ", username=" + username + "]";
+	}
+}
@@ -0,0 +1,179 @@
+package org.se.lab.log;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Logging facade over log4j for the data and service layer.
+ *
+ * One static instance per class: Logger.getLogger synchronizes on the
+ * logger repository and must not run per entity instance. Messages take {}
+ * placeholders and are only formatted if the level is enabled, so a
+ * disabled call allocates nothing; there are overloads for one and two
+ * arguments and for long to avoid the varargs array and boxing. A Throwable
+ * as last argument without a placeholder is logged as the exception.
+ *
+ * <pre>
+ * private static final Log LOG = Log.get(PostDAOImpl.class);
+ * LOG.debug("findById({})", id);
+ * LOG.error("Can't insert post {}", post, e);
+ * </pre>
+ */
+public final class Log {
+
+	private static final String FQCN = Log.class.getName();
+	private static final String PLACEHOLDER = "{}";
+
+	private final Logger logger;
+
+	private Log(Logger logger) {
+		this.logger = logger;
+	}
+
+	public static Log get(Class<?> type) {
+		return new Log(Logger.getLogger(type));
+	}
+
+	public boolean isTraceEnabled() {
+		return logger.isTraceEnabled();
+	}
+
+	public boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+
+	/*
+	 * TRACE
+	 */
+
+	public void trace(String message) {
+		if (logger.isTraceEnabled())
+			log(Level.TRACE, message);
+	}
+
+	public void trace(String format, long arg) {
+		if (logger.isTraceEnabled())
+			log(Level.TRACE, format, arg);
+	}
+
+	public void trace(String format, Object arg) {
+		if (logger.isTraceEnabled())
+			log(Level.TRACE, format, arg);
+	}
+
+	public void trace(String format, Object arg1, Object arg2) {
+		if (logger.isTraceEnabled())
+			log(Level.TRACE, format, arg1, arg2);
+	}
+
+	public void trace(String format, Object... args) {
+		if (logger.isTraceEnabled())
+			log(Level.TRACE, format, args);
+	}
+
+	/*
+	 * DEBUG
+	 */
+
+	public void debug(String message) {
+		if (logger.isDebugEnabled())
+			log(Level.DEBUG, message);
+	}
+
+	public void debug(String format, long arg) {
+		if (logger.isDebugEnabled())
+			log(Level.DEBUG, format, arg);
+	}
+
+	public void debug(String format, Object arg) {
+		if (logger.isDebugEnabled())
+			log(Level.DEBUG, format, arg);
+	}
+
+	public void debug(String format, Object arg1, Object arg2) {
+		if (logger.isDebugEnabled())
+			log(Level.DEBUG, format, arg1, arg2);
+	}
+
+	public void debug(String format, Object... args) {
+		if (logger.isDebugEnabled())
+			log(Level.DEBUG, format, args);
+	}
+
+	/*
+	 * INFO
+	 */
+
+	public void info(String message) {
+		if (logger.isInfoEnabled())
+			log(Level.INFO, message);
+	}
+
+	public void info(String format, long arg) {
+		if (logger.isInfoEnabled())
+			log(Level.INFO, format, arg);
+	}
+
+	public void info(String format, Object arg) {
+		if (logger.isInfoEnabled())
+			log(Level.INFO, format, arg);
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		if (logger.isInfoEnabled())
+			log(Level.INFO, format, arg1, arg2);
+	}
+
+	public void info(String format, Object... args) {
+		if (logger.isInfoEnabled())
+			log(Level.INFO, format, args);
+	}
+
+	/*
+	 * WARN and ERROR, always enabled in practice
+	 */
+
+	public void warn(String format, Object... args) {
+		if (logger.isEnabledFor(Level.WARN))
+			log(Level.WARN, format, args);
+	}
+
+	public void error(String format, Object... args) {
+		if (logger.isEnabledFor(Level.ERROR))
+			log(Level.ERROR, format, args);
+	}
+
+	private void log(Level level, String format, Object... args) {
+		Throwable thrown = null;
+		int placeholders = count(format);
+		if (args.length > placeholders && args[args.length - 1] instanceof Throwable)
+			thrown = (Throwable) args[args.length - 1];
+		logger.log(FQCN, level, format(format, args), thrown);
+	}
+
+	/**
+	 * Replaces the {} placeholders in format by the arguments, in order.
+	 * Placeholders without argument are kept.
+	 */
+	static String format(String format, Object... args) {
+		if (args.length == 0 || format.indexOf(PLACEHOLDER) < 0)
+			return format;
+		StringBuilder message = new StringBuilder(format.length() + 16 * args.length);
+		int from = 0;
+		for (Object arg : args) {
+			int at = format.indexOf(PLACEHOLDER, from);
+			if (at < 0)
+				break;
+			message.append(format, from, at).append(arg);
+			from = at + PLACEHOLDER.length();
+		}
+		return message.append(format, from, format.length()).toString();
+	}
+
+	private static int count(String format) {
+		int count = 0;
+		for (int at = format.indexOf(PLACEHOLDER); at >= 0; at = format.indexOf(PLACEHOLDER, at + 2))
+			count++;
+		return count;
+	}
+}
@@ -1,13 +1,23 @@
 package org.se.lab.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.Page;
 import org.se.lab.data.Post;
+import org.se.lab.data.PostThread;
 import org.se.lab.data.User;
 
 public interface ActivityStreamService {
 
+	/**
+	 * Upper bound for the page size of paginated streams
+	 */
+	int MAX_PAGE_SIZE = 100;
+
 	void insert(Post article);
 
 	void insert(Post post, Community community);
@@ -20,4 +30,83 @@ public interface ActivityStreamService {
 
 	List<Post> getPostsForCommunity(Community community);
 
+	/**
+	 * Gets one page of the posts of given user, newest first
+	 * @param user
+	 * @param continuation token of the previous page, null for the first page
+	 * @param pageSize 1 to MAX_PAGE_SIZE
+	 * @return (Page<Post>) page
+	 */
+	Page<Post> getPostsForUser(User user, String continuation, int pageSize);
+
+	/**
+	 * Gets one page of the posts of given community, newest first
+	 * @param community
+	 * @param continuation token of the previous page, null for the first page
+	 * @param pageSize 1 to MAX_PAGE_SIZE
+	 * @return (Page<Post>) page
+	 */
+	Page<Post> getPostsForCommunity(Community community, String continuation, int pageSize);
+
+	/**
+	 * Gets one page of the home feed of given user, newest first
+	 * @param user
+	 * @param mode MATERIALIZED reads the fanned out timeline, MERGED merges the
+	 *        posts of the user, its contacts and communities at read time
+	 * @param continuation token of the previous page, null for the first page
+	 * @param pageSize 1 to MAX_PAGE_SIZE
+	 * @return (Page<Post>) page
+	 */
+	Page<Post> getHomeFeed(User user, FeedMode mode, String continuation, int pageSize);
+
+	/**
+	 * Loads the reply trees of the given posts with a single query
+	 * @param posts top level posts, e.g. one page of a stream
+	 * @param maxDepth deepest reply level to load, 0 for none
+	 * @param maxReplies maximum number of replies kept per post
+	 * @return (List<PostThread>) one thread per given post, in the same order
+	 */
+	List<PostThread> getThreads(List<Post> posts, int maxDepth, int maxReplies);
+
+	/**
+	 * Sets the reaction of given user to given post, idempotent
+	 * @param post
+	 * @param user
+	 * @param reaction e.g. EnumerationService#getLike
+	 * @return (boolean) true if the user did not react to the post before
+	 */
+	boolean like(Post post, User user, Enumeration reaction);
+
+	/**
+	 * Removes the reaction of given user to given post, idempotent
+	 * @param post
+	 * @param user
+	 * @return (boolean) true if there was a reaction to remove
+	 */
+	boolean unlike(Post post, User user);
+
+	/**
+	 * Likes the post if the user did not react to it yet, unlikes it otherwise
+	 * @param post
+	 * @param user
+	 * @param reaction
+	 * @return (boolean) true if the post is liked by the user afterwards
+	 */
+	boolean toggleLike(Post post, User user, Enumeration reaction);
+
+	/**
+	 * Gets the number of likes of given post without a query: the like_count
+	 * loaded with the post plus the likes not yet flushed to it
+	 * @param post
+	 * @return (long) number of likes
+	 */
+	long getLikeCount(Post post);
+
+	/**
+	 * Gets the number of likes of all given posts in one call, see getLikeCount
+	 * @param posts e.g. the items of a page
+	 * @return (Map<Integer, Long>) number of likes by post id
+	 */
+	Map<Integer, Long> getLikeCounts(Collection<Post> posts);
+
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package org.se.lab.service;
 import java.util.List;
 
 import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.Page;
 import org.se.lab.data.User;
 
 public interface CommunityService {	
@@ -11,6 +13,35 @@ public interface CommunityService {
 
 	List<Community> getApproved();
 
+	/**
+	 * Gets one page of the approved communities, ordered by id
+	 * @param continuation token of the previous page, null for the first page
+	 * @param pageSize 1 to ActivityStreamService.MAX_PAGE_SIZE
+	 * @return (Page<Community>) page, member lists are not initialized
+	 */
+	Page<Community> getApproved(String continuation, int pageSize);
+
+	/**
+	 * Gets the rows of one page of a community table
+	 * @param states states of the listed communities, e.g. EnumerationService#getApproved
+	 * @param namePrefix only communities with a name starting with it, null for all
+	 * @param sortField "name" or "id"
+	 * @param descending
+	 * @param first index of the first row
+	 * @param pageSize 1 to ActivityStreamService.MAX_PAGE_SIZE
+	 * @return (List<Community>) rows, member lists are not initialized
+	 */
+	List<Community> getPage(List<Enumeration> states, String namePrefix, String sortField, boolean descending,
+			int first, int pageSize);
+
+	/**
+	 * @param states states of the listed communities
+	 * @param namePrefix only communities with a name starting with it, null for all
+	 * @return (long) number of communities listed by getPage, counted at most
+	 *         a few seconds ago
+	 */
+	long count(List<Enumeration> states, String namePrefix);
+
 	List<Community> getPending();
 
 	void delete(Community community);
@@ -19,6 +50,14 @@ public interface CommunityService {
 
 	void join(Community community, User user);
 
+	/**
+	 * Checks the membership without loading the community or its members
+	 * @param userId
+	 * @param communityId
+	 * @return (boolean) true if the user is member of the community
+	 */
+	boolean isMember(int userId, int communityId);
+
 	void request(Community community);
 
 	void approve(Community community);
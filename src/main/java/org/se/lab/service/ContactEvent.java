@@ -0,0 +1,49 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+
+/**
+ * CDI event fired by the UserService when a user adds or removes a contact.
+ * Observed after commit by the ContactGraphIndex.
+ */
+public final class ContactEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int userId;
+	private final int contactId;
+	private final boolean added;
+
+	private ContactEvent(int userId, int contactId, boolean added) {
+		this.userId = userId;
+		this.contactId = contactId;
+		this.added = added;
+	}
+
+	public static ContactEvent added(int userId, int contactId) {
+		return new ContactEvent(userId, contactId, true);
+	}
+
+	public static ContactEvent removed(int userId, int contactId) {
+		return new ContactEvent(userId, contactId, false);
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	public int getContactId() {
+		return contactId;
+	}
+
+	/**
+	 * @return true for a new contact, false for a removed one
+	 */
+	public boolean isAdded() {
+		return added;
+	}
+
+	@Override
+	public String toString() {
+		return "ContactEvent [userId=" + userId + ", contactId=" + contactId + ", added=" + added + "]";
+	}
+}
@@ -0,0 +1,35 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+
+/**
+ * A user the current user may know: a contact of at least one of its
+ * contacts, ranked by the number of such mutual contacts.
+ */
+public final class ContactSuggestion implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int userId;
+	private final int mutualContacts;
+
+	public ContactSuggestion(int userId, int mutualContacts) {
+		this.userId = userId;
+		this.mutualContacts = mutualContacts;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return number of contacts of the current user having this user as contact
+	 */
+	public int getMutualContacts() {
+		return mutualContacts;
+	}
+
+	@Override
+	public String toString() {
+		return "ContactSuggestion [userId=" + userId + ", mutualContacts=" + mutualContacts + "]";
+	}
+}
@@ -0,0 +1,53 @@
+package org.se.lab.service;
+
+import org.se.lab.data.User;
+import org.se.lab.service.UserService.ROLE;
+
+/**
+ * The logged in user of the current request.
+ *
+ * The user id is read from the session once per request; the user with its
+ * roles and the ids of its communities are loaded on first use and shared by
+ * all beans and services of the request. A UserChangedEvent for the user
+ * drops the cached state, the next call loads it again.
+ */
+public interface CurrentUser {
+
+	/**
+	 * Session attribute holding the id of the logged in user
+	 */
+	String SESSION_ATTRIBUTE = "user";
+
+	/**
+	 * @return (boolean) true if the session belongs to a logged in user
+	 */
+	boolean isLoggedIn();
+
+	/**
+	 * @return (int) id of the logged in user, 0 if nobody is logged in
+	 */
+	int getId();
+
+	/**
+	 * @return logged in user with its roles (UserFetchProfile.AUTH), null if
+	 *         nobody is logged in or the user does not exist anymore
+	 */
+	User getUser();
+
+	/**
+	 * @param role
+	 * @return (boolean) true if the logged in user has the given role
+	 */
+	boolean hasRole(ROLE role);
+
+	/**
+	 * @param communityId
+	 * @return (boolean) true if the logged in user is member of the community
+	 */
+	boolean isMemberOf(int communityId);
+
+	/**
+	 * Drops the cached user, roles and community ids
+	 */
+	void invalidate();
+}
@@ -2,10 +2,28 @@ package org.se.lab.service;
 
 import org.se.lab.data.Enumeration;
 
+/**
+ * States, roles and reactions of the enumeration table.
+ *
+ * Served from a registry loaded at startup, without database access. The
+ * returned Enumerations are shared references: assign them to associations,
+ * but load the entity through the EnumerationDAO to change its users.
+ */
 public interface EnumerationService {
 	Enumeration findById(int id);
 
+	Enumeration findByName(String name);
+
 	Enumeration getPending();
 	Enumeration getApproved();
 	Enumeration getRefused();
+
+	Enumeration getRole(UserService.ROLE role);
+
+	Enumeration getLike();
+
+	/**
+	 * Reads the enumeration table again
+	 */
+	void reload();
 }
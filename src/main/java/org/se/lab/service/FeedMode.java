@@ -0,0 +1,20 @@
+package org.se.lab.service;
+
+/**
+ * Strategy used to assemble the home feed of a user
+ */
+public enum FeedMode {
+
+	/**
+	 * Reads the timeline table written by the fan-out of the TimelineService.
+	 * Cheapest read, but every post costs one row per follower and member.
+	 */
+	MATERIALIZED,
+
+	/**
+	 * Merges the posts of the user, of each contact and of each joined community
+	 * at read time. Nothing is written per follower, every page costs one query
+	 * per source.
+	 */
+	MERGED;
+}
@@ -0,0 +1,49 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+
+/**
+ * CDI event fired by the ActivityStreamService when a user likes or unlikes a
+ * post. Observed after commit by the LikeCounter.
+ */
+public final class LikeEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int postId;
+	private final int userId;
+	private final int delta;
+
+	private LikeEvent(int postId, int userId, int delta) {
+		this.postId = postId;
+		this.userId = userId;
+		this.delta = delta;
+	}
+
+	public static LikeEvent liked(int postId, int userId) {
+		return new LikeEvent(postId, userId, 1);
+	}
+
+	public static LikeEvent unliked(int postId, int userId) {
+		return new LikeEvent(postId, userId, -1);
+	}
+
+	public int getPostId() {
+		return postId;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return +1 for a new like, -1 for a removed like
+	 */
+	public int getDelta() {
+		return delta;
+	}
+
+	@Override
+	public String toString() {
+		return "LikeEvent [postId=" + postId + ", userId=" + userId + ", delta=" + delta + "]";
+	}
+}
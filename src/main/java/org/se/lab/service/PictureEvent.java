@@ -0,0 +1,37 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+
+import org.se.lab.data.PictureOwner;
+
+/**
+ * CDI event fired when the picture of a user profile or community changed.
+ * Observed after commit by the generator of the size variants.
+ */
+public final class PictureEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final PictureOwner owner;
+	private final int id;
+
+	public PictureEvent(PictureOwner owner, int id) {
+		this.owner = owner;
+		this.id = id;
+	}
+
+	public PictureOwner getOwner() {
+		return owner;
+	}
+
+	/**
+	 * @return id of the UserProfile or Community
+	 */
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "PictureEvent [owner=" + owner + ", id=" + id + "]";
+	}
+}
@@ -0,0 +1,47 @@
+package org.se.lab.service;
+
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+
+/**
+ * Pictures of user profiles and communities and their size variants, for the
+ * picture servlet.
+ *
+ * All operations work on the picture columns only and never load the
+ * entity, so a cached picture is answered with a single indexed lookup.
+ * Missing or stale variants are generated in the background; until then the
+ * original is served.
+ */
+public interface PictureService {
+
+	/**
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @return (String) content hash of the picture, null if there is none
+	 */
+	String getPictureHash(PictureOwner owner, int id);
+
+	/**
+	 * Selects the size to serve for a request of given size. Requests the
+	 * generation of the variant if it is missing or stale, without waiting for it.
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @param requested
+	 * @param hash current content hash of the picture
+	 * @return (PictureSize) requested size if it is available, ORIGINAL otherwise
+	 */
+	PictureSize selectSize(PictureOwner owner, int id, PictureSize requested, String hash);
+
+	/**
+	 * Reads the picture in given size into memory. The caller sends it after
+	 * the transaction, so a slow client never holds a database connection;
+	 * this costs one picture of heap per download in progress, which is
+	 * bounded by the upload limit (500 KB, see profile.xhtml) and far less
+	 * for the variants.
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @param size ORIGINAL or a size returned by selectSize
+	 * @return (byte[]) picture, null if there is none
+	 */
+	byte[] readPicture(PictureOwner owner, int id, PictureSize size);
+}
@@ -0,0 +1,93 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.se.lab.data.Post;
+
+/**
+ * CDI event fired by the ActivityStreamService for every successful write of a
+ * post. Carries only ids and values, so observers running after the
+ * transaction (fan-out, search index, push) never touch a detached entity graph.
+ */
+public final class PostEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public enum Type {
+		CREATED, UPDATED, DELETED;
+	}
+
+	private final Type type;
+	private final int postId;
+	private final int authorId;
+	private final int communityId;
+	private final int parentId;
+	private final Date created;
+	private final String text;
+
+	private PostEvent(Type type, Post post) {
+		this.type = type;
+		this.postId = post.getId();
+		this.authorId = post.getUser().getId();
+		this.communityId = post.getCommunity() == null ? 0 : post.getCommunity().getId();
+		this.parentId = post.getParentpost() == null ? 0 : post.getParentpost().getId();
+		this.created = post.getCreated();
+		this.text = post.getText();
+	}
+
+	public static PostEvent created(Post post) {
+		return new PostEvent(Type.CREATED, post);
+	}
+
+	public static PostEvent updated(Post post) {
+		return new PostEvent(Type.UPDATED, post);
+	}
+
+	public static PostEvent deleted(Post post) {
+		return new PostEvent(Type.DELETED, post);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public int getPostId() {
+		return postId;
+	}
+
+	public int getAuthorId() {
+		return authorId;
+	}
+
+	/**
+	 * @return id of the community the post was posted in, 0 if none
+	 */
+	public int getCommunityId() {
+		return communityId;
+	}
+
+	/**
+	 * @return id of the post this post replies to, 0 for top level posts
+	 */
+	public int getParentId() {
+		return parentId;
+	}
+
+	public boolean isReply() {
+		return parentId != 0;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return "PostEvent [type=" + type + ", postId=" + postId + ", authorId=" + authorId + ", communityId="
+				+ communityId + "]";
+	}
+}
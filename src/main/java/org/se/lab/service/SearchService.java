@@ -0,0 +1,62 @@
+package org.se.lab.service;
+
+import java.util.List;
+
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+
+/**
+ * Full-text search over the text of posts.
+ *
+ * Queries are split into terms like the post texts (lower case, accents
+ * removed, light stemming); posts containing any of the terms are returned,
+ * best match first.
+ */
+public interface SearchService {
+
+	/**
+	 * Upper bound for maxResults
+	 */
+	int MAX_RESULTS = 100;
+
+	/**
+	 * Searches all posts
+	 * @param query
+	 * @param maxResults 1 to MAX_RESULTS
+	 * @return (List<Post>) posts, best match first
+	 */
+	List<Post> searchPosts(String query, int maxResults);
+
+	/**
+	 * Searches the posts written by given user
+	 * @param author
+	 * @param query
+	 * @param maxResults 1 to MAX_RESULTS
+	 * @return (List<Post>) posts, best match first
+	 */
+	List<Post> searchPosts(User author, String query, int maxResults);
+
+	/**
+	 * Searches the posts of given community
+	 * @param community
+	 * @param query
+	 * @param maxResults 1 to MAX_RESULTS
+	 * @return (List<Post>) posts, best match first
+	 */
+	List<Post> searchPosts(Community community, String query, int maxResults);
+
+	/**
+	 * Backfill job: adds all persisted posts missing in the index.
+	 * Runs asynchronously and writes the whole index to disk at the end.
+	 */
+	void rebuildIndex();
+
+	/**
+	 * Adds the persisted posts with an id above afterId missing in the index,
+	 * e.g. those committed after the index was last written to disk.
+	 * Runs asynchronously; the next periodic flush writes them to disk.
+	 * @param afterId highest post id in the index
+	 */
+	void catchUpIndex(int afterId);
+}
@@ -0,0 +1,43 @@
+package org.se.lab.service;
+
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+
+/**
+ * Materialized home timelines (fan-out on write).
+ *
+ * Every top level post is written to the timeline of its author, of every user
+ * having the author as contact and of every member of its community. Reading a
+ * home stream is then a single range scan over the timeline table.
+ */
+public interface TimelineService {
+
+	/**
+	 * Gets one page of the home timeline of given user, newest first
+	 * @param user
+	 * @param continuation token of the previous page, null for the first page
+	 * @param pageSize 1 to ActivityStreamService.MAX_PAGE_SIZE
+	 * @return (Page<Post>) page
+	 */
+	Page<Post> getHomeTimeline(User user, String continuation, int pageSize);
+
+	/**
+	 * Writes the created post to all affected timelines.
+	 * Runs asynchronously in bounded batches, each in its own transaction.
+	 * @param event CREATED event of the post
+	 */
+	void fanOut(PostEvent event);
+
+	/**
+	 * Removes the given post from all timelines, within the caller's transaction
+	 * @param post
+	 */
+	void removePost(Post post);
+
+	/**
+	 * Backfill job: rebuilds all timelines from the existing posts.
+	 * Runs asynchronously, one transaction per range of post ids.
+	 */
+	void rebuildTimelines();
+}
@@ -0,0 +1,26 @@
+package org.se.lab.service;
+
+import java.io.Serializable;
+
+/**
+ * CDI event fired when a user, its roles or its community memberships were
+ * written. Observed by CurrentUser to drop its cached state.
+ */
+public final class UserChangedEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final int userId;
+
+	public UserChangedEvent(int userId) {
+		this.userId = userId;
+	}
+
+	public int getUserId() {
+		return userId;
+	}
+
+	@Override
+	public String toString() {
+		return "UserChangedEvent [userId=" + userId + "]";
+	}
+}
@@ -4,8 +4,11 @@ import java.util.List;
 
 import org.se.lab.data.Community;
 import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
 import org.se.lab.data.UserContact;
 import org.se.lab.data.UserProfile;
+import org.se.lab.data.UserProfileSummary;
+import org.se.lab.data.UserSummary;
 
 public interface UserService {
 
@@ -33,6 +36,32 @@ public interface UserService {
 
 	List<UserProfile> getAllUserProfiles();
 
+	/**
+	 * Summaries of all user profiles for overview and listing pages,
+	 * the full profile is loaded with getUserProfilById
+	 * @return (List<UserProfileSummary>) summaries ordered by id
+	 */
+	List<UserProfileSummary> getAllUserProfileSummaries();
+
+	/**
+	 * Summaries of one page of a user profile table
+	 * @param lastnamePrefix only profiles with a lastname starting with it, null for all
+	 * @param sortField "lastname" or "id"
+	 * @param descending
+	 * @param first index of the first row
+	 * @param pageSize 1 to ActivityStreamService.MAX_PAGE_SIZE
+	 * @return (List<UserProfileSummary>) summaries
+	 */
+	List<UserProfileSummary> getUserProfileSummaries(String lastnamePrefix, String sortField, boolean descending,
+			int first, int pageSize);
+
+	/**
+	 * @param lastnamePrefix only profiles with a lastname starting with it, null for all
+	 * @return (long) number of profiles listed by getUserProfileSummaries,
+	 *         counted at most a few seconds ago
+	 */
+	long countUserProfiles(String lastnamePrefix);
+
 	List<Community> getAllCommunitiesForUser(User user);
 
 	/*
@@ -40,14 +69,49 @@ public interface UserService {
 	 */
 	void delete(int id);
 
+	/**
+	 * @param id
+	 * @return user with all associations, see UserFetchProfile.FULL
+	 */
 	User findById(int id);
 
+	/**
+	 * @param id
+	 * @param profile smallest profile covering what the caller reads
+	 * @return user with the associations of the profile, null if there is none
+	 */
+	User findById(int id, UserFetchProfile profile);
+
 	void userValidator(User user);
 
 	void addPictureToProfile(UserProfile userProfile);
 
 	boolean hasUserTheRole(ROLE privileg, User user);
 	
-	List<User> getContactsOfUser(User user);
+	/**
+	 * Id and username of all contacts of given user, loaded in one batch;
+	 * users already loaded in the current request are not queried again
+	 * @param user
+	 * @return (List<UserSummary>) contacts in the order of the UserContacts
+	 */
+	List<UserSummary> getContactsOfUser(User user);
+
+	/**
+	 * People you may know: contacts of the contacts of given user, ranked by
+	 * the number of mutual contacts. Read from the in-memory contact graph,
+	 * without database access
+	 * @param user
+	 * @param maxResults
+	 * @return (List<ContactSuggestion>) most mutual contacts first
+	 */
+	List<ContactSuggestion> getContactSuggestions(User user, int maxResults);
+
+	/**
+	 * @param userId
+	 * @param otherId
+	 * @return (List<Integer>) ids of the users both given users have as
+	 *         contact, ascending; read from the in-memory contact graph
+	 */
+	List<Integer> getMutualContactIds(int userId, int otherId);
 
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package org.se.lab.service.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.se.lab.data.Community;
+import org.se.lab.data.Page;
 
 public interface CommunityDAO extends DAOTemplate<Community> {
 	
@@ -27,6 +29,38 @@ public interface CommunityDAO extends DAOTemplate<Community> {
 	 */
 	List<Community> findApprovedCommunities();
 
+	/**
+	 * findApprovedPage find one page of the approved communities ordered by id.
+	 * Member lists are not initialized.
+	 * @param lastId id of the last community of the previous page, 0 for the first page
+	 * @param pageSize maximum number of communities
+	 * @return returns the page, its continuation token is the id of its last community
+	 */
+	Page<Community> findApprovedPage(int lastId, int pageSize);
+
+	/**
+	 * findPage find the rows of one page of a community table. Member lists
+	 * are not initialized.
+	 * @param stateIds ids of the states of the listed communities, not empty
+	 * @param namePrefix only communities with a name starting with it, null for all
+	 * @param sortField "name" or "id", anything else sorts by id
+	 * @param descending
+	 * @param first index of the first row
+	 * @param pageSize maximum number of rows
+	 * @return returns the rows, empty behind the last page
+	 */
+	List<Community> findPage(Collection<Integer> stateIds, String namePrefix, String sortField,
+			boolean descending, int first, int pageSize);
+
+	/**
+	 * count the communities listed by findPage; runs over all of them, callers
+	 * should cache the result
+	 * @param stateIds ids of the states of the listed communities, not empty
+	 * @param namePrefix only communities with a name starting with it, null for all
+	 * @return returns the number of communities
+	 */
+	long count(Collection<Integer> stateIds, String namePrefix);
+
 	/**
 	 * create a new Community. Only with this method there is a guarantee that the 
 	 * community is correctly created and stored in database.
@@ -36,4 +70,21 @@ public interface CommunityDAO extends DAOTemplate<Community> {
 	 */
 	Community createCommunity(String name, String description);
 
+	/**
+	 * findByMember find all communities the given user is member of. Reads the
+	 * user_community join table by user id, member lists are not initialized.
+	 * @param userId id of the member
+	 * @return returns a list of communities ordered by id, empty if there are none
+	 */
+	List<Community> findByMember(int userId);
+
+	/**
+	 * isMember checks if the given user is member of the given community
+	 * without loading any community or member list.
+	 * @param userId id of the user
+	 * @param communityId id of the community
+	 * @return returns true if the membership exists
+	 */
+	boolean isMember(int userId, int communityId);
+
 }
@@ -1,13 +1,35 @@
 package org.se.lab.service.dao;
 
+import java.util.Collection;
 import java.util.List;
 
-import org.se.lab.data.Community;
-
 public interface DAOTemplate<E> {	
 	E insert(E entity);
 	E update(E entity);
 	void delete(E entity);
 	E findById(int id);
 	List<E> findAll();
+
+	/*
+	 * Bulk methods: write through a StatelessSession in JDBC batches, bypassing
+	 * the persistence context, so no cascades, no lifecycle callbacks and
+	 * no CDI events. Managed copies of the written entities become stale.
+	 * Bulk inserts need pooled ids, IDENTITY ids disable insert batching, so
+	 * only the DAOs of such entities offer insertAll, see PostDAO.
+	 */
+
+	/**
+	 * Updates all given detached entities, batchSize rows per round trip
+	 * @param entities
+	 * @param batchSize
+	 */
+	void updateAll(Collection<E> entities, int batchSize);
+
+	/**
+	 * Deletes the entities with the given ids, batchSize ids per statement
+	 * @param ids
+	 * @param batchSize
+	 * @return (int) number of deleted rows
+	 */
+	int deleteByIds(Collection<Integer> ids, int batchSize);
 }
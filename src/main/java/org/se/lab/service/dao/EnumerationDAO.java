@@ -49,6 +49,13 @@ public interface EnumerationDAO {
 	 */
 	List<Enumeration> findAll();
 	
+	/**
+	 * Gets id and name of all persisted Enumerations, ordered by id,
+	 * without loading their users, communities and likes
+	 * @return (List<Enumeration>) detached references, see Enumeration#reference
+	 */
+	List<Enumeration> findAllReferences();
+	
 	/**
 	 * Gets all persisted Users with given Enumeration id assigned
 	 * @param id
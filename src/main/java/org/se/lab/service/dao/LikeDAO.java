@@ -0,0 +1,43 @@
+package org.se.lab.service.dao;
+
+import org.se.lab.data.Like;
+
+public interface LikeDAO {
+
+	/**
+	 * Gets the Like of given user for given post
+	 * @param postId
+	 * @param userId
+	 * @return (Like) like or null if the user did not react to the post
+	 */
+	Like find(int postId, int userId);
+
+	/**
+	 * Persists the given Like
+	 * Flushes at once, so a duplicate Like fails here and not at commit
+	 * @param like
+	 * @return (Like) like
+	 */
+	Like insert(Like like);
+
+	/**
+	 * Removes the given Like
+	 * @param like
+	 */
+	void delete(Like like);
+
+	/**
+	 * Removes all Likes of the given post, before the post itself is deleted
+	 * @param postId
+	 * @return (int) number of removed Likes
+	 */
+	int deleteForPost(int postId);
+
+	/**
+	 * Adds delta to the denormalized like_count of given post
+	 * @param postId
+	 * @param delta
+	 * @return (int) number of updated posts, 0 if the post does not exist
+	 */
+	int addToLikeCount(int postId, long delta);
+}
@@ -0,0 +1,51 @@
+package org.se.lab.service.dao;
+
+import java.util.Collection;
+
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.data.PictureVariant;
+
+public interface PictureDAO {
+
+	/**
+	 * Gets the content hash of a picture without loading the entity
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @return (String) hash or null if there is no such entity or picture
+	 */
+	String findPictureHash(PictureOwner owner, int id);
+
+	/**
+	 * Gets the original picture without loading the entity
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @return (byte[]) picture or null if there is no such entity or picture
+	 */
+	byte[] findPicture(PictureOwner owner, int id);
+
+	/**
+	 * Gets the hash of the original a stored variant was made from
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @param variant THUMB or MEDIUM
+	 * @return (String) source hash or null if there is no such variant
+	 */
+	String findVariantHash(PictureOwner owner, int id, PictureSize variant);
+
+	/**
+	 * Inserts the given variants or replaces the stored ones
+	 * @param variants
+	 */
+	void saveVariants(Collection<PictureVariant> variants);
+
+	/**
+	 * Reads a picture from the blob column through the JDBC stream,
+	 * without loading the entity
+	 * @param owner
+	 * @param id id of the UserProfile or Community
+	 * @param size ORIGINAL or a stored variant
+	 * @return (byte[]) picture, null if there is no such entity, picture or variant
+	 */
+	byte[] readPicture(PictureOwner owner, int id, PictureSize size);
+}
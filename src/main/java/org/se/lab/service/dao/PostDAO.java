@@ -1,13 +1,17 @@
 package org.se.lab.service.dao;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 import org.se.lab.data.Community;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
 import org.se.lab.data.Post;
+import org.se.lab.data.PostText;
 import org.se.lab.data.User;
 
-public interface PostDAO{
+public interface PostDAO extends DAOTemplate<Post> {
 
 	/**
 	 * Persist given Post
@@ -32,6 +36,15 @@ public interface PostDAO{
 	 * @return (Post) post
 	 */
 	Post update(Post post);
+
+	/**
+	 * Inserts all given Posts, batchSize rows per round trip, see the bulk
+	 * methods of DAOTemplate; parents must come before their replies
+	 * @param posts
+	 * @param batchSize
+	 * @return (List<Post>) the inserted posts, ids assigned
+	 */
+	List<Post> insertAll(Collection<Post> posts, int batchSize);
 	
 	/**
 	 * Removes Post form database
@@ -53,6 +66,81 @@ public interface PostDAO{
 	 */
 	List<Post> getPostsForCommunity(Community community);
 	
+	/**
+	 * Gets one page of Posts for given User, newest first
+	 * Starts strictly after the given cursor (first page if null)
+	 * @param user
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize maximum number of Posts in the page
+	 * @return (Page<Post>) page with continuation token for the next page
+	 */
+	Page<Post> getPostsForUser(User user, KeysetCursor after, int pageSize);
+	
+	/**
+	 * Gets one page of Posts written by the User with given id, newest first
+	 * Used where only the id is at hand, e.g. for contacts
+	 * @param userId
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize maximum number of Posts in the page
+	 * @return (Page<Post>) page with continuation token for the next page
+	 */
+	Page<Post> getPostsForUser(int userId, KeysetCursor after, int pageSize);
+	
+	/**
+	 * Gets one page of Posts for given Community, newest first
+	 * Starts strictly after the given cursor (first page if null)
+	 * @param community
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize maximum number of Posts in the page
+	 * @return (Page<Post>) page with continuation token for the next page
+	 */
+	Page<Post> getPostsForCommunity(Community community, KeysetCursor after, int pageSize);
+
+	/**
+	 * Gets one page of top level Posts written by the User with given id,
+	 * newest first, without replies
+	 * @param userId
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize maximum number of Posts in the page
+	 * @return (Page<Post>) page with continuation token for the next page
+	 */
+	Page<Post> getRootPostsForUser(int userId, KeysetCursor after, int pageSize);
+
+	/**
+	 * Gets one page of top level Posts of the Community with given id,
+	 * newest first, without replies
+	 * @param communityId
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize maximum number of Posts in the page
+	 * @return (Page<Post>) page with continuation token for the next page
+	 */
+	Page<Post> getRootPostsForCommunity(int communityId, KeysetCursor after, int pageSize);
+	
+	/**
+	 * Gets all Posts of the threads with given root ids in one query,
+	 * ordered by depth, then oldest first
+	 * @param rootIds ids of top level Posts
+	 * @param maxDepth replies deeper than maxDepth are not loaded
+	 * @return (List<Post>) roots and replies
+	 */
+	List<Post> findThreadPosts(Collection<Integer> rootIds, int maxDepth);
+
+	/**
+	 * Gets the Posts with given ids in one query, in no particular order
+	 * @param ids
+	 * @return (List<Post>) posts, without the ids not found
+	 */
+	List<Post> findByIds(Collection<Integer> ids);
+	
+	/**
+	 * Gets id, author, community and text of the Posts with id > afterId,
+	 * ordered by id, without loading the entities
+	 * @param afterId last id of the previous batch, 0 for the first batch
+	 * @param maxResults
+	 * @return (List<PostText>) texts
+	 */
+	List<PostText> findTextsAfter(int afterId, int maxResults);
+	
 	/**
 	 * Gets all persisted Posts
 	 * @return (List<Post>) posts
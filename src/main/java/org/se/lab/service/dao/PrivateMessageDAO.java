@@ -2,14 +2,64 @@ package org.se.lab.service.dao;
 
 import java.util.List;
 
+import org.se.lab.data.Conversation;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
 import org.se.lab.data.PrivateMessage;
 
 public interface PrivateMessageDAO 
 {
+	/**
+	 * Persist given PrivateMessage in the conversation of its sender and
+	 * receiver, which is created with the first message. The conversation is
+	 * locked until the end of the transaction and records the message as its
+	 * latest one, read by the sender.
+	 * @param privateMessage
+	 * @return (PrivateMessage) privateMessage, id and conversation assigned
+	 */
 	PrivateMessage insert(PrivateMessage privateMessage);
     void delete(PrivateMessage privateMessage);
 
     List<PrivateMessage> findAll();
 
     PrivateMessage findById(int id);
+
+    /**
+     * @param userId
+     * @param otherId
+     * @return (Conversation) conversation of both users in any order, null if
+     *         they have none
+     */
+    Conversation findConversation(int userId, int otherId);
+
+    /**
+     * Returns one page of the inbox of a user, the conversation with the
+     * latest message first. Costs two index range scans of pageSize + 1 rows,
+     * one per participant column, whatever the number of messages.
+     * @param userId
+     * @param after position of the last Conversation of the previous page or null
+     * @param pageSize maximum number of Conversations in the page
+     * @return (Page<Conversation>) page with continuation token for the next page
+     */
+    Page<Conversation> getConversations(int userId, KeysetCursor after, int pageSize);
+
+    /**
+     * Returns one page of messages of a conversation, latest first, with
+     * sender and receiver loaded
+     * @param conversation
+     * @param after position of the last PrivateMessage of the previous page or null
+     * @param pageSize maximum number of PrivateMessages in the page
+     * @return (Page<PrivateMessage>) page with continuation token for the next page
+     */
+    Page<PrivateMessage> getMessages(Conversation conversation, KeysetCursor after, int pageSize);
+
+    /**
+     * Moves the read mark of a participant forward to the given message; the
+     * conversation is locked until the end of the transaction
+     * @param conversation
+     * @param userId participant
+     * @param messageId latest message seen by the participant
+     * @return (Conversation) conversation with its current state
+     */
+    Conversation markRead(Conversation conversation, int userId, int messageId);
 }
@@ -0,0 +1,68 @@
+package org.se.lab.service.dao;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+
+public interface TimelineDAO {
+
+	/**
+	 * Adds the given Post to the home timeline of every given user
+	 * Writes one statement per call, so callers can write large fan-outs
+	 * in bounded batches; users who already have the Post are skipped
+	 * @param postId
+	 * @param created (java.util.Date) creation time of the Post
+	 * @param userIds
+	 */
+	void insertEntries(int postId, Date created, Collection<Integer> userIds);
+
+	/**
+	 * Removes the given Post from all home timelines
+	 * @param postId
+	 * @return (int) number of removed entries
+	 */
+	int deleteEntriesForPost(int postId);
+
+	/**
+	 * Gets one page of the home timeline of given user, newest first
+	 * @param userId
+	 * @param after position of the last Post of the previous page or null
+	 * @param pageSize
+	 * @return (Page<Post>) page
+	 */
+	Page<Post> getTimeline(int userId, KeysetCursor after, int pageSize);
+
+	/**
+	 * Gets the ids of all users having the given author as contact
+	 * @param authorId
+	 * @return (List<Integer>) user ids
+	 */
+	List<Integer> findFollowerIds(int authorId);
+
+	/**
+	 * Gets one batch of member ids of given community, ordered by id
+	 * @param communityId
+	 * @param afterUserId last id of the previous batch, 0 for the first batch
+	 * @param batchSize
+	 * @return (List<Integer>) user ids
+	 */
+	List<Integer> findMemberIds(int communityId, int afterUserId, int batchSize);
+
+	/**
+	 * Rebuilds the timeline entries of all top level Posts with
+	 * fromPostId <= id <= toPostId from the contact and community tables
+	 * @param fromPostId
+	 * @param toPostId
+	 * @return (int) number of written entries
+	 */
+	int rebuildRange(int fromPostId, int toPostId);
+
+	/**
+	 * @return (int) highest persisted Post id, 0 if there are no Posts
+	 */
+	int findMaxPostId();
+}
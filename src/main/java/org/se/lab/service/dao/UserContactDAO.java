@@ -2,6 +2,7 @@ package org.se.lab.service.dao;
 
 import java.util.List;
 
+import org.se.lab.data.ContactEdge;
 import org.se.lab.data.User;
 import org.se.lab.data.UserContact;
 
@@ -19,4 +20,12 @@ public interface UserContactDAO {
     void deleteContactForUserIdAndContactId(int contactId,int userId);
     List<UserContact> findContactsbyUser(User user);
 
+    /**
+     * Reads the contact table in pages, without loading entities
+     * @param afterId id of the last edge of the previous page, 0 for the first page
+     * @param maxResults
+     * @return (List<ContactEdge>) next edges ordered by id
+     */
+    List<ContactEdge> findEdges(int afterId, int maxResults);
+
 }
@@ -5,14 +5,52 @@
 
 package org.se.lab.service.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.data.UserSummary;
 
 public interface UserDAO extends DAOTemplate<User> {
 
 	/**
-	 * @return user searched by username
+	 * @return user searched by username, loaded with UserFetchProfile.FULL
 	 */
 	User findByUsername(String username);
 
+	/**
+	 * @param username
+	 * @param profile associations to load, the rest stays lazy
+	 * @return user searched by username, null if there is none
+	 */
+	User findByUsername(String username, UserFetchProfile profile);
+
+	/**
+	 * @param id
+	 * @param profile associations to load, the rest stays lazy
+	 * @return user with the given id, null if there is none
+	 */
+	User findById(int id, UserFetchProfile profile);
+
+	/**
+	 * @param profile associations to load for every user
+	 * @return (List<User>) all users
+	 */
+	List<User> findAll(UserFetchProfile profile);
+
 	User createUser(String username, String password);
+
+	/**
+	 * Loads id and username of the given users with one IN query per
+	 * MAX_IDS_PER_QUERY ids, without initializing any User entity
+	 * @param ids user ids, unknown ids are skipped
+	 * @return (List<UserSummary>) summaries ordered by id
+	 */
+	List<UserSummary> findSummariesByIds(Collection<Integer> ids);
+
+	/**
+	 * Upper bound of the IN list of findSummariesByIds
+	 */
+	int MAX_IDS_PER_QUERY = 500;
 }
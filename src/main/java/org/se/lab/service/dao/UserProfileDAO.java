@@ -3,6 +3,7 @@ package org.se.lab.service.dao;
 import java.util.List;
 
 import org.se.lab.data.UserProfile;
+import org.se.lab.data.UserProfileSummary;
 
 public interface UserProfileDAO {
 
@@ -12,6 +13,33 @@ public interface UserProfileDAO {
 
     List<UserProfile> findAll();
 
+    /**
+     * Summaries of all user profiles, ordered by id, without loading
+     * pictures or users
+     * @return (List<UserProfileSummary>) summaries
+     */
+    List<UserProfileSummary> findAllSummaries();
+
+    /**
+     * Summaries of one page of a user profile table
+     * @param lastnamePrefix only profiles with a lastname starting with it, null for all
+     * @param sortField "lastname" or "id", anything else sorts by id
+     * @param descending
+     * @param first index of the first row
+     * @param pageSize maximum number of rows
+     * @return (List<UserProfileSummary>) summaries, empty behind the last page
+     */
+    List<UserProfileSummary> findSummaries(String lastnamePrefix, String sortField, boolean descending,
+            int first, int pageSize);
+
+    /**
+     * Number of profiles listed by findSummaries; runs over all of them,
+     * callers should cache the result
+     * @param lastnamePrefix only profiles with a lastname starting with it, null for all
+     * @return (long) number of profiles
+     */
+    long count(String lastnamePrefix);
+
     UserProfile findById(int id);
 
 
@@ -1,24 +1,66 @@
 package org.se.lab.service.impl;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Like;
+import org.se.lab.data.Page;
 import org.se.lab.data.Post;
+import org.se.lab.data.PostThread;
 import org.se.lab.data.User;
+import org.se.lab.data.UserContact;
+import org.se.lab.data.UserFetchProfile;
 import org.se.lab.service.ActivityStreamService;
+import org.se.lab.service.FeedMode;
+import org.se.lab.service.LikeEvent;
+import org.se.lab.service.PostEvent;
 import org.se.lab.service.ServiceException;
+import org.se.lab.service.TimelineService;
+import org.se.lab.service.dao.LikeDAO;
 import org.se.lab.service.dao.PostDAO;
+import org.se.lab.service.dao.UserContactDAO;
+import org.se.lab.service.dao.UserDAO;
 
 import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Stateless
 public class ActivityStreamServiceImpl implements ActivityStreamService {
-    private final Logger LOG = Logger.getLogger(ActivityStreamServiceImpl.class);
+    private static final Log LOG = Log.get(ActivityStreamServiceImpl.class);
 
     @Inject
     private PostDAO dao;
 
+    @Inject
+    private UserDAO userDAO;
+
+    @Inject
+    private UserContactDAO userContactDAO;
+
+    @Inject
+    private TimelineService timelineService;
+
+    @Inject
+    private Event<PostEvent> postEvents;
+
+    @Inject
+    private LikeDAO likeDAO;
+
+    @Inject
+    private LikeCounter likeCounter;
+
+    @Inject
+    private Event<LikeEvent> likeEvents;
+
     /* (non-Javadoc)
 	 * @see org.se.lab.service.ActivityStreamService#insert(org.se.lab.data.Post)
 	 */
@@ -32,7 +74,7 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
 	 */
     @Override
 	public void insert(Post post, Community community) {
-        LOG.debug("insert " + post);
+        LOG.debug("insert {}", post);
 
         try {
             if (community == null) {
@@ -40,8 +82,9 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
             } else {
                 dao.insert(post, community);
             }
+            postEvents.fire(PostEvent.created(post));
         } catch (Exception e) {
-            LOG.error("Can't insert post " + post, e);
+            LOG.error("Can't insert post {}", post, e);
             throw new ServiceException("Can't insert post " + post);
         }
     }
@@ -51,11 +94,15 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
 	 */
     @Override
 	public void delete(Post post) {
-        LOG.debug("delete " + post);
+        LOG.debug("delete {}", post);
         try {
+            timelineService.removePost(post);
+            // post_like references the post
+            likeDAO.deleteForPost(post.getId());
             dao.delete(post);
+            postEvents.fire(PostEvent.deleted(post));
         } catch (Exception e) {
-            LOG.error("Can't delete post " + post, e);
+            LOG.error("Can't delete post {}", post, e);
             throw new ServiceException("Can't delete post " + post);
         }
     }
@@ -65,11 +112,12 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
 	 */
     @Override
 	public void update(Post post) {
-        LOG.debug("update " + post);
+        LOG.debug("update {}", post);
         try {
             dao.update(post);
+            postEvents.fire(PostEvent.updated(post));
         } catch (Exception e) {
-            LOG.error("Can't update post " + post, e);
+            LOG.error("Can't update post {}", post, e);
             throw new ServiceException("Can't update post " + post);
         }
     }
@@ -79,7 +127,7 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
 	 */
     @Override
 	public List<Post> getPostsForUser(User user) {
-        LOG.debug("getting posts relevant for " + user);
+        LOG.debug("getting posts relevant for {}", user);
         return dao.getPostsForUser(user);
     }
 
@@ -88,7 +136,178 @@ public class ActivityStreamServiceImpl implements ActivityStreamService {
 	 */
     @Override
 	public List<Post> getPostsForCommunity(Community community) {
-        LOG.debug("getting posts relevant for " + community);
+        LOG.debug("getting posts relevant for {}", community);
         return dao.getPostsForCommunity(community);
     }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getPostsForUser(org.se.lab.data.User, java.lang.String, int)
+	 */
+    @Override
+    public Page<Post> getPostsForUser(User user, String continuation, int pageSize) {
+        LOG.debug("getting page of posts for {}", user);
+        KeysetCursor after = Continuations.decode(continuation, pageSize);
+        try {
+            return dao.getPostsForUser(user, after, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't load posts for {}", user, e);
+            throw new ServiceException("Can't load posts for " + user);
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getPostsForCommunity(org.se.lab.data.Community, java.lang.String, int)
+	 */
+    @Override
+    public Page<Post> getPostsForCommunity(Community community, String continuation, int pageSize) {
+        LOG.debug("getting page of posts for {}", community);
+        KeysetCursor after = Continuations.decode(continuation, pageSize);
+        try {
+            return dao.getPostsForCommunity(community, after, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't load posts for {}", community, e);
+            throw new ServiceException("Can't load posts for " + community);
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getHomeFeed(org.se.lab.data.User, org.se.lab.service.FeedMode, java.lang.String, int)
+	 */
+    @Override
+    public Page<Post> getHomeFeed(User user, FeedMode mode, String continuation, int pageSize) {
+        if (mode == FeedMode.MATERIALIZED) {
+            return timelineService.getHomeTimeline(user, continuation, pageSize);
+        }
+        LOG.debug("merging home feed of {}", user);
+        KeysetCursor after = Continuations.decode(continuation, pageSize);
+        try {
+            return mergeHomeFeed(user, after, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't load home feed of {}", user, e);
+            throw new ServiceException("Can't load home feed of " + user);
+        }
+    }
+
+    /*
+     * One lazy source per user, contact and community; each source loads at
+     * most one page, however many sources there are.
+     */
+    private Page<Post> mergeHomeFeed(User user, KeysetCursor after, int pageSize) {
+        int chunkSize = pageSize + 1;
+        List<PostSource> sources = new ArrayList<>();
+        sources.add(new PostSource((a, n) -> dao.getRootPostsForUser(user.getId(), a, n), after, chunkSize));
+        for (UserContact contact : userContactDAO.findContactsbyUser(user)) {
+            int contactId = contact.getContactId();
+            sources.add(new PostSource((a, n) -> dao.getRootPostsForUser(contactId, a, n), after, chunkSize));
+        }
+        // reload, the communities of a detached user are not initialized
+        for (Community community : userDAO.findById(user.getId(), UserFetchProfile.PROFILE_PAGE).getCommunities()) {
+            int communityId = community.getId();
+            sources.add(new PostSource((a, n) -> dao.getRootPostsForCommunity(communityId, a, n), after, chunkSize));
+        }
+
+        KWayMergeIterator<Post> merged = new KWayMergeIterator<>(sources, PostSource.NEWEST_FIRST);
+        List<Post> rows = new ArrayList<>(chunkSize);
+        Post last = null;
+        while (rows.size() < chunkSize && merged.hasNext()) {
+            Post post = merged.next();
+            // a contact's post in a joined community comes from two sources, always adjacent
+            if (last == null || last.getId() != post.getId()) {
+                rows.add(post);
+            }
+            last = post;
+        }
+        return Page.of(rows, pageSize, KeysetCursor::of);
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getThreads(java.util.List, int, int)
+	 */
+    @Override
+    public List<PostThread> getThreads(List<Post> posts, int maxDepth, int maxReplies) {
+        if (maxDepth < 0 || maxReplies < 0) {
+            LOG.error("Invalid thread limits {}, {}", maxDepth, maxReplies);
+            throw new ServiceException("Invalid thread limits " + maxDepth + ", " + maxReplies);
+        }
+        LOG.debug("loading threads of {} posts", posts.size());
+        try {
+            Set<Integer> rootIds = new LinkedHashSet<>();
+            for (Post post : posts) {
+                rootIds.add(post.getRootPostId());
+            }
+            return PostThread.assemble(posts, dao.findThreadPosts(rootIds, maxDepth), maxReplies);
+        } catch (Exception e) {
+            LOG.error("Can't load threads of {}", posts, e);
+            throw new ServiceException("Can't load threads of " + posts);
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#like(org.se.lab.data.Post, org.se.lab.data.User, org.se.lab.data.Enumeration)
+	 */
+    @Override
+    public boolean like(Post post, User user, Enumeration reaction) {
+        LOG.debug("{} likes {}", user, post);
+        try {
+            Like like = likeDAO.find(post.getId(), user.getId());
+            if (like != null) {
+                like.setReaction(reaction);
+                return false;
+            }
+            likeDAO.insert(new Like(post.getId(), user.getId(), reaction));
+            likeEvents.fire(LikeEvent.liked(post.getId(), user.getId()));
+            return true;
+        } catch (Exception e) {
+            LOG.error("Can't like post {}", post, e);
+            throw new ServiceException("Can't like post " + post);
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#unlike(org.se.lab.data.Post, org.se.lab.data.User)
+	 */
+    @Override
+    public boolean unlike(Post post, User user) {
+        LOG.debug("{} unlikes {}", user, post);
+        try {
+            Like like = likeDAO.find(post.getId(), user.getId());
+            if (like == null) {
+                return false;
+            }
+            likeDAO.delete(like);
+            likeEvents.fire(LikeEvent.unliked(post.getId(), user.getId()));
+            return true;
+        } catch (Exception e) {
+            LOG.error("Can't unlike post {}", post, e);
+            throw new ServiceException("Can't unlike post " + post);
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#toggleLike(org.se.lab.data.Post, org.se.lab.data.User, org.se.lab.data.Enumeration)
+	 */
+    @Override
+    public boolean toggleLike(Post post, User user, Enumeration reaction) {
+        return !unlike(post, user) && like(post, user, reaction);
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getLikeCount(org.se.lab.data.Post)
+	 */
+    @Override
+    public long getLikeCount(Post post) {
+        return post.getLikeCount() + likeCounter.getPending(post.getId());
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.ActivityStreamService#getLikeCounts(java.util.Collection)
+	 */
+    @Override
+    public Map<Integer, Long> getLikeCounts(Collection<Post> posts) {
+        Map<Integer, Long> likes = new HashMap<>();
+        for (Post post : posts) {
+            likes.put(post.getId(), getLikeCount(post));
+        }
+        return likes;
+    }
 }
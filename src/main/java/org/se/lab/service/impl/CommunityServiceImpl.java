@@ -1,20 +1,25 @@
 package org.se.lab.service.impl;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.Page;
 import org.se.lab.data.User;
 import org.se.lab.service.CommunityService;
 import org.se.lab.service.EnumerationService;
 import org.se.lab.service.ServiceException;
+import org.se.lab.service.UserChangedEvent;
 import org.se.lab.service.dao.CommunityDAO;
 
 import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.List;
 
 @Stateless
 public class CommunityServiceImpl implements CommunityService {
-    private final Logger LOG = Logger.getLogger(CommunityServiceImpl.class);
+    private static final Log LOG = Log.get(CommunityServiceImpl.class);
 
     @Inject
     private EnumerationService enumerationService;
@@ -22,6 +27,15 @@ public class CommunityServiceImpl implements CommunityService {
     @Inject
     private CommunityDAO communityDAO;
 
+    @Inject
+    private Event<UserChangedEvent> userEvents;
+
+    @Inject
+    private RowCountCache rowCounts;
+
+    // prefix of the row count keys of community tables
+    private static final String COUNT_KEY = "community:";
+
     /* (non-Javadoc)
      * @see org.se.lab.service.CommunityService#findAll()
 	 */
@@ -50,6 +64,52 @@ public class CommunityServiceImpl implements CommunityService {
         }
     }
 
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.CommunityService#getApproved(java.lang.String, int)
+	 */
+    @Override
+    public Page<Community> getApproved(String continuation, int pageSize) {
+        LOG.debug("getting page of approved communities after {}", continuation);
+        int lastId = Continuations.decodeId(continuation, pageSize);
+        try {
+            return communityDAO.findApprovedPage(lastId, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't findApprovedPage", e);
+            throw new ServiceException("Can't findApprovedPage");
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.CommunityService#getPage(java.util.List, java.lang.String, java.lang.String, boolean, int, int)
+	 */
+    @Override
+    public List<Community> getPage(List<Enumeration> states, String namePrefix, String sortField, boolean descending,
+            int first, int pageSize) {
+        LOG.debug("getting communities {} to {} of {}", first, first + pageSize, states);
+        Continuations.checkRows(first, pageSize);
+        try {
+            return communityDAO.findPage(stateIds(states), namePrefix, sortField, descending, first, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't find page of communities", e);
+            throw new ServiceException("Can't find page of communities");
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.CommunityService#count(java.util.List, java.lang.String)
+	 */
+    @Override
+    public long count(List<Enumeration> states, String namePrefix) {
+        List<Integer> stateIds = stateIds(states);
+        try {
+            return rowCounts.get(COUNT_KEY + stateIds + ":" + namePrefix,
+                    () -> communityDAO.count(stateIds, namePrefix));
+        } catch (Exception e) {
+            LOG.error("Can't count communities", e);
+            throw new ServiceException("Can't count communities");
+        }
+    }
+
     /* (non-Javadoc)
 	 * @see org.se.lab.service.CommunityService#getPending()
 	 */
@@ -70,12 +130,13 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public void delete(Community community) {
-        LOG.debug("delete " + community);
+        LOG.debug("delete {}", community);
 
         try {
             communityDAO.delete(community);
+            rowCounts.invalidate(COUNT_KEY);
         } catch (Exception e) {
-            LOG.error("Can't delete community " + community, e);
+            LOG.error("Can't delete community {}", community, e);
             throw new ServiceException("Can't delete community " + community);
         }
     }
@@ -85,12 +146,14 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public void update(Community community) {
-        LOG.debug("update " + community);
+        LOG.debug("update {}", community);
 
         try {
             communityDAO.update(community);
+            // e.g. approved or refused
+            rowCounts.invalidate(COUNT_KEY);
         } catch (Exception e) {
-            LOG.error("Can't update community " + community, e);
+            LOG.error("Can't update community {}", community, e);
             throw new ServiceException("Can't update community " + community);
         }
     }
@@ -100,29 +163,46 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public void join(Community community, User user) {
-        LOG.debug("adding " + user + " to " + community);
+        LOG.debug("adding {} to {}", user, community);
 
         if (community != null && user != null) {
             community.addUsers(user);
             update(community);
+            userEvents.fire(new UserChangedEvent(user.getId()));
         } else {
-            LOG.error("Can't join user " + user + " to community " + community);
+            LOG.error("Can't join user {} to community {}", user, community);
             throw new ServiceException("Can't join user " + user + " to community " + community);
         }
     }
 
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.CommunityService#isMember(int, int)
+	 */
+    @Override
+    public boolean isMember(int userId, int communityId) {
+        LOG.debug("isMember {} {}", userId, communityId);
+
+        try {
+            return communityDAO.isMember(userId, communityId);
+        } catch (Exception e) {
+            LOG.error("Can't check membership of user {} in community {}", userId, communityId, e);
+            throw new ServiceException("Can't check membership of user " + userId + " in community " + communityId);
+        }
+    }
+
     /* (non-Javadoc)
 	 * @see org.se.lab.service.CommunityService#request(org.se.lab.data.Community)
 	 */
     @Override
     public void request(Community community) {
-        LOG.debug("request " + community);
+        LOG.debug("request {}", community);
         community.setState(enumerationService.getPending());
 
         try {
             communityDAO.insert(community);
+            rowCounts.invalidate(COUNT_KEY);
         } catch (Exception e) {
-            LOG.error("Can't insert community " + community, e);
+            LOG.error("Can't insert community {}", community, e);
             throw new ServiceException("Can't insert community " + community);
         }
     }
@@ -132,13 +212,13 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public void approve(Community community) {
-        LOG.debug("approve " + community);
+        LOG.debug("approve {}", community);
 
         if (community.getState().equals(enumerationService.getPending())) {
             community.setState(enumerationService.getApproved());
             update(community);
         } else {
-            LOG.warn("Can`t approve community " + community.getName() + "; Community is in State: " + community.getState());
+            LOG.warn("Can`t approve community {}; Community is in State: {}", community.getName(), community.getState());
             throw new ServiceException("Can`t approve community " + community.getName() + "; Community is in State: " + community.getState());
         }
     }
@@ -148,12 +228,12 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public Community findById(int id) {
-        LOG.debug("findById " + id);
+        LOG.debug("findById {}", id);
 
         try {
             return communityDAO.findById(id);
         } catch (Exception e) {
-            LOG.error("Can`t find Id " + id, e);
+            LOG.error("Can`t find Id {}", id, e);
             throw new ServiceException("Can`t find Id " + id);
         }
     }
@@ -163,13 +243,24 @@ public class CommunityServiceImpl implements CommunityService {
 	 */
     @Override
     public void refuse(Community community) {
-        LOG.debug("refuse " + community);
+        LOG.debug("refuse {}", community);
         if (community.getState().equals(enumerationService.getPending())) {
             community.setState(enumerationService.getRefused());
             update(community);
         } else {
-            LOG.warn("Can`t refuse community " + community.getName() + "; Community is in State: " + community.getState());
+            LOG.warn("Can`t refuse community {}; Community is in State: {}", community.getName(), community.getState());
             throw new ServiceException("Can`t refuse community " + community.getName() + "; Community is in State: " + community.getState());
         }
     }
+
+    private static List<Integer> stateIds(List<Enumeration> states) {
+        if (states == null || states.isEmpty()) {
+            throw new ServiceException("No community states given");
+        }
+        List<Integer> ids = new ArrayList<>(states.size());
+        for (Enumeration state : states) {
+            ids.add(state.getId());
+        }
+        return ids;
+    }
 }
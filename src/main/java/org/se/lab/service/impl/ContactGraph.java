@@ -0,0 +1,385 @@
+package org.se.lab.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.se.lab.service.ContactSuggestion;
+
+/**
+ * In-memory graph of the contact table: an edge u -> c for every user u having
+ * c as contact.
+ *
+ * Edges are kept in compressed sparse row form, indexed by user id: the
+ * contacts of u are targets[offsets[u] .. offsets[u + 1]), ascending. That is
+ * 4 bytes per edge and per user id, 1M edges take about 4 MB. Added and removed
+ * edges are kept per user until MAX_PENDING of them are merged into new arrays.
+ * Many concurrent readers, one writer at a time.
+ */
+public class ContactGraph {
+
+    static final int MAX_PENDING = 4096;
+
+    private static final int[] NONE = new int[0];
+
+    // mutual contact count per candidate id, all zero between calls of suggest
+    private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> NONE);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] offsets = new int[1];
+    private int[] targets = NONE;
+    private int edges;
+
+    // changes not yet merged per user: contact id -> true if added, false if removed
+    private final Map<Integer, Map<Integer, Boolean>> pending = new HashMap<>();
+    private int pendingCount;
+
+    // set while a Loader reads the database, merging is deferred until load
+    private boolean loading;
+
+    /**
+     * Collects the edges read from the database, in any order and with
+     * duplicates. Changes made to the graph meanwhile are applied on top.
+     */
+    public class Loader {
+        private long[] collected = new long[1024];
+        private int size;
+
+        private Loader() {
+        }
+
+        public void add(int userId, int contactId) {
+            if (size == collected.length) {
+                collected = Arrays.copyOf(collected, size * 2);
+            }
+            collected[size++] = edge(userId, contactId);
+        }
+
+        /**
+         * Replaces all edges of the graph by the collected ones
+         */
+        public void load() {
+            long[] sorted = Arrays.copyOf(collected, size);
+            collected = null;
+            Arrays.sort(sorted);
+            lock.writeLock().lock();
+            try {
+                replace(sorted, sorted.length);
+                loading = false;
+                merge();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Keeps the current edges, e.g. if reading the database failed
+         */
+        public void cancel() {
+            collected = null;
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                if (pendingCount >= MAX_PENDING) {
+                    merge();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return (Loader) loader for all edges; the graph keeps serving the
+     *         current edges until Loader#load
+     */
+    public Loader loader() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            return new Loader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(int userId, int contactId) {
+        change(userId, contactId, true);
+    }
+
+    public void remove(int userId, int contactId) {
+        change(userId, contactId, false);
+    }
+
+    /**
+     * @return (int[]) contact ids of given user, ascending
+     */
+    public int[] contactsOf(int userId) {
+        lock.readLock().lock();
+        try {
+            return row(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasContact(int userId, int contactId) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Boolean> changes = pending.get(userId);
+            Boolean changed = changes == null ? null : changes.get(contactId);
+            if (changed != null) {
+                return changed;
+            }
+            return inBase(userId, contactId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return (int[]) ids of the users both given users have as contact, ascending
+     */
+    public int[] mutualContacts(int userId, int otherId) {
+        int[] a;
+        int[] b;
+        lock.readLock().lock();
+        try {
+            a = row(userId);
+            b = row(otherId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int[] mutual = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                mutual[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(mutual, n);
+    }
+
+    /**
+     * Friends of friends: users that contacts of the given user have as
+     * contact, except the user and its own contacts, ranked by the number of
+     * such mutual contacts
+     * @param userId
+     * @param maxResults
+     * @return (List<ContactSuggestion>) most mutual contacts first, lower id
+     *         first on equal count
+     */
+    public List<ContactSuggestion> suggest(int userId, int maxResults) {
+        if (maxResults < 1) {
+            return Collections.emptyList();
+        }
+        int[] counts = COUNTS.get();
+        int[] contacts;
+        int[] reached;
+        int n = 0;
+        lock.readLock().lock();
+        try {
+            contacts = row(userId);
+            reached = new int[64];
+            for (int contactId : contacts) {
+                for (int candidate : row(contactId)) {
+                    if (candidate >= counts.length) {
+                        counts = Arrays.copyOf(counts, Math.max(candidate + 1, offsets.length));
+                        COUNTS.set(counts);
+                    }
+                    if (counts[candidate]++ == 0) {
+                        if (n == reached.length) {
+                            reached = Arrays.copyOf(reached, n * 2);
+                        }
+                        reached[n++] = candidate;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // count * 2^32 + (MAX_VALUE - id): a higher value ranks higher
+        PriorityQueue<Long> top = new PriorityQueue<>(maxResults + 1);
+        for (int i = 0; i < n; i++) {
+            int candidate = reached[i];
+            long rank = ((long) counts[candidate] << 32) | (Integer.MAX_VALUE - candidate);
+            counts[candidate] = 0;
+            if (candidate == userId || Arrays.binarySearch(contacts, candidate) >= 0) {
+                continue;
+            }
+            if (top.size() < maxResults) {
+                top.add(rank);
+            } else if (rank > top.peek()) {
+                top.poll();
+                top.add(rank);
+            }
+        }
+
+        List<ContactSuggestion> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            long rank = top.poll();
+            suggestions.add(new ContactSuggestion(Integer.MAX_VALUE - (int) rank, (int) (rank >>> 32)));
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    /**
+     * @return (int) number of edges
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return edges;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return (long) approximate heap used by the arrays and pending changes
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            // a pending change costs a map entry, a boxed key and value
+            return 4L * (offsets.length + targets.length) + 64L * pendingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(int userId, int contactId, boolean added) {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Boolean> changes = pending.computeIfAbsent(userId, id -> new HashMap<>());
+            Boolean previous = changes.get(contactId);
+            boolean before = previous != null ? previous : inBase(userId, contactId);
+            if (before != added) {
+                edges += added ? 1 : -1;
+            }
+            // while loading every change is kept, the loaded edges may predate it
+            if (!loading && inBase(userId, contactId) == added) {
+                if (changes.remove(contactId) != null) {
+                    pendingCount--;
+                }
+            } else if (changes.put(contactId, added) == null) {
+                pendingCount++;
+            }
+            if (pendingCount >= MAX_PENDING && !loading) {
+                merge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // contacts of the user in the arrays with the pending changes applied
+    private int[] row(int userId) {
+        int[] base = NONE;
+        if (userId >= 0 && userId < offsets.length - 1) {
+            base = Arrays.copyOfRange(targets, offsets[userId], offsets[userId + 1]);
+        }
+        Map<Integer, Boolean> changes = pending.get(userId);
+        if (changes == null || changes.isEmpty()) {
+            return base;
+        }
+        int[] row = Arrays.copyOf(base, base.length + changes.size());
+        int n = 0;
+        for (int contactId : base) {
+            if (!Boolean.FALSE.equals(changes.get(contactId))) {
+                row[n++] = contactId;
+            }
+        }
+        for (Map.Entry<Integer, Boolean> change : changes.entrySet()) {
+            if (change.getValue() && !inBase(userId, change.getKey())) {
+                row[n++] = change.getKey();
+            }
+        }
+        Arrays.sort(row, 0, n);
+        return Arrays.copyOf(row, n);
+    }
+
+    private boolean inBase(int userId, int contactId) {
+        if (userId < 0 || userId >= offsets.length - 1) {
+            return false;
+        }
+        return Arrays.binarySearch(targets, offsets[userId], offsets[userId + 1], contactId) >= 0;
+    }
+
+    // writes arrays and pending changes to new arrays
+    private void merge() {
+        if (pendingCount == 0) {
+            return;
+        }
+        long[] merged = new long[edges];
+        int n = 0;
+        for (int userId = 0; userId < offsets.length - 1; userId++) {
+            if (pending.containsKey(userId)) {
+                continue;
+            }
+            for (int i = offsets[userId]; i < offsets[userId + 1]; i++) {
+                merged[n++] = edge(userId, targets[i]);
+            }
+        }
+        for (Integer userId : pending.keySet()) {
+            for (int contactId : row(userId)) {
+                merged[n++] = edge(userId, contactId);
+            }
+        }
+        Arrays.sort(merged, 0, n);
+        pending.clear();
+        pendingCount = 0;
+        replace(merged, n);
+    }
+
+    // sorted edges, duplicates are dropped; pending changes are kept
+    private void replace(long[] sorted, int count) {
+        int maxUserId = count == 0 ? -1 : (int) (sorted[count - 1] >>> 32);
+        int[] newOffsets = new int[maxUserId + 2];
+        int[] newTargets = new int[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                continue;
+            }
+            newOffsets[(int) (sorted[i] >>> 32) + 1]++;
+            newTargets[n++] = (int) sorted[i];
+        }
+        for (int userId = 0; userId <= maxUserId; userId++) {
+            newOffsets[userId + 1] += newOffsets[userId];
+        }
+        offsets = newOffsets;
+        targets = n == count ? newTargets : Arrays.copyOf(newTargets, n);
+
+        edges = n;
+        pendingCount = 0;
+        for (Map.Entry<Integer, Map<Integer, Boolean>> changes : pending.entrySet()) {
+            int userId = changes.getKey();
+            changes.getValue().entrySet().removeIf(change -> inBase(userId, change.getKey()) == change.getValue());
+            for (Boolean added : changes.getValue().values()) {
+                edges += added ? 1 : -1;
+                pendingCount++;
+            }
+        }
+        pending.values().removeIf(Map::isEmpty);
+    }
+
+    private static long edge(int userId, int contactId) {
+        return ((long) userId << 32) | contactId;
+    }
+}
@@ -0,0 +1,77 @@
+package org.se.lab.service.impl;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.data.ContactEdge;
+import org.se.lab.log.Log;
+import org.se.lab.service.ContactEvent;
+import org.se.lab.service.dao.UserContactDAO;
+
+/**
+ * Holds the contact graph of this server and keeps it up to date with the
+ * ContactEvents of committed transactions.
+ *
+ * The graph is read from the contact table on startup and again every night,
+ * which also picks up contacts of deleted users and changes made by other
+ * servers.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ContactGraphIndex {
+    private static final Log LOG = Log.get(ContactGraphIndex.class);
+
+    static final int PAGE_SIZE = 10000;
+
+    private final ContactGraph graph = new ContactGraph();
+
+    @Inject
+    private UserContactDAO userContactDAO;
+
+    @PostConstruct
+    @Schedule(hour = "3", minute = "30", persistent = false)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ContactGraph.Loader loader = graph.loader();
+        try {
+            int afterId = 0;
+            List<ContactEdge> page;
+            do {
+                page = userContactDAO.findEdges(afterId, PAGE_SIZE);
+                for (ContactEdge edge : page) {
+                    loader.add(edge.getUserId(), edge.getContactId());
+                    afterId = edge.getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+        } catch (Exception e) {
+            LOG.error("Can't read contacts, keeping {} contacts", graph.size(), e);
+            loader.cancel();
+            return;
+        }
+        loader.load();
+        LOG.info("loaded {} contacts in {} ms, {} KB", graph.size(), System.currentTimeMillis() - start,
+                graph.getMemoryBytes() / 1024);
+    }
+
+    public void onContactChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ContactEvent event) {
+        if (event.isAdded()) {
+            graph.add(event.getUserId(), event.getContactId());
+        } else {
+            graph.remove(event.getUserId(), event.getContactId());
+        }
+    }
+
+    public ContactGraph getGraph() {
+        return graph;
+    }
+}
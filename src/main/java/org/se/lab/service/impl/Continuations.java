@@ -0,0 +1,76 @@
+package org.se.lab.service.impl;
+
+import org.se.lab.log.Log;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.service.ActivityStreamService;
+import org.se.lab.service.ServiceException;
+
+/**
+ * Validation of the paging arguments shared by the stream services
+ */
+final class Continuations {
+    private static final Log LOG = Log.get(Continuations.class);
+
+    private Continuations() {
+    }
+
+    /**
+     * Checks the page size and decodes the continuation token
+     *
+     * @return the cursor to continue after, null for the first page
+     * @throws ServiceException if page size or token are invalid
+     */
+    static KeysetCursor decode(String continuation, int pageSize) {
+        checkPageSize(pageSize);
+        try {
+            return KeysetCursor.decode(continuation);
+        } catch (IllegalArgumentException e) {
+            LOG.error("Invalid continuation token {}", continuation, e);
+            throw new ServiceException("Invalid continuation token " + continuation, e);
+        }
+    }
+
+    /**
+     * Checks the page size and decodes the continuation token of a result
+     * paged by id
+     *
+     * @return the id to continue after, 0 for the first page
+     * @throws ServiceException if page size or token are invalid
+     */
+    static int decodeId(String continuation, int pageSize) {
+        checkPageSize(pageSize);
+        if (continuation == null || continuation.isEmpty()) {
+            return 0;
+        }
+        try {
+            int lastId = Integer.parseInt(continuation);
+            if (lastId > 0) {
+                return lastId;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        LOG.error("Invalid continuation token {}", continuation);
+        throw new ServiceException("Invalid continuation token " + continuation);
+    }
+
+    /**
+     * Checks the rows of one page of a table paged by offset
+     *
+     * @throws ServiceException if first is negative or page size is invalid
+     */
+    static void checkRows(int first, int pageSize) {
+        if (first < 0) {
+            LOG.error("Invalid first row {}", first);
+            throw new ServiceException("Invalid first row " + first);
+        }
+        checkPageSize(pageSize);
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > ActivityStreamService.MAX_PAGE_SIZE) {
+            LOG.error("Invalid page size {}", pageSize);
+            throw new ServiceException("Invalid page size " + pageSize);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.se.lab.service.impl;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.service.dao.UserDAO;
+
+/**
+ * Reads and writes the credentials of a login, each in a short transaction of
+ * its own. UserServiceImpl#login runs without transaction, so no database
+ * connection is held while it waits for the password hash.
+ */
+@Stateless
+public class CredentialStore {
+
+    @Inject
+    private UserDAO userDAO;
+
+    /**
+     * @return (User) user with its roles (UserFetchProfile.AUTH), null if
+     *         there is none
+     */
+    public User findByUsername(String username) {
+        return userDAO.findByUsername(username, UserFetchProfile.AUTH);
+    }
+
+    /**
+     * Stores the password of the user; committed when the call returns
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void updatePassword(User user) {
+        userDAO.update(user);
+    }
+}
@@ -0,0 +1,131 @@
+package org.se.lab.service.impl;
+
+import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.log.Log;
+import org.se.lab.service.CurrentUser;
+import org.se.lab.service.UserChangedEvent;
+import org.se.lab.service.UserService;
+import org.se.lab.service.UserService.ROLE;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.Reception;
+import javax.inject.Inject;
+import javax.servlet.http.HttpSession;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Loads through the services: the beans using the current user run without
+ * transaction, where the container detaches every entity right after em.find
+ * and the DAOs could not initialize its associations.
+ */
+@RequestScoped
+public class CurrentUserImpl implements CurrentUser {
+    private static final Log LOG = Log.get(CurrentUserImpl.class);
+
+    @Inject
+    private HttpSession session;
+    @Inject
+    private UserService userService;
+
+    // session attribute, read once per request
+    private Integer id;
+
+    private boolean loaded;
+    private User user;
+    private Set<Integer> communityIds;
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#isLoggedIn()
+     */
+    @Override
+    public boolean isLoggedIn() {
+        return getId() != 0;
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#getId()
+     */
+    @Override
+    public int getId() {
+        if (id == null) {
+            Object attribute = session.getAttribute(SESSION_ATTRIBUTE);
+            id = attribute instanceof Integer ? (Integer) attribute : 0;
+        }
+        return id;
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#getUser()
+     */
+    @Override
+    public User getUser() {
+        if (!loaded && isLoggedIn()) {
+            LOG.debug("load current user {}", id);
+            user = userService.findById(id, UserFetchProfile.AUTH);
+            loaded = true;
+        }
+        return user;
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#hasRole(org.se.lab.service.UserService.ROLE)
+     */
+    @Override
+    public boolean hasRole(ROLE role) {
+        User current = getUser();
+        if (current == null) {
+            return false;
+        }
+        for (Enumeration enumeration : current.getRoles()) {
+            if (enumeration.getName().equals(role.name())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#isMemberOf(int)
+     */
+    @Override
+    public boolean isMemberOf(int communityId) {
+        if (communityIds == null) {
+            communityIds = new HashSet<>();
+            User current = getUser();
+            if (current != null) {
+                for (Community community : userService.getAllCommunitiesForUser(current)) {
+                    communityIds.add(community.getId());
+                }
+            }
+        }
+        return communityIds.contains(communityId);
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.CurrentUser#invalidate()
+     */
+    @Override
+    public void invalidate() {
+        LOG.debug("invalidate current user {}", id);
+        // the session attribute changes on login and logout
+        id = null;
+        loaded = false;
+        user = null;
+        communityIds = null;
+    }
+
+    /*
+     * Only notified in requests that already use the current user
+     */
+    public void onUserChanged(@Observes(notifyObserver = Reception.IF_EXISTS) UserChangedEvent event) {
+        if (id != null && id == event.getUserId()) {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.se.lab.service.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+
+import org.se.lab.log.Log;
+import org.se.lab.data.Enumeration;
+import org.se.lab.service.dao.EnumerationDAO;
+
+/**
+ * All rows of the enumeration table, loaded once at startup.
+ *
+ * Lookups by id go to an array, lookups by name to a map; both are replaced
+ * as a whole by reload(), so readers never lock and never see a half loaded
+ * registry. The entries are Enumeration#reference instances, which don't
+ * hold any users or communities.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EnumerationRegistry {
+    private static final Log LOG = Log.get(EnumerationRegistry.class);
+
+    private volatile Entries entries = new Entries(Collections.<Enumeration>emptyList());
+
+    @Inject
+    private EnumerationDAO enumerationDAO;
+
+    /**
+     * Reads the enumeration table again, e.g. after an admin changed it
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        entries = new Entries(enumerationDAO.findAllReferences());
+        LOG.info("loaded {} enumerations", entries.byName.size());
+    }
+
+    /**
+     * @return (Enumeration) enumeration with given id, null if there is none
+     */
+    public Enumeration findById(int id) {
+        Enumeration[] byId = entries.byId;
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    /**
+     * @return (Enumeration) enumeration with given name, null if there is none
+     */
+    public Enumeration findByName(String name) {
+        return entries.byName.get(name);
+    }
+
+    private static final class Entries {
+        private final Enumeration[] byId;
+        private final Map<String, Enumeration> byName;
+
+        Entries(List<Enumeration> enumerations) {
+            int maxId = 0;
+            for (Enumeration e : enumerations) {
+                maxId = Math.max(maxId, e.getId());
+            }
+            byId = new Enumeration[maxId + 1];
+            Map<String, Enumeration> names = new HashMap<>();
+            for (Enumeration e : enumerations) {
+                byId[e.getId()] = e;
+                names.put(e.getName(), e);
+            }
+            byName = Collections.unmodifiableMap(names);
+        }
+    }
+}
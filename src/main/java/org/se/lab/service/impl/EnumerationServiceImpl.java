@@ -2,30 +2,41 @@ package org.se.lab.service.impl;
 
 import javax.inject.Inject;
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.data.Enumeration;
 import org.se.lab.service.EnumerationService;
 import org.se.lab.service.ServiceException;
-import org.se.lab.service.dao.EnumerationDAO;
+import org.se.lab.service.UserService;
 
 public class EnumerationServiceImpl implements EnumerationService {
-    private final Logger LOG = Logger.getLogger(EnumerationServiceImpl.class);
+    private static final Log LOG = Log.get(EnumerationServiceImpl.class);
     
     private final int PENDING = 1;
     private final int APPROVED = 2;
     private final int REFUSED = 3;
+    private final int LIKE = 7;
     
     @Inject
-    private EnumerationDAO enumerationDAO;
+    private EnumerationRegistry registry;
     
 	@Override
 	public Enumeration findById(int id) {
-        try {
-            return enumerationDAO.findById(id);
-        } catch (Exception e) {
-            LOG.error("Can`t find Id " + id, e);
+        Enumeration enumeration = registry.findById(id);
+        if (enumeration == null) {
+            LOG.error("Can`t find Id {}", id);
             throw new ServiceException("Can`t find Id " + id);
         }
+        return enumeration;
+	}
+
+	@Override
+	public Enumeration findByName(String name) {
+        Enumeration enumeration = registry.findByName(name);
+        if (enumeration == null) {
+            LOG.error("Can`t find name {}", name);
+            throw new ServiceException("Can`t find name " + name);
+        }
+        return enumeration;
 	}
 
 	@Override
@@ -42,4 +53,24 @@ public class EnumerationServiceImpl implements EnumerationService {
 	public Enumeration getRefused() {
 		return findById(REFUSED);
 	}
+
+	@Override
+	public Enumeration getRole(UserService.ROLE role) {
+		return findByName(role.name());
+	}
+
+	@Override
+	public Enumeration getLike() {
+		return findById(LIKE);
+	}
+
+	@Override
+	public void reload() {
+        try {
+            registry.reload();
+        } catch (Exception e) {
+            LOG.error("Can`t reload enumerations", e);
+            throw new ServiceException("Can`t reload enumerations");
+        }
+	}
 }
@@ -0,0 +1,194 @@
+package org.se.lab.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search index segments on local disk, so a restart does not need a reindex.
+ *
+ * Every flush appends a segment file with the posts added, replaced or removed
+ * since the previous one. compact() writes the whole index as a base segment;
+ * loading replays the latest base segment and all segments after it, in order.
+ * Segments are written to a temporary file and moved into place, so a crash
+ * never leaves a partial segment behind.
+ */
+public class IndexSegments {
+
+    private static final int MAGIC = 0x50534549; // "PSEI"
+    private static final byte VERSION = 1;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final Pattern NAME = Pattern.compile("segment-(\\d+)\\.idx");
+
+    private final Path directory;
+
+    public IndexSegments(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return (int) number of segment files
+     */
+    public int count() throws IOException {
+        return list().size();
+    }
+
+    /**
+     * @return (Collection<IndexedPost>) indexed posts stored in the segments
+     */
+    public Collection<IndexedPost> load() throws IOException {
+        List<Path> segments = new ArrayList<>(list().values());
+        int from = 0;
+        for (int i = segments.size() - 1; i >= 0 && from == 0; i--) {
+            if (isBase(segments.get(i))) {
+                from = i;
+            }
+        }
+
+        Map<Integer, IndexedPost> posts = new LinkedHashMap<>();
+        for (Path segment : segments.subList(from, segments.size())) {
+            read(segment, posts);
+        }
+        return posts.values();
+    }
+
+    /**
+     * Writes the given changes as a new segment
+     * @param changes by post id, null for removed posts
+     */
+    public void append(Map<Integer, IndexedPost> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        write(false, changes);
+    }
+
+    /**
+     * Writes all given posts as a base segment and deletes the older segments
+     */
+    public void compact(Collection<IndexedPost> posts) throws IOException {
+        Map<Integer, IndexedPost> all = new LinkedHashMap<>();
+        for (IndexedPost post : posts) {
+            all.put(post.getPostId(), post);
+        }
+        Path base = write(true, all);
+        for (Path segment : list().values()) {
+            if (!segment.equals(base)) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    private Path write(boolean base, Map<Integer, IndexedPost> changes) throws IOException {
+        TreeMap<Long, Path> segments = list();
+        long number = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path target = directory.resolve(String.format("segment-%06d.idx", number));
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeBoolean(base);
+            out.writeInt(changes.size());
+            for (Map.Entry<Integer, IndexedPost> change : changes.entrySet()) {
+                IndexedPost post = change.getValue();
+                if (post == null) {
+                    out.writeByte(REMOVE);
+                    out.writeInt(change.getKey());
+                    continue;
+                }
+                out.writeByte(PUT);
+                out.writeInt(post.getPostId());
+                out.writeInt(post.getAuthorId());
+                out.writeInt(post.getCommunityId());
+                out.writeInt(post.getTermCount());
+                for (int i = 0; i < post.getTermCount(); i++) {
+                    out.writeUTF(post.getTerm(i));
+                    out.writeInt(post.getFrequency(i));
+                }
+            }
+        }
+        return Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isBase(Path segment) throws IOException {
+        try (DataInputStream in = open(segment)) {
+            return in.readBoolean();
+        }
+    }
+
+    private static void read(Path segment, Map<Integer, IndexedPost> posts) throws IOException {
+        try (DataInputStream in = open(segment)) {
+            in.readBoolean();
+            int count = in.readInt();
+            for (int c = 0; c < count; c++) {
+                byte op = in.readByte();
+                int postId = in.readInt();
+                if (op == REMOVE) {
+                    posts.remove(postId);
+                    continue;
+                }
+                if (op != PUT) {
+                    throw new IOException("Unknown operation " + op + " in " + segment);
+                }
+                int authorId = in.readInt();
+                int communityId = in.readInt();
+                int termCount = in.readInt();
+                String[] terms = new String[termCount];
+                int[] frequencies = new int[termCount];
+                for (int i = 0; i < termCount; i++) {
+                    terms[i] = in.readUTF();
+                    frequencies[i] = in.readInt();
+                }
+                posts.put(postId, new IndexedPost(postId, authorId, communityId, terms, frequencies));
+            }
+        }
+    }
+
+    // positioned behind the header
+    private static DataInputStream open(Path segment) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a search index segment: " + segment);
+            }
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // segment files by number, oldest first
+    private TreeMap<Long, Path> list() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.idx")) {
+            for (Path file : files) {
+                Matcher matcher = NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,101 @@
+package org.se.lab.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A post as stored in the search index: ids for scoping and the frequency of
+ * every distinct term of its text. Immutable, an update replaces it.
+ */
+public final class IndexedPost {
+
+    private final int postId;
+    private final int authorId;
+    private final int communityId;
+    private final String[] terms;
+    private final int[] frequencies;
+    private final int length;
+
+    public IndexedPost(int postId, int authorId, int communityId, String[] terms, int[] frequencies) {
+        if (terms.length != frequencies.length) {
+            throw new IllegalArgumentException("Every term needs a frequency");
+        }
+        this.postId = postId;
+        this.authorId = authorId;
+        this.communityId = communityId;
+        this.terms = terms;
+        this.frequencies = frequencies;
+        int sum = 0;
+        for (int frequency : frequencies) {
+            sum += frequency;
+        }
+        this.length = sum;
+    }
+
+    /**
+     * Tokenizes the given text
+     * @param communityId 0 if the post is not in a community
+     */
+    public static IndexedPost of(int postId, int authorId, int communityId, String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String term : Tokenizer.tokenize(text)) {
+            counts.merge(term, 1, Integer::sum);
+        }
+        String[] terms = new String[counts.size()];
+        int[] frequencies = new int[counts.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            terms[i] = entry.getKey();
+            frequencies[i++] = entry.getValue();
+        }
+        return new IndexedPost(postId, authorId, communityId, terms, frequencies);
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public int getAuthorId() {
+        return authorId;
+    }
+
+    public int getCommunityId() {
+        return communityId;
+    }
+
+    /**
+     * @return number of distinct terms
+     */
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    public String getTerm(int i) {
+        return terms[i];
+    }
+
+    public int getFrequency(int i) {
+        return frequencies[i];
+    }
+
+    /**
+     * @return number of terms, with duplicates
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @param authorId 0 for any author
+     * @param communityId 0 for any community
+     */
+    public boolean isIn(int authorId, int communityId) {
+        return (authorId == 0 || authorId == this.authorId) && (communityId == 0 || communityId == this.communityId);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedPost [postId=" + postId + ", authorId=" + authorId + ", communityId=" + communityId
+                + ", terms=" + terms.length + "]";
+    }
+}
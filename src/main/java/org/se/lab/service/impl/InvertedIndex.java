@@ -0,0 +1,238 @@
+package org.se.lab.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post texts, ranked with BM25.
+ *
+ * Every term maps to the ids of the posts containing it and the term frequency
+ * in each post. Changes are recorded until drainChanges() hands them to the
+ * next segment on disk. Many concurrent searches, one writer at a time.
+ */
+public class InvertedIndex {
+
+    // BM25 parameters: term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<Integer, IndexedPost> posts = new HashMap<>();
+    private long totalLength;
+
+    // changes not yet written to a segment, null marks a removed post
+    private final Map<Integer, IndexedPost> changes = new LinkedHashMap<>();
+
+    /**
+     * Adds the given post or replaces the indexed version of it
+     */
+    public void put(IndexedPost post) {
+        lock.writeLock().lock();
+        try {
+            drop(post.getPostId());
+            add(post);
+            changes.put(post.getPostId(), post);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the given post unless it is indexed already. Used by the rebuild,
+     * which must not overwrite newer versions written by PostEvents.
+     * @return (boolean) true if the post has been added
+     */
+    public boolean putIfAbsent(IndexedPost post) {
+        lock.writeLock().lock();
+        try {
+            if (posts.containsKey(post.getPostId())) {
+                return false;
+            }
+            add(post);
+            changes.put(post.getPostId(), post);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int postId) {
+        lock.writeLock().lock();
+        try {
+            if (drop(postId)) {
+                changes.put(postId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds posts read from disk, without recording them as changes
+     */
+    public void restore(Collection<IndexedPost> restored) {
+        lock.writeLock().lock();
+        try {
+            for (IndexedPost post : restored) {
+                drop(post.getPostId());
+                add(post);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return (Map<Integer, IndexedPost>) changes since the last call by post id,
+     * in order, null for removed posts
+     */
+    public Map<Integer, IndexedPost> drainChanges() {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, IndexedPost> drained = new LinkedHashMap<>(changes);
+            changes.clear();
+            return drained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return (List<IndexedPost>) copy of all indexed posts
+     */
+    public List<IndexedPost> snapshot() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(posts.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return (int) highest indexed post id, 0 if the index is empty
+     */
+    public int maxPostId() {
+        lock.readLock().lock();
+        try {
+            int max = 0;
+            for (Integer postId : posts.keySet()) {
+                max = Math.max(max, postId);
+            }
+            return max;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return posts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks all posts containing at least one term of the query; posts
+     * containing more of the terms, rarer terms or more often rank higher.
+     * @param query
+     * @param authorId 0 for any author
+     * @param communityId 0 for any community
+     * @param maxResults
+     * @return (List<Integer>) post ids, best first, newer first on equal score
+     */
+    public List<Integer> search(String query, int authorId, int communityId, int maxResults) {
+        Collection<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || maxResults < 1) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int n = posts.size();
+            double averageLength = n == 0 ? 1 : (double) totalLength / n;
+            for (String term : terms) {
+                Map<Integer, Integer> hits = postings.get(term);
+                if (hits == null) {
+                    continue;
+                }
+                int df = hits.size();
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+                for (Map.Entry<Integer, Integer> hit : hits.entrySet()) {
+                    IndexedPost post = posts.get(hit.getKey());
+                    if (!post.isIn(authorId, communityId)) {
+                        continue;
+                    }
+                    double tf = hit.getValue();
+                    double norm = K1 * (1 - B + B * post.getLength() / averageLength);
+                    scores.merge(hit.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top(scores, maxResults);
+    }
+
+    // min-heap of the best maxResults scores
+    private static List<Integer> top(Map<Integer, Double> scores, int maxResults) {
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(InvertedIndex::compare);
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (heap.size() < maxResults) {
+                heap.add(entry);
+            } else if (compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Integer> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private static int compare(Map.Entry<Integer, Double> a, Map.Entry<Integer, Double> b) {
+        int result = Double.compare(a.getValue(), b.getValue());
+        return result != 0 ? result : Integer.compare(a.getKey(), b.getKey());
+    }
+
+    private void add(IndexedPost post) {
+        posts.put(post.getPostId(), post);
+        totalLength += post.getLength();
+        for (int i = 0; i < post.getTermCount(); i++) {
+            postings.computeIfAbsent(post.getTerm(i), term -> new HashMap<>())
+                    .put(post.getPostId(), post.getFrequency(i));
+        }
+    }
+
+    private boolean drop(int postId) {
+        IndexedPost old = posts.remove(postId);
+        if (old == null) {
+            return false;
+        }
+        totalLength -= old.getLength();
+        for (int i = 0; i < old.getTermCount(); i++) {
+            Map<Integer, Integer> hits = postings.get(old.getTerm(i));
+            hits.remove(postId);
+            if (hits.isEmpty()) {
+                postings.remove(old.getTerm(i));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package org.se.lab.service.impl;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges k iterators, each already sorted by the given comparator, into one
+ * sorted iterator.
+ *
+ * A heap holds the head element of every non empty source, so taking n
+ * elements costs O(n log k) and advances each source only as far as needed.
+ */
+public final class KWayMergeIterator<E> implements Iterator<E> {
+
+    private final PriorityQueue<Head<E>> heap;
+
+    public KWayMergeIterator(List<? extends Iterator<? extends E>> sources, Comparator<? super E> comparator) {
+        Comparator<Head<E>> byElement = (a, b) -> comparator.compare(a.element, b.element);
+        heap = new PriorityQueue<>(Math.max(1, sources.size()), byElement);
+        for (Iterator<? extends E> source : sources) {
+            advance(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heap.isEmpty();
+    }
+
+    @Override
+    public E next() {
+        Head<E> head = heap.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        advance(head.source);
+        return head.element;
+    }
+
+    private void advance(Iterator<? extends E> source) {
+        if (source.hasNext()) {
+            heap.add(new Head<E>(source.next(), source));
+        }
+    }
+
+    private static final class Head<E> {
+        private final E element;
+        private final Iterator<? extends E> source;
+
+        private Head(E element, Iterator<? extends E> source) {
+            this.element = element;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.se.lab.service.impl;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.se.lab.service.dao.LikeDAO;
+
+/**
+ * Writes the like delta of one post in a transaction of its own, so a failing
+ * post does not roll back the deltas of all others written by the same flush.
+ */
+@Stateless
+public class LikeCountWriter {
+
+    @Inject
+    private LikeDAO likeDAO;
+
+    /**
+     * @return (int) number of posts updated, 0 if the post does not exist
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int addToLikeCount(int postId, long delta) {
+        return likeDAO.addToLikeCount(postId, delta);
+    }
+}
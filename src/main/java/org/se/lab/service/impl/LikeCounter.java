@@ -0,0 +1,107 @@
+package org.se.lab.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.log.Log;
+import org.se.lab.service.LikeEvent;
+
+/**
+ * Aggregates like deltas per post in memory and writes them to post.like_count
+ * in batches, so a hot post does not turn every like into a row lock on the post.
+ *
+ * Deltas are collected in LongAdders, one per post, so concurrent likes of the
+ * same post do not contend. Every flush retires the current generation of
+ * adders and writes the generation retired by the previous flush; an increment
+ * that raced with retiring its generation has landed long before it is written.
+ *
+ * Each post is written in a transaction of its own by LikeCountWriter, and its
+ * delta stays pending until that transaction committed; a delta that failed is
+ * added to the current generation again and written by a later flush.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class LikeCounter {
+    private static final Log LOG = Log.get(LikeCounter.class);
+
+    // swapped as a whole, so getPending never sees a generation twice or not at all
+    private volatile Generations generations = new Generations(new ConcurrentHashMap<>(),
+            new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    @Inject
+    private LikeCountWriter writer;
+
+    public void onLikeChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) LikeEvent event) {
+        add(event.getPostId(), event.getDelta());
+    }
+
+    public void add(int postId, long delta) {
+        generations.current.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * @return (long) delta of given post not yet written to like_count
+     */
+    public long getPending(int postId) {
+        Generations g = generations;
+        return sum(g.current.get(postId)) + sum(g.retired.get(postId)) + sum(g.writing.get(postId));
+    }
+
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public synchronized void flush() {
+        Generations g = generations;
+        generations = new Generations(new ConcurrentHashMap<>(), g.current, g.retired);
+        Map<Integer, LongAdder> writing = g.retired;
+
+        for (Map.Entry<Integer, LongAdder> entry : writing.entrySet()) {
+            int postId = entry.getKey();
+            long delta = entry.getValue().sum();
+            if (delta != 0) {
+                write(postId, delta);
+            }
+            // for a moment counted twice rather than missing
+            writing.remove(postId);
+        }
+    }
+
+    private void write(int postId, long delta) {
+        try {
+            if (writer.addToLikeCount(postId, delta) == 0) {
+                LOG.info("Post {} deleted, dropping like delta {}", postId, delta);
+            }
+        } catch (Exception e) {
+            LOG.error("Can't add {} to like count of post {}, retrying later", delta, postId, e);
+            add(postId, delta);
+        }
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static final class Generations {
+        private final Map<Integer, LongAdder> current;
+        private final Map<Integer, LongAdder> retired;
+        // written by the running flush, entries are removed once committed
+        private final Map<Integer, LongAdder> writing;
+
+        Generations(Map<Integer, LongAdder> current, Map<Integer, LongAdder> retired,
+                Map<Integer, LongAdder> writing) {
+            this.current = current;
+            this.retired = retired;
+            this.writing = writing;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.se.lab.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2 (HMAC-SHA256) password hashes.
+ *
+ * A stored hash reads "pbkdf2-sha256$iterations$salt$hash" with Base64 salt
+ * and hash, so every hash keeps the cost it was created with. Changing the
+ * number of iterations therefore only affects new hashes; needsRehash tells
+ * which stored values are outdated.
+ *
+ * Values without the prefix are plaintext passwords of accounts created
+ * before hashing was introduced. They still verify, and always need a rehash.
+ */
+public class PasswordHasher {
+
+    public static final String ITERATIONS_PROPERTY = "pse.password.iterations";
+    public static final int DEFAULT_ITERATIONS = 100000;
+    public static final int MIN_ITERATIONS = 1000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param iterations work factor of new hashes, at least MIN_ITERATIONS
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS)
+            throw new IllegalArgumentException("iterations below " + MIN_ITERATIONS + ": " + iterations);
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return (PasswordHasher) hasher with the work factor of the system
+     *         property pse.password.iterations, DEFAULT_ITERATIONS if not set
+     */
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @param password plaintext
+     * @return (String) salted hash with the current work factor
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + SEPARATOR + iterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR
+                + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * @param password plaintext
+     * @param stored hash or legacy plaintext password
+     * @return (boolean) true if the password matches, compared in constant time
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null)
+            return false;
+        if (!isHash(stored))
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+
+        String[] parts = stored.split("\\" + SEPARATOR);
+        if (parts.length != 4)
+            return false;
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] salt = decoder.decode(parts[2]);
+            byte[] expected = decoder.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, salt, Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param stored hash or legacy plaintext password
+     * @return (boolean) true if stored is plaintext or was hashed with a
+     *         different work factor
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !isHash(stored))
+            return true;
+        String[] parts = stored.split("\\" + SEPARATOR);
+        return parts.length != 4 || !parts[1].equals(String.valueOf(iterations));
+    }
+
+    private static boolean isHash(String stored) {
+        return stored.startsWith(PREFIX + SEPARATOR);
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't derive password hash", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.se.lab.service.impl;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+
+import org.se.lab.log.Log;
+import org.se.lab.service.ServiceException;
+
+/**
+ * Runs the password hashing of logins on a dedicated, bounded pool.
+ *
+ * Hashing is CPU bound by design, so at most pse.password.threads hashes run
+ * at a time (default: number of processors) and at most pse.password.queue
+ * wait. When both are taken a login fails at once with a ServiceException
+ * instead of piling up request threads; a waiting login gives up after
+ * pse.password.timeout milliseconds. The work factor is read by
+ * PasswordHasher#fromSystemProperties.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PasswordVerifier {
+    private static final Log LOG = Log.get(PasswordVerifier.class);
+
+    public static final String THREADS_PROPERTY = "pse.password.threads";
+    public static final String QUEUE_PROPERTY = "pse.password.queue";
+    public static final String TIMEOUT_PROPERTY = "pse.password.timeout";
+
+    static final int DEFAULT_QUEUE = 64;
+    static final long DEFAULT_TIMEOUT = 5000L;
+
+    // Exception messages
+    private static final String SATURATED_ERROR = "Too many logins, please try again";
+    private static final String TIMEOUT_ERROR = "Login timed out, please try again";
+
+    @Resource(lookup = "java:comp/DefaultManagedThreadFactory")
+    private ThreadFactory threadFactory;
+
+    private PasswordHasher hasher;
+    private ThreadPoolExecutor executor;
+    private long timeoutMillis;
+    // verified for unknown usernames, with the current work factor
+    private String dummyHash;
+
+    @PostConstruct
+    public void start() {
+        configure(PasswordHasher.fromSystemProperties(),
+                Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger(QUEUE_PROPERTY, DEFAULT_QUEUE),
+                Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * (Re)creates the pool; used by start and outside the container
+     * @param hasher
+     * @param threads hashes running at a time
+     * @param queueLimit hashes waiting at most
+     * @param timeoutMillis time a caller waits for its hash at most
+     */
+    public void configure(PasswordHasher hasher, int threads, int queueLimit, long timeoutMillis) {
+        LOG.info("configure({} iterations, {} threads, queue {})", hasher.getIterations(), threads, queueLimit);
+        stop();
+        this.hasher = hasher;
+        this.timeoutMillis = timeoutMillis;
+        this.dummyHash = hasher.hash(UUID.randomUUID().toString());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                threadFactory != null ? threadFactory : PasswordVerifier::daemonThread,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param password plaintext
+     * @param stored hash or legacy plaintext password
+     * @return (boolean) true if the password matches
+     * @throws ServiceException if the pool is saturated or the hash times out
+     */
+    public boolean verify(String password, String stored) {
+        return run(() -> hasher.verify(password, stored));
+    }
+
+    /**
+     * Takes as long as verify for an existing user, so the time of a failed
+     * login does not tell whether the username exists
+     * @param password plaintext
+     * @return (boolean) always false
+     * @throws ServiceException if the pool is saturated or the hash times out
+     */
+    public boolean verifyUnknown(String password) {
+        run(() -> hasher.verify(password, dummyHash));
+        return false;
+    }
+
+    /**
+     * @param password plaintext
+     * @return (String) salted hash with the current work factor
+     * @throws ServiceException if the pool is saturated or the hash times out
+     */
+    public String hash(String password) {
+        return run(() -> hasher.hash(password));
+    }
+
+    /**
+     * @param stored hash or legacy plaintext password
+     * @return (boolean) true if stored should be replaced by a hash with the
+     *         current work factor; cheap, runs in the caller
+     */
+    public boolean needsRehash(String stored) {
+        return hasher.needsRehash(stored);
+    }
+
+    /**
+     * @return (int) hashes waiting for a thread
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    private static Thread daemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "password-hasher");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("password pool saturated, {} queued", executor.getQueue().size());
+            throw new ServiceException(SATURATED_ERROR, e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOG.warn("password hash timed out after {} ms", timeoutMillis);
+            throw new ServiceException(TIMEOUT_ERROR, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceException(TIMEOUT_ERROR, e);
+        } catch (ExecutionException e) {
+            throw new ServiceException("Can't hash password", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.se.lab.service.impl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Decodes, scales and encodes pictures for the size variants.
+ *
+ * Scaling halves the image as long as it stays at least as large as the target
+ * and interpolates the last step bilinearly, which is close to an area average at
+ * a fraction of its cost. Images with transparency are encoded as PNG, all
+ * others as JPEG.
+ */
+public final class PictureScaler {
+
+    private PictureScaler() {
+    }
+
+    /**
+     * @param picture
+     * @return (BufferedImage) decoded picture, null if ImageIO can't read the format
+     * @throws IOException if the picture is corrupt
+     */
+    public static BufferedImage decode(byte[] picture) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(picture));
+    }
+
+    /**
+     * Scales the image to fit into a square of maxEdge pixels,
+     * smaller images keep their size
+     * @param image
+     * @param maxEdge
+     * @return (BufferedImage) scaled image
+     */
+    public static BufferedImage scale(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxEdge && height <= maxEdge) {
+            // still redrawn, indexed images (gif) can't be written as JPEG
+            return draw(image, width, height);
+        }
+        double factor = (double) maxEdge / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        BufferedImage current = image;
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    /**
+     * @param image
+     * @return (byte[]) PNG if the image has transparency, JPEG otherwise
+     * @throws IOException
+     */
+    public static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, image.getColorModel().hasAlpha() ? "png" : "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,72 @@
+package org.se.lab.service.impl;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.log.Log;
+import org.se.lab.service.PictureService;
+import org.se.lab.service.ServiceException;
+import org.se.lab.service.dao.PictureDAO;
+
+@Stateless
+public class PictureServiceImpl implements PictureService {
+    private static final Log LOG = Log.get(PictureServiceImpl.class);
+
+    @Inject
+    private PictureDAO pictureDAO;
+
+    @Inject
+    private PictureVariantGenerator generator;
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.PictureService#getPictureHash(org.se.lab.data.PictureOwner, int)
+     */
+    @Override
+    public String getPictureHash(PictureOwner owner, int id) {
+        LOG.debug("getPictureHash({}, {})", owner, id);
+        try {
+            return pictureDAO.findPictureHash(owner, id);
+        } catch (Exception e) {
+            LOG.error("Can't find picture hash of {} {}", owner, id, e);
+            throw new ServiceException("Can't find picture hash of " + owner + " " + id);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.PictureService#selectSize(org.se.lab.data.PictureOwner, int, org.se.lab.data.PictureSize, java.lang.String)
+     */
+    @Override
+    public PictureSize selectSize(PictureOwner owner, int id, PictureSize requested, String hash) {
+        LOG.debug("selectSize({}, {}, {})", owner, id, requested);
+        if (requested == PictureSize.ORIGINAL) {
+            return PictureSize.ORIGINAL;
+        }
+        try {
+            if (hash != null && hash.equals(pictureDAO.findVariantHash(owner, id, requested))) {
+                return requested;
+            }
+        } catch (Exception e) {
+            LOG.error("Can't find {} variant of {} {}", requested, owner, id, e);
+            throw new ServiceException("Can't find " + requested + " variant of " + owner + " " + id);
+        }
+        // missing or stale, serve the original until the variant is there
+        generator.request(owner, id);
+        return PictureSize.ORIGINAL;
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.PictureService#readPicture(org.se.lab.data.PictureOwner, int, org.se.lab.data.PictureSize)
+     */
+    @Override
+    public byte[] readPicture(PictureOwner owner, int id, PictureSize size) {
+        LOG.debug("readPicture({}, {}, {})", owner, id, size);
+        try {
+            return pictureDAO.readPicture(owner, id, size);
+        } catch (Exception e) {
+            LOG.error("Can't read picture of {} {}", owner, id, e);
+            throw new ServiceException("Can't read picture of " + owner + " " + id);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.se.lab.service.impl;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.data.PictureOwner;
+import org.se.lab.log.Log;
+import org.se.lab.service.PictureEvent;
+
+/**
+ * Generates the size variants of pictures in the background: after an upload
+ * is committed and whenever a variant is requested that is missing or stale.
+ *
+ * Requests never wait. At most MAX_PENDING pictures are queued or in work,
+ * a picture is queued only once, and further requests are dropped; a dropped
+ * picture is requested again by the next page showing it.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PictureVariantGenerator {
+    private static final Log LOG = Log.get(PictureVariantGenerator.class);
+
+    static final int MAX_PENDING = 32;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Resource(lookup = "java:comp/DefaultManagedExecutorService")
+    private ExecutorService executor;
+
+    @Inject
+    private PictureVariantWriter writer;
+
+    public void onPictureChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PictureEvent event) {
+        request(event.getOwner(), event.getId());
+    }
+
+    /**
+     * Queues the generation of all variants of a picture
+     * @param owner
+     * @param id id of the UserProfile or Community
+     * @return (boolean) true if the picture is queued, false if the queue is full
+     */
+    public boolean request(PictureOwner owner, int id) {
+        String key = owner + "/" + id;
+        if (pending.size() >= MAX_PENDING) {
+            LOG.debug("variant queue full, dropped {}", key);
+            return false;
+        }
+        if (!pending.add(key)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> generate(owner, id, key));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            LOG.warn("executor rejected variants of {}", key);
+            return false;
+        }
+    }
+
+    /**
+     * @return (int) number of pictures queued or in work
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    private void generate(PictureOwner owner, int id, String key) {
+        try {
+            writer.generate(owner, id);
+        } catch (Exception e) {
+            LOG.error("Can't generate variants of {}", key, e);
+        } finally {
+            pending.remove(key);
+        }
+    }
+}
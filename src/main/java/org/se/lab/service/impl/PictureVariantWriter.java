@@ -0,0 +1,62 @@
+package org.se.lab.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+
+import org.se.lab.data.PictureHash;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.data.PictureVariant;
+import org.se.lab.log.Log;
+import org.se.lab.service.dao.PictureDAO;
+
+/**
+ * Decodes a picture once and stores all its size variants, one transaction
+ * per picture. Called by the PictureVariantGenerator on its background threads.
+ */
+@Stateless
+public class PictureVariantWriter {
+    private static final Log LOG = Log.get(PictureVariantWriter.class);
+
+    @Inject
+    private PictureDAO pictureDAO;
+
+    /**
+     * @param owner
+     * @param id id of the UserProfile or Community
+     * @return (int) number of stored variants, 0 if there is no picture or it can't be decoded
+     */
+    public int generate(PictureOwner owner, int id) {
+        byte[] picture = pictureDAO.findPicture(owner, id);
+        if (picture == null || picture.length == 0) {
+            return 0;
+        }
+        String hash = PictureHash.of(picture);
+        long started = System.nanoTime();
+        try {
+            BufferedImage image = PictureScaler.decode(picture);
+            if (image == null) {
+                LOG.warn("Can't decode picture of {} {}, unknown format", owner, id);
+                return 0;
+            }
+            List<PictureVariant> variants = new ArrayList<>();
+            for (PictureSize size : PictureSize.values()) {
+                if (size != PictureSize.ORIGINAL) {
+                    byte[] data = PictureScaler.encode(PictureScaler.scale(image, size.getMaxEdge()));
+                    variants.add(new PictureVariant(owner, id, size, hash, data));
+                }
+            }
+            pictureDAO.saveVariants(variants);
+            LOG.debug("generated variants of {} {} in {} ms", owner, id, (System.nanoTime() - started) / 1000000);
+            return variants.size();
+        } catch (IOException e) {
+            LOG.warn("Can't decode picture of {} {}", owner, id, e);
+            return 0;
+        }
+    }
+}
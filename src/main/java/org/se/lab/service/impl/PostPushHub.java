@@ -0,0 +1,132 @@
+package org.se.lab.service.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.data.Community;
+import org.se.lab.log.Log;
+import org.se.lab.service.PostEvent;
+import org.se.lab.service.dao.CommunityDAO;
+
+/**
+ * Notifies the open activity stream and community pages of new posts, so they
+ * can offer to reload instead of being reloaded blindly.
+ *
+ * Every committed new top level post is matched against all open connections
+ * in memory, using the ContactGraphIndex and the community memberships read
+ * when the connection was opened; no query per post. The matching runs on
+ * the managed executor, not on the thread that committed the post, and
+ * offering never blocks, see PushConnection, so a slow client delays neither
+ * the broadcast nor the request that created the post.
+ *
+ * A notification is a compact JSON object:
+ * {"type":"post","postId":1,"authorId":2,"communityId":0,"created":1510000000000}
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PostPushHub {
+    private static final Log LOG = Log.get(PostPushHub.class);
+
+    private static final String NOTIFICATION = "{\"type\":\"post\",\"postId\":%d,\"authorId\":%d,\"communityId\":%d,\"created\":%d}";
+
+    private final Set<PushConnection> connections = ConcurrentHashMap.newKeySet();
+
+    @Resource(lookup = "java:comp/DefaultManagedExecutorService")
+    private ExecutorService executor;
+
+    @Inject
+    private ContactGraphIndex contactGraphIndex;
+
+    @Inject
+    private CommunityDAO communityDAO;
+
+    /**
+     * @param userId logged in user
+     * @param communityId community whose page is open, 0 for the activity stream
+     * @param transport
+     * @return (PushConnection) registered connection
+     */
+    public PushConnection connect(int userId, int communityId, PushConnection.Transport transport) {
+        Set<Integer> memberOf = new HashSet<>();
+        if (communityId == 0) {
+            for (Community community : communityDAO.findByMember(userId)) {
+                memberOf.add(community.getId());
+            }
+        }
+        PushConnection connection = new PushConnection(userId, communityId, memberOf, transport,
+                PushConnection.DEFAULT_QUEUE_LIMIT);
+        connections.add(connection);
+        LOG.debug("connect({}), {} connections", connection, connections.size());
+        return connection;
+    }
+
+    public void disconnect(PushConnection connection) {
+        connections.remove(connection);
+        connection.close();
+        LOG.debug("disconnect({}), {} connections", connection, connections.size());
+    }
+
+    public void onPostChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PostEvent event) {
+        if (event.getType() != PostEvent.Type.CREATED || event.isReply()) {
+            // replies are rendered below their parent post
+            return;
+        }
+        try {
+            executor.execute(() -> broadcast(event));
+        } catch (RejectedExecutionException e) {
+            // the pages offer to reload with the next post
+            LOG.warn("executor rejected the notification of {}", event);
+        }
+    }
+
+    /**
+     * Offers the notification of a new top level post to all open
+     * connections showing it, see onPostChanged
+     * @param event
+     */
+    public void broadcast(PostEvent event) {
+        String message = String.format(NOTIFICATION, event.getPostId(), event.getAuthorId(),
+                event.getCommunityId(), event.getCreated().getTime());
+        ContactGraph contacts = contactGraphIndex.getGraph();
+        int notified = 0;
+        for (PushConnection connection : connections) {
+            if (connection.isClosed()) {
+                connections.remove(connection);
+            } else if (connection.shows(event, contacts)) {
+                connection.offer(message);
+                notified++;
+            }
+        }
+        LOG.debug("{} notified {} of {} connections", event, notified, connections.size());
+    }
+
+    /**
+     * @return (int) open connections
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return (long) notifications dropped for slow clients, over the open
+     *         connections
+     */
+    public long getDropped() {
+        long dropped = 0;
+        for (PushConnection connection : connections) {
+            dropped += connection.getDropped();
+        }
+        return dropped;
+    }
+}
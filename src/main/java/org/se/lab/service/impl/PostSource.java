@@ -0,0 +1,76 @@
+package org.se.lab.service.impl;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+
+/**
+ * Lazy cursor over the posts of one feed source (a user or a community),
+ * newest first. Loads the next chunk only when the previous one is used up.
+ * The loader returns top level posts only, replies are rendered below their
+ * parent post.
+ */
+final class PostSource implements Iterator<Post> {
+
+    /**
+     * Order of all post streams: created DESC, id DESC
+     */
+    static final Comparator<Post> NEWEST_FIRST =
+            Comparator.comparing(Post::getCreated).thenComparingInt(Post::getId).reversed();
+
+    /**
+     * Loads one keyset page of a source, e.g. PostDAO#getRootPostsForUser
+     */
+    interface Loader {
+        Page<Post> load(KeysetCursor after, int pageSize);
+    }
+
+    private final Loader loader;
+    private final int chunkSize;
+    private KeysetCursor after;
+    private Iterator<Post> chunk;
+    private boolean exhausted;
+    private Post next;
+
+    PostSource(Loader loader, KeysetCursor after, int chunkSize) {
+        this.loader = loader;
+        this.after = after;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (chunk == null || !chunk.hasNext()) {
+                if (exhausted) {
+                    return false;
+                }
+                Page<Post> page = loader.load(after, chunkSize);
+                List<Post> items = page.getItems();
+                chunk = items.iterator();
+                exhausted = !page.hasMore();
+                if (!items.isEmpty()) {
+                    after = KeysetCursor.of(items.get(items.size() - 1));
+                }
+                continue;
+            }
+            next = chunk.next();
+        }
+        return true;
+    }
+
+    @Override
+    public Post next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Post post = next;
+        next = null;
+        return post;
+    }
+}
@@ -0,0 +1,172 @@
+package org.se.lab.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.se.lab.service.PostEvent;
+
+/**
+ * One open push connection of a user, see PostPushHub.
+ *
+ * Messages are queued per connection and sent one at a time through the
+ * asynchronous Transport, so whoever offers a message never waits for the
+ * client. At most queueLimit messages wait; when a slow client falls further
+ * behind the oldest waiting message is dropped. A client that has missed
+ * some notifications still reloads the whole stream.
+ */
+public class PushConnection {
+
+    public static final int DEFAULT_QUEUE_LIMIT = 16;
+
+    /**
+     * Sends messages to the client, e.g. a WebSocket session
+     */
+    public interface Transport {
+        /**
+         * Starts sending, never blocks
+         * @param message
+         * @param done called once the message is sent, with null, or failed,
+         *        with the cause
+         */
+        void send(String message, Consumer<Throwable> done);
+
+        void close();
+    }
+
+    private final int userId;
+    private final int communityId;
+    private final Set<Integer> memberOf;
+    private final Transport transport;
+    private final int queueLimit;
+
+    // guarded by this
+    private final Deque<String> queue = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+    private long sent;
+    private long dropped;
+
+    /**
+     * @param userId logged in user
+     * @param communityId community whose page is open, 0 for the activity stream
+     * @param memberOf ids of the communities the user is member of
+     * @param transport
+     * @param queueLimit messages waiting at most
+     */
+    public PushConnection(int userId, int communityId, Set<Integer> memberOf, Transport transport, int queueLimit) {
+        if (queueLimit < 1)
+            throw new IllegalArgumentException("The given queue limit is less than 1");
+        this.userId = userId;
+        this.communityId = communityId;
+        this.memberOf = Collections.unmodifiableSet(new HashSet<>(memberOf));
+        this.transport = transport;
+        this.queueLimit = queueLimit;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getCommunityId() {
+        return communityId;
+    }
+
+    /**
+     * The page of this connection shows the post if it is a community page of
+     * the post's community, or the activity stream of the author, of a user
+     * having the author as contact or of a member of the post's community;
+     * the same users the TimelineService fans the post out to
+     * @param event
+     * @param contacts contact graph of all users
+     * @return (boolean) true if the post belongs on the page
+     */
+    public boolean shows(PostEvent event, ContactGraph contacts) {
+        if (communityId != 0)
+            return communityId == event.getCommunityId();
+        return userId == event.getAuthorId()
+                || (event.getCommunityId() != 0 && memberOf.contains(event.getCommunityId()))
+                || contacts.hasContact(userId, event.getAuthorId());
+    }
+
+    /**
+     * Queues the message, dropping the oldest waiting one if the queue is
+     * full, and starts sending unless a send is in progress
+     * @param message
+     */
+    public void offer(String message) {
+        String next;
+        synchronized (this) {
+            if (closed)
+                return;
+            if (queue.size() == queueLimit) {
+                queue.pollFirst();
+                dropped++;
+            }
+            queue.addLast(message);
+            if (sending)
+                return;
+            sending = true;
+            next = queue.pollFirst();
+        }
+        transport.send(next, this::sent);
+    }
+
+    /**
+     * Drops all waiting messages and closes the transport
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            queue.clear();
+        }
+        transport.close();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return (int) messages waiting, not counting the one being sent
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    // completion of the Transport, possibly called by the sending thread itself
+    private void sent(Throwable failure) {
+        if (failure != null) {
+            close();
+            return;
+        }
+        String next;
+        synchronized (this) {
+            sent++;
+            next = closed ? null : queue.pollFirst();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        transport.send(next, this::sent);
+    }
+
+    @Override
+    public String toString() {
+        return "PushConnection [userId=" + userId + ", communityId=" + communityId + "]";
+    }
+}
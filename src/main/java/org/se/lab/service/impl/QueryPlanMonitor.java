@@ -0,0 +1,54 @@
+package org.se.lab.service.impl;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.se.lab.data.QueryPlanStatistics;
+import org.se.lab.log.Log;
+
+/**
+ * Logs the query plan cache hit rate every 15 minutes, together with the
+ * number of HQL translations and query executions in that interval. All DAO
+ * queries are named queries translated at boot, so a hit rate below 1.0
+ * points at ad hoc HQL or a plan cache too small for the queries in use
+ * (hibernate.query.plan_cache_max_size). Executions come from the Hibernate
+ * statistics, which cost every session some bookkeeping and are off unless
+ * the server sets the system property hibernate.generate_statistics=true;
+ * without them only the translations are logged.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class QueryPlanMonitor {
+    private static final Log LOG = Log.get(QueryPlanMonitor.class);
+
+    @PersistenceUnit(unitName = "pse")
+    private EntityManagerFactory factory;
+
+    private QueryPlanStatistics last;
+
+    @Schedule(hour = "*", minute = "*/15", persistent = false)
+    public synchronized void report() {
+        QueryPlanStatistics current = QueryPlanStatistics.of(factory);
+        if (last != null) {
+            QueryPlanStatistics interval = current.since(last);
+            if (QueryPlanStatistics.countsExecutions(factory)) {
+                LOG.info("query plan cache: {} executed, {} translated, hit rate {}", interval.getExecuted(),
+                        interval.getTranslated(), String.format("%.3f", interval.getHitRate()));
+            } else {
+                LOG.info("query plan cache: {} translated", interval.getTranslated());
+            }
+        }
+        last = current;
+    }
+
+    /**
+     * @return (QueryPlanStatistics) counters since boot
+     */
+    public QueryPlanStatistics getStatistics() {
+        return QueryPlanStatistics.of(factory);
+    }
+}
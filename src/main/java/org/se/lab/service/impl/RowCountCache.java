@@ -0,0 +1,83 @@
+package org.se.lab.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+
+/**
+ * Row counts of the paged tables, reused for a few seconds.
+ *
+ * A count runs over all matching rows, while a page reads only its own, so
+ * with 100k rows counting on every page change would dominate the request.
+ * Each count is kept TTL_MILLIS per key, e.g. table and filter; services
+ * invalidate the counts of a table they change. Concurrent misses of one key
+ * may both count, the later result wins.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class RowCountCache {
+
+    static final long TTL_MILLIS = 10000L;
+
+    // expired entries are dropped once there are more keys, e.g. many filters
+    static final int MAX_KEYS = 1024;
+
+    private final Map<String, Count> counts = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public RowCountCache() {
+        this(TTL_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * @param ttlMillis time a count is reused
+     * @param clock current time in milliseconds
+     */
+    public RowCountCache(long ttlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @param key table and filter of the count
+     * @param count runs the count query
+     * @return (long) cached count, or the result of count if there is none
+     *         or it expired
+     */
+    public long get(String key, LongSupplier count) {
+        long now = clock.getAsLong();
+        Count cached = counts.get(key);
+        if (cached != null && now < cached.expires) {
+            return cached.rows;
+        }
+        long rows = count.getAsLong();
+        if (counts.size() >= MAX_KEYS) {
+            counts.values().removeIf(c -> now >= c.expires);
+        }
+        counts.put(key, new Count(rows, now + ttlMillis));
+        return rows;
+    }
+
+    /**
+     * Drops the counts of all keys starting with the given prefix
+     * @param prefix e.g. the table of the keys
+     */
+    public void invalidate(String prefix) {
+        counts.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static final class Count {
+        private final long rows;
+        private final long expires;
+
+        Count(long rows, long expires) {
+            this.rows = rows;
+            this.expires = expires;
+        }
+    }
+}
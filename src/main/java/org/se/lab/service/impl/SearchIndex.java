@@ -0,0 +1,134 @@
+package org.se.lab.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.log.Log;
+import org.se.lab.service.PostEvent;
+import org.se.lab.service.SearchService;
+
+/**
+ * Holds the search index of this server and keeps it up to date with the
+ * PostEvents of committed transactions.
+ *
+ * Changes are written to a new segment every 10 seconds; more than
+ * MAX_SEGMENTS segments are compacted into one. The index is read from the
+ * segments on startup and only rebuilt from the database if there are none;
+ * posts committed after the last flush before a shutdown or crash are then
+ * added from the database. Deletes and edits of that window are not, deleted
+ * posts are skipped by the search.
+ * The directory is taken from the system property pse.search.dir, by default
+ * pse-search in the data directory of the server.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SearchIndex {
+    private static final Log LOG = Log.get(SearchIndex.class);
+
+    static final int MAX_SEGMENTS = 8;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private IndexSegments segments;
+
+    // set if changes could not be written, the next flush writes everything
+    private boolean compactNext;
+
+    @Inject
+    private SearchService searchService;
+
+    @PostConstruct
+    public void open() {
+        try {
+            segments = new IndexSegments(directory());
+            if (segments.count() > 0) {
+                index.restore(segments.load());
+                LOG.info("loaded {} posts from {}", index.size(), segments.getDirectory());
+                searchService.catchUpIndex(index.maxPostId());
+                return;
+            }
+        } catch (IOException e) {
+            LOG.error("Can't load search index, rebuilding it", e);
+            compactNext = true;
+        }
+        searchService.rebuildIndex();
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    public void onPostChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PostEvent event) {
+        if (event.getType() == PostEvent.Type.DELETED) {
+            index.remove(event.getPostId());
+        } else {
+            index.put(IndexedPost.of(event.getPostId(), event.getAuthorId(), event.getCommunityId(), event.getText()));
+        }
+    }
+
+    /**
+     * @see InvertedIndex#search(String, int, int, int)
+     */
+    public List<Integer> search(String query, int authorId, int communityId, int maxResults) {
+        return index.search(query, authorId, communityId, maxResults);
+    }
+
+    /**
+     * @see InvertedIndex#putIfAbsent(IndexedPost)
+     */
+    public boolean putIfAbsent(IndexedPost post) {
+        return index.putIfAbsent(post);
+    }
+
+    @Schedule(hour = "*", minute = "*", second = "*/10", persistent = false)
+    public synchronized void flush() {
+        if (segments == null) {
+            return;
+        }
+        Map<Integer, IndexedPost> changes = index.drainChanges();
+        try {
+            if (compactNext || segments.count() >= MAX_SEGMENTS) {
+                compactNext = true;
+                segments.compact(index.snapshot());
+                compactNext = false;
+            } else {
+                segments.append(changes);
+            }
+        } catch (IOException e) {
+            // the drained changes are only in memory now
+            LOG.error("Can't write search index segment to {}", segments.getDirectory(), e);
+            compactNext = true;
+        }
+    }
+
+    /**
+     * Writes the whole index as one segment
+     */
+    public synchronized void compact() {
+        compactNext = true;
+        flush();
+    }
+
+    private static Path directory() {
+        String directory = System.getProperty("pse.search.dir");
+        if (directory != null) {
+            return Paths.get(directory);
+        }
+        return Paths.get(System.getProperty("jboss.server.data.dir", System.getProperty("java.io.tmpdir")), "pse-search");
+    }
+}
@@ -0,0 +1,144 @@
+package org.se.lab.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.se.lab.log.Log;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostText;
+import org.se.lab.data.User;
+import org.se.lab.service.SearchService;
+import org.se.lab.service.ServiceException;
+import org.se.lab.service.dao.PostDAO;
+
+@Stateless
+public class SearchServiceImpl implements SearchService {
+    private static final Log LOG = Log.get(SearchServiceImpl.class);
+
+    /*
+     * Number of post texts read per query by the rebuild
+     */
+    static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Inject
+    private PostDAO postDAO;
+
+    @Inject
+    private SearchIndex searchIndex;
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.SearchService#searchPosts(java.lang.String, int)
+     */
+    @Override
+    public List<Post> searchPosts(String query, int maxResults) {
+        LOG.debug("searching posts for {}", query);
+        return search(query, 0, 0, maxResults);
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.SearchService#searchPosts(org.se.lab.data.User, java.lang.String, int)
+     */
+    @Override
+    public List<Post> searchPosts(User author, String query, int maxResults) {
+        LOG.debug("searching posts of {} for {}", author, query);
+        return search(query, author.getId(), 0, maxResults);
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.SearchService#searchPosts(org.se.lab.data.Community, java.lang.String, int)
+     */
+    @Override
+    public List<Post> searchPosts(Community community, String query, int maxResults) {
+        LOG.debug("searching posts of {} for {}", community, query);
+        return search(query, 0, community.getId(), maxResults);
+    }
+
+    private List<Post> search(String query, int authorId, int communityId, int maxResults) {
+        if (maxResults < 1 || maxResults > MAX_RESULTS) {
+            LOG.error("Invalid number of results {}", maxResults);
+            throw new ServiceException("Invalid number of results " + maxResults);
+        }
+        try {
+            List<Integer> ids = searchIndex.search(query, authorId, communityId, maxResults);
+            Map<Integer, Post> found = new HashMap<>();
+            for (Post post : postDAO.findByIds(ids)) {
+                found.put(post.getId(), post);
+            }
+            // back in score order
+            List<Post> posts = new ArrayList<>(found.size());
+            for (Integer id : ids) {
+                Post post = found.get(id);
+                // deleted by a transaction whose event has not arrived yet
+                if (post != null) {
+                    posts.add(post);
+                }
+            }
+            return posts;
+        } catch (Exception e) {
+            LOG.error("Can't search posts for {}", query, e);
+            throw new ServiceException("Can't search posts for " + query);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.SearchService#rebuildIndex()
+     */
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void rebuildIndex() {
+        LOG.info("rebuilding search index");
+        try {
+            int added = addPostsAfter(0);
+            searchIndex.compact();
+            LOG.info("rebuilt search index, added {} posts", added);
+        } catch (Exception e) {
+            LOG.error("Can't rebuild search index", e);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.SearchService#catchUpIndex(int)
+     */
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void catchUpIndex(int afterId) {
+        LOG.info("adding posts after {} to the search index", afterId);
+        try {
+            int added = addPostsAfter(afterId);
+            LOG.info("caught up search index, added {} posts", added);
+        } catch (Exception e) {
+            LOG.error("Can't catch up search index after post {}", afterId, e);
+        }
+    }
+
+    /*
+     * Adds the posts with id > after missing in the index, REBUILD_BATCH_SIZE
+     * texts per query; keeps newer versions written by PostEvents
+     */
+    private int addPostsAfter(int after) {
+        int added = 0;
+        List<PostText> texts;
+        do {
+            texts = postDAO.findTextsAfter(after, REBUILD_BATCH_SIZE);
+            for (PostText text : texts) {
+                IndexedPost post = IndexedPost.of(text.getId(), text.getUserId(), text.getCommunityId(), text.getText());
+                if (searchIndex.putIfAbsent(post)) {
+                    added++;
+                }
+                after = text.getId();
+            }
+        } while (texts.size() == REBUILD_BATCH_SIZE);
+        return added;
+    }
+}
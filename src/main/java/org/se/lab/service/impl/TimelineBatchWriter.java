@@ -0,0 +1,32 @@
+package org.se.lab.service.impl;
+
+import java.util.Collection;
+import java.util.Date;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.se.lab.service.dao.TimelineDAO;
+
+/**
+ * Writes timeline batches, each in a transaction of its own, so a fan-out to a
+ * large community or a full backfill never holds one huge transaction open.
+ */
+@Stateless
+public class TimelineBatchWriter {
+
+    @Inject
+    private TimelineDAO timelineDAO;
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void insertEntries(int postId, Date created, Collection<Integer> userIds) {
+        timelineDAO.insertEntries(postId, created, userIds);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int rebuildRange(int fromPostId, int toPostId) {
+        return timelineDAO.rebuildRange(fromPostId, toPostId);
+    }
+}
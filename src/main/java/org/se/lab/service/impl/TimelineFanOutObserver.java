@@ -0,0 +1,26 @@
+package org.se.lab.service.impl;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.se.lab.service.PostEvent;
+import org.se.lab.service.TimelineService;
+
+/**
+ * Starts the fan-out once the post is committed, so the asynchronous writer
+ * never sees a post that might still be rolled back.
+ */
+@ApplicationScoped
+public class TimelineFanOutObserver {
+
+    @Inject
+    private TimelineService timelineService;
+
+    public void onPostEvent(@Observes(during = TransactionPhase.AFTER_SUCCESS) PostEvent event) {
+        if (event.getType() == PostEvent.Type.CREATED) {
+            timelineService.fanOut(event);
+        }
+    }
+}
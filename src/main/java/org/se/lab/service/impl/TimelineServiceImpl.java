@@ -0,0 +1,143 @@
+package org.se.lab.service.impl;
+
+import org.se.lab.log.Log;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.PostEvent;
+import org.se.lab.service.ServiceException;
+import org.se.lab.service.TimelineService;
+import org.se.lab.service.dao.TimelineDAO;
+
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Stateless
+public class TimelineServiceImpl implements TimelineService {
+    private static final Log LOG = Log.get(TimelineServiceImpl.class);
+
+    /*
+     * Upper bound of timeline rows written per transaction
+     */
+    static final int FANOUT_BATCH_SIZE = 500;
+
+    /*
+     * Number of post ids rebuilt per transaction by the backfill job
+     */
+    static final int REBUILD_RANGE_SIZE = 1000;
+
+    @Inject
+    private TimelineDAO timelineDAO;
+
+    @Inject
+    private TimelineBatchWriter writer;
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.TimelineService#getHomeTimeline(org.se.lab.data.User, java.lang.String, int)
+     */
+    @Override
+    public Page<Post> getHomeTimeline(User user, String continuation, int pageSize) {
+        LOG.debug("getting home timeline of {}", user);
+        KeysetCursor after = Continuations.decode(continuation, pageSize);
+        try {
+            return timelineDAO.getTimeline(user.getId(), after, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't load home timeline of {}", user, e);
+            throw new ServiceException("Can't load home timeline of " + user);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.TimelineService#fanOut(org.se.lab.service.PostEvent)
+     */
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void fanOut(PostEvent event) {
+        if (event.isReply()) {
+            // replies are rendered below their parent post
+            return;
+        }
+        LOG.debug("fan-out of {}", event);
+
+        try {
+            Set<Integer> written = new HashSet<>();
+            written.add(event.getAuthorId());
+            written.addAll(timelineDAO.findFollowerIds(event.getAuthorId()));
+            writeInBatches(event, new ArrayList<>(written));
+
+            if (event.getCommunityId() != 0) {
+                int after = 0;
+                List<Integer> members;
+                do {
+                    members = timelineDAO.findMemberIds(event.getCommunityId(), after, FANOUT_BATCH_SIZE);
+                    if (members.isEmpty()) {
+                        break;
+                    }
+                    after = members.get(members.size() - 1);
+                    List<Integer> batch = new ArrayList<>(members.size());
+                    for (Integer member : members) {
+                        if (!written.contains(member)) {
+                            batch.add(member);
+                        }
+                    }
+                    writer.insertEntries(event.getPostId(), event.getCreated(), batch);
+                } while (members.size() == FANOUT_BATCH_SIZE);
+            }
+        } catch (Exception e) {
+            // the post itself is committed; a backfill repairs the timelines
+            LOG.error("Can't fan out post {}", event.getPostId(), e);
+        }
+    }
+
+    private void writeInBatches(PostEvent event, List<Integer> userIds) {
+        for (int from = 0; from < userIds.size(); from += FANOUT_BATCH_SIZE) {
+            int to = Math.min(from + FANOUT_BATCH_SIZE, userIds.size());
+            writer.insertEntries(event.getPostId(), event.getCreated(), userIds.subList(from, to));
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.TimelineService#removePost(org.se.lab.data.Post)
+     */
+    @Override
+    public void removePost(Post post) {
+        LOG.debug("remove from timelines {}", post);
+        try {
+            timelineDAO.deleteEntriesForPost(post.getId());
+        } catch (Exception e) {
+            LOG.error("Can't remove post from timelines {}", post, e);
+            throw new ServiceException("Can't remove post from timelines " + post);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.se.lab.service.TimelineService#rebuildTimelines()
+     */
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void rebuildTimelines() {
+        int maxPostId = timelineDAO.findMaxPostId();
+        LOG.info("rebuilding timelines for posts up to id {}", maxPostId);
+
+        long written = 0;
+        for (int from = 1; from <= maxPostId; from += REBUILD_RANGE_SIZE) {
+            int to = Math.min(from + REBUILD_RANGE_SIZE - 1, maxPostId);
+            try {
+                written += writer.rebuildRange(from, to);
+            } catch (Exception e) {
+                LOG.error("Can't rebuild timelines for posts {} to {}", from, to, e);
+            }
+        }
+        LOG.info("rebuilt timelines with {} entries", written);
+    }
+}
@@ -0,0 +1,93 @@
+package org.se.lab.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits post texts and search queries into index terms: runs of letters and
+ * digits, folded to lower case without accents and reduced by a light
+ * suffix stemmer, so "Running", "runs" and "run" end up as the same term.
+ */
+public final class Tokenizer {
+
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 40;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * @return (List<String>) terms in text order, with duplicates
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean inToken = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_LENGTH && length <= MAX_LENGTH) {
+                    terms.add(stem(folded.substring(start, i)));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Strips plural, -ing, -ed and -ly endings and a final e. Not a full
+     * Porter stemmer: it only has to map a word to the same term in posts and
+     * queries.
+     */
+    static String stem(String term) {
+        if (term.length() <= 3 || !Character.isLetter(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        String s = term;
+        if (s.endsWith("sses")) {
+            s = cut(s, 2);
+        } else if (s.endsWith("ies")) {
+            s = cut(s, 3) + "y";
+        } else if (s.endsWith("s") && !s.endsWith("ss") && !s.endsWith("us") && !s.endsWith("is")) {
+            s = cut(s, 1);
+        }
+
+        if (s.endsWith("ing") && s.length() > 5) {
+            s = undouble(cut(s, 3));
+        } else if (s.endsWith("ed") && s.length() > 4) {
+            s = undouble(cut(s, 2));
+        } else if (s.endsWith("ly") && s.length() > 4) {
+            s = cut(s, 2);
+        }
+
+        if (s.endsWith("e") && s.length() > 3) {
+            s = cut(s, 1);
+        }
+        return s;
+    }
+
+    private static String cut(String s, int suffixLength) {
+        return s.substring(0, s.length() - suffixLength);
+    }
+
+    // running -> runn -> run, but falling -> fall
+    private static String undouble(String s) {
+        int n = s.length();
+        if (n > 2 && s.charAt(n - 1) == s.charAt(n - 2) && "bdgmnprt".indexOf(s.charAt(n - 1)) >= 0) {
+            return s.substring(0, n - 1);
+        }
+        return s;
+    }
+}
@@ -1,25 +1,34 @@
 package org.se.lab.service.impl;
 
 
-import org.apache.log4j.Logger;
+import org.se.lab.log.Log;
 import org.se.lab.data.*;
+import org.se.lab.service.ContactEvent;
+import org.se.lab.service.ContactSuggestion;
+import org.se.lab.service.CurrentUser;
+import org.se.lab.service.PictureEvent;
 import org.se.lab.service.ServiceException;
+import org.se.lab.service.UserChangedEvent;
 import org.se.lab.service.UserService;
 import org.se.lab.service.dao.CommunityDAO;
 import org.se.lab.service.dao.UserContactDAO;
 import org.se.lab.service.dao.UserDAO;
 import org.se.lab.service.dao.UserProfileDAO;
 
-import javax.ejb.Stateless;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Stateless
 public class UserServiceImpl implements UserService {
-    private final Logger LOG = Logger.getLogger(UserServiceImpl.class);
+    private static final Log LOG = Log.get(UserServiceImpl.class);
 
     @Inject
     private UserDAO userDAO;
@@ -29,6 +38,27 @@ public class UserServiceImpl implements UserService {
     private UserProfileDAO userProfileDAO;
     @Inject
     private CommunityDAO communityDAO;
+    @Inject
+    private Event<PictureEvent> pictureEvents;
+    @Inject
+    private Event<UserChangedEvent> userEvents;
+    @Inject
+    private Event<ContactEvent> contactEvents;
+    @Inject
+    private ContactGraphIndex contactGraphIndex;
+    @Inject
+    private UserSummaryLoader userSummaryLoader;
+    @Inject
+    private CurrentUser currentUser;
+    @Inject
+    private PasswordVerifier passwordVerifier;
+    @Inject
+    private CredentialStore credentialStore;
+    @Inject
+    private RowCountCache rowCounts;
+
+    // prefix of the row count keys of user profile tables
+    private static final String COUNT_KEY = "userprofile:";
     /*
      * API Operations
 	 */
@@ -39,13 +69,14 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void insert(User user) {
-        LOG.debug("insert " + user);
+        LOG.debug("insert {}", user);
         userValidator(user);
+        user.setPassword(passwordVerifier.hash(user.getPassword()));
 
         try {
             userDAO.insert(user);
         } catch (Exception e) {
-            LOG.error("Can't insert user " + user, e);
+            LOG.error("Can't insert user {}", user, e);
             throw new ServiceException("Can't insert user " + user);
         }
     }
@@ -55,13 +86,14 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void delete(User user) {
-        LOG.debug("delete " + user);
+        LOG.debug("delete {}", user);
         userValidator(user);
 
         try {
             userDAO.delete(user);
+            userEvents.fire(new UserChangedEvent(user.getId()));
         } catch (Exception e) {
-            LOG.error("Can't delete user " + user, e);
+            LOG.error("Can't delete user {}", user, e);
             throw new ServiceException("Can't delete user " + user);
         }
     }
@@ -70,26 +102,50 @@ public class UserServiceImpl implements UserService {
 	 * @see org.se.lab.service.UserService#login(java.lang.String, java.lang.String)
 	 */
     @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public User login(String username, String password) {
-        LOG.debug("login for " + username);
-        // TODO +hashing
+        LOG.debug("login for {}", username);
 
         //todo return null in case of username or pw is null/empty
         validateString(username, password);
 
+        // loaded in a transaction of its own, released before hashing
         User user = loadUserByUsername(username);
-        if (user != null && user.getPassword().equals(password)) {
+        if (user == null) {
+            passwordVerifier.verifyUnknown(password);
+            LOG.error("Unknown user {}", username);
+            return null;
+        }
+        if (passwordVerifier.verify(password, user.getPassword())) {
+            rehashPassword(user, password);
             return user;
         }
-        LOG.error("Password incorrect for user " + user);
+        LOG.error("Password incorrect for user {}", user);
         return null;
     }
 
+    /*
+     * Replaces a plaintext password or a hash of another work factor after
+     * a successful login, in a transaction of its own; the login succeeds
+     * even if this fails.
+     */
+    private void rehashPassword(User user, String password) {
+        if (!passwordVerifier.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordVerifier.hash(password));
+            credentialStore.updatePassword(user);
+        } catch (Exception e) {
+            LOG.warn("Can't rehash password of user {}", user, e);
+        }
+    }
+
     private User loadUserByUsername(String username) {
         try {
-            return userDAO.findByUsername(username);
+            return credentialStore.findByUsername(username);
         } catch (Exception e) {
-            LOG.error("Can't find user " + username, e);
+            LOG.error("Can't find user {}", username, e);
             throw new ServiceException("Can't find user " + username);
         }
     }
@@ -99,18 +155,19 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void addContact(User user, String contactName) {
-        LOG.debug("add contact" + contactName + " to " + user);
+        LOG.debug("add contact{} to {}", contactName, user);
 
         userValidator(user);
         validateString(contactName);
 
-        User userToAdd = userDAO.findByUsername(contactName);
+        User userToAdd = userDAO.findByUsername(contactName, UserFetchProfile.BASIC);
         if (!userContactDAO.doesContactExistForUserId(userToAdd.getId(), user.getId())) {
 
             UserContact userContact = new UserContact(user, userToAdd.getId());
             userContactDAO.insert(userContact);
+            contactEvents.fire(ContactEvent.added(user.getId(), userToAdd.getId()));
         } else {
-            LOG.error("Contact " + userToAdd.getUsername() + " already exist ");
+            LOG.error("Contact {} already exist ", userToAdd.getUsername());
             throw new ServiceException("Contact " + userToAdd.getUsername() + " already exist ");
         }
     }
@@ -120,17 +177,18 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void removeContact(User user, String contactName) {
-        LOG.debug("remove contact from " + user);
+        LOG.debug("remove contact from {}", user);
 
         userValidator(user);
         validateString(contactName);
 
-        User userToRemove = userDAO.findByUsername(contactName);
+        User userToRemove = userDAO.findByUsername(contactName, UserFetchProfile.BASIC);
         if (userContactDAO.doesContactExistForUserId(userToRemove.getId(), user.getId())) {
 
             userContactDAO.deleteContactForUserIdAndContactId(userToRemove.getId(), user.getId());
+            contactEvents.fire(ContactEvent.removed(user.getId(), userToRemove.getId()));
         } else {
-            LOG.error("Contact " + userToRemove.getUsername() + " is missing ");
+            LOG.error("Contact {} is missing ", userToRemove.getUsername());
             throw new ServiceException("Contact " + userToRemove.getUsername() + "  is missing ");
         }
     }
@@ -141,7 +199,7 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public List<UserContact> getAllContactsByUser(User user) {
-        LOG.debug("get all contacts from " + user);
+        LOG.debug("get all contacts from {}", user);
         return userContactDAO.findContactsbyUser(user);
     }
 
@@ -150,12 +208,13 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void update(User user) {
-        LOG.debug("update " + user);
+        LOG.debug("update {}", user);
 
         try {
             userDAO.update(user);
+            userEvents.fire(new UserChangedEvent(user.getId()));
         } catch (Exception e) {
-            LOG.error("Can't update user " + user, e);
+            LOG.error("Can't update user {}", user, e);
             throw new ServiceException("Can't update user " + user);
         }
     }
@@ -168,7 +227,7 @@ public class UserServiceImpl implements UserService {
         LOG.debug("find all users");
 
         try {
-            List<User> list = userDAO.findAll();
+            List<User> list = userDAO.findAll(UserFetchProfile.BASIC);
             return list;
         } catch (Exception e) {
             LOG.error("Can't find all users!", e);
@@ -206,15 +265,59 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#getAllUserProfileSummaries()
+	 */
+    @Override
+    public List<UserProfileSummary> getAllUserProfileSummaries() {
+        LOG.debug("getAllUserProfileSummaries");
+
+        try {
+            return userProfileDAO.findAllSummaries();
+        } catch (Exception e) {
+            LOG.error("Can't find all user profile summaries!", e);
+            throw new ServiceException("Can't find all user profile summaries!");
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#getUserProfileSummaries(java.lang.String, java.lang.String, boolean, int, int)
+	 */
+    @Override
+    public List<UserProfileSummary> getUserProfileSummaries(String lastnamePrefix, String sortField,
+            boolean descending, int first, int pageSize) {
+        LOG.debug("getUserProfileSummaries {} to {}", first, first + pageSize);
+        Continuations.checkRows(first, pageSize);
+        try {
+            return userProfileDAO.findSummaries(lastnamePrefix, sortField, descending, first, pageSize);
+        } catch (Exception e) {
+            LOG.error("Can't find page of user profile summaries!", e);
+            throw new ServiceException("Can't find page of user profile summaries!");
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#countUserProfiles(java.lang.String)
+	 */
+    @Override
+    public long countUserProfiles(String lastnamePrefix) {
+        try {
+            return rowCounts.get(COUNT_KEY + lastnamePrefix, () -> userProfileDAO.count(lastnamePrefix));
+        } catch (Exception e) {
+            LOG.error("Can't count user profiles!", e);
+            throw new ServiceException("Can't count user profiles!");
+        }
+    }
+
     /* (non-Javadoc)
 	 * @see org.se.lab.service.UserService#getAllCommunitiesForUser(org.se.lab.data.User)
 	 */
     @Override
     public List<Community> getAllCommunitiesForUser(User user) {
-        LOG.debug("getAllUserProfiles");
+        LOG.debug("getAllCommunitiesForUser {}", user);
 
         try {
-            return communityDAO.findAll().stream().filter(community -> community.getUsers().contains(user)).collect(Collectors.toList());
+            return communityDAO.findByMember(user.getId());
         } catch (Exception e) {
             LOG.error("Can't find All Communities", e);
             throw new ServiceException("Can't find All Communities");
@@ -230,13 +333,14 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public void delete(int id) {
-        LOG.info("delete: " + id);
+        LOG.info("delete: {}", id);
 
         try {
-            User user = findById(id);
+            User user = findById(id, UserFetchProfile.BASIC);
             userDAO.delete(user);
+            userEvents.fire(new UserChangedEvent(id));
         } catch (Exception e) {
-            LOG.error("Can't delete user with ID " + id, e);
+            LOG.error("Can't delete user with ID {}", id, e);
             throw new ServiceException("Can't delete user with ID " + id);
         }
 
@@ -247,12 +351,20 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public User findById(int id) {
-        LOG.debug("find User with id=" + id);
+        return findById(id, UserFetchProfile.FULL);
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#findById(int, org.se.lab.data.UserFetchProfile)
+	 */
+    @Override
+    public User findById(int id, UserFetchProfile profile) {
+        LOG.debug("find User with id={} ({})", id, profile);
 
         try {
-            return userDAO.findById(id);
+            return userDAO.findById(id, profile);
         } catch (Exception e) {
-            LOG.error("Can't find user with id " + id, e);
+            LOG.error("Can't find user with id {}", id, e);
             throw new ServiceException("Can't find user with id " + id);
         }
     }
@@ -264,7 +376,7 @@ public class UserServiceImpl implements UserService {
     public void userValidator(User user) {
         boolean isValidUser = user != null && user.getUsername() != null && user.getPassword() != null;
         if (!isValidUser) {
-            LOG.error("User not valid " + user);
+            LOG.error("User not valid {}", user);
             throw new ServiceException("User not valid " + user);
         }
     }
@@ -285,6 +397,8 @@ public class UserServiceImpl implements UserService {
     @Override
     public void addPictureToProfile(UserProfile userProfile) {
         userProfileDAO.update(userProfile);
+        // size variants are generated after commit, the upload does not wait for them
+        pictureEvents.fire(new PictureEvent(PictureOwner.PROFILE, userProfile.getId()));
     }
 
     /* (non-Javadoc)
@@ -292,7 +406,11 @@ public class UserServiceImpl implements UserService {
 	 */
     @Override
     public boolean hasUserTheRole(ROLE privileg, User user) {
-        User loadedUser = findById(user.getId());
+        if (currentUser.isLoggedIn() && currentUser.getId() == user.getId()) {
+            // roles of the logged in user are loaded once per request
+            return currentUser.hasRole(privileg);
+        }
+        User loadedUser = findById(user.getId(), UserFetchProfile.AUTH);
         List<Enumeration> roles = loadedUser.getRoles();
 
         for (Enumeration enumeration : roles) {
@@ -303,17 +421,44 @@ public class UserServiceImpl implements UserService {
         return false;
     }
 
-    public List<User> getContactsOfUser(User user) {
-        List<UserContact> userContactObjects = getAllContactsByUser(user);
-
-        List<User> userContacts = new ArrayList<>();
-        for (UserContact userContact : userContactObjects) {
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#getContactsOfUser(org.se.lab.data.User)
+	 */
+    @Override
+    public List<UserSummary> getContactsOfUser(User user) {
+        LOG.debug("getContactsOfUser {}", user);
 
-            User contacUser = findById(userContact.getContactId());
-            if (contacUser != null) {
-                userContacts.add(contacUser);
+        try {
+            List<Integer> contactIds = new ArrayList<>();
+            for (UserContact userContact : getAllContactsByUser(user)) {
+                contactIds.add(userContact.getContactId());
             }
+            return userSummaryLoader.load(contactIds);
+        } catch (Exception e) {
+            LOG.error("Can't load contacts of user {}", user, e);
+            throw new ServiceException("Can't load contacts of user " + user);
         }
-        return userContacts;
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#getContactSuggestions(org.se.lab.data.User, int)
+	 */
+    @Override
+    public List<ContactSuggestion> getContactSuggestions(User user, int maxResults) {
+        LOG.debug("getContactSuggestions {}", user);
+        userValidator(user);
+
+        return contactGraphIndex.getGraph().suggest(user.getId(), maxResults);
+    }
+
+    /* (non-Javadoc)
+	 * @see org.se.lab.service.UserService#getMutualContactIds(int, int)
+	 */
+    @Override
+    public List<Integer> getMutualContactIds(int userId, int otherId) {
+        LOG.debug("getMutualContactIds {} {}", userId, otherId);
+
+        return Arrays.stream(contactGraphIndex.getGraph().mutualContacts(userId, otherId)).boxed()
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,67 @@
+package org.se.lab.service.impl;
+
+import org.se.lab.data.UserSummary;
+import org.se.lab.log.Log;
+import org.se.lab.service.dao.UserDAO;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch loader and identity map of UserSummary for one request.
+ *
+ * All ids not yet seen in this request are resolved with one
+ * UserDAO#findSummariesByIds call; repeated lookups of the same user, e.g.
+ * the contacts of the logged in user and of the viewed profile, are served
+ * from the map. Unknown ids are remembered as well.
+ */
+@RequestScoped
+public class UserSummaryLoader {
+    private static final Log LOG = Log.get(UserSummaryLoader.class);
+
+    @Inject
+    private UserDAO userDAO;
+
+    // null values mark ids without user
+    private final Map<Integer, UserSummary> loaded = new HashMap<>();
+
+    /**
+     * @param ids user ids
+     * @return (List<UserSummary>) summaries in the order of the given ids,
+     *         unknown ids are skipped
+     */
+    public List<UserSummary> load(Collection<Integer> ids) {
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (!loaded.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            LOG.debug("load {} of {} users", missing.size(), ids.size());
+            for (UserSummary summary : userDAO.findSummariesByIds(missing)) {
+                loaded.put(summary.getId(), summary);
+            }
+            for (Integer id : missing) {
+                loaded.putIfAbsent(id, null);
+            }
+        }
+
+        List<UserSummary> summaries = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            UserSummary summary = loaded.get(id);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+}
@@ -1,10 +1,14 @@
 package org.se.lab.web;
 
 import org.apache.log4j.Logger;
+import org.se.lab.data.Page;
 import org.se.lab.data.Post;
+import org.se.lab.data.PostThread;
 import org.se.lab.data.User;
 import org.se.lab.service.ActivityStreamService;
-import org.se.lab.service.UserService;
+import org.se.lab.service.CurrentUser;
+import org.se.lab.service.EnumerationService;
+import org.se.lab.service.FeedMode;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
@@ -15,7 +19,9 @@ import javax.inject.Named;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,13 +32,20 @@ public class ActivityStreamBean implements Serializable {
 
 	private final Logger LOG = Logger.getLogger(ActivityStreamBean.class);
 
+	private static final int PAGE_SIZE = 20;
+	private static final FeedMode FEED_MODE = FeedMode.MATERIALIZED;
+	// the stream renders one level of replies
+	private static final int THREAD_DEPTH = 1;
+	private static final int THREAD_REPLIES = 50;
+
 	private String inputText;
 	private String inputTextChild;
 
 	private List<Post> posts;
-	private int likecount = 0;
+	private String continuation;
 	private Post post;
 	private List<Post> postChildren;
+	private Map<Integer, PostThread> threads = new HashMap<Integer, PostThread>();
 
 	private int id = 0;
 
@@ -43,7 +56,9 @@ public class ActivityStreamBean implements Serializable {
 	@Inject
 	ActivityStreamService service;
 	@Inject
-	private UserService uservice;
+	private CurrentUser currentUser;
+	@Inject
+	private EnumerationService enumerationService;
 	User user;
 
 	@PostConstruct
@@ -71,24 +86,27 @@ public class ActivityStreamBean implements Serializable {
 	}
 
 	public List<Post> getChildPosts(Post post) {
-		postChildren = new ArrayList<Post>();
-		postChildren = post.getChildPosts();
+		PostThread thread = threads.get(post.getId());
+		// pages listing posts this bean did not load call loadThreads first
+		postChildren = thread == null ? Collections.<Post>emptyList() : thread.getReplyPosts();
 		return postChildren;
 	}
 
+	public void loadThreads(List<Post> posts) {
+		for (PostThread thread : service.getThreads(posts, THREAD_DEPTH, THREAD_REPLIES)) {
+			threads.put(thread.getPost().getId(), thread);
+		}
+	}
 
 
-	public int getLikeCount() {
-		return likecount;
-	}
 
 	public void addLike(Post post) {
-		likecount++;
-		LOG.info("Likes: " + likecount + " - " + post.toString());
+		boolean liked = service.toggleLike(post, getLoggedInUser(), enumerationService.getLike());
+		LOG.info((liked ? "Liked " : "Unliked ") + post.getId());
 	}
 
-	public int getLikes(Post p) {
-		return likecount;
+	public long getLikes(Post p) {
+		return service.getLikeCount(p);
 	}
 
 	public void newPost(Post parentpost) {
@@ -109,11 +127,15 @@ public class ActivityStreamBean implements Serializable {
 	}
 
 	public User getLoggedInUser() {
-		return uservice.findById(id);
+		return currentUser.getUser();
 	}
 	public void loadPostsForUser() {
-		List<Post>uposts = service.getPostsForUser(getLoggedInUser());
-		setPosts(uposts);
+		// "after" carries the continuation token of the "Older posts" link
+		String after = context.getExternalContext().getRequestParameterMap().get("after");
+		Page<Post> page = service.getHomeFeed(getLoggedInUser(), FEED_MODE, after, PAGE_SIZE);
+		setPosts(new ArrayList<Post>(page.getItems()));
+		continuation = page.getContinuation();
+		loadThreads(posts);
 	}
 
 
@@ -131,6 +153,9 @@ public class ActivityStreamBean implements Serializable {
 	public void setPosts(List<Post> posts) {
 		this.posts = posts;
 	}
+	public String getContinuation() {
+		return continuation;
+	}
 	public String getInputText() {
 		return inputText;
 	}
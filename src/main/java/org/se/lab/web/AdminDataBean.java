@@ -3,20 +3,20 @@ package org.se.lab.web;
 import org.apache.log4j.Logger;
 import org.se.lab.data.Community;
 import org.se.lab.service.CommunityService;
+import org.se.lab.service.EnumerationService;
 import org.se.lab.service.ServiceException;
+import org.se.lab.service.TimelineService;
 
 import javax.annotation.PostConstruct;
-import javax.enterprise.context.RequestScoped;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
 import javax.faces.context.Flash;
+import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -24,9 +24,7 @@ import java.util.Map;
  * Created by sattlerb on 31/10/2017.
  */
 @Named
-@RequestScoped
 @ViewScoped
-@ManagedBean(name = "AdminDataBean")
 public class AdminDataBean implements Serializable {
 
     /**
@@ -34,14 +32,14 @@ public class AdminDataBean implements Serializable {
 	 */
 	private static final long serialVersionUID = 1L;
 	
-	private final Logger LOG = Logger.getLogger(AdminDataBean.class);
-    List<Community> requestedCommunityList;
-    List<Community> approvedCommunityList;
+	private static final Logger LOG = Logger.getLogger(AdminDataBean.class);
+    CommunityDataModel requestedCommunityList;
+    CommunityDataModel approvedCommunityList;
     /*
      * Properties for Session
      */
-    Flash flash;
-    FacesContext context;
+    transient Flash flash;
+    transient FacesContext context;
     List<Community> selectedCommunities;
     Community selectedCommunity;
     private String id = "";
@@ -49,27 +47,23 @@ public class AdminDataBean implements Serializable {
     private String reactionOnPendingRequest = null;
     @Inject
     private CommunityService service;
+    @Inject
+    private TimelineService timelineService;
+    @Inject
+    private EnumerationService enumerationService;
 
     public String getReactionOnPendingRequest() {
         return reactionOnPendingRequest;
     }
 
-    public List<Community> getRequestedCommunityList() {
+    public CommunityDataModel getRequestedCommunityList() {
         return requestedCommunityList;
     }
 
-    public void setRequestedCommunityList(List<Community> requestedCommunityList) {
-        this.requestedCommunityList = requestedCommunityList;
-    }
-
-    public List<Community> getApprovedCommunityList() {
+    public CommunityDataModel getApprovedCommunityList() {
         return approvedCommunityList;
     }
 
-    public void setApprovedCommunityList(List<Community> approvedCommunityList) {
-        this.approvedCommunityList = approvedCommunityList;
-    }
-
     @PostConstruct
     public void init() {
         context = FacesContext.getCurrentInstance();
@@ -114,14 +108,10 @@ public class AdminDataBean implements Serializable {
                 //e.printStackTrace();
             }
         }
-        requestedCommunityList = new ArrayList<>();
-        approvedCommunityList = new ArrayList<>();
-
-        requestedCommunityList = service.getPending();
-        LOG.info("Size of Requested Comm: " + requestedCommunityList.size());
-
-        approvedCommunityList = service.getApproved();
-        LOG.info("Size of Requested Comm: " + approvedCommunityList.size());
+        requestedCommunityList = new CommunityDataModel(service,
+                Collections.singletonList(enumerationService.getPending()));
+        approvedCommunityList = new CommunityDataModel(service,
+                Collections.singletonList(enumerationService.getApproved()));
     }
 
     public void declineRequestedCommunity(Community community) {
@@ -154,9 +144,25 @@ public class AdminDataBean implements Serializable {
 
     }
 
+    public void rebuildTimelines() {
+        LOG.info("Rebuild of home timelines requested by user " + userId);
+        timelineService.rebuildTimelines();
+        FacesContext.getCurrentInstance().addMessage(null, new FacesMessage("Rebuild of home timelines started"));
+    }
+
+    public void reloadEnumerations() {
+        LOG.info("Reload of enumerations requested by user " + userId);
+        try {
+            enumerationService.reload();
+            FacesContext.getCurrentInstance().addMessage(null, new FacesMessage("Enumerations reloaded"));
+        } catch (ServiceException e) {
+            FacesContext.getCurrentInstance().addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Reload of enumerations failed", "Please retry"));
+        }
+    }
+
     private void refreshPage() {
         try {
-            context.getExternalContext().redirect("/pse/adminPortal.xhtml");
+            FacesContext.getCurrentInstance().getExternalContext().redirect("/pse/adminPortal.xhtml");
         } catch (IOException e) {
             LOG.error("Can't redirect to /pse/adminPortal.xhtml");
             //e.printStackTrace();
@@ -4,8 +4,10 @@ import org.apache.log4j.Logger;
 import org.se.lab.data.Community;
 import org.se.lab.data.Post;
 import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
 import org.se.lab.service.ActivityStreamService;
 import org.se.lab.service.CommunityService;
+import org.se.lab.service.CurrentUser;
 import org.se.lab.service.UserService;
 
 import javax.annotation.PostConstruct;
@@ -16,7 +18,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,9 @@ public class CommunityDataBean implements Serializable {
 	@Inject
 	private UserService userService;
 	
+	@Inject
+	private CurrentUser currentUser;
+	
 	@Inject
 	private ActivityStreamService activityStreamService;
 	
@@ -122,6 +126,8 @@ public class CommunityDataBean implements Serializable {
 			//javax.ejb.EJBException: org.hibernate.LazyInitializationException: 
 			//	failed to lazily initialize a collection of role: org.se.lab.data.Community.users, could not initialize proxy - no Session
 			
+			// joining adds the community to the user, which needs its communities
+			user = userService.findById(currentUser.getId(), UserFetchProfile.PROFILE_PAGE);
 			communityService.join(actualCommunity, user);
 		}
 		else {
@@ -131,25 +137,14 @@ public class CommunityDataBean implements Serializable {
 	}
 	
 	private boolean isUserMember() {
-		
-		int userId = (int)session.get("user");
-		
-		user = userService.findById(userId);
-		List<Community> listCommunity = new ArrayList<Community>();
-	
-		
-		listCommunity = userService.getAllCommunitiesForUser(user);
-		
-		if(listCommunity.contains(actualCommunity)) {
-			
-			return true;
-		}
-		return false;
+		return currentUser.isMemberOf(actualCommunity.getId());
 	}
 	
 	public List<Post> getActualCommunityStream() {
-		
-		communityPosts =  activityStreamService.getPostsForCommunity(actualCommunity);
+		// loaded once per request, the page also preloads the reply threads from it
+		if (communityPosts == null) {
+			communityPosts = activityStreamService.getPostsForCommunity(actualCommunity);
+		}
 		return communityPosts;
 		
 	}
@@ -0,0 +1,66 @@
+package org.se.lab.web;
+
+import java.util.List;
+import java.util.Map;
+
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.service.CommunityService;
+
+/**
+ * Communities in the given states, loaded one table page at a time.
+ *
+ * Sortable by "name" or id, filterable by a prefix of the "name".
+ */
+public class CommunityDataModel extends LazyDataModel<Community> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CommunityService service;
+    private final List<Enumeration> states;
+
+    /**
+     * @param service
+     * @param states e.g. pending and approved
+     */
+    public CommunityDataModel(CommunityService service, List<Enumeration> states) {
+        this.service = service;
+        this.states = states;
+    }
+
+    @Override
+    public List<Community> load(int first, int pageSize, String sortField, SortOrder sortOrder,
+            Map<String, Object> filters) {
+        String namePrefix = filter(filters, "name");
+        setRowCount((int) service.count(states, namePrefix));
+        return service.getPage(states, namePrefix, sortField, sortOrder == SortOrder.DESCENDING, first, pageSize);
+    }
+
+    @Override
+    public Object getRowKey(Community community) {
+        return community.getId();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Community getRowData(String rowKey) {
+        List<Community> page = (List<Community>) getWrappedData();
+        if (page != null) {
+            for (Community community : page) {
+                if (String.valueOf(community.getId()).equals(rowKey))
+                    return community;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Trimmed filter value, "" if there is none
+     */
+    static String filter(Map<String, Object> filters, String field) {
+        Object value = filters == null ? null : filters.get(field);
+        return value == null ? "" : value.toString().trim();
+    }
+}
@@ -1,51 +1,51 @@
 package org.se.lab.web;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.Serializable;
+import java.util.Arrays;
 import javax.annotation.PostConstruct;
-import javax.enterprise.context.RequestScoped;
 import javax.faces.context.FacesContext;
+import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.log4j.Logger;
 import org.se.lab.data.Community;
 import org.se.lab.service.CommunityService;
+import org.se.lab.service.EnumerationService;
 
+/*
+ * View scoped: the paginator loads its rows again when the view is restored
+ */
 @Named
-@RequestScoped
-public class CommunityOverviewBean {
+@ViewScoped
+public class CommunityOverviewBean implements Serializable {
 
-	private final Logger LOG = Logger.getLogger(CommunityOverviewBean.class);
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = Logger.getLogger(CommunityOverviewBean.class);
 
 	// Activate when DAO works
 	@Inject
 	private CommunityService service;
 
-	private List<Community> communities;
+	@Inject
+	private EnumerationService enumerationService;
+
+	private CommunityDataModel communities;
 	private Community selectedCommunity;
 	private String newCommunityName;
 	private String newCommunityDescription;
 
 	@PostConstruct
 	public void init() {
-
-		// DummyData
-		communities = new ArrayList<>();
-
-		// When service works
-		communities = service.findAll();
-
+		communities = new CommunityDataModel(service, Arrays.asList(enumerationService.getPending(),
+				enumerationService.getApproved(), enumerationService.getRefused()));
 	}
 
-	public List<Community> getCommunities() {
+	public CommunityDataModel getCommunities() {
 		return communities;
 	}
 
-	public void setCommunities(List<Community> communities) {
-		this.communities = communities;
-	}
-
 	public Community getSelectedCommunity() {
 		return selectedCommunity;
 	}
@@ -75,14 +75,8 @@ public class CommunityOverviewBean {
 				newCommunityDescription = "<Edit me ...>";
 			}
 			newCommunity = new Community(newCommunityName, newCommunityDescription);
+			// sets the id of newCommunity
 			service.request(newCommunity);
-			List<Community> communityList = new ArrayList<Community>();
-			communityList = service.findAll();
-			for(Community community: communityList) {
-				if(community.getName() == newCommunity.getName()) {
-					newCommunity.setId(community.getId());
-				}
-			}
 			
 			FacesContext context = FacesContext.getCurrentInstance();
             context.getExternalContext().getSessionMap().put("communityId", newCommunity.getId());
@@ -0,0 +1,208 @@
+package org.se.lab.web;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.se.lab.web.api.ApiApplication;
+
+/**
+ * Compresses the JSON API responses for clients sending Accept-Encoding: gzip.
+ *
+ * The response is compressed while it is written, so a streamed response
+ * stays streamed; compressing starts with the first byte of the body, a 304
+ * or an error without body is left alone. Compressed chunks are flushed when
+ * the application flushes.
+ *
+ * Writes are blocking: the filter is not asyncSupported, so requests through
+ * it can't start async processing, which non-blocking writes require.
+ */
+@WebFilter(urlPatterns = ApiApplication.PATH + "/*")
+public class GzipFilter implements Filter {
+
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public void init(FilterConfig config) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        response.addHeader("Vary", "Accept-Encoding");
+        if (!accepts(request.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        GzipResponse gzipResponse = new GzipResponse(response);
+        try {
+            chain.doFilter(request, gzipResponse);
+        } finally {
+            gzipResponse.finish();
+        }
+    }
+
+    /*
+     * Accept-Encoding lists gzip without q=0
+     */
+    static boolean accepts(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(GZIP))
+                continue;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("q=0(\\.0*)?"))
+                    return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static final class GzipResponse extends HttpServletResponseWrapper {
+        private GzipStream stream;
+        private PrintWriter writer;
+
+        GzipResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                stream = new GzipStream((HttpServletResponse) getResponse());
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // the length of the compressed body is not known in advance
+        @Override
+        public void setContentLength(int length) {
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!name.equalsIgnoreCase("Content-Length"))
+                super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!name.equalsIgnoreCase("Content-Length"))
+                super.addHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            if (stream != null)
+                stream.flush();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (stream != null && stream.gzip != null)
+                throw new IllegalStateException("Response already committed");
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null)
+                writer.flush();
+            if (stream != null)
+                stream.finish();
+        }
+    }
+
+    private static final class GzipStream extends ServletOutputStream {
+        private final HttpServletResponse response;
+        private GZIPOutputStream gzip;
+
+        GzipStream(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        private GZIPOutputStream gzip() throws IOException {
+            if (gzip == null) {
+                response.setHeader("Content-Encoding", GZIP);
+                gzip = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE, true);
+            }
+            return gzip;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            gzip().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0)
+                gzip().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (gzip != null)
+                gzip.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        void finish() throws IOException {
+            if (gzip != null)
+                gzip.finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        // the servlet API requires async mode for a WriteListener, see above
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new IllegalStateException("Compressed responses are written blocking");
+        }
+    }
+}
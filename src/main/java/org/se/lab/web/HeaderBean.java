@@ -3,15 +3,13 @@ package org.se.lab.web;
 
 import org.apache.log4j.Logger;
 import org.se.lab.data.User;
-import org.se.lab.service.UserService;
+import org.se.lab.service.CurrentUser;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
-import javax.faces.context.FacesContext;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
-import java.util.Map;
 
 @Named
 @RequestScoped
@@ -22,15 +20,12 @@ public class HeaderBean implements Serializable {
     private String username = "Profile";
 
     @Inject
-    private UserService service;
+    private CurrentUser currentUser;
 
     @PostConstruct
     public void init() {
-        FacesContext context = FacesContext.getCurrentInstance();
-        Map<String, Object> session = context.getExternalContext().getSessionMap();
-        if (session.size() != 0 && session.get("user") != null) {
-            int userId = (int) session.get("user");
-            User user = service.findById(userId);
+        if (currentUser.isLoggedIn()) {
+            User user = currentUser.getUser();
             if (user != null && user.getUsername() != null) {
                 setUsername(user.getUsername());
             }
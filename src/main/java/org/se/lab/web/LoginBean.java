@@ -3,6 +3,8 @@ package org.se.lab.web;
 
 import org.apache.log4j.Logger;
 import org.se.lab.data.User;
+import org.se.lab.service.CurrentUser;
+import org.se.lab.service.ServiceException;
 import org.se.lab.service.UserService;
 
 import javax.annotation.PostConstruct;
@@ -30,6 +32,9 @@ public class LoginBean implements Serializable {
     @Inject
     private UserService service;
 
+    @Inject
+    private CurrentUser currentUser;
+
     @PostConstruct
     public void init() {
 
@@ -55,6 +60,10 @@ public class LoginBean implements Serializable {
 
         try {
             user = service.login(getUsername(), getPassword());
+        } catch (ServiceException e) {
+            LOG.warn(e.getMessage());
+            setErrorMsg(e.getMessage());
+            return;
         } catch (Exception e) {
             String erroMsg = "Ooops something went wrong - pls contact the admin or try later";
             LOG.error(erroMsg);
@@ -67,7 +76,8 @@ public class LoginBean implements Serializable {
 
         if (user != null) {
             FacesContext context = FacesContext.getCurrentInstance();
-            context.getExternalContext().getSessionMap().put("user", user.getId());
+            context.getExternalContext().getSessionMap().put(CurrentUser.SESSION_ATTRIBUTE, user.getId());
+            currentUser.invalidate();
 
             Map<String, Object> session = context.getExternalContext().getSessionMap();
 
@@ -85,6 +95,7 @@ public class LoginBean implements Serializable {
 
     public String logout() {
         FacesContext.getCurrentInstance().getExternalContext().invalidateSession();
+        currentUser.invalidate();
 
         //TODO return isn`t needed in case each class has the handling of no session exists
         return "/login.xhtml?faces-redirect=true";
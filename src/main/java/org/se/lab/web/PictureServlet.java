@@ -0,0 +1,138 @@
+package org.se.lab.web;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.inject.Inject;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.service.PictureService;
+import org.se.lab.service.ServiceException;
+
+/**
+ * Serves profile and community pictures from
+ * /picture/{profile|community}/{id}/{hash}?size={thumb|medium|original}.
+ *
+ * The hash in the URL changes with the picture, so a URL with the current
+ * hash is cached for a year. The hash and the served size are also the strong
+ * ETag: If-None-Match is answered with 304 after reading only hash columns.
+ * While a variant is generated the original is served, and not cached for long.
+ * The picture is read into memory first, so the database connection is back
+ * in the pool before a slow client starts downloading it.
+ */
+@WebServlet(urlPatterns = PictureServlet.PATH + "/*")
+public class PictureServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private final Logger LOG = Logger.getLogger(PictureServlet.class);
+
+    static final String PATH = "/picture";
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    @Inject
+    private PictureService service;
+
+    /**
+     * @param owner
+     * @param id id of the UserProfile or Community
+     * @param hash content hash of the picture
+     * @param size
+     * @return (String) context relative URL of the picture, null if there is no picture
+     */
+    public static String url(PictureOwner owner, int id, String hash, PictureSize size) {
+        if (hash == null)
+            return null;
+        String url = PATH + "/" + owner.name().toLowerCase(Locale.ROOT) + "/" + id + "/" + hash;
+        return size == PictureSize.ORIGINAL ? url : url + "?size=" + size.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // pathInfo: /{owner}/{id}[/{hash}]
+        String[] parts = request.getPathInfo() == null ? new String[0] : request.getPathInfo().split("/");
+        if (parts.length < 3 || parts.length > 4) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        PictureOwner owner;
+        int id;
+        PictureSize requested;
+        try {
+            owner = PictureOwner.valueOf(parts[1].toUpperCase(Locale.ROOT));
+            id = Integer.parseInt(parts[2]);
+            String size = request.getParameter("size");
+            requested = size == null ? PictureSize.ORIGINAL : PictureSize.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try {
+            String hash = service.getPictureHash(owner, id);
+            if (hash == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            PictureSize size = service.selectSize(owner, id, requested, hash);
+            String etag = "\"" + hash + (size == PictureSize.ORIGINAL ? "" : "-" + size.name().toLowerCase(Locale.ROOT)) + "\"";
+            response.setHeader("ETag", etag);
+            // a stale or missing hash in the URL, or a stand-in for a variant, must not be cached for long
+            boolean current = parts.length == 4 && parts[3].equals(hash) && size == requested;
+            response.setHeader("Cache-Control", current ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+
+            if (matches(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            byte[] picture = service.readPicture(owner, id, size);
+            if (picture == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            response.setContentType(contentType(picture));
+            response.setContentLength(picture.length);
+            response.getOutputStream().write(picture);
+        } catch (ServiceException e) {
+            LOG.error("Can't serve picture " + request.getPathInfo());
+            if (!response.isCommitted())
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /*
+     * If-None-Match is "*" or a list of (possibly weak) entity tags
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /*
+     * Content type from the magic number, uploads are restricted to gif, jpeg and png
+     */
+    private static String contentType(byte[] b) {
+        if (b.length >= 4 && b[0] == (byte) 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G')
+            return "image/png";
+        if (b.length >= 3 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F')
+            return "image/gif";
+        if (b.length >= 2 && b[0] == (byte) 0xFF && b[1] == (byte) 0xD8)
+            return "image/jpeg";
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,116 @@
+package org.se.lab.web;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.EndpointConfig;
+import javax.websocket.OnClose;
+import javax.websocket.OnError;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.apache.log4j.Logger;
+import org.se.lab.service.impl.PostPushHub;
+import org.se.lab.service.impl.PushConnection;
+
+/**
+ * WebSocket of the activity stream and community pages, see postPush.js.
+ * Pushes a notification per new post shown on the page, see PostPushHub.
+ *
+ * Only logged in users connect: PushAuthenticationFilter rejects other
+ * upgrade requests and sets the user as principal of the handshake; a session
+ * without that principal is closed. Community pages pass ?community=id.
+ */
+@ServerEndpoint(PostPushEndpoint.PATH)
+public class PostPushEndpoint {
+
+    public static final String PATH = "/push/posts";
+
+    // a client that takes longer for one message is disconnected
+    static final long SEND_TIMEOUT = 10000L;
+
+    private static final String COMMUNITY_PARAMETER = "community";
+
+    private final Logger LOG = Logger.getLogger(PostPushEndpoint.class);
+
+    @Inject
+    private PostPushHub hub;
+
+    private PushConnection connection;
+
+    @OnOpen
+    public void open(Session session, EndpointConfig config) throws IOException {
+        int userId = PushAuthenticationFilter.userId(session.getUserPrincipal());
+        if (userId == 0) {
+            session.close(new CloseReason(CloseCodes.VIOLATED_POLICY, "Not logged in"));
+            return;
+        }
+        // the page stays open as long as the user likes
+        session.setMaxIdleTimeout(0);
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT);
+        connection = hub.connect(userId, communityOf(session), new SessionTransport(session));
+    }
+
+    @OnClose
+    public void close() {
+        if (connection != null) {
+            hub.disconnect(connection);
+            connection = null;
+        }
+    }
+
+    @OnError
+    public void error(Throwable t) {
+        LOG.debug("push connection failed: " + connection, t);
+        close();
+    }
+
+    private static int communityOf(Session session) {
+        List<String> values = session.getRequestParameterMap().get(COMMUNITY_PARAMETER);
+        if (values == null || values.isEmpty())
+            return 0;
+        try {
+            return Math.max(0, Integer.parseInt(values.get(0)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /*
+     * Asynchronous sends of the WebSocket session; PushConnection has at most
+     * one in flight
+     */
+    private static class SessionTransport implements PushConnection.Transport {
+        private final Session session;
+
+        SessionTransport(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void send(String message, Consumer<Throwable> done) {
+            try {
+                session.getAsyncRemote().sendText(message, result -> done.accept(result.getException()));
+            } catch (RuntimeException e) {
+                // e.g. the session is already closed
+                done.accept(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (session.isOpen()) {
+                    session.close();
+                }
+            } catch (IOException e) {
+                // the client is gone anyway
+            }
+        }
+    }
+}
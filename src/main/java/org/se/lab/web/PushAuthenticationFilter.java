@@ -0,0 +1,84 @@
+package org.se.lab.web;
+
+import java.io.IOException;
+import java.security.Principal;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.se.lab.service.CurrentUser;
+
+/**
+ * Authenticates the WebSocket upgrade requests of the push endpoints.
+ *
+ * Requests of sessions without logged in user are answered with 403; the
+ * others carry the user as principal, which the WebSocket session of this
+ * very request returns from getUserPrincipal(). Nothing is shared between
+ * handshakes.
+ */
+@WebFilter(urlPatterns = "/push/*")
+public class PushAuthenticationFilter implements Filter {
+
+    @Override
+    public void init(FilterConfig config) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpSession session = request.getSession(false);
+        Object userId = session == null ? null : session.getAttribute(CurrentUser.SESSION_ATTRIBUTE);
+        if (!(userId instanceof Integer)) {
+            ((HttpServletResponse) servletResponse).sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        UserPrincipal principal = new UserPrincipal((Integer) userId);
+        chain.doFilter(new HttpServletRequestWrapper(request) {
+            @Override
+            public Principal getUserPrincipal() {
+                return principal;
+            }
+        }, servletResponse);
+    }
+
+    /**
+     * @param principal of a WebSocket session, may be null
+     * @return (int) id of the logged in user, 0 if the principal was not set
+     *         by this filter
+     */
+    static int userId(Principal principal) {
+        return principal instanceof UserPrincipal ? ((UserPrincipal) principal).userId : 0;
+    }
+
+    static final class UserPrincipal implements Principal {
+        private final int userId;
+
+        UserPrincipal(int userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public String getName() {
+            return String.valueOf(userId);
+        }
+
+        @Override
+        public String toString() {
+            return "UserPrincipal " + userId;
+        }
+    }
+}
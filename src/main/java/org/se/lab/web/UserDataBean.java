@@ -2,12 +2,16 @@ package org.se.lab.web;
 
 import org.apache.log4j.Logger;
 import org.primefaces.event.FileUploadEvent;
-import org.primefaces.model.DefaultStreamedContent;
 import org.primefaces.model.StreamedContent;
 import org.primefaces.model.UploadedFile;
 import org.se.lab.data.Community;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
 import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
 import org.se.lab.data.UserProfile;
+import org.se.lab.data.UserSummary;
+import org.se.lab.service.CurrentUser;
 import org.se.lab.service.UserService;
 
 import javax.annotation.PostConstruct;
@@ -16,7 +20,6 @@ import javax.faces.context.FacesContext;
 import javax.faces.context.Flash;
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -35,10 +38,12 @@ public class UserDataBean implements Serializable {
     private StreamedContent photo;
     @Inject
     private UserService service;
+    @Inject
+    private CurrentUser currentUser;
     private User user;
     private User loggedInUser;
     private UserProfile userProfile;
-    private List<User> contacts = new ArrayList<User>();
+    private List<UserSummary> contacts = new ArrayList<UserSummary>();
     private String errorMsg = "";
     
     private List<Community> communities = new ArrayList<Community>();
@@ -76,11 +81,11 @@ public class UserDataBean implements Serializable {
 
                 //Holen des eingeloggten Users
                 try {
-                loggedInUser = service.findById(userId);
+                loggedInUser = currentUser.getUser();
             
-                List<User> usersList= service.getContactsOfUser(loggedInUser);
+                List<UserSummary> usersList= service.getContactsOfUser(loggedInUser);
                 
-                for (User u : usersList) {
+                for (UserSummary u : usersList) {
                     //Wenn sich der User des aktuell angezeigten Profils in der Kontaktliste befindet wird der removeBtn angezeigt
                     if (u.getId() == user.getId()) {
                         setContactAddable(false);
@@ -100,7 +105,7 @@ public class UserDataBean implements Serializable {
 
             try {
             loadContactsCommunitiesAndUserprofile();
-            validateUserPriviles(loggedInUser);
+            validateUserPriviles();
             
         } catch (Exception e) {
             errorMsg = "Can't load your profile without errors! - pls contact the admin or try later";
@@ -197,14 +202,12 @@ public class UserDataBean implements Serializable {
 
     }
 
-    public StreamedContent getImage() {
-
-        //todo maybe need to load from db
-
-        if (user.getUserProfile().getPicture() != null) {
-            return new DefaultStreamedContent(new ByteArrayInputStream(user.getUserProfile().getPicture()));
-        }
-        return null;
+    /**
+     * @return URL of the profile picture served by PictureServlet, null if there is none
+     */
+    public String getPictureUrl() {
+        UserProfile profile = user.getUserProfile();
+        return PictureServlet.url(PictureOwner.PROFILE, profile.getId(), profile.getPictureHash(), PictureSize.MEDIUM);
     }
 
     public void upload(FileUploadEvent event) {
@@ -216,7 +219,7 @@ public class UserDataBean implements Serializable {
     }
 
     public User getUser(int id) {
-        return service.findById(id);
+        return service.findById(id, UserFetchProfile.PROFILE_PAGE);
     }
 
     public User getUser() {
@@ -240,8 +243,7 @@ public class UserDataBean implements Serializable {
     	boolean imageExists = false;
     	
     	try {
-    		 user.getUserProfile().getPicture();
-    		imageExists = true;
+    		imageExists = user.getUserProfile().getPictureHash() != null;
     		
     } catch (Exception e) {
          errorMsg = "Can't load your profile without errors! - pls contact the admin or try later";
@@ -252,11 +254,11 @@ public class UserDataBean implements Serializable {
     }
 
 
-    public List<User> getContacts() {
+    public List<UserSummary> getContacts() {
         return contacts;
     }
 
-    public void setContacts(List<User> contacts) {
+    public void setContacts(List<UserSummary> contacts) {
         this.contacts = contacts;
     }
 
@@ -288,9 +290,9 @@ public class UserDataBean implements Serializable {
         this.isContactAddable = contactAddable;
     }
 
-    private void validateUserPriviles(User u) {
+    private void validateUserPriviles() {
     try {
-    	this.isAdmin = service.hasUserTheRole(UserService.ROLE.ADMIN, u);
+    	this.isAdmin = currentUser.hasRole(UserService.ROLE.ADMIN);
     	
     } catch (Exception e) {
         errorMsg = "Can't load your profile without errors! - pls contact the admin or try later";
@@ -2,37 +2,44 @@
 package org.se.lab.web;
 
 import org.apache.log4j.Logger;
-import org.se.lab.data.UserProfile;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.data.UserProfileSummary;
 import org.se.lab.service.UserService;
 
 import javax.annotation.PostConstruct;
-import javax.enterprise.context.RequestScoped;
 import javax.faces.context.FacesContext;
 import javax.faces.context.Flash;
+import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
-import java.util.List;
+import java.io.Serializable;
 import java.util.Map;
 
+/*
+ * View scoped: the paginator loads its rows again when the view is restored
+ */
 @Named
-@RequestScoped
-public class UserOverviewBean {
+@ViewScoped
+public class UserOverviewBean implements Serializable {
 
-    private final Logger LOG = Logger.getLogger(UserOverviewBean.class);
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = Logger.getLogger(UserOverviewBean.class);
 
     @Inject
     UserService service;
 
 
-    private List<UserProfile> profiles;
-    private UserProfile selectedProfile;
+    private UserProfileDataModel profiles;
+    private UserProfileSummary selectedProfile;
 
     /*
      * Properties for Session
      */
-    Flash flash;
-    FacesContext context;
+    transient Flash flash;
+    transient FacesContext context;
     private String id = "";
     private int userId = 0;
 
@@ -80,25 +87,28 @@ public class UserOverviewBean {
 			}
 		}
 
-        // Activate if DAO works
-        profiles = service.getAllUserProfiles();
+        // Pictures are loaded only on the profile page
+        profiles = new UserProfileDataModel(service);
 
 
     }
 
-    public List<UserProfile> getProfiles() {
-        return profiles;
+    /**
+     * @return URL of the thumbnail of the given profile, null if it has no picture
+     */
+    public String thumbnailUrl(UserProfileSummary profile) {
+        return PictureServlet.url(PictureOwner.PROFILE, profile.getId(), profile.getPictureHash(), PictureSize.THUMB);
     }
 
-    public void setProfiles(List<UserProfile> profiles) {
-        this.profiles = profiles;
+    public UserProfileDataModel getProfiles() {
+        return profiles;
     }
 
-    public UserProfile getSelectedProfile() {
+    public UserProfileSummary getSelectedProfile() {
         return selectedProfile;
     }
 
-    public void setSelectedProfile(UserProfile selectedProfile) {
+    public void setSelectedProfile(UserProfileSummary selectedProfile) {
         this.selectedProfile = selectedProfile;
     }
 
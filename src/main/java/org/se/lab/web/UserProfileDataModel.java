@@ -0,0 +1,52 @@
+package org.se.lab.web;
+
+import java.util.List;
+import java.util.Map;
+
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+import org.se.lab.data.UserProfileSummary;
+import org.se.lab.service.UserService;
+
+/**
+ * User profile summaries, loaded one table page at a time.
+ *
+ * Sortable by "lastname" or id, filterable by a prefix of the "lastname".
+ */
+public class UserProfileDataModel extends LazyDataModel<UserProfileSummary> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UserService service;
+
+    public UserProfileDataModel(UserService service) {
+        this.service = service;
+    }
+
+    @Override
+    public List<UserProfileSummary> load(int first, int pageSize, String sortField, SortOrder sortOrder,
+            Map<String, Object> filters) {
+        String lastnamePrefix = CommunityDataModel.filter(filters, "lastname");
+        setRowCount((int) service.countUserProfiles(lastnamePrefix));
+        return service.getUserProfileSummaries(lastnamePrefix, sortField, sortOrder == SortOrder.DESCENDING,
+                first, pageSize);
+    }
+
+    @Override
+    public Object getRowKey(UserProfileSummary profile) {
+        return profile.getId();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public UserProfileSummary getRowData(String rowKey) {
+        List<UserProfileSummary> page = (List<UserProfileSummary>) getWrappedData();
+        if (page != null) {
+            for (UserProfileSummary profile : page) {
+                if (String.valueOf(profile.getId()).equals(rowKey))
+                    return profile;
+            }
+        }
+        return null;
+    }
+}
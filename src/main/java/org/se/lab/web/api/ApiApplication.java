@@ -0,0 +1,25 @@
+package org.se.lab.web.api;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+
+/**
+ * JSON API for scripts and mobile clients below /api, for logged in users only:
+ *
+ * GET /api/feed                       home feed of the logged in user
+ * GET /api/users/{id}                 profile, communities and contact ids
+ * GET /api/users/{id}/posts           posts of the user
+ * GET /api/communities                approved communities
+ * GET /api/communities/{id}           one approved community
+ * GET /api/communities/{id}/posts     posts of the community
+ *
+ * Lists are paged with ?after={next}&amp;limit={1..100}, where next is taken
+ * from the previous page. Responses are streamed, carry an ETag for
+ * If-None-Match and are compressed for clients accepting gzip, see JsonOutput
+ * and GzipFilter.
+ */
+@ApplicationPath(ApiApplication.PATH)
+public class ApiApplication extends Application {
+
+    public static final String PATH = "/api";
+}
@@ -0,0 +1,27 @@
+package org.se.lab.web.api;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import org.se.lab.service.CurrentUser;
+
+/**
+ * Answers every API request of a session without logged in user with 401;
+ * clients log in through login.xhtml and send the session cookie.
+ */
+@Provider
+public class AuthenticationFilter implements ContainerRequestFilter {
+
+    @Inject
+    private CurrentUser currentUser;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!currentUser.isLoggedIn()) {
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.se.lab.web.api;
+
+import java.util.Map;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import org.se.lab.data.Community;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.service.ActivityStreamService;
+import org.se.lab.service.CommunityService;
+import org.se.lab.service.EnumerationService;
+
+/**
+ * Approved communities and their posts; pending and refused communities are
+ * not found
+ */
+@Path("communities")
+@RequestScoped
+public class CommunityResource {
+
+    @Inject
+    private CommunityService communityService;
+
+    @Inject
+    private ActivityStreamService activityStreamService;
+
+    @Inject
+    private EnumerationService enumerationService;
+
+    @GET
+    public Response communities(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+            @Context Request request) {
+        Page<Community> page = communityService.getApproved(JsonOutput.id(after), JsonOutput.limit(limit));
+        return JsonOutput.ok(request, json -> JsonOutput.page(json, page, Representations::community));
+    }
+
+    @GET
+    @Path("{id: \\d+}")
+    public Response community(@PathParam("id") int id, @Context Request request) {
+        Community community = find(id);
+        return JsonOutput.ok(request, json -> Representations.community(json, community));
+    }
+
+    @GET
+    @Path("{id: \\d+}/posts")
+    public Response posts(@PathParam("id") int id, @QueryParam("after") String after,
+            @QueryParam("limit") Integer limit, @Context Request request) {
+        String cursor = JsonOutput.cursor(after);
+        int pageSize = JsonOutput.limit(limit);
+        Page<Post> page = activityStreamService.getPostsForCommunity(find(id), cursor, pageSize);
+        // once per page, the body is written twice
+        Map<Integer, Long> likes = activityStreamService.getLikeCounts(page.getItems());
+        return JsonOutput.ok(request, json -> JsonOutput.page(json, page,
+                (item, post) -> Representations.post(item, post, likes.get(post.getId()))));
+    }
+
+    private Community find(int id) {
+        Community community = communityService.findById(id);
+        if (community == null || !enumerationService.getApproved().equals(community.getState())) {
+            throw new NotFoundException();
+        }
+        return community;
+    }
+}
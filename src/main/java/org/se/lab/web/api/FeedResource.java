@@ -0,0 +1,43 @@
+package org.se.lab.web.api;
+
+import java.util.Map;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.service.ActivityStreamService;
+import org.se.lab.service.CurrentUser;
+import org.se.lab.service.FeedMode;
+
+/**
+ * Home feed of the logged in user, the posts of the activity stream page
+ */
+@Path("feed")
+@RequestScoped
+public class FeedResource {
+
+    @Inject
+    private ActivityStreamService service;
+
+    @Inject
+    private CurrentUser currentUser;
+
+    @GET
+    public Response feed(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+            @Context Request request) {
+        Page<Post> page = service.getHomeFeed(currentUser.getUser(), FeedMode.MATERIALIZED,
+                JsonOutput.cursor(after), JsonOutput.limit(limit));
+        // once per page, the body is written twice
+        Map<Integer, Long> likes = service.getLikeCounts(page.getItems());
+        return JsonOutput.ok(request, json -> JsonOutput.page(json, page,
+                (item, post) -> Representations.post(item, post, likes.get(post.getId()))));
+    }
+}
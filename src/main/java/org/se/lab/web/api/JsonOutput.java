@@ -0,0 +1,178 @@
+package org.se.lab.web.api;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.BiConsumer;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
+import org.se.lab.service.ActivityStreamService;
+
+/**
+ * Streamed JSON responses with ETag.
+ *
+ * A body is written twice: first into a digest only, which gives the ETag
+ * without holding the document in memory, then, unless If-None-Match matches,
+ * directly to the response stream. The tag is weak, gzip changes the bytes
+ * but not the content. Clients revalidate on every use.
+ */
+final class JsonOutput {
+
+    /**
+     * Writes one JSON document; called twice per response, must write the
+     * same document both times
+     */
+    interface Body {
+        void write(JsonGenerator json);
+    }
+
+    static final int DEFAULT_LIMIT = 20;
+
+    private static final MediaType JSON = MediaType.APPLICATION_JSON_TYPE.withCharset("UTF-8");
+    private static final JsonGeneratorFactory GENERATORS = Json.createGeneratorFactory(null);
+    private static final String DIGEST = "SHA-256";
+    private static final int TAG_BYTES = 16;
+
+    private JsonOutput() {
+    }
+
+    /**
+     * @param request for If-None-Match
+     * @param body
+     * @return (Response) 200 streaming the body, or 304 without body
+     */
+    static Response ok(Request request, Body body) {
+        EntityTag tag = tag(body);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(revalidate()).build();
+        }
+        StreamingOutput output = out -> {
+            JsonGenerator json = GENERATORS.createGenerator(out, StandardCharsets.UTF_8);
+            body.write(json);
+            // the container closes the stream
+            json.flush();
+        };
+        return Response.ok(output, JSON).tag(tag).cacheControl(revalidate()).build();
+    }
+
+    /**
+     * Writes {"items":[...],"next":token} where next is null on the last page
+     */
+    static <E> void page(JsonGenerator json, Page<E> page, BiConsumer<JsonGenerator, E> item) {
+        json.writeStartObject().writeStartArray("items");
+        for (E e : page.getItems()) {
+            item.accept(json, e);
+        }
+        json.writeEnd();
+        write(json, "next", page.getContinuation());
+        json.writeEnd();
+    }
+
+    /**
+     * Writes the value, or null
+     */
+    static void write(JsonGenerator json, String name, String value) {
+        if (value == null) {
+            json.writeNull(name);
+        } else {
+            json.write(name, value);
+        }
+    }
+
+    /**
+     * @param limit query parameter, may be null
+     * @return (int) page size, DEFAULT_LIMIT if not given
+     * @throws BadRequestException if not within 1 and MAX_PAGE_SIZE
+     */
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > ActivityStreamService.MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be 1 to " + ActivityStreamService.MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    /**
+     * @param after continuation token of a stream, may be null
+     * @return (String) the token
+     * @throws BadRequestException if the token is malformed
+     */
+    static String cursor(String after) {
+        try {
+            KeysetCursor.decode(after);
+            return after;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("invalid after", e);
+        }
+    }
+
+    /**
+     * @param after continuation token of a list paged by id, may be null
+     * @return (String) the token
+     * @throws BadRequestException if the token is no id
+     */
+    static String id(String after) {
+        if (after == null || after.isEmpty()) {
+            return after;
+        }
+        try {
+            if (Integer.parseInt(after) > 0) {
+                return after;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new BadRequestException("invalid after");
+    }
+
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        cacheControl.setNoTransform(false);
+        return cacheControl;
+    }
+
+    private static EntityTag tag(Body body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Can't create ETag", e);
+        }
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        try (JsonGenerator json = GENERATORS.createGenerator(new DigestOutputStream(discard, digest),
+                StandardCharsets.UTF_8)) {
+            body.write(json);
+        }
+        byte[] hash = Arrays.copyOf(digest.digest(), TAG_BYTES);
+        return new EntityTag(Base64.getUrlEncoder().withoutPadding().encodeToString(hash), true);
+    }
+}
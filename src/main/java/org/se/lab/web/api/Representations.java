@@ -0,0 +1,102 @@
+package org.se.lab.web.api;
+
+import javax.json.stream.JsonGenerator;
+
+import org.se.lab.data.Community;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.data.UserContact;
+import org.se.lab.data.UserProfile;
+import org.se.lab.web.PictureServlet;
+
+/**
+ * JSON objects of the API. Times are milliseconds since the epoch, picture
+ * URLs are relative to the context path.
+ */
+final class Representations {
+
+    private Representations() {
+    }
+
+    /**
+     * {"id":1,"text":"...","created":1510000000000,"author":{"id":2,"username":"bob"},"communityId":3,"likes":4}
+     * with communityId null outside communities
+     */
+    static void post(JsonGenerator json, Post post, long likes) {
+        json.writeStartObject()
+                .write("id", post.getId())
+                .write("text", post.getText())
+                .write("created", post.getCreated().getTime());
+        json.writeStartObject("author")
+                .write("id", post.getUser().getId())
+                .write("username", post.getUser().getUsername())
+                .writeEnd();
+        if (post.getCommunity() == null) {
+            json.writeNull("communityId");
+        } else {
+            json.write("communityId", post.getCommunity().getId());
+        }
+        json.write("likes", likes)
+                .writeEnd();
+    }
+
+    /**
+     * {"id":1,"name":"...","description":"...","picture":"/picture/community/1/..."}
+     */
+    static void community(JsonGenerator json, Community community) {
+        json.writeStartObject()
+                .write("id", community.getId())
+                .write("name", community.getName());
+        JsonOutput.write(json, "description", community.getDescription());
+        JsonOutput.write(json, "picture", PictureServlet.url(PictureOwner.COMMUNITY, community.getId(),
+                community.getPictureHash(), PictureSize.MEDIUM));
+        json.writeEnd();
+    }
+
+    /**
+     * {"id":1,"username":"bob","profile":{...},"communities":[{"id":2,"name":"..."}],"contactIds":[3]}
+     * for a user loaded with UserFetchProfile.PROFILE_PAGE
+     */
+    static void user(JsonGenerator json, User user) {
+        json.writeStartObject()
+                .write("id", user.getId())
+                .write("username", user.getUsername());
+        UserProfile profile = user.getUserProfile();
+        if (profile == null) {
+            json.writeNull("profile");
+        } else {
+            json.writeStartObject("profile");
+            JsonOutput.write(json, "firstname", profile.getFirstname());
+            JsonOutput.write(json, "lastname", profile.getLastname());
+            JsonOutput.write(json, "email", profile.getEmail());
+            JsonOutput.write(json, "phone", profile.getPhone());
+            JsonOutput.write(json, "mobile", profile.getMobile());
+            JsonOutput.write(json, "address", profile.getAddress());
+            JsonOutput.write(json, "plz", profile.getPlz());
+            JsonOutput.write(json, "city", profile.getCity());
+            JsonOutput.write(json, "country", profile.getCountry());
+            JsonOutput.write(json, "team", profile.getTeam());
+            JsonOutput.write(json, "room", profile.getRoom());
+            JsonOutput.write(json, "description", profile.getDescription());
+            JsonOutput.write(json, "picture", PictureServlet.url(PictureOwner.PROFILE, profile.getId(),
+                    profile.getPictureHash(), PictureSize.MEDIUM));
+            json.writeEnd();
+        }
+        json.writeStartArray("communities");
+        for (Community community : user.getCommunities()) {
+            json.writeStartObject()
+                    .write("id", community.getId())
+                    .write("name", community.getName())
+                    .writeEnd();
+        }
+        json.writeEnd();
+        json.writeStartArray("contactIds");
+        for (UserContact contact : user.getUserContacts()) {
+            json.write(contact.getContactId());
+        }
+        json.writeEnd();
+        json.writeEnd();
+    }
+}
@@ -0,0 +1,62 @@
+package org.se.lab.web.api;
+
+import java.util.Map;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.service.ActivityStreamService;
+import org.se.lab.service.UserService;
+
+/**
+ * Profiles and posts of users
+ */
+@Path("users/{id: \\d+}")
+@RequestScoped
+public class UserResource {
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private ActivityStreamService activityStreamService;
+
+    @GET
+    public Response profile(@PathParam("id") int id, @Context Request request) {
+        User user = find(id, UserFetchProfile.PROFILE_PAGE);
+        return JsonOutput.ok(request, json -> Representations.user(json, user));
+    }
+
+    @GET
+    @Path("posts")
+    public Response posts(@PathParam("id") int id, @QueryParam("after") String after,
+            @QueryParam("limit") Integer limit, @Context Request request) {
+        String cursor = JsonOutput.cursor(after);
+        int pageSize = JsonOutput.limit(limit);
+        Page<Post> page = activityStreamService.getPostsForUser(find(id, UserFetchProfile.BASIC), cursor, pageSize);
+        // once per page, the body is written twice
+        Map<Integer, Long> likes = activityStreamService.getLikeCounts(page.getItems());
+        return JsonOutput.ok(request, json -> JsonOutput.page(json, page,
+                (item, post) -> Representations.post(item, post, likes.get(post.getId()))));
+    }
+
+    private User find(int id, UserFetchProfile profile) {
+        User user = userService.findById(id, profile);
+        if (user == null) {
+            throw new NotFoundException();
+        }
+        return user;
+    }
+}
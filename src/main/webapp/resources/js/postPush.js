@@ -0,0 +1,38 @@
+/*
+ * Shows a "new posts" link on the activity stream and community pages
+ * when PostPushEndpoint announces posts, instead of reloading the page.
+ * The link reloads the page; the connection is reopened after a drop.
+ */
+(function () {
+	var banner = document.getElementById('newPosts');
+	if (!banner || !window.WebSocket)
+		return;
+
+	var RECONNECT_MILLIS = 10000;
+	var NOT_LOGGED_IN = 1008;
+	var url = (location.protocol === 'https:' ? 'wss://' : 'ws://') + location.host
+			+ banner.getAttribute('data-url');
+	var count = 0;
+
+	function connect() {
+		var socket = new WebSocket(url);
+		socket.onmessage = function (event) {
+			var notification = JSON.parse(event.data);
+			if (notification.type !== 'post')
+				return;
+			count++;
+			banner.firstChild.textContent = count === 1 ? '1 new post' : count + ' new posts';
+			banner.style.display = 'block';
+		};
+		socket.onclose = function (event) {
+			if (event.code !== NOT_LOGGED_IN)
+				setTimeout(connect, RECONNECT_MILLIS);
+		};
+	}
+
+	banner.firstChild.onclick = function () {
+		location.reload();
+		return false;
+	};
+	connect();
+})();
@@ -9,14 +9,18 @@ import org.junit.BeforeClass;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
-import javax.persistence.Persistence;
 
 
 import static org.junit.Assert.assertNotNull;
 
+/**
+ * Runs against the database of PersistenceProfile.current(), an embedded
+ * in-memory database unless -Dpse.persistence.profile=mysql is given.
+ * The schema is created once per JVM; every test runs in its own
+ * transaction, which is rolled back afterwards.
+ */
 public abstract class AbstractDAOTest {
 	
-	protected static final String persistencUnitName = "pse";
 	protected static EntityManagerFactory factory;
 	protected static EntityManager em;
 	protected static EntityTransaction tx;
@@ -25,7 +29,7 @@ public abstract class AbstractDAOTest {
 	
 	@BeforeClass
 	public static void connect() {
-		factory = Persistence.createEntityManagerFactory(persistencUnitName);
+		factory = PersistenceProfile.current().sharedEntityManagerFactory();
 		assertNotNull(factory);
 		em = factory.createEntityManager();
 		assertNotNull(em);
@@ -54,9 +58,9 @@ public abstract class AbstractDAOTest {
 		tx.commit();
 		*/
 		
+		// the factory is shared by all test classes and closed at shutdown
 		if(em == null) return;
 		em.close();
-		factory.close();
 	}
 
 	@Before
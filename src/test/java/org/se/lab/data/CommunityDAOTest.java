@@ -1,7 +1,10 @@
 package org.se.lab.data;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.Hibernate;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -131,5 +134,89 @@ public class CommunityDAOTest extends AbstractDAOTest{
 		
 	}
 
+	@Test
+	public void testMembership() {
+		//setup, rolled back by teardown
+		tx.begin();
+		com1 = cdao.createCommunity("TestDAOMembership1", "Community 1 to test membership");
+		com2 = cdao.createCommunity("TestDAOMembership2", "Community 2 to test membership");
+		com3 = cdao.createCommunity("TestDAOMembership3", "Community 3 to test membership");
+		user1 = udao.createUser("TestMember1", "*****");
+		user2 = udao.createUser("TestMember2", "*****");
+		com3.addUsers(user1);
+		com1.addUsers(user1);
+		com1.addUsers(user2);
+		em.flush();
+		em.clear();
+
+		//verify
+		coms = cdao.findByMember(user1.getId());
+		Assert.assertEquals(2, coms.size());
+		Assert.assertEquals(com1, coms.get(0));
+		Assert.assertEquals(com3, coms.get(1));
+		Assert.assertFalse(Hibernate.isInitialized(coms.get(0).getUsers()));
+		Assert.assertEquals(1, cdao.findByMember(user2.getId()).size());
+		Assert.assertTrue(cdao.findByMember(Integer.MAX_VALUE).isEmpty());
+
+		Assert.assertTrue(cdao.isMember(user1.getId(), com3.getId()));
+		Assert.assertTrue(cdao.isMember(user2.getId(), com1.getId()));
+		Assert.assertFalse(cdao.isMember(user2.getId(), com3.getId()));
+		Assert.assertFalse(cdao.isMember(user1.getId(), com2.getId()));
+	}
+
+	@Test
+	public void testApprovedPage() {
+		//setup, rolled back by teardown
+		tx.begin();
+		com1 = cdao.createCommunity("TestDAOPage1", "Community 1 to test paging");
+		com2 = cdao.createCommunity("TestDAOPage2", "Community 2 to test paging");
+		com3 = cdao.createCommunity("TestDAOPage3", "Community 3 to test paging");
+		approved = edao.findById(2);
+		com1.setState(approved);
+		com3.setState(approved);
+		em.flush();
+		em.clear();
+
+		//verify, communities of other tests have lower ids
+		Page<Community> page = cdao.findApprovedPage(com1.getId() - 1, 1);
+		Assert.assertEquals(1, page.getItems().size());
+		Assert.assertEquals(com1, page.getItems().get(0));
+		Assert.assertFalse(Hibernate.isInitialized(page.getItems().get(0).getUsers()));
+		Assert.assertEquals(String.valueOf(com1.getId()), page.getContinuation());
+
+		page = cdao.findApprovedPage(Integer.parseInt(page.getContinuation()), 1);
+		Assert.assertEquals(com3, page.getItems().get(0));
+		Assert.assertFalse(page.hasMore());
+	}
+
+	@Test
+	public void testFindPage() {
+		//setup, rolled back by teardown
+		tx.begin();
+		com1 = cdao.createCommunity("TestDAOSortB", "Community 1 to test sorting");
+		com2 = cdao.createCommunity("TestDAOSortA", "Community 2 to test sorting");
+		com3 = cdao.createCommunity("TestDAOSortC", "Community 3 to test sorting");
+		approved = edao.findById(2);
+		com3.setState(approved);
+		em.flush();
+		em.clear();
+
+		//verify, the name prefix excludes communities of other tests
+		List<Integer> all = Arrays.asList(1, 2);
+		List<Community> page = cdao.findPage(all, "TestDAOSort", "name", false, 0, 2);
+		Assert.assertEquals(Arrays.asList(com2, com1), page);
+		Assert.assertFalse(Hibernate.isInitialized(page.get(0).getUsers()));
+
+		page = cdao.findPage(all, "TestDAOSort", "name", true, 1, 2);
+		Assert.assertEquals(Arrays.asList(com1, com2), page);
+
+		page = cdao.findPage(Collections.singletonList(1), "TestDAOSort", null, true, 0, 10);
+		Assert.assertEquals(Arrays.asList(com2, com1), page);
+
+		Assert.assertEquals(3, cdao.count(all, "TestDAOSort"));
+		Assert.assertEquals(1, cdao.count(Collections.singletonList(2), "TestDAOSort"));
+		Assert.assertEquals(0, cdao.count(all, "TestDAOSort%"));
+	}
+
 	
 }
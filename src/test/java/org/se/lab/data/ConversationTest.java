@@ -0,0 +1,68 @@
+package org.se.lab.data;
+
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConversationTest {
+
+	private Conversation conversation;
+
+	@Before
+	public void setUp() {
+		conversation = new Conversation(7, 3, new Date(1000));
+	}
+
+	@Test
+	public void testConstructor() {
+		Assert.assertEquals(3, conversation.getLowUserId());
+		Assert.assertEquals(7, conversation.getHighUserId());
+		Assert.assertEquals(new Date(1000), conversation.getLastMessageAt());
+		Assert.assertEquals(0, conversation.getLastMessageId());
+		Assert.assertEquals(conversation, new Conversation(3, 7, new Date()));
+		Assert.assertEquals(conversation.hashCode(), new Conversation(3, 7, new Date()).hashCode());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorInvalidId() {
+		new Conversation(0, 3, new Date());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorCreatedNull() {
+		new Conversation(7, 3, null);
+	}
+
+	@Test
+	public void testParticipants() {
+		Assert.assertTrue(conversation.hasParticipant(3));
+		Assert.assertFalse(conversation.hasParticipant(5));
+		Assert.assertEquals(7, conversation.getOtherUserId(3));
+		Assert.assertEquals(3, conversation.getOtherUserId(7));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOtherUserIdNoParticipant() {
+		conversation.getOtherUserId(5);
+	}
+
+	@Test
+	public void testMarkRead() {
+		conversation.markRead(3, 10);
+		conversation.markRead(3, 4);
+		Assert.assertEquals(10, conversation.getReadMessageId(3));
+		Assert.assertEquals(0, conversation.getReadMessageId(7));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMarkReadNoParticipant() {
+		conversation.markRead(5, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMessageAddedOtherConversation() {
+		conversation.messageAdded(new PrivateMessage("Hello", new User("a", "a"), new User("b", "b")));
+	}
+}
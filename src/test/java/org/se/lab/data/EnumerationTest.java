@@ -57,6 +57,24 @@ public class EnumerationTest {
 		Assert.assertTrue(!enumeration.equals(actual));
 	}
 	
+	@Test
+	public void testReference(){
+		Enumeration reference = Enumeration.reference(2, "APPROVED");
+		Assert.assertEquals(new Enumeration(2), reference);
+		Assert.assertEquals("APPROVED", reference.getName());
+
+		// communities don't register with their state
+		Community com = new Community("name", "description");
+		com.setState(reference);
+		Assert.assertSame(reference, com.getState());
+		Assert.assertTrue(reference.getCom().isEmpty());
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testReferenceUnmodifiable(){
+		Enumeration.reference(4, "ADMIN").setUser(new User("admin", "*****"));
+	}
+
 	@Test(expected=IllegalArgumentException.class)
 	public void testInvalidId(){
 		enumeration.setId(-1);
@@ -0,0 +1,95 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class KeysetCursorTest {
+
+	@Test
+	public void testEncodeDecode() {
+		KeysetCursor cursor = new KeysetCursor(new Date(1511000000000L), 42);
+		KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+		assertEquals(cursor, decoded);
+		assertEquals(new Date(1511000000000L), decoded.getCreated());
+		assertEquals(42, decoded.getId());
+	}
+
+	@Test
+	public void testTokenIsUrlSafe() {
+		String token = new KeysetCursor(new Date(Long.MAX_VALUE), Integer.MAX_VALUE).encode();
+		assertTrue(token.matches("[A-Za-z0-9_-]+"));
+	}
+
+	@Test
+	public void testDecodeNullOrEmpty() {
+		assertNull(KeysetCursor.decode(null));
+		assertNull(KeysetCursor.decode(""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeGarbage() {
+		KeysetCursor.decode("not a token!");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeMissingId() {
+		KeysetCursor.decode(new KeysetCursor(new Date(1L), 1).encode().substring(0, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidId() {
+		new KeysetCursor(new Date(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullCreated() {
+		new KeysetCursor(null, 1);
+	}
+
+	@Test
+	public void testOfPost() {
+		Post post = new Post(null, null, new User(), "text", new Date(180L));
+		post.setId(7);
+		assertEquals(new KeysetCursor(new Date(180L), 7), KeysetCursor.of(post));
+	}
+
+	@Test
+	public void testLastPage() {
+		List<Post> rows = posts(3);
+		Page<Post> page = Page.of(rows, 3, KeysetCursor::of);
+		assertEquals(3, page.getItems().size());
+		assertFalse(page.hasMore());
+		assertNull(page.getContinuation());
+	}
+
+	@Test
+	public void testPageWithMore() {
+		List<Post> rows = posts(4);
+		Page<Post> page = Page.of(rows, 3, KeysetCursor::of);
+		assertEquals(rows.subList(0, 3), page.getItems());
+		assertTrue(page.hasMore());
+		assertEquals(KeysetCursor.of(rows.get(2)), KeysetCursor.decode(page.getContinuation()));
+	}
+
+	@Test
+	public void testEmptyPage() {
+		Page<Post> page = Page.empty();
+		assertTrue(page.getItems().isEmpty());
+		assertFalse(page.hasMore());
+	}
+
+	private List<Post> posts(int count) {
+		List<Post> posts = new ArrayList<Post>();
+		for (int i = count; i > 0; i--) {
+			Post post = new Post(null, null, new User(), "text " + i, new Date(1000L * i));
+			post.setId(i);
+			posts.add(post);
+		}
+		return posts;
+	}
+}
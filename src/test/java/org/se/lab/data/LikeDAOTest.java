@@ -0,0 +1,77 @@
+package org.se.lab.data;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+public class LikeDAOTest extends AbstractDAOTest {
+
+    private User user = new User("like-user", "***");
+    private Post post = new Post(null, null, user, "like me", new Date(1000L));
+
+    private UserDAOImpl udao = new UserDAOImpl();
+    private PostDAOImpl pdao = new PostDAOImpl();
+    private LikeDAOImpl ldao = new LikeDAOImpl();
+
+    @Before
+    @Override
+    public void setup() {
+        tx.begin();
+        udao.setEntityManager(em);
+        pdao.setEntityManager(em);
+        ldao.setEntityManager(em);
+
+        udao.insert(user);
+        pdao.insert(post);
+    }
+
+    @Test
+    @Override
+    public void testCreate() {
+        ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+
+        Like like = ldao.find(post.getId(), user.getId());
+        Assert.assertNotNull(like);
+        Assert.assertEquals(7, like.getReaction().getId());
+    }
+
+    @Test
+    @Override
+    public void testModify() {
+        ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+
+        Assert.assertEquals(1, ldao.addToLikeCount(post.getId(), 3));
+        em.clear();
+        Assert.assertEquals(3, pdao.findById(post.getId()).getLikeCount());
+    }
+
+    @Test
+    @Override
+    public void testRemove() {
+        Like like = ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+        ldao.delete(like);
+
+        Assert.assertNull(ldao.find(post.getId(), user.getId()));
+    }
+
+    @Test
+    public void testDeleteForPost() {
+        User other = udao.insert(new User("like-other", "***"));
+        ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+        ldao.insert(new Like(post.getId(), other.getId(), edao.findById(7)));
+        em.clear();
+
+        Assert.assertEquals(2, ldao.deleteForPost(post.getId()));
+        Assert.assertNull(ldao.find(post.getId(), user.getId()));
+        Assert.assertNull(ldao.find(post.getId(), other.getId()));
+    }
+
+    @Test(expected = javax.persistence.PersistenceException.class)
+    public void testDuplicateLike() {
+        ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+        em.clear();
+        ldao.insert(new Like(post.getId(), user.getId(), edao.findById(7)));
+    }
+}
@@ -0,0 +1,55 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LikeTest {
+
+	private Enumeration reaction;
+	private Like like;
+
+	@Before
+	public void setup() {
+		reaction = new Enumeration(7);
+		like = new Like(1, 2, reaction);
+	}
+
+	@Test
+	public void testConstructor() {
+		assertEquals(1, like.getPostId());
+		assertEquals(2, like.getUserId());
+		assertSame(reaction, like.getReaction());
+	}
+
+	@Test
+	public void testEqualsLike() {
+		assertEquals(like, new Like(1, 2, new Enumeration(8)));
+		assertEquals(like.hashCode(), new Like(1, 2, reaction).hashCode());
+		assertNotEquals(like, new Like(2, 1, reaction));
+		assertNotEquals(like, null);
+	}
+
+	@Test
+	public void testSetReaction() {
+		Enumeration other = new Enumeration(8);
+		like.setReaction(other);
+		assertSame(other, like.getReaction());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPostId() {
+		new Like(0, 2, reaction);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidUserId() {
+		new Like(1, 0, reaction);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidReactionIsNull() {
+		like.setReaction(null);
+	}
+}
@@ -0,0 +1,103 @@
+package org.se.lab.data;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.se.lab.log.Log;
+
+/**
+ *
+ * Database the "pse" persistence unit is booted against outside the
+ * container, by DAO tests, benchmarks and load generators.
+ *
+ * MYSQL uses the connection of persistence.xml. EMBEDDED runs an in-memory
+ * H2 database in MySQL compatibility mode and needs no external service.
+ * The profile is selected with -Dpse.persistence.profile=mysql|embedded,
+ * EMBEDDED is the default.
+ *
+ */
+public enum PersistenceProfile {
+	MYSQL, EMBEDDED;
+
+	private static final Log LOG = Log.get(PersistenceProfile.class);
+
+	public static final String PERSISTENCE_UNIT = "pse";
+	public static final String PROFILE_PROPERTY = "pse.persistence.profile";
+
+	// Exception messages
+	private static final String PROFILE_INVALID_ERROR = "Unknown persistence profile: ";
+
+	// one factory, and therefore one schema, per profile and JVM
+	private EntityManagerFactory shared;
+
+	/**
+	 * @return (PersistenceProfile) profile selected by the system property
+	 *         pse.persistence.profile, EMBEDDED if not set
+	 * @throws IllegalArgumentException if the property names no profile
+	 */
+	public static PersistenceProfile current() {
+		String name = System.getProperty(PROFILE_PROPERTY);
+		if (name == null || name.trim().isEmpty())
+			return EMBEDDED;
+		try {
+			return valueOf(name.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(PROFILE_INVALID_ERROR + name, e);
+		}
+	}
+
+	/**
+	 * Properties overriding persistence.xml for this profile
+	 *
+	 * @param database name of the embedded database, every name is a
+	 *        separate database; ignored by MYSQL
+	 * @return (Map<String, String>) properties, empty for MYSQL
+	 */
+	public Map<String, String> properties(String database) {
+		Map<String, String> properties = new HashMap<>();
+		if (this == EMBEDDED) {
+			properties.put("hibernate.connection.url", "jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+			properties.put("hibernate.connection.driver_class", "org.h2.Driver");
+			properties.put("hibernate.connection.username", "sa");
+			properties.put("hibernate.connection.password", "");
+			properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+			properties.put("hibernate.hbm2ddl.auto", "create");
+			properties.put("hibernate.show_sql", "false");
+		}
+		return properties;
+	}
+
+	/**
+	 * Creates a new factory for the given database. The embedded schema is
+	 * created from the entity mappings every time.
+	 *
+	 * @param database name of the embedded database, ignored by MYSQL
+	 * @param overrides further properties, e.g. hibernate.jdbc.batch_size
+	 * @return (EntityManagerFactory) new factory, closed by the caller
+	 */
+	public EntityManagerFactory createEntityManagerFactory(String database, Map<String, String> overrides) {
+		LOG.info("createEntityManagerFactory({}, {})", this, database);
+		Map<String, String> properties = properties(database);
+		properties.putAll(overrides);
+		return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, properties);
+	}
+
+	/**
+	 * Factory shared by all callers in this JVM, created on first use and
+	 * closed at shutdown, so the schema is built only once
+	 *
+	 * @return (EntityManagerFactory) shared factory, never closed by callers
+	 */
+	public synchronized EntityManagerFactory sharedEntityManagerFactory() {
+		if (shared == null || !shared.isOpen()) {
+			EntityManagerFactory factory = createEntityManagerFactory(PERSISTENCE_UNIT, new HashMap<>());
+			Runtime.getRuntime().addShutdownHook(new Thread(factory::close));
+			shared = factory;
+		}
+		return shared;
+	}
+}
@@ -0,0 +1,42 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PersistenceProfileTest {
+
+	@After
+	public void clearProperty() {
+		System.clearProperty(PersistenceProfile.PROFILE_PROPERTY);
+	}
+
+	@Test
+	public void testCurrentDefaultsToEmbedded() {
+		System.clearProperty(PersistenceProfile.PROFILE_PROPERTY);
+		assertEquals(PersistenceProfile.EMBEDDED, PersistenceProfile.current());
+	}
+
+	@Test
+	public void testCurrentFromProperty() {
+		System.setProperty(PersistenceProfile.PROFILE_PROPERTY, " mysql ");
+		assertEquals(PersistenceProfile.MYSQL, PersistenceProfile.current());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCurrentUnknown() {
+		System.setProperty(PersistenceProfile.PROFILE_PROPERTY, "oracle");
+		PersistenceProfile.current();
+	}
+
+	@Test
+	public void testProperties() {
+		Map<String, String> embedded = PersistenceProfile.EMBEDDED.properties("test");
+		assertEquals("jdbc:h2:mem:test;MODE=MySQL;DB_CLOSE_DELAY=-1", embedded.get("hibernate.connection.url"));
+		assertEquals("create", embedded.get("hibernate.hbm2ddl.auto"));
+		assertTrue(PersistenceProfile.MYSQL.properties("test").isEmpty());
+	}
+}
@@ -0,0 +1,104 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PictureDAOTest extends AbstractDAOTest {
+
+	private UserProfile profile = new UserProfile("James", "Bond", "Abbey 12", "72FE4", "London", "England", "43",
+			"MI6", "james.bond@gmail.com", "test", "test", "test userprofile");
+	private Community community = new Community("testPicture", "test community");
+	private byte[] picture = new byte[20000];
+
+	private PictureDAOImpl dao = new PictureDAOImpl();
+
+	@Before
+	public void setupPicture() {
+		dao.setEntityManager(em);
+		for (int i = 0; i < picture.length; i++) {
+			picture[i] = (byte) i;
+		}
+	}
+
+	@Test
+	@Override
+	public void testCreate() {
+		profile.setPicture(picture);
+		em.persist(profile);
+		em.flush();
+		em.clear();
+
+		assertEquals(PictureHash.of(picture), dao.findPictureHash(PictureOwner.PROFILE, profile.getId()));
+		assertArrayEquals(picture, read(PictureOwner.PROFILE, profile.getId()));
+	}
+
+	@Test
+	@Override
+	public void testModify() {
+		community.setPicture(new byte[] { 1, 2, 3 });
+		em.persist(community);
+		em.flush();
+		String before = dao.findPictureHash(PictureOwner.COMMUNITY, community.getId());
+
+		community.setPicture(new byte[] { 4, 5, 6 });
+		em.flush();
+		String after = dao.findPictureHash(PictureOwner.COMMUNITY, community.getId());
+		assertNotEquals(before, after);
+
+		assertArrayEquals(new byte[] { 4, 5, 6 }, read(PictureOwner.COMMUNITY, community.getId()));
+	}
+
+	@Test
+	@Override
+	public void testRemove() {
+		profile.setPicture(picture);
+		em.persist(profile);
+		em.flush();
+		profile.setPicture(null);
+		em.flush();
+
+		assertNull(dao.findPictureHash(PictureOwner.PROFILE, profile.getId()));
+		assertNull(read(PictureOwner.PROFILE, profile.getId()));
+	}
+
+	@Test
+	public void testVariants() {
+		profile.setPicture(picture);
+		em.persist(profile);
+		em.flush();
+		String hash = profile.getPictureHash();
+		assertNull(dao.findVariantHash(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB));
+
+		dao.saveVariants(Arrays.asList(new PictureVariant(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB, hash, new byte[] { 1 }),
+				new PictureVariant(PictureOwner.PROFILE, profile.getId(), PictureSize.MEDIUM, hash, new byte[] { 2, 2 })));
+		assertEquals(hash, dao.findVariantHash(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB));
+		assertArrayEquals(new byte[] { 2, 2 }, read(PictureOwner.PROFILE, profile.getId(), PictureSize.MEDIUM));
+		assertArrayEquals(picture, dao.findPicture(PictureOwner.PROFILE, profile.getId()));
+
+		// regenerated variants replace the stored ones
+		dao.saveVariants(Arrays.asList(new PictureVariant(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB, "new", new byte[] { 3 })));
+		em.clear();
+		assertEquals("new", dao.findVariantHash(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB));
+		assertArrayEquals(new byte[] { 3 }, read(PictureOwner.PROFILE, profile.getId(), PictureSize.THUMB));
+		assertNull(read(PictureOwner.COMMUNITY, profile.getId(), PictureSize.THUMB));
+	}
+
+	@Test
+	public void testUnknownId() {
+		assertNull(dao.findPictureHash(PictureOwner.PROFILE, Integer.MAX_VALUE));
+		assertNull(dao.findPicture(PictureOwner.PROFILE, Integer.MAX_VALUE));
+		assertNull(read(PictureOwner.COMMUNITY, Integer.MAX_VALUE));
+	}
+
+	private byte[] read(PictureOwner owner, int id) {
+		return dao.readPicture(owner, id, PictureSize.ORIGINAL);
+	}
+
+	private byte[] read(PictureOwner owner, int id, PictureSize size) {
+		return dao.readPicture(owner, id, size);
+	}
+}
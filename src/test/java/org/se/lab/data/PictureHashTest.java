@@ -0,0 +1,30 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PictureHashTest {
+
+	@Test
+	public void testKnownDigest() {
+		// SHA-256("abc") = ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad
+		assertEquals("ba7816bf8f01cfea414140de5dae2223", PictureHash.of("abc".getBytes()));
+	}
+
+	@Test
+	public void testLength() {
+		assertEquals(PictureHash.LENGTH, PictureHash.of(new byte[100000]).length());
+	}
+
+	@Test
+	public void testChangesWithContent() {
+		assertNotEquals(PictureHash.of(new byte[] { 1, 2, 3 }), PictureHash.of(new byte[] { 1, 2, 4 }));
+	}
+
+	@Test
+	public void testNoPicture() {
+		assertNull(PictureHash.of(null));
+		assertNull(PictureHash.of(new byte[0]));
+	}
+}
@@ -1,6 +1,10 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Before;
@@ -76,6 +80,133 @@ public class PostDAOTest extends AbstractDAOTest {
 		assertEquals(currentcount + 1 , dao.findAll().size());
 	}
 
+	@Test
+	public void testPagination() {
+		em.persist(user1);
+		em.persist(community1);
+		for (int i = 1; i <= 5; i++) {
+			// two posts per timestamp to exercise the id tie breaker
+			dao.createPost(null, community1, user1, "Page " + i, new Date(1000L * (i / 2)));
+		}
+
+		Page<Post> first = dao.getPostsForUser(user1, null, 2);
+		assertEquals(2, first.getItems().size());
+		assertTrue(first.hasMore());
+
+		Page<Post> second = dao.getPostsForUser(user1, KeysetCursor.decode(first.getContinuation()), 2);
+		Page<Post> third = dao.getPostsForUser(user1, KeysetCursor.decode(second.getContinuation()), 2);
+		assertEquals(2, second.getItems().size());
+		assertEquals(1, third.getItems().size());
+		assertFalse(third.hasMore());
+
+		List<Post> all = new ArrayList<Post>(first.getItems());
+		all.addAll(second.getItems());
+		all.addAll(third.getItems());
+		for (int i = 1; i < all.size(); i++) {
+			Post newer = all.get(i - 1);
+			Post older = all.get(i);
+			assertTrue(newer.getCreated().after(older.getCreated())
+					|| (newer.getCreated().equals(older.getCreated()) && newer.getId() > older.getId()));
+		}
+
+		Page<Post> community = dao.getPostsForCommunity(community1, null, 10);
+		assertEquals(5, community.getItems().size());
+		assertFalse(community.hasMore());
+	}
+
+	@Test
+	public void testRootPagination() {
+		em.persist(user1);
+		em.persist(community1);
+		Post root = dao.createPost(null, community1, user1, "Root", new Date(1000L));
+		for (int i = 1; i <= 3; i++) {
+			dao.createPost(root, community1, user1, "Reply " + i, new Date(1000L + i));
+		}
+		Post newest = dao.createPost(null, community1, user1, "Newest", new Date(9000L));
+
+		Page<Post> first = dao.getRootPostsForUser(user1.getId(), null, 1);
+		assertEquals(Collections.singletonList(newest), first.getItems());
+		Page<Post> second = dao.getRootPostsForUser(user1.getId(), KeysetCursor.decode(first.getContinuation()), 1);
+		assertEquals(Collections.singletonList(root), second.getItems());
+		assertFalse(second.hasMore());
+
+		Page<Post> community = dao.getRootPostsForCommunity(community1.getId(), null, 10);
+		assertEquals(Arrays.asList(newest, root), community.getItems());
+	}
+
+	@Test
+	public void testFindThreadPosts() {
+		em.persist(user1);
+		em.persist(community1);
+		Post root = dao.insert(post1);
+		Post reply = dao.insert(new Post(root, community1, user1, "reply", new Date(200L)));
+		Post deep = dao.insert(new Post(reply, community1, user1, "reply to reply", new Date(300L)));
+		em.flush();
+		em.clear();
+
+		List<Post> rows = dao.findThreadPosts(Collections.singletonList(root.getId()), 1);
+		assertEquals(2, rows.size());
+		assertEquals(root.getId(), rows.get(0).getId());
+		assertEquals(reply.getId(), rows.get(1).getId());
+		assertEquals(root.getId(), deep.getRootPostId());
+		assertEquals(2, deep.getDepth());
+	}
+
+	@Test
+	public void testFindByIds() {
+		em.persist(user1);
+		em.persist(community1);
+		Post first = dao.insert(new Post(null, community1, user1, "first", new Date(1000L)));
+		Post second = dao.insert(new Post(null, null, user1, "second", new Date(2000L)));
+		em.flush();
+		em.clear();
+
+		List<Post> found = dao.findByIds(Arrays.asList(second.getId(), first.getId(), 999999));
+		assertEquals(2, found.size());
+		assertEquals(new HashSet<Integer>(Arrays.asList(first.getId(), second.getId())),
+				new HashSet<Integer>(Arrays.asList(found.get(0).getId(), found.get(1).getId())));
+		assertTrue(dao.findByIds(Collections.<Integer>emptyList()).isEmpty());
+	}
+
+	@Test
+	public void testBulkWrites() {
+		em.persist(user1);
+		em.persist(community1);
+		List<Post> posts = new ArrayList<Post>();
+		for (int i = 1; i <= 7; i++) {
+			posts.add(new Post(null, community1, user1, "Bulk " + i, new Date(1000L * i)));
+		}
+		Post reply = new Post(posts.get(0), community1, user1, "Bulk reply", new Date(8000L));
+		posts.add(reply);
+
+		List<Post> inserted = dao.insertAll(posts, 3);
+		assertEquals(8, inserted.size());
+		assertTrue(reply.getId() > 0);
+		assertEquals(posts.get(0).getId(), reply.getRootPostId());
+		assertEquals(1, reply.getDepth());
+		em.clear();
+		assertEquals("Bulk 7", dao.findById(posts.get(6).getId()).getText());
+
+		reply.setText("Bulk reply modified");
+		dao.updateAll(Collections.singletonList(reply), 3);
+		em.clear();
+		assertEquals("Bulk reply modified", dao.findById(reply.getId()).getText());
+
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Post post : posts.subList(1, 7)) {
+			ids.add(post.getId());
+		}
+		assertEquals(6, dao.deleteByIds(ids, 4));
+		em.clear();
+		assertNull(dao.findById(ids.get(0)));
+		assertNotNull(dao.findById(posts.get(0).getId()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsertAllInvalidBatchSize() {
+		dao.insertAll(Collections.singletonList(post1), 0);
+	}
+
 	@Test
 	@Override
 	public void testModify() {
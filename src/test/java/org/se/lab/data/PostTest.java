@@ -93,6 +93,23 @@ public class PostTest {
 		post.addChildPost(current2);
 	}
 	
+	@Test
+	public void testRootAndDepth() {
+		Post reply = new Post(post, community, user, "Reply", new Date(200L));
+		reply.setId(2);
+		Post replyToReply = new Post(reply, community, user, "Reply to reply", new Date(300L));
+		post.prePersist();
+		reply.prePersist();
+		replyToReply.prePersist();
+
+		Assert.assertEquals(1, post.getRootPostId());
+		Assert.assertEquals(0, post.getDepth());
+		Assert.assertEquals(1, reply.getRootPostId());
+		Assert.assertEquals(1, reply.getDepth());
+		Assert.assertEquals(1, replyToReply.getRootPostId());
+		Assert.assertEquals(2, replyToReply.getDepth());
+	}
+	
 	@Test
 	public void testLikePost() {
 		Enumeration alike = new Enumeration(1);
@@ -0,0 +1,74 @@
+package org.se.lab.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PostThreadTest {
+
+	private User user;
+	private Post root;
+	private Post reply1;
+	private Post reply2;
+	private Post reply3;
+	private Post replyToReply;
+
+	@Before
+	public void setup() {
+		user = new User("user", "pass");
+		root = post(1, null);
+		reply1 = post(2, root);
+		reply2 = post(3, root);
+		reply3 = post(4, root);
+		replyToReply = post(5, reply1);
+	}
+
+	@Test
+	public void testAssemble() {
+		List<PostThread> threads = PostThread.assemble(Collections.singletonList(root),
+				Arrays.asList(root, reply1, reply2, reply3, replyToReply), 10);
+
+		assertEquals(1, threads.size());
+		PostThread thread = threads.get(0);
+		assertSame(root, thread.getPost());
+		assertEquals(Arrays.asList(reply1, reply2, reply3), thread.getReplyPosts());
+		assertEquals(Collections.singletonList(replyToReply), thread.getReplies().get(0).getReplyPosts());
+		assertEquals(0, thread.getOmittedReplies());
+	}
+
+	@Test
+	public void testAssembleCapsReplies() {
+		List<PostThread> threads = PostThread.assemble(Collections.singletonList(root),
+				Arrays.asList(root, reply1, reply2, reply3), 2);
+
+		assertEquals(Arrays.asList(reply1, reply2), threads.get(0).getReplyPosts());
+		assertEquals(1, threads.get(0).getOmittedReplies());
+	}
+
+	@Test
+	public void testAssembleWithoutRows() {
+		List<PostThread> threads = PostThread.assemble(Collections.singletonList(root),
+				Collections.<Post>emptyList(), 10);
+
+		assertSame(root, threads.get(0).getPost());
+		assertTrue(threads.get(0).getReplies().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPostIsNull() {
+		new PostThread(null);
+	}
+
+	private Post post(int id, Post parent) {
+		Post post = new Post(parent, null, user, "post " + id, new Date(id * 100L));
+		post.setId(id);
+		post.prePersist();
+		return post;
+	}
+}
@@ -1,6 +1,15 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -49,6 +58,144 @@ public class PrivateMessageDAOTest extends AbstractDAOTest
         Assert.assertEquals(pm, pm3);
     }
 
+    @Test
+    public void testInsertCreatesConversation() {
+    	pmdao.insert(pm);
+    	pmdao.insert(pm2);
+
+    	Conversation conversation = pmdao.findConversation(user2.getId(), user.getId());
+    	Assert.assertNotNull(conversation);
+    	Assert.assertSame(conversation, pm.getConversation());
+    	Assert.assertSame(conversation, pm2.getConversation());
+    	Assert.assertEquals(user.getId(), conversation.getOtherUserId(user2.getId()));
+    	Assert.assertEquals(pm2.getID(), conversation.getLastMessageId());
+
+    	// each sender has read its own message
+    	Assert.assertTrue(conversation.isUnread(user.getId()));
+    	Assert.assertFalse(conversation.isUnread(user2.getId()));
+    	Assert.assertNull(pmdao.findConversation(user.getId(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetConversations() {
+    	User user3 = new User("User3", "test");
+    	User user4 = new User("User4", "test");
+    	pmdao.insert(new PrivateMessage("to 2", user, user2, new Date(1000)));
+    	pmdao.insert(new PrivateMessage("from 3", user3, user, new Date(3000)));
+    	pmdao.insert(new PrivateMessage("to 4", user, user4, new Date(2000)));
+    	pmdao.insert(new PrivateMessage("3 to 4", user3, user4, new Date(4000)));
+
+    	// user is the lower id in two conversations and the higher in one
+    	Page<Conversation> first = pmdao.getConversations(user.getId(), null, 2);
+    	Assert.assertEquals(2, first.getItems().size());
+    	Assert.assertEquals(user3.getId(), first.getItems().get(0).getOtherUserId(user.getId()));
+    	Assert.assertEquals(user4.getId(), first.getItems().get(1).getOtherUserId(user.getId()));
+    	Assert.assertTrue(first.hasMore());
+
+    	Page<Conversation> second = pmdao.getConversations(user.getId(),
+    			KeysetCursor.decode(first.getContinuation()), 2);
+    	Assert.assertEquals(1, second.getItems().size());
+    	Assert.assertEquals(user2.getId(), second.getItems().get(0).getOtherUserId(user.getId()));
+    	Assert.assertFalse(second.hasMore());
+    }
+
+    @Test
+    public void testGetMessages() {
+    	List<PrivateMessage> sent = new ArrayList<>();
+    	for (int i = 0; i < 5; i++) {
+    		User sender = i % 2 == 0 ? user : user2;
+    		User receiver = i % 2 == 0 ? user2 : user;
+    		// two messages share a timestamp, the id breaks the tie
+    		sent.add(pmdao.insert(new PrivateMessage("message " + i, sender, receiver, new Date(1000 * (i / 2)))));
+    	}
+    	Conversation conversation = pmdao.findConversation(user.getId(), user2.getId());
+
+    	List<PrivateMessage> read = new ArrayList<>();
+    	KeysetCursor after = null;
+    	Page<PrivateMessage> page;
+    	do {
+    		page = pmdao.getMessages(conversation, after, 2);
+    		Assert.assertTrue(page.getItems().size() <= 2);
+    		read.addAll(page.getItems());
+    		after = KeysetCursor.decode(page.getContinuation());
+    	} while (page.hasMore());
+
+    	Assert.assertEquals(5, read.size());
+    	for (int i = 0; i < 5; i++) {
+    		Assert.assertEquals(sent.get(4 - i).getID(), read.get(i).getID());
+    	}
+    }
+
+    @Test
+    public void testMarkRead() {
+    	pmdao.insert(pm);
+    	pmdao.insert(pm2);
+    	Conversation conversation = pm.getConversation();
+    	Assert.assertTrue(conversation.isUnread(user.getId()));
+
+    	conversation = pmdao.markRead(conversation, user.getId(), pm2.getID());
+    	Assert.assertFalse(conversation.isUnread(user.getId()));
+
+    	// the mark never moves back
+    	pmdao.markRead(conversation, user.getId(), pm.getID());
+    	em.flush();
+    	em.clear();
+    	conversation = pmdao.findConversation(user.getId(), user2.getId());
+    	Assert.assertEquals(pm2.getID(), conversation.getReadMessageId(user.getId()));
+    	Assert.assertEquals(pm2.getID(), conversation.getReadMessageId(user2.getId()));
+    }
+
+    @Test
+    public void testConcurrentFirstMessages() throws Exception {
+    	// committed, so the second transaction sees the users
+    	em.persist(user);
+    	em.persist(user2);
+    	tx.commit();
+    	EntityManager first = factory.createEntityManager();
+    	EntityManager second = factory.createEntityManager();
+    	ExecutorService executor = Executors.newSingleThreadExecutor();
+    	try {
+    		first.getTransaction().begin();
+    		PrivateMessage hello = send(first, "Hello", user, user2);
+
+    		// waits for the conversation row of the first transaction
+    		Future<PrivateMessage> reply = executor.submit(() -> {
+    			second.getTransaction().begin();
+    			PrivateMessage message = send(second, "Hi", user2, user);
+    			second.getTransaction().commit();
+    			return message;
+    		});
+    		Thread.sleep(200);
+    		Assert.assertFalse(reply.isDone());
+    		first.getTransaction().commit();
+
+    		Assert.assertEquals(hello.getConversation().getId(), reply.get(5, TimeUnit.SECONDS).getConversation().getId());
+    		em.clear();
+    		Assert.assertEquals(2, pmdao.getMessages(pmdao.findConversation(user.getId(), user2.getId()), null, 10)
+    				.getItems().size());
+    	} finally {
+    		executor.shutdownNow();
+    		first.close();
+    		second.close();
+    		// the test data was committed
+    		tx.begin();
+    		em.createQuery("DELETE FROM PrivateMessage m WHERE m.usersender.id IN :ids")
+    				.setParameter("ids", Arrays.asList(user.getId(), user2.getId())).executeUpdate();
+    		em.createQuery("DELETE FROM Conversation c WHERE c.lowUserId = :id")
+    				.setParameter("id", Math.min(user.getId(), user2.getId())).executeUpdate();
+    		em.createQuery("DELETE FROM User u WHERE u.id IN :ids")
+    				.setParameter("ids", Arrays.asList(user.getId(), user2.getId())).executeUpdate();
+    		tx.commit();
+    	}
+    }
+
+    private static PrivateMessage send(EntityManager entityManager, String text, User sender, User receiver) {
+    	PrivateMessageDAOImpl dao = new PrivateMessageDAOImpl();
+    	dao.setEntityManager(entityManager);
+    	return dao.insert(new PrivateMessage(text, entityManager.find(User.class, sender.getId()),
+    			entityManager.find(User.class, receiver.getId())));
+    }
+
 	@Override
 	public void testModify() {
 		// TODO Auto-generated method stub
@@ -0,0 +1,81 @@
+package org.se.lab.data;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+public class QueryPlanStatisticsTest {
+
+    private static EntityManagerFactory factory;
+    private static EntityManager em;
+
+    private UserContactDAOImpl ucdao = new UserContactDAOImpl();
+
+    @BeforeClass
+    public static void connect() {
+        factory = PersistenceProfile.current().sharedEntityManagerFactory();
+        em = factory.createEntityManager();
+    }
+
+    @AfterClass
+    public static void disconnect() {
+        em.close();
+    }
+
+    @Test
+    public void testNamedQueriesAreTranslatedAtBoot() {
+        ucdao.setEntityManager(em);
+        QueryPlanStatistics before = QueryPlanStatistics.of(factory);
+
+        ucdao.doesContactExistForUserId(2, 1);
+        ucdao.doesContactExistForUserId(3, 1);
+        ucdao.findEdges(0, 10);
+
+        QueryPlanStatistics interval = QueryPlanStatistics.of(factory).since(before);
+        Assert.assertEquals(3, interval.getExecuted());
+        Assert.assertEquals(0, interval.getTranslated());
+        Assert.assertEquals(1.0, interval.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void testAdHocQueryIsTranslatedOnce() {
+        String hql = "SELECT COUNT(u) FROM User u WHERE u.id > :id";
+        QueryPlanStatistics before = QueryPlanStatistics.of(factory);
+
+        for (int i = 0; i < 4; i++) {
+            em.createQuery(hql, Long.class).setParameter("id", i).getSingleResult();
+        }
+
+        QueryPlanStatistics interval = QueryPlanStatistics.of(factory).since(before);
+        Assert.assertEquals(4, interval.getExecuted());
+        Assert.assertTrue(interval.getTranslated() <= 1);
+        Assert.assertTrue(interval.getHitRate() >= 0.75);
+    }
+
+    @Test
+    public void testCountsExecutionsOnlyWithStatistics() {
+        Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        Assert.assertTrue(QueryPlanStatistics.countsExecutions(factory));
+        try {
+            statistics.setStatisticsEnabled(false);
+            Assert.assertFalse(QueryPlanStatistics.countsExecutions(factory));
+        } finally {
+            statistics.setStatisticsEnabled(true);
+        }
+    }
+
+    @Test
+    public void testHitRate() {
+        Assert.assertEquals(1.0, new QueryPlanStatistics(0, 0).getHitRate(), 0.0);
+        Assert.assertEquals(0.9, new QueryPlanStatistics(1, 10).getHitRate(), 1e-9);
+        Assert.assertEquals(0.0, new QueryPlanStatistics(5, 2).getHitRate(), 0.0);
+        Assert.assertEquals(new QueryPlanStatistics(3, 4).toString(),
+                new QueryPlanStatistics(10, 14).since(new QueryPlanStatistics(7, 10)).toString());
+    }
+}
@@ -0,0 +1,94 @@
+package org.se.lab.data;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+public class TimelineDAOTest extends AbstractDAOTest {
+
+    private User author = new User("timeline-author", "***");
+    private User reader = new User("timeline-reader", "***");
+    private Post post1 = new Post(null, null, author, "first", new Date(1000L));
+    private Post post2 = new Post(null, null, author, "second", new Date(2000L));
+
+    private UserDAOImpl udao = new UserDAOImpl();
+    private PostDAOImpl pdao = new PostDAOImpl();
+    private TimelineDAOImpl tdao = new TimelineDAOImpl();
+
+    @Before
+    @Override
+    public void setup() {
+        tx.begin();
+        udao.setEntityManager(em);
+        pdao.setEntityManager(em);
+        tdao.setEntityManager(em);
+
+        udao.insert(author);
+        udao.insert(reader);
+        pdao.insert(post1);
+        pdao.insert(post2);
+        // the fan-out runs after the post is committed
+        em.flush();
+    }
+
+    @Test
+    @Override
+    public void testCreate() {
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Arrays.asList(author.getId(), reader.getId()));
+
+        Page<Post> page = tdao.getTimeline(reader.getId(), null, 10);
+        Assert.assertEquals(1, page.getItems().size());
+        Assert.assertEquals(post1.getId(), page.getItems().get(0).getId());
+    }
+
+    @Test
+    @Override
+    public void testModify() {
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Collections.singletonList(reader.getId()));
+        tdao.insertEntries(post2.getId(), post2.getCreated(), Collections.singletonList(reader.getId()));
+
+        Page<Post> first = tdao.getTimeline(reader.getId(), null, 1);
+        Assert.assertEquals(post2.getId(), first.getItems().get(0).getId());
+        Assert.assertTrue(first.hasMore());
+
+        KeysetCursor after = KeysetCursor.decode(first.getContinuation());
+        Page<Post> second = tdao.getTimeline(reader.getId(), after, 1);
+        Assert.assertEquals(post1.getId(), second.getItems().get(0).getId());
+        Assert.assertFalse(second.hasMore());
+    }
+
+    @Test
+    @Override
+    public void testRemove() {
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Arrays.asList(author.getId(), reader.getId()));
+
+        Assert.assertEquals(2, tdao.deleteEntriesForPost(post1.getId()));
+        Assert.assertTrue(tdao.getTimeline(reader.getId(), null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    public void testInsertEntriesSkipsExistingRows() {
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Collections.singletonList(reader.getId()));
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Arrays.asList(author.getId(), reader.getId()));
+
+        Assert.assertEquals(1, tdao.getTimeline(reader.getId(), null, 10).getItems().size());
+        Assert.assertEquals(2, tdao.deleteEntriesForPost(post1.getId()));
+    }
+
+    @Test
+    public void testRebuildRange() {
+        tdao.insertEntries(post1.getId(), post1.getCreated(), Collections.singletonList(reader.getId()));
+
+        tdao.rebuildRange(post1.getId(), post1.getId());
+        Assert.assertEquals(1, tdao.getTimeline(author.getId(), null, 10).getItems().size());
+    }
+
+    @Test
+    public void testFindMaxPostId() {
+        Assert.assertTrue(tdao.findMaxPostId() >= post2.getId());
+    }
+}
@@ -63,6 +63,24 @@ public class UserContactDAOTest extends AbstractDAOTest {
         Assert.assertEquals(2, ucs.size());
     }
 
+    @Test
+    public void testFindEdges() {
+        udao.insert(u);
+        ucdao.insert(uc);
+        ucdao.insert(uc2);
+
+        List<ContactEdge> first = ucdao.findEdges(0, 1);
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals(uc.getId(), first.get(0).getId());
+        Assert.assertEquals(u.getId(), first.get(0).getUserId());
+        Assert.assertEquals(2, first.get(0).getContactId());
+
+        List<ContactEdge> second = ucdao.findEdges(first.get(0).getId(), 10);
+        Assert.assertEquals(1, second.size());
+        Assert.assertEquals(3, second.get(0).getContactId());
+        Assert.assertTrue(ucdao.findEdges(second.get(0).getId(), 10).isEmpty());
+    }
+
     @Test
     public void testfindById() {
         udao.insert(u);
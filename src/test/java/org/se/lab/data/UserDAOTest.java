@@ -1,7 +1,14 @@
 package org.se.lab.data;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.Hibernate;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -56,4 +63,143 @@ public class UserDAOTest extends AbstractDAOTest
         User user3 = udao.findById(user.getId());
         Assert.assertEquals(user, user3);
     }
+
+    @Test
+    public void testFetchProfiles() {
+        int id = createUserWithAssociations();
+
+        User basic = load(id, UserFetchProfile.BASIC, 1);
+        Assert.assertEquals("Donald Duck", basic.getUsername());
+        Assert.assertFalse(Hibernate.isInitialized(basic.getUserProfile()));
+        Assert.assertFalse(Hibernate.isInitialized(basic.getUserContacts()));
+        Assert.assertFalse(Hibernate.isInitialized(basic.getPrivateMessagesSender()));
+
+        // roles, plus the eager communities of every role Enumeration
+        User auth = load(id, UserFetchProfile.AUTH, 3);
+        Assert.assertEquals(1, auth.getRoles().size());
+        Assert.assertFalse(Hibernate.isInitialized(auth.getCommunities()));
+        Assert.assertFalse(Hibernate.isInitialized(auth.getPrivateMessagesReceiver()));
+
+        // profile, communities and contacts, plus the owning user of the
+        // profile, which Hibernate looks up by unique key
+        User profilePage = load(id, UserFetchProfile.PROFILE_PAGE, 5);
+        Assert.assertEquals("Donald", profilePage.getUserProfile().getFirstname());
+        Assert.assertEquals(1, profilePage.getCommunities().size());
+        Assert.assertEquals(1, profilePage.getUserContacts().size());
+        Assert.assertFalse(Hibernate.isInitialized(profilePage.getRoles()));
+        Assert.assertFalse(Hibernate.isInitialized(profilePage.getPrivateMessagesSender()));
+
+        User full = load(id, UserFetchProfile.FULL, 8);
+        Assert.assertTrue(Hibernate.isInitialized(full.getLikes()));
+        Assert.assertFalse(Hibernate.isInitialized(full.getPrivateMessagesSender()));
+        Assert.assertFalse(Hibernate.isInitialized(full.getPrivateMessagesReceiver()));
+    }
+
+    @Test
+    public void testFindByUsernameWithProfile() {
+        createUserWithAssociations();
+        em.clear();
+
+        User auth = udao.findByUsername("Donald Duck", UserFetchProfile.AUTH);
+        Assert.assertTrue(Hibernate.isInitialized(auth.getRoles()));
+        Assert.assertFalse(Hibernate.isInitialized(auth.getPrivateMessagesSender()));
+        Assert.assertNull(udao.findByUsername("Nobody", UserFetchProfile.AUTH));
+    }
+
+    @Test
+    public void testAuthProfileUsableDetached() {
+        int id = createUserWithAssociations();
+        em.clear();
+
+        User auth = udao.findById(id, UserFetchProfile.AUTH);
+        // detached like at the end of the service transaction
+        em.clear();
+        Assert.assertFalse(em.contains(auth));
+        Assert.assertEquals(1, auth.getRoles().size());
+        Assert.assertEquals(4, auth.getRoles().get(0).getId());
+    }
+
+    @Test
+    public void testUpdateAllWithIdentityIds() {
+        udao.insert(user);
+        em.detach(user);
+        user.setUsername("Daisy Duck");
+
+        udao.updateAll(Collections.singletonList(user), 50);
+        em.clear();
+        Assert.assertEquals("Daisy Duck", udao.findById(user.getId()).getUsername());
+    }
+
+    @Test(expected = LazyInitializationException.class)
+    public void testDetachedUserNotInitialized() {
+        int id = createUserWithAssociations();
+        em.clear();
+
+        // what a DAO sees without transaction: em.find returns a detached user
+        User detached = udao.findById(id, UserFetchProfile.BASIC);
+        em.clear();
+        detached.getRoles().size();
+    }
+
+    /*
+     * user with profile, community, role, contact and a message sent to user2
+     */
+    private int createUserWithAssociations() {
+        UserProfile profile = new UserProfile("Donald", "Duck", "Duckstreet 1", "8010", "Entenhausen", "Austria",
+                "1", "Ducks", "donald@example.org", "0316", "0664", "Quack");
+        em.persist(profile);
+        user.setUserProfile(profile);
+        udao.insert(user);
+        udao.insert(user2);
+        Community community = new Community("Ducks", "All ducks");
+        em.persist(community);
+        user.addCommunity(community);
+        Enumeration role = em.merge(new Enumeration(4));
+        role.setUser(user);
+        em.persist(new UserContact(user, user2.getId()));
+        em.persist(new PrivateMessage("Hello", user, user2));
+        em.flush();
+        return user.getId();
+    }
+
+    /*
+     * loads the user into an empty persistence context and checks the
+     * number of SQL statements issued
+     */
+    private User load(int id, UserFetchProfile profile, int statements) {
+        em.clear();
+        // statistics are enabled in persistence.xml
+        Statistics statistics = em.unwrap(Session.class).getSessionFactory().getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        User loaded = udao.findById(id, profile);
+        Assert.assertEquals(profile.name(), statements, statistics.getPrepareStatementCount() - before);
+        return loaded;
+    }
+
+    @Test
+    public void testFindSummariesByIds() {
+        udao.insert(user);
+        udao.insert(user2);
+
+        List<UserSummary> summaries = udao.findSummariesByIds(
+                Arrays.asList(user2.getId(), Integer.MAX_VALUE, user.getId(), user2.getId()));
+        Assert.assertEquals(2, summaries.size());
+        Assert.assertEquals(user.getId(), summaries.get(0).getId());
+        Assert.assertEquals("Donald Duck", summaries.get(0).getUsername());
+        Assert.assertEquals(user2.getId(), summaries.get(1).getId());
+        Assert.assertTrue(udao.findSummariesByIds(new ArrayList<Integer>()).isEmpty());
+    }
+
+    @Test
+    public void testFindSummariesByIdsInChunks() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < UserDAOImpl.MAX_IDS_PER_QUERY; i++) {
+            ids.add(Integer.MAX_VALUE - i);
+        }
+        ids.add(udao.insert(user).getId());
+
+        List<UserSummary> summaries = udao.findSummariesByIds(ids);
+        Assert.assertEquals(1, summaries.size());
+        Assert.assertEquals(user.getId(), summaries.get(0).getId());
+    }
 }
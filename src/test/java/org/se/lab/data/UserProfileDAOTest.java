@@ -56,6 +56,47 @@ public class UserProfileDAOTest extends AbstractDAOTest {
         Assert.assertEquals(2, ups.size());
     }
 
+    @Test
+    public void testfindAllSummaries() {
+        up.setPicture(new byte[1024]);
+        updao.insert(up);
+        updao.insert(up2);
+        List<UserProfileSummary> summaries = updao.findAllSummaries();
+        Assert.assertEquals(2, summaries.size());
+
+        UserProfileSummary summary = summaries.get(0);
+        Assert.assertEquals(up.getId(), summary.getId());
+        Assert.assertEquals("James", summary.getFirstname());
+        Assert.assertEquals("Bond", summary.getLastname());
+        Assert.assertEquals("MI6", summary.getTeam());
+        Assert.assertEquals("London", summary.getCity());
+        Assert.assertEquals("test userprofile", summary.getDescription());
+        Assert.assertEquals(up.getPictureHash(), summary.getPictureHash());
+        Assert.assertEquals(up2.getId(), summaries.get(1).getId());
+    }
+
+    @Test
+    public void testfindSummariesPage() {
+        UserProfile up3 = new UserProfile("Eve", "Moneypenny", "Abbey 12", "72FE4", "London", "England", "44", "MI6", "eve.moneypenny@gmail.com", "test", "test", "test userprofile");
+        updao.insert(up);
+        updao.insert(up2);
+        updao.insert(up3);
+
+        List<UserProfileSummary> page = updao.findSummaries("", "lastname", true, 0, 2);
+        Assert.assertEquals(2, page.size());
+        Assert.assertEquals(up3.getId(), page.get(0).getId());
+        Assert.assertEquals(up2.getId(), page.get(1).getId());
+
+        page = updao.findSummaries("Bo", null, false, 1, 2);
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals(up2.getId(), page.get(0).getId());
+
+        Assert.assertEquals(3, updao.count(null));
+        Assert.assertEquals(2, updao.count("Bo"));
+        // wildcards are matched literally
+        Assert.assertEquals(0, updao.count("B_"));
+    }
+
     @Test
     public void testfindById() {
         updao.insert(up);
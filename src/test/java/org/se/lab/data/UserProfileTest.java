@@ -23,6 +23,15 @@ public class UserProfileTest {
 
     }
 
+    @Test
+    public void testPictureHash() {
+        Assert.assertNull(up.getPictureHash());
+        up.setPicture("abc".getBytes());
+        Assert.assertEquals("ba7816bf8f01cfea414140de5dae2223", up.getPictureHash());
+        up.setPicture(null);
+        Assert.assertNull(up.getPictureHash());
+    }
+
     @Test
     public void testGetUserFromUserprofile() {
         User u2 = up.getUser();
@@ -0,0 +1,86 @@
+package org.se.lab.log;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LogTest {
+
+    private final Log log = Log.get(LogTest.class);
+    private final Logger logger = Logger.getLogger(LogTest.class);
+    private final List<LoggingEvent> events = new ArrayList<>();
+    private final AppenderSkeleton appender = new AppenderSkeleton() {
+        @Override
+        protected void append(LoggingEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean requiresLayout() {
+            return false;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @After
+    public void tearDown() {
+        logger.removeAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    public void format() {
+        Assert.assertEquals("insert(1, null)", Log.format("insert({}, {})", 1, null));
+        Assert.assertEquals("a 1 {}", Log.format("a {} {}", 1));
+        Assert.assertEquals("no placeholder", Log.format("no placeholder", 1));
+        Assert.assertEquals("{}", Log.format("{}"));
+    }
+
+    @Test
+    public void disabledLevel_doesNotFormat() {
+        Object expensive = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("formatted although debug is off");
+            }
+        };
+
+        log.debug("post {}", expensive);
+        log.debug("post {} {}", expensive, expensive);
+        log.trace("post {}", expensive);
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void enabledLevel_logsMessageAndThrowable() {
+        IllegalStateException e = new IllegalStateException();
+
+        log.info("findById({})", 42);
+        log.error("Can't insert post {}", "p", e);
+
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(Level.INFO, events.get(0).getLevel());
+        Assert.assertEquals("findById(42)", events.get(0).getRenderedMessage());
+        Assert.assertEquals("Can't insert post p", events.get(1).getRenderedMessage());
+        Assert.assertSame(e, events.get(1).getThrowableInformation().getThrowable());
+        Assert.assertEquals(LogTest.class.getName(), events.get(1).getLoggerName());
+    }
+}
@@ -2,25 +2,48 @@ package org.se.lab.service;
 
 import org.easymock.EasyMockRule;
 import org.easymock.EasyMockRunner;
+import org.easymock.Capture;
 import org.easymock.Mock;
+import org.easymock.MockType;
 import org.easymock.TestSubject;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Like;
+import org.se.lab.data.Page;
 import org.se.lab.data.Post;
+import org.se.lab.data.PostThread;
 import org.se.lab.data.User;
+import org.se.lab.data.UserContact;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.service.dao.LikeDAO;
 import org.se.lab.service.dao.PostDAO;
+import org.se.lab.service.dao.UserContactDAO;
+import org.se.lab.service.dao.UserDAO;
 import org.se.lab.service.impl.ActivityStreamServiceImpl;
+import org.se.lab.service.impl.LikeCounter;
 
+import javax.enterprise.event.Event;
+
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
 
 @RunWith(EasyMockRunner.class)
 public class ActivityStreamServiceTest {
@@ -37,6 +60,26 @@ public class ActivityStreamServiceTest {
     @Mock
     private PostDAO postDAO;
 
+    @Mock
+    private UserDAO userDAO;
+
+    @Mock
+    private UserContactDAO userContactDAO;
+
+    @Mock(type = MockType.NICE)
+    private TimelineService timelineService;
+
+    @Mock(fieldName = "postEvents")
+    private Event<PostEvent> postEvents;
+
+    @Mock
+    private LikeDAO likeDAO;
+
+    @Mock(fieldName = "likeEvents")
+    private Event<LikeEvent> likeEvents;
+
+    private LikeCounter likeCounter = new LikeCounter();
+
     private Community community;
     private List<Post> postList;
     private Post post1;
@@ -44,7 +87,11 @@ public class ActivityStreamServiceTest {
     private User user;
 
     @Before
-    public void setup() {
+    public void setup() throws Exception {
+        Field field = ActivityStreamServiceImpl.class.getDeclaredField("likeCounter");
+        field.setAccessible(true);
+        field.set(activityStreamService, likeCounter);
+
         community = new Community(NAME, DESCRIPTION);
         user = new User("username", "password");
         post1 = new Post(null, community, user, "msg1", new Date());
@@ -53,6 +100,8 @@ public class ActivityStreamServiceTest {
         postList = new ArrayList<>();
         postList.add(post1);
         postList.add(post2);
+
+        replay(timelineService);
     }
 
     @Test
@@ -63,6 +112,60 @@ public class ActivityStreamServiceTest {
         activityStreamService.insert(post1);
     }
 
+    @Test
+    public void insert_firesCreatedEvent() {
+        Capture<PostEvent> event = Capture.newInstance();
+        expect(postDAO.insert(post1)).andReturn(post1);
+        postEvents.fire(capture(event));
+        expectLastCall();
+        replay(postDAO, postEvents);
+
+        activityStreamService.insert(post1);
+
+        verify(postEvents);
+        Assert.assertEquals(PostEvent.Type.CREATED, event.getValue().getType());
+        Assert.assertEquals("msg1", event.getValue().getText());
+    }
+
+    @Test
+    public void delete_removesFromTimelines() {
+        Capture<PostEvent> event = Capture.newInstance();
+        reset(timelineService);
+        timelineService.removePost(post1);
+        expectLastCall();
+        expect(likeDAO.deleteForPost(post1.getId())).andReturn(0);
+        postDAO.delete(post1);
+        expectLastCall();
+        postEvents.fire(capture(event));
+        expectLastCall();
+        replay(postDAO, postEvents, timelineService, likeDAO);
+
+        activityStreamService.delete(post1);
+
+        verify(postDAO, timelineService);
+        Assert.assertEquals(PostEvent.Type.DELETED, event.getValue().getType());
+    }
+
+    @Test
+    public void delete_likedPostRemovesLikesFirst() {
+        List<String> calls = new ArrayList<>();
+        expect(likeDAO.deleteForPost(post1.getId())).andAnswer(() -> {
+            calls.add("likes");
+            return 2;
+        });
+        postDAO.delete(post1);
+        expectLastCall().andAnswer(() -> {
+            calls.add("post");
+            return null;
+        });
+        replay(postDAO, likeDAO);
+
+        activityStreamService.delete(post1);
+
+        verify(postDAO, likeDAO);
+        Assert.assertEquals(Arrays.asList("likes", "post"), calls);
+    }
+
     @Test
     public void insert_withCommunity() {
         expect(postDAO.insert(post1,community)).andReturn(post1);
@@ -103,5 +206,189 @@ public class ActivityStreamServiceTest {
         activityStreamService.getPostsForCommunity(community);
     }
 
+    @Test
+    public void getPostsForUser_firstPage(){
+        Page<Post> page = new Page<>(postList, null);
+        expect(postDAO.getPostsForUser(user, null, 20)).andReturn(page);
+        replay(postDAO);
+
+        Assert.assertSame(page, activityStreamService.getPostsForUser(user, null, 20));
+        verify(postDAO);
+    }
+
+    @Test
+    public void getPostsForCommunity_nextPage(){
+        KeysetCursor cursor = new KeysetCursor(new Date(180L), 5);
+        Page<Post> page = new Page<>(postList, null);
+        expect(postDAO.getPostsForCommunity(community, cursor, 20)).andReturn(page);
+        replay(postDAO);
+
+        Assert.assertSame(page, activityStreamService.getPostsForCommunity(community, cursor.encode(), 20));
+        verify(postDAO);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getPostsForUser_invalidContinuation(){
+        replay(postDAO);
+
+        activityStreamService.getPostsForUser(user, "not a token!", 20);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getPostsForUser_invalidPageSize(){
+        replay(postDAO);
+
+        activityStreamService.getPostsForUser(user, null, ActivityStreamService.MAX_PAGE_SIZE + 1);
+    }
 
+    @Test
+    public void getHomeFeed_materialized() {
+        Page<Post> page = new Page<>(postList, null);
+        reset(timelineService);
+        expect(timelineService.getHomeTimeline(user, null, 20)).andReturn(page);
+        replay(timelineService);
+
+        Assert.assertSame(page, activityStreamService.getHomeFeed(user, FeedMode.MATERIALIZED, null, 20));
+    }
+
+    @Test
+    public void getHomeFeed_mergedNewestFirst() {
+        user.setId(1);
+        community.setId(7);
+        user.addCommunity(community);
+        User contact = new User("contact", "password");
+        contact.setId(2);
+        Post own = post(1, user, null, 100L);
+        Post byContact = post(2, contact, null, 300L);
+        Post inCommunity = post(3, contact, community, 200L);
+
+        expect(userContactDAO.findContactsbyUser(user)).andReturn(Collections.singletonList(new UserContact(user, 2)));
+        expect(userDAO.findById(1, UserFetchProfile.PROFILE_PAGE)).andReturn(user);
+        expect(postDAO.getRootPostsForUser(1, null, 3)).andReturn(new Page<>(Arrays.asList(own), null));
+        expect(postDAO.getRootPostsForUser(2, null, 3))
+                .andReturn(new Page<>(Arrays.asList(byContact, inCommunity), null));
+        expect(postDAO.getRootPostsForCommunity(7, null, 3)).andReturn(new Page<>(Arrays.asList(inCommunity), null));
+        replay(userContactDAO, userDAO, postDAO);
+
+        Page<Post> page = activityStreamService.getHomeFeed(user, FeedMode.MERGED, null, 2);
+
+        verify(postDAO);
+        Assert.assertEquals(Arrays.asList(byContact, inCommunity), page.getItems());
+        Assert.assertEquals(KeysetCursor.of(inCommunity).encode(), page.getContinuation());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getHomeFeed_mergedInvalidContinuation() {
+        activityStreamService.getHomeFeed(user, FeedMode.MERGED, "not a token!", 20);
+    }
+
+    private Post post(int id, User author, Community in, long created) {
+        Post post = new Post(null, in, author, "msg" + id, new Date(created));
+        post.setId(id);
+        return post;
+    }
+
+    @Test
+    public void getThreads() {
+        post1.setId(1);
+        Post reply = new Post(post1, community, user, "reply", new Date());
+        reply.setId(2);
+        expect(postDAO.findThreadPosts(Collections.singleton(1), 1)).andReturn(Arrays.asList(post1, reply));
+        replay(postDAO);
+
+        List<PostThread> threads = activityStreamService.getThreads(Collections.singletonList(post1), 1, 10);
+
+        verify(postDAO);
+        Assert.assertEquals(Collections.singletonList(reply), threads.get(0).getReplyPosts());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getThreads_invalidDepth() {
+        activityStreamService.getThreads(Collections.singletonList(post1), -1, 10);
+    }
+
+    @Test
+    public void like_new() {
+        Enumeration reaction = new Enumeration(7);
+        Capture<Like> like = Capture.newInstance();
+        Capture<LikeEvent> event = Capture.newInstance();
+        preparePersisted();
+        expect(likeDAO.find(1, 2)).andReturn(null);
+        expect(likeDAO.insert(capture(like))).andReturn(null);
+        likeEvents.fire(capture(event));
+        expectLastCall();
+        replay(likeDAO, likeEvents);
+
+        Assert.assertTrue(activityStreamService.like(post1, user, reaction));
+
+        verify(likeDAO, likeEvents);
+        Assert.assertSame(reaction, like.getValue().getReaction());
+        Assert.assertEquals(1, event.getValue().getDelta());
+    }
+
+    @Test
+    public void like_idempotent() {
+        Enumeration reaction = new Enumeration(7);
+        preparePersisted();
+        expect(likeDAO.find(1, 2)).andReturn(new Like(1, 2, reaction));
+        replay(likeDAO, likeEvents);
+
+        Assert.assertFalse(activityStreamService.like(post1, user, reaction));
+
+        verify(likeDAO, likeEvents);
+    }
+
+    @Test
+    public void unlike_idempotent() {
+        preparePersisted();
+        expect(likeDAO.find(1, 2)).andReturn(null);
+        replay(likeDAO, likeEvents);
+
+        Assert.assertFalse(activityStreamService.unlike(post1, user));
+
+        verify(likeDAO, likeEvents);
+    }
+
+    @Test
+    public void toggleLike_unlikesLikedPost() {
+        Like like = new Like(1, 2, new Enumeration(7));
+        Capture<LikeEvent> event = Capture.newInstance();
+        preparePersisted();
+        expect(likeDAO.find(1, 2)).andReturn(like);
+        likeDAO.delete(like);
+        expectLastCall();
+        likeEvents.fire(capture(event));
+        expectLastCall();
+        replay(likeDAO, likeEvents);
+
+        Assert.assertFalse(activityStreamService.toggleLike(post1, user, new Enumeration(7)));
+
+        verify(likeDAO, likeEvents);
+        Assert.assertEquals(-1, event.getValue().getDelta());
+    }
+
+    @Test
+    public void getLikeCount_includesPending() {
+        preparePersisted();
+        likeCounter.add(1, 2);
+
+        Assert.assertEquals(2, activityStreamService.getLikeCount(post1));
+    }
+
+    @Test
+    public void getLikeCounts_byPostId() {
+        preparePersisted();
+        post2.setId(3);
+        likeCounter.add(1, 2);
+
+        Map<Integer, Long> likes = activityStreamService.getLikeCounts(Arrays.asList(post1, post2));
+        Assert.assertEquals(2, likes.size());
+        Assert.assertEquals(Long.valueOf(2), likes.get(1));
+        Assert.assertEquals(Long.valueOf(0), likes.get(3));
+    }
+
+    private void preparePersisted() {
+        post1.setId(1);
+        user.setId(2);
+    }
 }
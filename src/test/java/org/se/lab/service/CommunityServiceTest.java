@@ -5,11 +5,16 @@ import org.junit.*;
 import org.junit.runner.RunWith;
 import org.se.lab.data.Community;
 import org.se.lab.data.Enumeration;
+import org.se.lab.data.Page;
 import org.se.lab.data.User;
 import org.se.lab.service.dao.CommunityDAO;
 import org.se.lab.service.impl.CommunityServiceImpl;
+import org.se.lab.service.impl.RowCountCache;
+
+import javax.enterprise.event.Event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.easymock.EasyMock.*;
@@ -33,6 +38,9 @@ public class CommunityServiceTest {
     
     @Mock
     private CommunityDAO communityDAO;
+
+    @Mock(fieldName = "userEvents")
+    private Event<UserChangedEvent> userEvents;
     
     private Community community1;
     private Community community2;
@@ -63,6 +71,7 @@ public class CommunityServiceTest {
         community3.setState(enumerationService.getRefused());
 
         communities = new ArrayList<>();
+        PictureVariantGeneratorTest.inject(communityService, "rowCounts", new RowCountCache());
     }
     
     @Test
@@ -151,12 +160,100 @@ public class CommunityServiceTest {
         communityService.join(community1,user);
     }
 
+    @Test
+    public void join_firesUserChangedEvent(){
+        User user = new User("username2", "pwd");
+        user.setId(2);
+        Capture<UserChangedEvent> event = EasyMock.newCapture();
+        expect(communityDAO.update(community1)).andReturn(community1);
+        userEvents.fire(capture(event));
+        replay(communityDAO, userEvents);
+
+        communityService.join(community1, user);
+        verify(userEvents);
+        Assert.assertThat(event.getValue().getUserId(), is(2));
+    }
+
     @Test (expected = ServiceException.class)
     public void join_Fail(){
 
         communityService.join(community1,null);
     }
 
+    @Test
+    public void isMember_Successful(){
+        expect(communityDAO.isMember(2, ID)).andReturn(true);
+        replay(communityDAO);
+
+        Assert.assertTrue(communityService.isMember(2, ID));
+        verify(communityDAO);
+    }
+
+    @Test (expected = ServiceException.class)
+    public void isMember_Fail(){
+        expect(communityDAO.isMember(2, ID)).andThrow(new IllegalStateException());
+        replay(communityDAO);
+
+        communityService.isMember(2, ID);
+    }
+
+    @Test
+    public void getApprovedPage_Successful(){
+        Page<Community> page = new Page<>(Arrays.asList(community1), "7");
+        expect(communityDAO.findApprovedPage(0, 20)).andReturn(page);
+        expect(communityDAO.findApprovedPage(7, 20)).andReturn(Page.<Community>empty());
+        replay(communityDAO);
+
+        Assert.assertSame(page, communityService.getApproved(null, 20));
+        Assert.assertFalse(communityService.getApproved("7", 20).hasMore());
+    }
+
+    @Test (expected = ServiceException.class)
+    public void getApprovedPage_InvalidToken(){
+        communityService.getApproved("x7", 20);
+    }
+
+    @Test (expected = ServiceException.class)
+    public void getApprovedPage_InvalidPageSize(){
+        communityService.getApproved(null, 0);
+    }
+
+    @Test
+    public void getPage_Successful(){
+        expect(communityDAO.findPage(Arrays.asList(1, 2), "na", "name", true, 24, 12))
+                .andReturn(Arrays.asList(community2, community1));
+        replay(communityDAO);
+
+        List<Community> page = communityService.getPage(
+                Arrays.asList(enumerationService.getPending(), enumerationService.getApproved()), "na", "name", true, 24, 12);
+        Assert.assertThat(page, is(Arrays.asList(community2, community1)));
+        verify(communityDAO);
+    }
+
+    @Test (expected = ServiceException.class)
+    public void getPage_InvalidFirst(){
+        communityService.getPage(Arrays.asList(enumerationService.getApproved()), "", null, false, -1, 12);
+    }
+
+    @Test (expected = ServiceException.class)
+    public void getPage_NoStates(){
+        communityService.getPage(new ArrayList<>(), "", null, false, 0, 12);
+    }
+
+    @Test
+    public void count_CachedUntilChanged(){
+        List<Enumeration> states = Arrays.asList(enumerationService.getPending());
+        expect(communityDAO.count(Arrays.asList(1), "")).andReturn(3L).times(2);
+        expect(communityDAO.update(community2)).andReturn(community2);
+        replay(communityDAO);
+
+        Assert.assertThat(communityService.count(states, ""), is(3L));
+        Assert.assertThat(communityService.count(states, ""), is(3L));
+        communityService.approve(community2);
+        Assert.assertThat(communityService.count(states, ""), is(3L));
+        verify(communityDAO);
+    }
+
     @Test
     public void findById_Successful(){
         expect(communityDAO.findById(ID)).andReturn(community1);
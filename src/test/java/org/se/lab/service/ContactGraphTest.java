@@ -0,0 +1,114 @@
+package org.se.lab.service;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.se.lab.service.impl.ContactGraph;
+
+public class ContactGraphTest {
+
+    private final ContactGraph graph = new ContactGraph();
+
+    private void load(int[][] edges) {
+        ContactGraph.Loader loader = graph.loader();
+        for (int[] edge : edges) {
+            loader.add(edge[0], edge[1]);
+        }
+        loader.load();
+    }
+
+    @Test
+    public void loadsEdgesSortedWithoutDuplicates() {
+        load(new int[][] { { 3, 9 }, { 1, 5 }, { 1, 2 }, { 3, 9 }, { 7, 1 } });
+
+        assertEquals(4, graph.size());
+        assertArrayEquals(new int[] { 2, 5 }, graph.contactsOf(1));
+        assertArrayEquals(new int[] { 9 }, graph.contactsOf(3));
+        assertArrayEquals(new int[0], graph.contactsOf(2));
+        assertArrayEquals(new int[0], graph.contactsOf(1000));
+        assertTrue(graph.hasContact(7, 1));
+        assertFalse(graph.hasContact(1, 7));
+    }
+
+    @Test
+    public void appliesChangesBeforeMerge() {
+        load(new int[][] { { 1, 2 }, { 1, 3 } });
+
+        graph.add(1, 4);
+        graph.add(1, 4);
+        graph.remove(1, 2);
+        graph.remove(1, 99);
+        graph.add(50, 1);
+
+        assertEquals(3, graph.size());
+        assertArrayEquals(new int[] { 3, 4 }, graph.contactsOf(1));
+        assertArrayEquals(new int[] { 1 }, graph.contactsOf(50));
+        assertFalse(graph.hasContact(1, 2));
+        assertTrue(graph.hasContact(1, 4));
+
+        graph.add(1, 2);
+        assertArrayEquals(new int[] { 2, 3, 4 }, graph.contactsOf(1));
+    }
+
+    @Test
+    public void mergesPendingChanges() {
+        for (int contactId = 1; contactId <= 2 * 4096; contactId++) {
+            graph.add(contactId % 100 + 1, contactId);
+        }
+        for (int contactId = 1; contactId <= 2 * 4096; contactId += 2) {
+            graph.remove(contactId % 100 + 1, contactId);
+        }
+
+        assertEquals(4096, graph.size());
+        assertTrue(graph.hasContact(3, 2));
+        assertFalse(graph.hasContact(2, 1));
+        assertTrue(graph.getMemoryBytes() < 64L * 4096);
+    }
+
+    @Test
+    public void keepsChangesMadeWhileLoading() {
+        load(new int[][] { { 1, 2 } });
+
+        ContactGraph.Loader loader = graph.loader();
+        loader.add(1, 2);
+        loader.add(1, 3);
+        graph.add(1, 4);
+        graph.remove(1, 3);
+        assertArrayEquals(new int[] { 2, 4 }, graph.contactsOf(1));
+        loader.load();
+
+        assertArrayEquals(new int[] { 2, 4 }, graph.contactsOf(1));
+        assertEquals(2, graph.size());
+    }
+
+    @Test
+    public void findsMutualContacts() {
+        load(new int[][] { { 1, 2 }, { 1, 3 }, { 1, 5 }, { 4, 3 }, { 4, 5 }, { 4, 6 } });
+
+        assertArrayEquals(new int[] { 3, 5 }, graph.mutualContacts(1, 4));
+        assertArrayEquals(new int[0], graph.mutualContacts(1, 2));
+    }
+
+    @Test
+    public void suggestsFriendsOfFriendsByMutualContacts() {
+        load(new int[][] { { 1, 2 }, { 1, 3 }, { 1, 4 },
+                { 2, 5 }, { 3, 5 }, { 4, 5 },
+                { 2, 6 }, { 3, 6 },
+                { 2, 7 }, { 4, 8 },
+                { 2, 1 }, { 3, 4 } });
+
+        List<ContactSuggestion> suggestions = graph.suggest(1, 3);
+
+        assertEquals(3, suggestions.size());
+        assertEquals(5, suggestions.get(0).getUserId());
+        assertEquals(3, suggestions.get(0).getMutualContacts());
+        assertEquals(6, suggestions.get(1).getUserId());
+        assertEquals(2, suggestions.get(1).getMutualContacts());
+        assertEquals(7, suggestions.get(2).getUserId());
+        assertEquals(1, suggestions.get(2).getMutualContacts());
+        assertTrue(graph.suggest(9, 3).isEmpty());
+        assertTrue(graph.suggest(1, 0).isEmpty());
+    }
+}
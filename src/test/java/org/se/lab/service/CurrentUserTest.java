@@ -0,0 +1,103 @@
+package org.se.lab.service;
+
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.Community;
+import org.se.lab.data.Enumeration;
+import org.se.lab.data.User;
+import org.se.lab.data.UserFetchProfile;
+import org.se.lab.service.impl.CurrentUserImpl;
+
+import javax.servlet.http.HttpSession;
+import java.util.Arrays;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+@RunWith(EasyMockRunner.class)
+public class CurrentUserTest {
+
+    private static final int ID = 7;
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private HttpSession session;
+    @Mock
+    private UserService userService;
+
+    @TestSubject
+    private CurrentUserImpl currentUser = new CurrentUserImpl();
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        user = new User("username", "password");
+        user.setId(ID);
+        Enumeration admin = new Enumeration(5);
+        admin.setName("ADMIN");
+        user.getRoles().add(admin);
+    }
+
+    @Test
+    public void loadsUserOncePerRequest() {
+        expect(session.getAttribute(CurrentUser.SESSION_ATTRIBUTE)).andReturn(ID).once();
+        expect(userService.findById(ID, UserFetchProfile.AUTH)).andReturn(user).once();
+        replay(session, userService);
+
+        assertTrue(currentUser.isLoggedIn());
+        assertSame(user, currentUser.getUser());
+        assertSame(user, currentUser.getUser());
+        assertTrue(currentUser.hasRole(UserService.ROLE.ADMIN));
+        assertFalse(currentUser.hasRole(UserService.ROLE.PORTALADMIN));
+        verify(session, userService);
+    }
+
+    @Test
+    public void notLoggedIn() {
+        expect(session.getAttribute(CurrentUser.SESSION_ATTRIBUTE)).andReturn(null).once();
+        replay(session, userService);
+
+        assertFalse(currentUser.isLoggedIn());
+        assertNull(currentUser.getUser());
+        assertFalse(currentUser.hasRole(UserService.ROLE.USER));
+        assertFalse(currentUser.isMemberOf(1));
+        verify(session, userService);
+    }
+
+    @Test
+    public void membershipIdsLoadedOnce() {
+        Community community = new Community("name", "description");
+        community.setId(3);
+        expect(session.getAttribute(CurrentUser.SESSION_ATTRIBUTE)).andReturn(ID).once();
+        expect(userService.findById(ID, UserFetchProfile.AUTH)).andReturn(user).once();
+        expect(userService.getAllCommunitiesForUser(user)).andReturn(Arrays.asList(community)).once();
+        replay(session, userService);
+
+        assertTrue(currentUser.isMemberOf(3));
+        assertFalse(currentUser.isMemberOf(4));
+        verify(session, userService);
+    }
+
+    @Test
+    public void changeOfCurrentUserInvalidates() {
+        expect(session.getAttribute(CurrentUser.SESSION_ATTRIBUTE)).andReturn(ID).times(2);
+        expect(userService.findById(ID, UserFetchProfile.AUTH)).andReturn(user).times(2);
+        replay(session, userService);
+
+        currentUser.getUser();
+        currentUser.onUserChanged(new UserChangedEvent(ID + 1));
+        currentUser.getUser();
+        currentUser.onUserChanged(new UserChangedEvent(ID));
+        currentUser.getUser();
+        verify(session, userService);
+    }
+}
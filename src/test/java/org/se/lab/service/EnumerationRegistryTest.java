@@ -0,0 +1,79 @@
+package org.se.lab.service;
+
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.Enumeration;
+import org.se.lab.service.dao.EnumerationDAO;
+import org.se.lab.service.impl.EnumerationRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.easymock.EasyMock.*;
+
+@RunWith(EasyMockRunner.class)
+public class EnumerationRegistryTest {
+
+    @TestSubject
+    private EnumerationRegistry registry = new EnumerationRegistry();
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private EnumerationDAO enumerationDAO;
+
+    @Test
+    public void lookupsAfterLoad() {
+        Enumeration pending = Enumeration.reference(1, "PENDING");
+        Enumeration like = Enumeration.reference(7, "LIKE");
+        expect(enumerationDAO.findAllReferences()).andReturn(Arrays.asList(pending, like));
+        replay(enumerationDAO);
+
+        registry.reload();
+
+        Assert.assertSame(pending, registry.findById(1));
+        Assert.assertSame(like, registry.findByName("LIKE"));
+        Assert.assertNull(registry.findById(3));
+        Assert.assertNull(registry.findById(8));
+        Assert.assertNull(registry.findById(-1));
+        Assert.assertNull(registry.findByName("ADMIN"));
+        // no further database access
+        verify(enumerationDAO);
+    }
+
+    @Test
+    public void reloadReplacesEntries() {
+        expect(enumerationDAO.findAllReferences()).andReturn(Collections.singletonList(Enumeration.reference(1, "PENDING")));
+        expect(enumerationDAO.findAllReferences()).andReturn(Collections.singletonList(Enumeration.reference(2, "APPROVED")));
+        replay(enumerationDAO);
+
+        registry.reload();
+        registry.reload();
+
+        Assert.assertNull(registry.findById(1));
+        Assert.assertEquals("APPROVED", registry.findById(2).getName());
+        verify(enumerationDAO);
+    }
+
+    @Test
+    public void failedReloadKeepsEntries() {
+        expect(enumerationDAO.findAllReferences()).andReturn(Collections.singletonList(Enumeration.reference(1, "PENDING")));
+        expect(enumerationDAO.findAllReferences()).andThrow(new IllegalStateException("database down"));
+        replay(enumerationDAO);
+
+        registry.reload();
+        try {
+            registry.reload();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("PENDING", registry.findById(1).getName());
+        }
+    }
+}
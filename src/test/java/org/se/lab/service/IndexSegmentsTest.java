@@ -0,0 +1,58 @@
+package org.se.lab.service;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.se.lab.service.impl.IndexSegments;
+import org.se.lab.service.impl.IndexedPost;
+import org.se.lab.service.impl.InvertedIndex;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class IndexSegmentsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendAndLoad() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        IndexSegments segments = new IndexSegments(folder.getRoot().toPath());
+        index.put(IndexedPost.of(1, 10, 5, "galaxy far away"));
+        index.put(IndexedPost.of(2, 10, 0, "another galaxy"));
+        segments.append(index.drainChanges());
+        index.remove(1);
+        index.put(IndexedPost.of(3, 11, 0, "galaxy"));
+        segments.append(index.drainChanges());
+
+        InvertedIndex restored = new InvertedIndex();
+        restored.restore(new IndexSegments(folder.getRoot().toPath()).load());
+
+        Assert.assertEquals(2, segments.count());
+        Assert.assertEquals(2, restored.size());
+        Assert.assertEquals(index.search("galaxy", 0, 0, 10), restored.search("galaxy", 0, 0, 10));
+        Assert.assertTrue(restored.drainChanges().isEmpty());
+    }
+
+    @Test
+    public void compactReplacesOlderSegments() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        IndexSegments segments = new IndexSegments(folder.getRoot().toPath());
+        index.put(IndexedPost.of(1, 10, 0, "first post"));
+        segments.append(index.drainChanges());
+        index.remove(1);
+        index.put(IndexedPost.of(2, 10, 0, "second post"));
+        index.drainChanges();
+
+        segments.compact(index.snapshot());
+        index.put(IndexedPost.of(3, 10, 0, "third post"));
+        segments.append(index.drainChanges());
+
+        InvertedIndex restored = new InvertedIndex();
+        restored.restore(segments.load());
+        Assert.assertEquals(2, segments.count());
+        Assert.assertEquals(Arrays.asList(3, 2), restored.search("post", 0, 0, 10));
+    }
+}
@@ -0,0 +1,70 @@
+package org.se.lab.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.service.impl.IndexedPost;
+import org.se.lab.service.impl.InvertedIndex;
+import org.se.lab.service.impl.Tokenizer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    public void tokenize_foldsAndStems() {
+        Assert.assertEquals(Arrays.asList("run", "run", "run", "caf", "lik", "lik", "2017"),
+                Tokenizer.tokenize("Running, runs: RUN! Café liked likes 2017 a"));
+    }
+
+    @Test
+    public void search_ranksPostsMatchingMoreTerms() {
+        index.put(IndexedPost.of(1, 10, 0, "A long time ago in a galaxy far, far away"));
+        index.put(IndexedPost.of(2, 10, 0, "The galaxy is full of stars"));
+        index.put(IndexedPost.of(3, 11, 0, "Nothing to see here"));
+
+        Assert.assertEquals(Arrays.asList(2, 1), index.search("stars in the galaxy", 0, 0, 10));
+        Assert.assertEquals(Arrays.asList(2), index.search("galaxy", 0, 0, 1));
+        Assert.assertEquals(Collections.emptyList(), index.search("?!", 0, 0, 10));
+    }
+
+    @Test
+    public void search_scopedToAuthorAndCommunity() {
+        index.put(IndexedPost.of(1, 10, 5, "exam tomorrow"));
+        index.put(IndexedPost.of(2, 11, 5, "exams are over"));
+        index.put(IndexedPost.of(3, 11, 6, "exam results"));
+
+        Assert.assertEquals(Arrays.asList(3, 2), index.search("exam", 11, 0, 10));
+        // the shorter post ranks first
+        Assert.assertEquals(Arrays.asList(1, 2), index.search("exam", 0, 5, 10));
+        Assert.assertEquals(Arrays.asList(2), index.search("exam", 11, 5, 10));
+    }
+
+    @Test
+    public void putAndRemove_updateIndexAndChanges() {
+        index.put(IndexedPost.of(1, 10, 0, "old text"));
+        index.put(IndexedPost.of(1, 10, 0, "new text"));
+        index.put(IndexedPost.of(2, 10, 0, "other text"));
+        index.remove(2);
+
+        Assert.assertEquals(Collections.emptyList(), index.search("old", 0, 0, 10));
+        Assert.assertEquals(Arrays.asList(1), index.search("new text", 0, 0, 10));
+        Assert.assertFalse(index.putIfAbsent(IndexedPost.of(1, 10, 0, "stale text")));
+        Assert.assertEquals(1, index.size());
+
+        Map<Integer, IndexedPost> changes = index.drainChanges();
+        Assert.assertEquals(Arrays.asList(1, 2), Arrays.asList(changes.keySet().toArray()));
+        Assert.assertNull(changes.get(2));
+        Assert.assertTrue(index.drainChanges().isEmpty());
+    }
+
+    @Test
+    public void maxPostId_ofRestoredPosts() {
+        Assert.assertEquals(0, index.maxPostId());
+        index.restore(Arrays.asList(IndexedPost.of(7, 10, 0, "seven"), IndexedPost.of(3, 10, 0, "three")));
+        Assert.assertEquals(7, index.maxPostId());
+    }
+}
@@ -0,0 +1,51 @@
+package org.se.lab.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.service.impl.KWayMergeIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class KWayMergeIteratorTest {
+
+    @Test
+    public void merge_sortedSources() {
+        List<Iterator<Integer>> sources = Arrays.asList(
+                Arrays.asList(9, 5, 1).iterator(),
+                Collections.<Integer>emptyIterator(),
+                Arrays.asList(8, 7, 2).iterator(),
+                Arrays.asList(6).iterator());
+
+        List<Integer> merged = new ArrayList<>();
+        new KWayMergeIterator<>(sources, Comparator.<Integer>reverseOrder()).forEachRemaining(merged::add);
+
+        Assert.assertEquals(Arrays.asList(9, 8, 7, 6, 5, 2, 1), merged);
+    }
+
+    @Test
+    public void merge_advancesSourcesLazily() {
+        Iterator<Integer> a = Arrays.asList(4, 3, 2, 1).iterator();
+        Iterator<Integer> b = Arrays.asList(10, 9).iterator();
+        Iterator<Integer> merged = new KWayMergeIterator<>(Arrays.asList(a, b), Comparator.<Integer>reverseOrder());
+
+        Assert.assertEquals(Integer.valueOf(10), merged.next());
+        Assert.assertEquals(Integer.valueOf(9), merged.next());
+        // only the head of the first source has been taken
+        Assert.assertEquals(Integer.valueOf(3), a.next());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void merge_noSources() {
+        Iterator<Integer> merged = new KWayMergeIterator<>(Collections.<Iterator<Integer>>emptyList(),
+                Comparator.<Integer>naturalOrder());
+
+        Assert.assertFalse(merged.hasNext());
+        merged.next();
+    }
+}
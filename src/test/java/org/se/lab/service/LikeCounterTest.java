@@ -0,0 +1,154 @@
+package org.se.lab.service;
+
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.service.dao.LikeDAO;
+import org.se.lab.service.impl.LikeCountWriter;
+import org.se.lab.service.impl.LikeCounter;
+
+import javax.persistence.PersistenceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.easymock.EasyMock.*;
+
+@RunWith(EasyMockRunner.class)
+public class LikeCounterTest {
+
+    private LikeCounter counter = new LikeCounter();
+
+    @TestSubject
+    private LikeCountWriter writer = new LikeCountWriter();
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private LikeDAO likeDAO;
+
+    @Before
+    public void setup() throws Exception {
+        // the writer only opens a new transaction around the DAO call
+        PictureVariantGeneratorTest.inject(counter, "writer", writer);
+    }
+
+    @Test
+    public void pendingUntilWritten() {
+        counter.onLikeChanged(LikeEvent.liked(1, 10));
+        counter.onLikeChanged(LikeEvent.liked(1, 11));
+        counter.onLikeChanged(LikeEvent.unliked(2, 10));
+        expect(likeDAO.addToLikeCount(1, 2)).andReturn(1);
+        expect(likeDAO.addToLikeCount(2, -1)).andReturn(1);
+        replay(likeDAO);
+
+        Assert.assertEquals(2, counter.getPending(1));
+        // first flush retires the deltas, second one writes them
+        counter.flush();
+        Assert.assertEquals(2, counter.getPending(1));
+        counter.flush();
+
+        verify(likeDAO);
+        Assert.assertEquals(0, counter.getPending(1));
+        Assert.assertEquals(0, counter.getPending(2));
+    }
+
+    @Test
+    public void failedPostStaysPending() {
+        counter.add(1, 2);
+        counter.add(2, -1);
+        expect(likeDAO.addToLikeCount(1, 2)).andThrow(new PersistenceException("deadlock"));
+        expect(likeDAO.addToLikeCount(2, -1)).andReturn(1);
+        replay(likeDAO);
+
+        counter.flush();
+        counter.flush();
+
+        verify(likeDAO);
+        Assert.assertEquals(2, counter.getPending(1));
+        Assert.assertEquals(0, counter.getPending(2));
+
+        // written again two flushes later
+        reset(likeDAO);
+        expect(likeDAO.addToLikeCount(1, 2)).andReturn(1);
+        replay(likeDAO);
+        counter.flush();
+        counter.flush();
+
+        verify(likeDAO);
+        Assert.assertEquals(0, counter.getPending(1));
+    }
+
+    @Test
+    public void deletedPostIsDropped() {
+        counter.add(1, 1);
+        expect(likeDAO.addToLikeCount(1, 1)).andReturn(0);
+        replay(likeDAO);
+
+        counter.flush();
+        counter.flush();
+        counter.flush();
+        counter.flush();
+
+        verify(likeDAO);
+        Assert.assertEquals(0, counter.getPending(1));
+    }
+
+    @Test
+    public void pendingWhileWriting() {
+        counter.add(1, 2);
+        expect(likeDAO.addToLikeCount(1, 2)).andAnswer(() -> {
+            // not yet committed
+            Assert.assertEquals(2, counter.getPending(1));
+            return 1;
+        });
+        replay(likeDAO);
+
+        counter.flush();
+        counter.flush();
+
+        verify(likeDAO);
+        Assert.assertEquals(0, counter.getPending(1));
+    }
+
+    @Test
+    public void netZeroIsNotWritten() {
+        counter.add(1, 1);
+        counter.add(1, -1);
+        replay(likeDAO);
+
+        counter.flush();
+        counter.flush();
+
+        verify(likeDAO);
+    }
+
+    @Test
+    public void concurrentLikes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    counter.add(1, 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(4000, counter.getPending(1));
+    }
+}
@@ -0,0 +1,51 @@
+package org.se.lab.service;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.se.lab.service.impl.PasswordHasher;
+
+public class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+
+    @Test
+    public void hashIsSaltedAndVerifies() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertTrue(first.startsWith("pbkdf2-sha256$" + PasswordHasher.MIN_ITERATIONS + "$"));
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+        assertFalse(hasher.verify("Secret", first));
+    }
+
+    @Test
+    public void verifiesHashOfOtherWorkFactor() {
+        String stored = new PasswordHasher(2 * PasswordHasher.MIN_ITERATIONS).hash("secret");
+
+        assertTrue(hasher.verify("secret", stored));
+        assertTrue(hasher.needsRehash(stored));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+    }
+
+    @Test
+    public void verifiesLegacyPlaintext() {
+        assertTrue(hasher.verify("secret", "secret"));
+        assertFalse(hasher.verify("other", "secret"));
+        assertTrue(hasher.needsRehash("secret"));
+    }
+
+    @Test
+    public void rejectsMalformedHash() {
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$x$y"));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$abc$c2FsdA==$aGFzaA=="));
+        assertFalse(hasher.verify(null, "secret"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLowWorkFactor() {
+        new PasswordHasher(PasswordHasher.MIN_ITERATIONS - 1);
+    }
+}
@@ -0,0 +1,107 @@
+package org.se.lab.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.se.lab.service.impl.PasswordHasher;
+import org.se.lab.service.impl.PasswordVerifier;
+
+public class PasswordVerifierTest {
+
+    private final PasswordVerifier verifier = new PasswordVerifier();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        verifier.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void hashesAndVerifies() {
+        verifier.configure(new PasswordHasher(PasswordHasher.MIN_ITERATIONS), 2, 4, 5000L);
+
+        String stored = verifier.hash("secret");
+        assertTrue(verifier.verify("secret", stored));
+        assertFalse(verifier.verify("wrong", stored));
+        assertFalse(verifier.needsRehash(stored));
+    }
+
+    @Test
+    public void rejectsAtOnceWhenSaturated() throws Exception {
+        BlockingHasher hasher = new BlockingHasher();
+        verifier.configure(hasher, 1, 1, 5000L);
+
+        Future<Boolean> running = callers.submit(() -> verifier.verify("secret", "secret"));
+        assertTrue(hasher.started.await(5, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> verifier.verify("secret", "secret"));
+        while (verifier.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        try {
+            verifier.verify("secret", "secret");
+            fail("expected ServiceException");
+        } catch (ServiceException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        }
+
+        hasher.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void unknownUserVerifiesDummyHash() {
+        List<String> verified = new ArrayList<>();
+        verifier.configure(new PasswordHasher(PasswordHasher.MIN_ITERATIONS) {
+            @Override
+            public boolean verify(String password, String stored) {
+                verified.add(stored);
+                return super.verify(password, stored);
+            }
+        }, 1, 1, 5000L);
+
+        assertFalse(verifier.verifyUnknown("secret"));
+        assertEquals(1, verified.size());
+        // a hash with the current work factor takes as long as a real one
+        assertFalse(verifier.needsRehash(verified.get(0)));
+    }
+
+    @Test(expected = ServiceException.class)
+    public void timesOut() {
+        verifier.configure(new BlockingHasher(), 1, 1, 50L);
+
+        verifier.verify("secret", "secret");
+    }
+
+    private static class BlockingHasher extends PasswordHasher {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingHasher() {
+            super(PasswordHasher.MIN_ITERATIONS);
+        }
+
+        @Override
+        public boolean verify(String password, String stored) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.verify(password, stored);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.se.lab.service;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.se.lab.service.impl.PictureScaler;
+
+public class PictureScalerTest {
+
+    @Test
+    public void scaleLandscape() {
+        BufferedImage scaled = PictureScaler.scale(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), 96);
+        assertEquals(96, scaled.getWidth());
+        assertEquals(48, scaled.getHeight());
+    }
+
+    @Test
+    public void scalePortrait() {
+        BufferedImage scaled = PictureScaler.scale(new BufferedImage(300, 1200, BufferedImage.TYPE_INT_RGB), 300);
+        assertEquals(75, scaled.getWidth());
+        assertEquals(300, scaled.getHeight());
+    }
+
+    @Test
+    public void scaleSmallKeepsSize() {
+        BufferedImage scaled = PictureScaler.scale(new BufferedImage(40, 30, BufferedImage.TYPE_BYTE_INDEXED), 96);
+        assertEquals(40, scaled.getWidth());
+        assertEquals(30, scaled.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, scaled.getType());
+    }
+
+    @Test
+    public void encodeJpeg() throws IOException {
+        byte[] jpeg = PictureScaler.encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        assertEquals((byte) 0xFF, jpeg[0]);
+        assertEquals((byte) 0xD8, jpeg[1]);
+    }
+
+    @Test
+    public void encodePngKeepsTransparency() throws IOException {
+        byte[] png = PictureScaler.encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+        assertEquals((byte) 0x89, png[0]);
+        assertEquals('P', png[1]);
+
+        BufferedImage decoded = PictureScaler.decode(png);
+        assertTrue(decoded.getColorModel().hasAlpha());
+        assertEquals(10, decoded.getWidth());
+    }
+
+    @Test
+    public void decodeUnknownFormat() throws IOException {
+        assertNull(PictureScaler.decode(new byte[] { 1, 2, 3 }));
+    }
+}
@@ -0,0 +1,115 @@
+package org.se.lab.service;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+import javax.persistence.PersistenceException;
+
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureSize;
+import org.se.lab.service.dao.PictureDAO;
+import org.se.lab.service.impl.PictureServiceImpl;
+import org.se.lab.service.impl.PictureVariantGenerator;
+
+@RunWith(EasyMockRunner.class)
+public class PictureServiceTest {
+
+    private static final String HASH = "ba7816bf8f01cfea414140de5dae2223";
+
+    @TestSubject
+    private PictureService pictureService = new PictureServiceImpl();
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private PictureDAO pictureDAO;
+
+    private PictureVariantGenerator generator = new PictureVariantGenerator();
+    private QueueExecutor executor = new QueueExecutor();
+
+    @Before
+    public void setup() throws Exception {
+        PictureVariantGeneratorTest.inject(generator, "executor", executor);
+        PictureVariantGeneratorTest.inject(pictureService, "generator", generator);
+    }
+
+    @Test
+    public void getPictureHash() {
+        expect(pictureDAO.findPictureHash(PictureOwner.PROFILE, 1)).andReturn(HASH);
+        replay(pictureDAO);
+
+        assertEquals(HASH, pictureService.getPictureHash(PictureOwner.PROFILE, 1));
+        verify(pictureDAO);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getPictureHash_Fails() {
+        expect(pictureDAO.findPictureHash(PictureOwner.COMMUNITY, 1)).andThrow(new IllegalStateException());
+        replay(pictureDAO);
+
+        pictureService.getPictureHash(PictureOwner.COMMUNITY, 1);
+    }
+
+    @Test
+    public void selectSize_Original() {
+        replay(pictureDAO);
+
+        assertEquals(PictureSize.ORIGINAL, pictureService.selectSize(PictureOwner.PROFILE, 1, PictureSize.ORIGINAL, HASH));
+        assertEquals(0, generator.getPending());
+    }
+
+    @Test
+    public void selectSize_CurrentVariant() {
+        expect(pictureDAO.findVariantHash(PictureOwner.PROFILE, 1, PictureSize.THUMB)).andReturn(HASH);
+        replay(pictureDAO);
+
+        assertEquals(PictureSize.THUMB, pictureService.selectSize(PictureOwner.PROFILE, 1, PictureSize.THUMB, HASH));
+        assertEquals(0, generator.getPending());
+    }
+
+    @Test
+    public void selectSize_StaleVariant() {
+        expect(pictureDAO.findVariantHash(PictureOwner.PROFILE, 1, PictureSize.MEDIUM)).andReturn("00000000000000000000000000000000");
+        replay(pictureDAO);
+
+        assertEquals(PictureSize.ORIGINAL, pictureService.selectSize(PictureOwner.PROFILE, 1, PictureSize.MEDIUM, HASH));
+        assertEquals(1, generator.getPending());
+    }
+
+    @Test
+    public void selectSize_MissingVariant() {
+        expect(pictureDAO.findVariantHash(PictureOwner.COMMUNITY, 2, PictureSize.THUMB)).andReturn(null);
+        replay(pictureDAO);
+
+        assertEquals(PictureSize.ORIGINAL, pictureService.selectSize(PictureOwner.COMMUNITY, 2, PictureSize.THUMB, HASH));
+        assertEquals(1, executor.size());
+    }
+
+    @Test
+    public void readPicture() {
+        byte[] thumb = { 1, 2, 3 };
+        expect(pictureDAO.readPicture(PictureOwner.PROFILE, 1, PictureSize.THUMB)).andReturn(thumb);
+        replay(pictureDAO);
+
+        assertArrayEquals(thumb, pictureService.readPicture(PictureOwner.PROFILE, 1, PictureSize.THUMB));
+        verify(pictureDAO);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void readPicture_Fails() {
+        expect(pictureDAO.readPicture(PictureOwner.PROFILE, 1, PictureSize.ORIGINAL))
+                .andThrow(new PersistenceException("connection lost"));
+        replay(pictureDAO);
+
+        pictureService.readPicture(PictureOwner.PROFILE, 1, PictureSize.ORIGINAL);
+    }
+}
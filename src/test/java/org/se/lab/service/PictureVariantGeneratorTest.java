@@ -0,0 +1,129 @@
+package org.se.lab.service;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collection;
+
+import org.easymock.Capture;
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.PictureHash;
+import org.se.lab.data.PictureOwner;
+import org.se.lab.data.PictureVariant;
+import org.se.lab.service.dao.PictureDAO;
+import org.se.lab.service.impl.PictureScaler;
+import org.se.lab.service.impl.PictureVariantGenerator;
+import org.se.lab.service.impl.PictureVariantWriter;
+
+@RunWith(EasyMockRunner.class)
+public class PictureVariantGeneratorTest {
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private PictureDAO pictureDAO;
+
+    @TestSubject
+    private PictureVariantWriter writer = new PictureVariantWriter();
+
+    private PictureVariantGenerator generator = new PictureVariantGenerator();
+    private QueueExecutor executor = new QueueExecutor();
+
+    @Before
+    public void setup() throws Exception {
+        inject(generator, "executor", executor);
+        inject(generator, "writer", writer);
+    }
+
+    static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Test
+    public void writerStoresAllVariants() throws IOException {
+        byte[] picture = PictureScaler.encode(new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB));
+        Capture<Collection<PictureVariant>> saved = Capture.newInstance();
+        expect(pictureDAO.findPicture(PictureOwner.PROFILE, 7)).andReturn(picture);
+        pictureDAO.saveVariants(capture(saved));
+        replay(pictureDAO);
+
+        assertEquals(2, writer.generate(PictureOwner.PROFILE, 7));
+        verify(pictureDAO);
+        for (PictureVariant variant : saved.getValue()) {
+            assertEquals(PictureHash.of(picture), variant.getSourceHash());
+            BufferedImage image = PictureScaler.decode(variant.getData());
+            assertEquals(variant.getVariant().getMaxEdge(), image.getWidth());
+        }
+    }
+
+    @Test
+    public void writerSkipsUndecodablePicture() {
+        expect(pictureDAO.findPicture(PictureOwner.COMMUNITY, 3)).andReturn(new byte[] { 1, 2, 3 });
+        replay(pictureDAO);
+
+        assertEquals(0, writer.generate(PictureOwner.COMMUNITY, 3));
+        verify(pictureDAO);
+    }
+
+    @Test
+    public void requestRunsInBackground() {
+        expect(pictureDAO.findPicture(PictureOwner.PROFILE, 1)).andReturn(null);
+        replay(pictureDAO);
+
+        assertTrue(generator.request(PictureOwner.PROFILE, 1));
+        assertEquals(1, generator.getPending());
+        // nothing ran on the caller's thread
+        assertEquals(1, executor.size());
+
+        executor.runAll();
+        verify(pictureDAO);
+        assertEquals(0, generator.getPending());
+    }
+
+    @Test
+    public void requestQueuesPictureOnce() {
+        assertTrue(generator.request(PictureOwner.PROFILE, 1));
+        assertTrue(generator.request(PictureOwner.PROFILE, 1));
+        assertTrue(generator.request(PictureOwner.COMMUNITY, 1));
+        assertEquals(2, executor.size());
+    }
+
+    @Test
+    public void requestDropsWhenFull() {
+        for (int id = 1; id <= 32; id++) {
+            assertTrue(generator.request(PictureOwner.PROFILE, id));
+        }
+        assertFalse(generator.request(PictureOwner.PROFILE, 33));
+        assertEquals(32, executor.size());
+    }
+
+    @Test
+    public void requestRejected() {
+        executor.shutdown();
+        assertFalse(generator.request(PictureOwner.PROFILE, 1));
+        assertEquals(0, generator.getPending());
+    }
+
+    @Test
+    public void failedGenerationIsNotPending() {
+        expect(pictureDAO.findPicture(PictureOwner.PROFILE, 1)).andThrow(new IllegalStateException());
+        replay(pictureDAO);
+
+        generator.request(PictureOwner.PROFILE, 1);
+        executor.runAll();
+        assertEquals(0, generator.getPending());
+    }
+}
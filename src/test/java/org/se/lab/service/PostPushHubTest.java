@@ -0,0 +1,130 @@
+package org.se.lab.service;
+
+import org.easymock.EasyMockRule;
+import org.easymock.Mock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.dao.CommunityDAO;
+import org.se.lab.service.impl.ContactGraphIndex;
+import org.se.lab.service.impl.PostPushHub;
+import org.se.lab.service.impl.PushConnection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.easymock.EasyMock.*;
+
+public class PostPushHubTest {
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private CommunityDAO communityDAO;
+
+    private PostPushHub hub = new PostPushHub();
+    private ContactGraphIndex contactGraphIndex = new ContactGraphIndex();
+    private QueueExecutor executor = new QueueExecutor();
+
+    private PushConnectionTest.RecordingTransport member = new PushConnectionTest.RecordingTransport();
+    private PushConnectionTest.RecordingTransport follower = new PushConnectionTest.RecordingTransport();
+    private PushConnectionTest.RecordingTransport communityPage = new PushConnectionTest.RecordingTransport();
+
+    @Before
+    public void setup() throws Exception {
+        PictureVariantGeneratorTest.inject(hub, "communityDAO", communityDAO);
+        PictureVariantGeneratorTest.inject(hub, "contactGraphIndex", contactGraphIndex);
+        PictureVariantGeneratorTest.inject(hub, "executor", executor);
+        // user 2 has the author 9 as contact
+        contactGraphIndex.getGraph().add(2, 9);
+
+        Community community = new Community("Ducks", "All ducks");
+        community.setId(5);
+        expect(communityDAO.findByMember(1)).andReturn(Arrays.asList(community));
+        expect(communityDAO.findByMember(2)).andReturn(Collections.<Community>emptyList());
+        replay(communityDAO);
+
+        hub.connect(1, 0, member);
+        hub.connect(2, 0, follower);
+        hub.connect(3, 7, communityPage);
+        verify(communityDAO);
+    }
+
+    @Test
+    public void notifiesConnectionsShowingThePost() {
+        hub.onPostChanged(PushConnectionTest.event(9, 5));
+        executor.runAll();
+
+        String notification = "{\"type\":\"post\",\"postId\":42,\"authorId\":9,\"communityId\":5,\"created\":1000}";
+        Assert.assertEquals(Arrays.asList(notification), member.messages);
+        Assert.assertEquals(Arrays.asList(notification), follower.messages);
+        Assert.assertTrue(communityPage.messages.isEmpty());
+
+        hub.onPostChanged(PushConnectionTest.event(4, 7));
+        executor.runAll();
+        Assert.assertEquals(1, member.messages.size());
+        Assert.assertEquals(1, communityPage.messages.size());
+    }
+
+    @Test
+    public void ignoresRepliesAndChanges() {
+        User author = new User("author", "***");
+        author.setId(9);
+        Post parent = new Post(null, null, author, "Hello", new Date(1000L));
+        parent.setId(41);
+        Post reply = new Post(parent, null, author, "Reply", new Date(2000L));
+        reply.setId(42);
+
+        hub.onPostChanged(PostEvent.created(reply));
+        hub.onPostChanged(PostEvent.updated(parent));
+        hub.onPostChanged(PostEvent.deleted(parent));
+
+        Assert.assertEquals(0, executor.size());
+        Assert.assertTrue(follower.messages.isEmpty());
+    }
+
+    @Test
+    public void broadcastsOffTheCommittingThread() {
+        hub.onPostChanged(PushConnectionTest.event(9, 5));
+        Assert.assertEquals(1, executor.size());
+        Assert.assertTrue(member.messages.isEmpty());
+
+        executor.runAll();
+        Assert.assertEquals(1, member.messages.size());
+    }
+
+    @Test
+    public void rejectedBroadcastIsDropped() {
+        executor.shutdown();
+        hub.onPostChanged(PushConnectionTest.event(9, 5));
+        Assert.assertTrue(member.messages.isEmpty());
+    }
+
+    @Test
+    public void disconnect() {
+        PushConnection connection = hub.connect(3, 5, new PushConnectionTest.RecordingTransport());
+        Assert.assertEquals(4, hub.getConnectionCount());
+
+        hub.disconnect(connection);
+        Assert.assertEquals(3, hub.getConnectionCount());
+        Assert.assertTrue(connection.isClosed());
+    }
+
+    @Test
+    public void slowClientDoesNotBlock() {
+        // the follower never completes a send
+        for (int i = 0; i < 100; i++) {
+            hub.onPostChanged(PushConnectionTest.event(9, 0));
+        }
+        executor.runAll();
+        Assert.assertEquals(1, follower.messages.size());
+        Assert.assertTrue(member.messages.isEmpty());
+        Assert.assertEquals(100 - 1 - PushConnection.DEFAULT_QUEUE_LIMIT, hub.getDropped());
+    }
+}
@@ -0,0 +1,147 @@
+package org.se.lab.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.impl.ContactGraph;
+import org.se.lab.service.impl.PushConnection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class PushConnectionTest {
+
+    /*
+     * Records the sends; the test completes them
+     */
+    static class RecordingTransport implements PushConnection.Transport {
+        final List<String> messages = new ArrayList<>();
+        final List<Consumer<Throwable>> pending = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void send(String message, Consumer<Throwable> done) {
+            messages.add(message);
+            pending.add(done);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        void complete(Throwable failure) {
+            pending.remove(0).accept(failure);
+        }
+    }
+
+    private RecordingTransport transport = new RecordingTransport();
+    private PushConnection connection = new PushConnection(1, 0, Collections.<Integer>emptySet(), transport, 2);
+
+    @Test
+    public void sendsOneAtATime() {
+        connection.offer("a");
+        connection.offer("b");
+        Assert.assertEquals(Arrays.asList("a"), transport.messages);
+        Assert.assertEquals(1, connection.getQueued());
+
+        transport.complete(null);
+        Assert.assertEquals(Arrays.asList("a", "b"), transport.messages);
+        transport.complete(null);
+        Assert.assertEquals(2, connection.getSent());
+        Assert.assertEquals(0, connection.getQueued());
+
+        connection.offer("c");
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), transport.messages);
+    }
+
+    @Test
+    public void dropsOldestWhenFull() {
+        connection.offer("a");
+        connection.offer("b");
+        connection.offer("c");
+        connection.offer("d");
+        Assert.assertEquals(2, connection.getQueued());
+        Assert.assertEquals(1, connection.getDropped());
+
+        transport.complete(null);
+        transport.complete(null);
+        transport.complete(null);
+        Assert.assertEquals(Arrays.asList("a", "c", "d"), transport.messages);
+        Assert.assertEquals(3, connection.getSent());
+    }
+
+    @Test
+    public void failedSendCloses() {
+        connection.offer("a");
+        connection.offer("b");
+        transport.complete(new IllegalStateException("gone"));
+
+        Assert.assertTrue(connection.isClosed());
+        Assert.assertTrue(transport.closed);
+        Assert.assertEquals(0, connection.getQueued());
+        connection.offer("c");
+        Assert.assertEquals(Arrays.asList("a"), transport.messages);
+    }
+
+    @Test
+    public void transportCompletingInline() {
+        List<String> sent = new ArrayList<>();
+        PushConnection inline = new PushConnection(1, 0, Collections.<Integer>emptySet(),
+                new PushConnection.Transport() {
+                    @Override
+                    public void send(String message, Consumer<Throwable> done) {
+                        sent.add(message);
+                        done.accept(null);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                }, 2);
+        for (int i = 0; i < 100; i++) {
+            inline.offer("m" + i);
+        }
+        Assert.assertEquals(100, sent.size());
+        Assert.assertEquals(100, inline.getSent());
+        Assert.assertEquals(0, inline.getDropped());
+    }
+
+    @Test
+    public void shows() {
+        ContactGraph contacts = new ContactGraph();
+        contacts.add(1, 9);
+        PushConnection stream = new PushConnection(1, 0, new HashSet<>(Arrays.asList(5)), transport, 2);
+        PushConnection communityPage = new PushConnection(2, 7, Collections.<Integer>emptySet(), transport, 2);
+
+        // by a contact of user 1
+        Assert.assertTrue(stream.shows(event(9, 0), contacts));
+        Assert.assertFalse(communityPage.shows(event(9, 0), contacts));
+        // in a community of user 1
+        Assert.assertTrue(stream.shows(event(3, 5), contacts));
+        // own post
+        Assert.assertTrue(stream.shows(event(1, 0), contacts));
+        Assert.assertFalse(stream.shows(event(3, 7), contacts));
+        Assert.assertTrue(communityPage.shows(event(3, 7), contacts));
+    }
+
+    static PostEvent event(int authorId, int communityId) {
+        User author = new User("author" + authorId, "***");
+        author.setId(authorId);
+        Community community = null;
+        if (communityId != 0) {
+            community = new Community("community" + communityId, "test");
+            community.setId(communityId);
+        }
+        Post post = new Post(null, community, author, "Hello", new Date(1000L));
+        post.setId(42);
+        return PostEvent.created(post);
+    }
+}
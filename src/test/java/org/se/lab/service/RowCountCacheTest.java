@@ -0,0 +1,52 @@
+package org.se.lab.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.service.impl.RowCountCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RowCountCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000L);
+    private final AtomicInteger queries = new AtomicInteger();
+    private final RowCountCache cache = new RowCountCache(100L, now::get);
+
+    private long count(String key, long rows) {
+        return cache.get(key, () -> {
+            queries.incrementAndGet();
+            return rows;
+        });
+    }
+
+    @Test
+    public void reusedUntilExpired() {
+        Assert.assertEquals(5L, count("community:a", 5L));
+        now.addAndGet(99L);
+        Assert.assertEquals(5L, count("community:a", 6L));
+        Assert.assertEquals(1, queries.get());
+
+        now.addAndGet(1L);
+        Assert.assertEquals(6L, count("community:a", 6L));
+        Assert.assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void keysCountedSeparately() {
+        Assert.assertEquals(5L, count("community:a", 5L));
+        Assert.assertEquals(7L, count("community:b", 7L));
+        Assert.assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void invalidateByPrefix() {
+        count("community:a", 5L);
+        count("userprofile:", 3L);
+        cache.invalidate("community:");
+
+        Assert.assertEquals(6L, count("community:a", 6L));
+        Assert.assertEquals(3L, count("userprofile:", 4L));
+        Assert.assertEquals(3, queries.get());
+    }
+}
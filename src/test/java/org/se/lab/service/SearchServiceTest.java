@@ -0,0 +1,145 @@
+package org.se.lab.service;
+
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.Community;
+import org.se.lab.data.Post;
+import org.se.lab.data.PostText;
+import org.se.lab.data.User;
+import org.se.lab.service.dao.PostDAO;
+import org.se.lab.service.impl.SearchIndex;
+import org.se.lab.service.impl.SearchServiceImpl;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+
+@RunWith(EasyMockRunner.class)
+public class SearchServiceTest {
+
+    @TestSubject
+    private SearchServiceImpl service = new SearchServiceImpl();
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private PostDAO postDAO;
+
+    // no segments on disk, see SearchIndex#open
+    private SearchIndex searchIndex = new SearchIndex();
+
+    private User user;
+    private Community community;
+
+    @Before
+    public void setUp() throws Exception {
+        Field field = SearchServiceImpl.class.getDeclaredField("searchIndex");
+        field.setAccessible(true);
+        field.set(service, searchIndex);
+
+        user = new User("username", "password");
+        user.setId(1);
+        community = new Community("name", "description");
+        community.setId(7);
+    }
+
+    @Test
+    public void searchPosts_followsPostEvents() {
+        Post post1 = post(1, null, "Party tonight");
+        Post post2 = post(2, community, "Parties are fun");
+        searchIndex.onPostChanged(PostEvent.created(post1));
+        searchIndex.onPostChanged(PostEvent.created(post2));
+        searchIndex.onPostChanged(PostEvent.deleted(post1));
+        expect(postDAO.findByIds(Arrays.asList(2))).andReturn(Arrays.asList(post2));
+        replay(postDAO);
+
+        Assert.assertEquals(Arrays.asList(post2), service.searchPosts("party", 10));
+        verify(postDAO);
+    }
+
+    @Test
+    public void searchPosts_scopedToCommunityAndAuthor() {
+        Post post1 = post(1, null, "exam");
+        Post post2 = post(2, community, "exam");
+        searchIndex.onPostChanged(PostEvent.created(post1));
+        searchIndex.onPostChanged(PostEvent.created(post2));
+        expect(postDAO.findByIds(Arrays.asList(2))).andReturn(Arrays.asList(post2));
+        // in no particular order, the service restores the score order
+        expect(postDAO.findByIds(Arrays.asList(2, 1))).andReturn(Arrays.asList(post1, post2));
+        replay(postDAO);
+
+        Assert.assertEquals(Arrays.asList(post2), service.searchPosts(community, "exam", 10));
+        Assert.assertEquals(Arrays.asList(post2, post1), service.searchPosts(user, "exam", 10));
+        verify(postDAO);
+    }
+
+    @Test
+    public void searchPosts_skipsDeletedPosts() {
+        searchIndex.onPostChanged(PostEvent.created(post(1, null, "gone")));
+        expect(postDAO.findByIds(Arrays.asList(1))).andReturn(Collections.<Post>emptyList());
+        replay(postDAO);
+
+        Assert.assertTrue(service.searchPosts("gone", 10).isEmpty());
+        verify(postDAO);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void searchPosts_invalidMaxResults() {
+        service.searchPosts("party", SearchService.MAX_RESULTS + 1);
+    }
+
+    @Test
+    public void rebuildIndex_keepsNewerVersions() {
+        Post post1 = post(1, null, "edited text");
+        searchIndex.onPostChanged(PostEvent.updated(post1));
+        List<PostText> texts = Arrays.asList(new PostText(1, 1, null, "original text"),
+                new PostText(2, 1, 7, "another text"));
+        expect(postDAO.findTextsAfter(0, 1000)).andReturn(texts);
+        expect(postDAO.findByIds(Arrays.asList(1))).andReturn(Arrays.asList(post1));
+        expect(postDAO.findByIds(Collections.<Integer>emptyList())).andReturn(Collections.<Post>emptyList());
+        replay(postDAO);
+
+        service.rebuildIndex();
+
+        Assert.assertEquals(Collections.singletonList(post1), service.searchPosts("edited", 10));
+        Assert.assertTrue(service.searchPosts("original", 10).isEmpty());
+        verify(postDAO);
+    }
+
+    @Test
+    public void catchUpIndex_addsPostsAfterGivenIdInPages() {
+        searchIndex.onPostChanged(PostEvent.created(post(5, null, "indexed before")));
+        List<PostText> page = new ArrayList<>();
+        for (int id = 6; id < 1006; id++) {
+            page.add(new PostText(id, 1, null, "committed after the flush " + id));
+        }
+        expect(postDAO.findTextsAfter(5, 1000)).andReturn(page);
+        expect(postDAO.findTextsAfter(1005, 1000)).andReturn(Collections.singletonList(new PostText(1006, 1, 7, "last one")));
+        replay(postDAO);
+
+        service.catchUpIndex(5);
+
+        verify(postDAO);
+        Assert.assertEquals(Arrays.asList(1006), searchIndex.search("last", 0, 0, 10));
+        Assert.assertEquals(1000, searchIndex.search("flush", 0, 0, 2000).size());
+    }
+
+    private Post post(int id, Community in, String text) {
+        Post post = new Post(null, in, user, text, new Date(id * 1000L));
+        post.setId(id);
+        return post;
+    }
+}
@@ -0,0 +1,131 @@
+package org.se.lab.service;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.Community;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+import org.se.lab.service.dao.TimelineDAO;
+import org.se.lab.service.impl.TimelineBatchWriter;
+import org.se.lab.service.impl.TimelineServiceImpl;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+
+@RunWith(EasyMockRunner.class)
+public class TimelineServiceTest {
+
+    @TestSubject
+    private TimelineService timelineService = new TimelineServiceImpl();
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private TimelineDAO timelineDAO;
+
+    @TestSubject
+    private TimelineBatchWriter writer = new TimelineBatchWriter();
+
+    private User author;
+    private Community community;
+    private Post post;
+
+    @Before
+    public void setup() throws Exception {
+        // the batch writer only opens a new transaction around the DAO call
+        Field field = TimelineServiceImpl.class.getDeclaredField("writer");
+        field.setAccessible(true);
+        field.set(timelineService, writer);
+
+        author = new User("author", "pass");
+        author.setId(1);
+        community = new Community("community", "description");
+        community.setId(9);
+        post = new Post(null, community, author, "Hello", new Date(180L));
+        post.setId(100);
+    }
+
+    @Test
+    public void fanOut_authorFollowersAndMembersOnce() {
+        Capture<Collection<Integer>> batches = newCapture(CaptureType.ALL);
+        expect(timelineDAO.findFollowerIds(1)).andReturn(Arrays.asList(2, 3));
+        expect(timelineDAO.findMemberIds(9, 0, 500)).andReturn(Arrays.asList(1, 3, 4));
+        timelineDAO.insertEntries(eq(100), eq(new Date(180L)), capture(batches));
+        expectLastCall().times(2);
+        replay(timelineDAO);
+
+        timelineService.fanOut(PostEvent.created(post));
+
+        verify(timelineDAO);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), new HashSet<>(batches.getValues().get(0)));
+        Assert.assertEquals(Collections.singletonList(4), batches.getValues().get(1));
+    }
+
+    @Test
+    public void fanOut_ignoresReplies() {
+        Post reply = new Post(post, community, author, "Reply", new Date(200L));
+        reply.setId(101);
+        replay(timelineDAO);
+
+        timelineService.fanOut(PostEvent.created(reply));
+
+        verify(timelineDAO);
+    }
+
+    @Test
+    public void rebuildTimelines_inRanges() {
+        expect(timelineDAO.findMaxPostId()).andReturn(2500);
+        expect(timelineDAO.rebuildRange(1, 1000)).andReturn(10);
+        expect(timelineDAO.rebuildRange(1001, 2000)).andReturn(10);
+        expect(timelineDAO.rebuildRange(2001, 2500)).andReturn(5);
+        replay(timelineDAO);
+
+        timelineService.rebuildTimelines();
+
+        verify(timelineDAO);
+    }
+
+    @Test
+    public void getHomeTimeline() {
+        Page<Post> page = new Page<>(Collections.singletonList(post), null);
+        expect(timelineDAO.getTimeline(1, null, 20)).andReturn(page);
+        replay(timelineDAO);
+
+        Assert.assertSame(page, timelineService.getHomeTimeline(author, null, 20));
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getHomeTimeline_invalidContinuation() {
+        replay(timelineDAO);
+
+        timelineService.getHomeTimeline(author, "%%%", 20);
+    }
+
+    @Test
+    public void removePost() {
+        expect(timelineDAO.deleteEntriesForPost(100)).andReturn(3);
+        replay(timelineDAO);
+
+        timelineService.removePost(post);
+
+        verify(timelineDAO);
+    }
+}
@@ -1,5 +1,6 @@
 package org.se.lab.service;
 
+import org.easymock.Capture;
 import org.easymock.EasyMockRule;
 import org.easymock.EasyMockRunner;
 import org.easymock.Mock;
@@ -7,12 +8,21 @@ import org.easymock.TestSubject;
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.se.lab.data.*;
+import org.se.lab.service.dao.CommunityDAO;
 import org.se.lab.service.dao.UserContactDAO;
 import org.se.lab.service.dao.UserDAO;
 import org.se.lab.service.dao.UserProfileDAO;
+import org.se.lab.service.impl.ContactGraphIndex;
+import org.se.lab.service.impl.CredentialStore;
+import org.se.lab.service.impl.PasswordHasher;
+import org.se.lab.service.impl.PasswordVerifier;
+import org.se.lab.service.impl.RowCountCache;
 import org.se.lab.service.impl.UserServiceImpl;
+import org.se.lab.service.impl.UserSummaryLoader;
 
+import javax.enterprise.event.Event;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.easymock.EasyMock.*;
@@ -39,6 +49,21 @@ public class UserServiceTest {
     private UserContactDAO userContactDAO;
     @Mock
     private UserProfileDAO userProfileDAO;
+    @Mock
+    private CommunityDAO communityDAO;
+    @Mock(fieldName = "pictureEvents")
+    private Event<PictureEvent> pictureEvents;
+    @Mock(fieldName = "userEvents")
+    private Event<UserChangedEvent> userEvents;
+    @Mock
+    private CurrentUser currentUser;
+    @Mock(fieldName = "contactEvents")
+    private Event<ContactEvent> contactEvents;
+
+    private PasswordVerifier passwordVerifier = new PasswordVerifier();
+    @TestSubject
+    private CredentialStore credentialStore = new CredentialStore();
+    private ContactGraphIndex contactGraphIndex = new ContactGraphIndex();
 
     private User user1;
     private User user2;
@@ -50,6 +75,13 @@ public class UserServiceTest {
 
     @Before
     public void setUp() throws Exception {
+        passwordVerifier.configure(new PasswordHasher(PasswordHasher.MIN_ITERATIONS), 1, 4, 5000L);
+        PictureVariantGeneratorTest.inject(userService, "passwordVerifier", passwordVerifier);
+        PictureVariantGeneratorTest.inject(userService, "contactGraphIndex", contactGraphIndex);
+        PictureVariantGeneratorTest.inject(userService, "rowCounts", new RowCountCache());
+        // the credential store only opens transactions around the DAO calls
+        PictureVariantGeneratorTest.inject(userService, "credentialStore", credentialStore);
+
         user1 = new User(USERNAME, PASSWORD);
         user2 = new User("username2", "pwd");
         user1.setId(1);
@@ -66,13 +98,18 @@ public class UserServiceTest {
 
     @After
     public void tearDown() throws Exception {
+        passwordVerifier.stop();
     }
 
     @Test
     public void insert_Successful() {
         expect(userDAO.insert(user1)).andReturn(user1);
+        replay(userDAO);
 
         userService.insert(user1);
+        verify(userDAO);
+        Assert.assertThat(user1.getPassword().startsWith("pbkdf2-sha256$"), is(true));
+        Assert.assertThat(passwordVerifier.verify(PASSWORD, user1.getPassword()), is(true));
     }
 
     @Test
@@ -85,22 +122,67 @@ public class UserServiceTest {
 
     @Test
     public void login_Successful() {
-        expect(userDAO.findByUsername(USERNAME)).andReturn(user1);
+        user1.setPassword(passwordVerifier.hash(PASSWORD));
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.AUTH)).andReturn(user1);
         replay(userDAO);
 
-        User user = userService.login(user1.getUsername(), user1.getPassword());
+        User user = userService.login(USERNAME, PASSWORD);
         Assert.assertThat(user, equalTo(user1));
+        verify(userDAO);
+    }
+
+    @Test
+    public void login_rehashesPlaintextPassword() {
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.AUTH)).andReturn(user1);
+        expect(userDAO.update(user1)).andReturn(user1);
+        replay(userDAO);
+
+        User user = userService.login(USERNAME, PASSWORD);
+        Assert.assertThat(user, equalTo(user1));
+        verify(userDAO);
+        Assert.assertThat(passwordVerifier.needsRehash(user1.getPassword()), is(false));
+    }
+
+    @Test
+    public void login_rehashesOnChangedWorkFactor() {
+        user1.setPassword(new PasswordHasher(2 * PasswordHasher.MIN_ITERATIONS).hash(PASSWORD));
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.AUTH)).andReturn(user1);
+        expect(userDAO.update(user1)).andReturn(user1);
+        replay(userDAO);
+
+        userService.login(USERNAME, PASSWORD);
+        verify(userDAO);
+        Assert.assertThat(user1.getPassword().startsWith("pbkdf2-sha256$" + PasswordHasher.MIN_ITERATIONS + "$"), is(true));
     }
 
     @Test
     public void login_Fail() {
-        expect(userDAO.findByUsername(USERNAME)).andReturn(user1);
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.AUTH)).andReturn(user1);
         replay(userDAO);
 
         User user = userService.login(USERNAME, "wrongPassword");
         Assert.assertThat(user, nullValue());
     }
 
+    @Test
+    public void login_UnknownUser() {
+        expect(userDAO.findByUsername("nobody", UserFetchProfile.AUTH)).andReturn(null);
+        replay(userDAO);
+
+        Assert.assertThat(userService.login("nobody", PASSWORD), nullValue());
+        verify(userDAO);
+    }
+
+    @Test
+    public void login_SucceedsWhenRehashFails() {
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.AUTH)).andReturn(user1);
+        expect(userDAO.update(user1)).andThrow(new IllegalStateException());
+        replay(userDAO);
+
+        Assert.assertThat(userService.login(USERNAME, PASSWORD), equalTo(user1));
+        verify(userDAO);
+    }
+
     @Ignore
     @Test
     public void getAllContactsByUser() {
@@ -113,7 +195,7 @@ public class UserServiceTest {
 
         expect(userContactDAO.findAll()).andReturn(userContactList);
         replay(userContactDAO);
-        List<User> allContacts = userService.getContactsOfUser(user1);
+        List<UserSummary> allContacts = userService.getContactsOfUser(user1);
 
         Assert.assertThat(allContacts.size(), is(1));
         Assert.assertThat(allContacts.get(0), is(contact1));
@@ -127,13 +209,51 @@ public class UserServiceTest {
         userService.update(user1);
     }
 
+    @Test
+    public void update_firesUserChangedEvent() {
+        Capture<UserChangedEvent> event = Capture.newInstance();
+        expect(userDAO.update(user1)).andReturn(user1);
+        userEvents.fire(capture(event));
+        replay(userDAO, userEvents);
+
+        userService.update(user1);
+        verify(userEvents);
+        Assert.assertThat(event.getValue().getUserId(), is(user1.getId()));
+    }
+
+    @Test
+    public void hasUserTheRole_ofCurrentUser() {
+        expect(currentUser.isLoggedIn()).andReturn(true);
+        expect(currentUser.getId()).andReturn(user1.getId());
+        expect(currentUser.hasRole(UserService.ROLE.ADMIN)).andReturn(true);
+        replay(currentUser, userDAO);
+
+        Assert.assertTrue(userService.hasUserTheRole(UserService.ROLE.ADMIN, user1));
+        verify(currentUser, userDAO);
+    }
+
+    @Test
+    public void hasUserTheRole_ofOtherUser() {
+        Enumeration admin = new Enumeration(5);
+        admin.setName("ADMIN");
+        user2.getRoles().add(admin);
+        expect(currentUser.isLoggedIn()).andStubReturn(true);
+        expect(currentUser.getId()).andStubReturn(user1.getId());
+        expect(userDAO.findById(user2.getId(), UserFetchProfile.AUTH)).andReturn(user2).times(2);
+        replay(currentUser, userDAO);
+
+        Assert.assertTrue(userService.hasUserTheRole(UserService.ROLE.ADMIN, user2));
+        Assert.assertFalse(userService.hasUserTheRole(UserService.ROLE.USER, user2));
+        verify(userDAO);
+    }
+
     @Test
     public void findAll() {
         List<User> users = new ArrayList<>();
         users.add(user1);
         users.add(user2);
 
-        expect(userDAO.findAll()).andReturn(users);
+        expect(userDAO.findAll(UserFetchProfile.BASIC)).andReturn(users);
         replay(userDAO);
 
         List<User> allUsers = userService.findAll();
@@ -162,22 +282,123 @@ public class UserServiceTest {
         Assert.assertThat(userProfiles.size(), is(2));
     }
 
+    @Test
+    public void getAllUserProfileSummaries() {
+        List<UserProfileSummary> summaries = new ArrayList<>();
+        summaries.add(new UserProfileSummary(1, "James", "Bond", "MI6", "London", "test userprofile", null));
+
+        expect(userProfileDAO.findAllSummaries()).andReturn(summaries);
+        replay(userProfileDAO);
+
+        Assert.assertThat(userService.getAllUserProfileSummaries(), is(summaries));
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getAllUserProfileSummaries_Fails() {
+        expect(userProfileDAO.findAllSummaries()).andThrow(new IllegalStateException());
+        replay(userProfileDAO);
+
+        userService.getAllUserProfileSummaries();
+    }
+
+    @Test
+    public void getUserProfileSummaries() {
+        List<UserProfileSummary> summaries = new ArrayList<>();
+        summaries.add(new UserProfileSummary(1, "James", "Bond", "MI6", "London", "test userprofile", null));
+
+        expect(userProfileDAO.findSummaries("Bo", "lastname", false, 12, 12)).andReturn(summaries);
+        replay(userProfileDAO);
+
+        Assert.assertThat(userService.getUserProfileSummaries("Bo", "lastname", false, 12, 12), is(summaries));
+    }
+
+    @Test(expected = ServiceException.class)
+    public void getUserProfileSummaries_InvalidPageSize() {
+        userService.getUserProfileSummaries("", null, false, 0, 0);
+    }
+
+    @Test
+    public void countUserProfiles_Cached() {
+        expect(userProfileDAO.count("Bo")).andReturn(2L).once();
+        expect(userProfileDAO.count("")).andReturn(5L).once();
+        replay(userProfileDAO);
+
+        Assert.assertThat(userService.countUserProfiles("Bo"), is(2L));
+        Assert.assertThat(userService.countUserProfiles("Bo"), is(2L));
+        Assert.assertThat(userService.countUserProfiles(""), is(5L));
+        verify(userProfileDAO);
+    }
+
+    @Test
+    public void addPictureToProfile_firesPictureEvent() {
+        Capture<PictureEvent> event = Capture.newInstance();
+        userProfile1.setPicture(new byte[] { 1, 2, 3 });
+        expect(userProfileDAO.update(userProfile1)).andReturn(userProfile1);
+        pictureEvents.fire(capture(event));
+        replay(userProfileDAO, pictureEvents);
+
+        userService.addPictureToProfile(userProfile1);
+        verify(userProfileDAO, pictureEvents);
+        Assert.assertThat(event.getValue().getOwner(), is(PictureOwner.PROFILE));
+        Assert.assertThat(event.getValue().getId(), is(userProfile1.getId()));
+    }
+
+    @Test
+    public void getContactsOfUser_Successful() throws Exception {
+        UserSummaryLoader loader = new UserSummaryLoader();
+        PictureVariantGeneratorTest.inject(loader, "userDAO", userDAO);
+        PictureVariantGeneratorTest.inject(userService, "userSummaryLoader", loader);
+        List<UserContact> userContactList = new ArrayList<>();
+        userContactList.add(new UserContact(user1, 3));
+        userContactList.add(new UserContact(user1, 2));
+
+        expect(userContactDAO.findContactsbyUser(user1)).andReturn(userContactList);
+        expect(userDAO.findSummariesByIds(anyObject())).andReturn(Arrays.asList(new UserSummary(2, "username2"),
+                new UserSummary(3, "username3")));
+        replay(userContactDAO, userDAO);
+
+        List<UserSummary> contacts = userService.getContactsOfUser(user1);
+        Assert.assertThat(contacts.size(), is(2));
+        Assert.assertThat(contacts.get(0).getId(), is(3));
+        Assert.assertThat(contacts.get(1).getUsername(), is("username2"));
+        verify(userContactDAO, userDAO);
+    }
+
+    @Test
+    public void getAllCommunitiesForUser_Successful() {
+        List<Community> communities = new ArrayList<>();
+        communities.add(new Community("name1", "description1"));
+        expect(communityDAO.findByMember(user1.getId())).andReturn(communities);
+        replay(communityDAO);
+
+        Assert.assertThat(userService.getAllCommunitiesForUser(user1), is(communities));
+        verify(communityDAO);
+    }
+
     @Test
     public void addContact_Succesful() {
 
-        expect(userDAO.findByUsername(USERNAME)).andReturn(user1);
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.BASIC)).andReturn(user1);
         replay(userDAO);
 
         expect(userContactDAO.doesContactExistForUserId(user1.getId(),user2.getId())).andReturn(false);
         expect(userContactDAO.insert(userContact2)).andReturn(userContact2);
         replay(userContactDAO);
 
+        Capture<ContactEvent> event = Capture.newInstance();
+        contactEvents.fire(capture(event));
+        replay(contactEvents);
+
         userService.addContact(user2, user1.getUsername());
+        verify(contactEvents);
+        Assert.assertThat(event.getValue().isAdded(), is(true));
+        Assert.assertThat(event.getValue().getUserId(), is(user2.getId()));
+        Assert.assertThat(event.getValue().getContactId(), is(user1.getId()));
     }
 
     @Test(expected = ServiceException.class)
     public void addContact_Fail() {
-        expect(userDAO.findByUsername(USERNAME)).andReturn(user1);
+        expect(userDAO.findByUsername(USERNAME, UserFetchProfile.BASIC)).andReturn(user1);
         replay(userDAO);
 
         expect(userContactDAO.doesContactExistForUserId(user1.getId(),user2.getId())).andReturn(true);
@@ -188,7 +409,7 @@ public class UserServiceTest {
 
     @Test(expected = ServiceException.class)
     public void removeContact_Fail() {
-        expect(userDAO.findByUsername(user1.getUsername())).andReturn(user1);
+        expect(userDAO.findByUsername(user1.getUsername(), UserFetchProfile.BASIC)).andReturn(user1);
         replay(userDAO);
 
         expect(userContactDAO.doesContactExistForUserId(user1.getId(),user2.getId())).andReturn(false);
@@ -199,7 +420,7 @@ public class UserServiceTest {
 
     @Test
     public void removeContact_Successful() {
-        expect(userDAO.findByUsername(user1.getUsername())).andReturn(user1);
+        expect(userDAO.findByUsername(user1.getUsername(), UserFetchProfile.BASIC)).andReturn(user1);
         replay(userDAO);
 
         expect(userContactDAO.doesContactExistForUserId(user1.getId(),user2.getId())).andReturn(true);
@@ -208,13 +429,37 @@ public class UserServiceTest {
         expectLastCall();
         replay(userContactDAO);
 
+        Capture<ContactEvent> event = Capture.newInstance();
+        contactEvents.fire(capture(event));
+        replay(contactEvents);
+
         userService.removeContact(user2,user1.getUsername());
+        verify(contactEvents);
+        Assert.assertThat(event.getValue().isAdded(), is(false));
+        Assert.assertThat(event.getValue().getUserId(), is(user2.getId()));
+        Assert.assertThat(event.getValue().getContactId(), is(user1.getId()));
+    }
+
+    @Test
+    public void getContactSuggestions_fromContactGraph() {
+        contactGraphIndex.getGraph().add(1, 2);
+        contactGraphIndex.getGraph().add(2, 3);
+        contactGraphIndex.getGraph().add(1, 4);
+        contactGraphIndex.getGraph().add(4, 3);
+        replay(userDAO, userContactDAO);
+
+        List<ContactSuggestion> suggestions = userService.getContactSuggestions(user1, 10);
+        Assert.assertThat(suggestions.size(), is(1));
+        Assert.assertThat(suggestions.get(0).getUserId(), is(3));
+        Assert.assertThat(suggestions.get(0).getMutualContacts(), is(2));
+        Assert.assertThat(userService.getMutualContactIds(2, 4), equalTo(Arrays.asList(3)));
+        verify(userDAO, userContactDAO);
     }
 
     @Test
     public void deleteById_Successful() {
 
-        expect(userDAO.findById(user1.getId())).andReturn(user1);
+        expect(userDAO.findById(user1.getId(), UserFetchProfile.BASIC)).andReturn(user1);
 
         userDAO.delete(user1);
         expectLastCall();
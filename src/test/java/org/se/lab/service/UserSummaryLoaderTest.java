@@ -0,0 +1,71 @@
+package org.se.lab.service;
+
+import org.easymock.Capture;
+import org.easymock.EasyMockRule;
+import org.easymock.EasyMockRunner;
+import org.easymock.Mock;
+import org.easymock.TestSubject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.se.lab.data.UserSummary;
+import org.se.lab.service.dao.UserDAO;
+import org.se.lab.service.impl.UserSummaryLoader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(EasyMockRunner.class)
+public class UserSummaryLoaderTest {
+
+    @Rule
+    public EasyMockRule mocks = new EasyMockRule(this);
+
+    @Mock
+    private UserDAO userDAO;
+
+    @TestSubject
+    private UserSummaryLoader loader = new UserSummaryLoader();
+
+    @Test
+    public void loadKeepsOrderAndSkipsUnknownIds() {
+        expect(userDAO.findSummariesByIds(anyObject())).andReturn(Arrays.asList(summary(1), summary(3)));
+        replay(userDAO);
+
+        List<UserSummary> summaries = loader.load(Arrays.asList(3, 2, 1, 3));
+        assertEquals(3, summaries.size());
+        assertEquals(3, summaries.get(0).getId());
+        assertEquals(1, summaries.get(1).getId());
+        assertEquals(3, summaries.get(2).getId());
+        verify(userDAO);
+    }
+
+    @Test
+    public void repeatedLookupsQueryOnlyNewIds() {
+        Capture<Collection<Integer>> first = Capture.newInstance();
+        Capture<Collection<Integer>> second = Capture.newInstance();
+        expect(userDAO.findSummariesByIds(capture(first))).andReturn(Arrays.asList(summary(1), summary(2)));
+        expect(userDAO.findSummariesByIds(capture(second))).andReturn(Arrays.asList(summary(4)));
+        replay(userDAO);
+
+        loader.load(Arrays.asList(1, 2, 3));
+        List<UserSummary> summaries = loader.load(Arrays.asList(2, 3, 4));
+        assertEquals(Arrays.asList(4), new ArrayList<>(second.getValue()));
+        assertEquals(2, summaries.size());
+
+        // everything known, no further query
+        assertEquals(3, loader.load(Arrays.asList(1, 2, 3, 4)).size());
+        assertTrue(loader.load(new ArrayList<Integer>()).isEmpty());
+        verify(userDAO);
+    }
+
+    private static UserSummary summary(int id) {
+        return new UserSummary(id, "user" + id);
+    }
+}
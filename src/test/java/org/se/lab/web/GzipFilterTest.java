@@ -0,0 +1,131 @@
+package org.se.lab.web;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.easymock.EasyMock.*;
+
+public class GzipFilterTest {
+
+    private final GzipFilter filter = new GzipFilter();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private static HttpServletRequest request(String acceptEncoding) {
+        HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        expect(request.getHeader("Accept-Encoding")).andStubReturn(acceptEncoding);
+        replay(request);
+        return request;
+    }
+
+    private ServletOutputStream stream() {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+    }
+
+    private String gunzip() throws IOException {
+        StringWriter text = new StringWriter();
+        try (Reader in = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())),
+                StandardCharsets.UTF_8)) {
+            char[] buffer = new char[256];
+            for (int n; (n = in.read(buffer)) > 0;) {
+                text.write(buffer, 0, n);
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void acceptsGzipUnlessQualityZero() {
+        Assert.assertTrue(GzipFilter.accepts("gzip"));
+        Assert.assertTrue(GzipFilter.accepts("deflate, GZIP;q=0.5"));
+        Assert.assertTrue(GzipFilter.accepts("gzip;q=1.0, br"));
+        Assert.assertFalse(GzipFilter.accepts("gzip;q=0"));
+        Assert.assertFalse(GzipFilter.accepts("br, gzip; q=0.000"));
+        Assert.assertFalse(GzipFilter.accepts("x-gzip, deflate"));
+        Assert.assertFalse(GzipFilter.accepts(null));
+    }
+
+    @Test
+    public void compressesBodyWithoutContentLength() throws Exception {
+        HttpServletResponse response = createMock(HttpServletResponse.class);
+        response.addHeader("Vary", "Accept-Encoding");
+        response.setHeader("Content-Type", "application/json");
+        response.setHeader("Content-Encoding", "gzip");
+        expect(response.getOutputStream()).andReturn(stream());
+        expect(response.getCharacterEncoding()).andStubReturn("UTF-8");
+        replay(response);
+
+        filter.doFilter(request("gzip"), response, (req, res) -> {
+            HttpServletResponse wrapped = (HttpServletResponse) res;
+            wrapped.setContentLength(17);
+            wrapped.setHeader("Content-Length", "17");
+            wrapped.setHeader("Content-Type", "application/json");
+            wrapped.getWriter().write("{\"name\":\"v\u00e4rde\"}");
+        });
+
+        verify(response);
+        Assert.assertEquals("{\"name\":\"v\u00e4rde\"}", gunzip());
+    }
+
+    @Test
+    public void notModifiedLeftAlone() throws Exception {
+        HttpServletResponse response = createMock(HttpServletResponse.class);
+        response.addHeader("Vary", "Accept-Encoding");
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        replay(response);
+
+        filter.doFilter(request("gzip"), response,
+                (req, res) -> ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED));
+
+        // neither Content-Encoding nor an empty gzip body
+        verify(response);
+        Assert.assertEquals(0, body.size());
+    }
+
+    @Test
+    public void passesThroughWithoutAcceptEncoding() throws Exception {
+        HttpServletResponse response = createMock(HttpServletResponse.class);
+        response.addHeader("Vary", "Accept-Encoding");
+        replay(response);
+
+        filter.doFilter(request(null), response, (req, res) -> Assert.assertSame(response, res));
+
+        verify(response);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writesBlocking() throws Exception {
+        HttpServletResponse response = createNiceMock(HttpServletResponse.class);
+        replay(response);
+
+        filter.doFilter(request("gzip"), response,
+                (req, res) -> res.getOutputStream().setWriteListener(createNiceMock(WriteListener.class)));
+    }
+}
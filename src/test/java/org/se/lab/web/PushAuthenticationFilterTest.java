@@ -0,0 +1,95 @@
+package org.se.lab.web;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.service.CurrentUser;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.easymock.EasyMock.*;
+
+public class PushAuthenticationFilterTest {
+
+    private final PushAuthenticationFilter filter = new PushAuthenticationFilter();
+
+    private static HttpServletRequest handshake(Integer userId) {
+        HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        HttpSession session = createNiceMock(HttpSession.class);
+        expect(request.getSession(false)).andStubReturn(session);
+        expect(session.getAttribute(CurrentUser.SESSION_ATTRIBUTE)).andStubReturn(userId);
+        replay(request, session);
+        return request;
+    }
+
+    @Test
+    public void interleavedHandshakesKeepTheirUsers() throws Exception {
+        CountDownLatch firstInChain = new CountDownLatch(1);
+        CountDownLatch othersDone = new CountDownLatch(1);
+        AtomicReference<Principal> first = new AtomicReference<>();
+        AtomicReference<Principal> second = new AtomicReference<>();
+        HttpServletResponse anonymousResponse = createMock(HttpServletResponse.class);
+        anonymousResponse.sendError(HttpServletResponse.SC_FORBIDDEN);
+        replay(anonymousResponse);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the first handshake stays in the chain while the others run
+            Future<?> firstHandshake = executor.submit(() -> {
+                filter.doFilter(handshake(7), createNiceMock(HttpServletResponse.class), (request, response) -> {
+                    firstInChain.countDown();
+                    try {
+                        othersDone.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    first.set(((HttpServletRequest) request).getUserPrincipal());
+                });
+                return null;
+            });
+            Assert.assertTrue(firstInChain.await(5, TimeUnit.SECONDS));
+
+            filter.doFilter(handshake(8), createNiceMock(HttpServletResponse.class),
+                    (request, response) -> second.set(((HttpServletRequest) request).getUserPrincipal()));
+            FilterChain rejected = (request, response) -> Assert.fail("anonymous handshake passed");
+            filter.doFilter(handshake(null), anonymousResponse, rejected);
+            othersDone.countDown();
+            firstHandshake.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(7, PushAuthenticationFilter.userId(first.get()));
+        Assert.assertEquals(8, PushAuthenticationFilter.userId(second.get()));
+        verify(anonymousResponse);
+    }
+
+    @Test
+    public void rejectsRequestWithoutSession() throws Exception {
+        HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        HttpServletResponse response = createMock(HttpServletResponse.class);
+        response.sendError(HttpServletResponse.SC_FORBIDDEN);
+        replay(request, response);
+
+        filter.doFilter(request, response, (req, res) -> Assert.fail("handshake without session passed"));
+        verify(response);
+    }
+
+    @Test
+    public void onlyOwnPrincipalCarriesUser() {
+        Principal container = () -> "7";
+        Assert.assertEquals(0, PushAuthenticationFilter.userId(container));
+        Assert.assertEquals(0, PushAuthenticationFilter.userId(null));
+        Assert.assertEquals(7, PushAuthenticationFilter.userId(new PushAuthenticationFilter.UserPrincipal(7)));
+    }
+}
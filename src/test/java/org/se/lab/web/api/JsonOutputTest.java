@@ -0,0 +1,136 @@
+package org.se.lab.web.api;
+
+import org.easymock.Capture;
+import org.junit.Assert;
+import org.junit.Test;
+import org.se.lab.data.KeysetCursor;
+import org.se.lab.data.Page;
+import org.se.lab.data.Post;
+import org.se.lab.data.User;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.easymock.EasyMock.*;
+
+public class JsonOutputTest {
+
+    private static final JsonOutput.Body BODY = json -> json.writeStartObject().write("name", "value").writeEnd();
+
+    private static String entity(Response response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static EntityTag tag(JsonOutput.Body body) {
+        Request request = createMock(Request.class);
+        expect(request.evaluatePreconditions(anyObject(EntityTag.class))).andReturn(null);
+        replay(request);
+        return JsonOutput.ok(request, body).getEntityTag();
+    }
+
+    @Test
+    public void okStreamsBodyWithWeakTag() throws Exception {
+        Capture<EntityTag> tag = Capture.newInstance();
+        Request request = createMock(Request.class);
+        expect(request.evaluatePreconditions(capture(tag))).andReturn(null);
+        replay(request);
+
+        Response response = JsonOutput.ok(request, BODY);
+
+        verify(request);
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals("{\"name\":\"value\"}", entity(response));
+        Assert.assertEquals(tag.getValue(), response.getEntityTag());
+        Assert.assertTrue(tag.getValue().isWeak());
+        Assert.assertTrue(response.getHeaderString("Cache-Control").contains("no-cache"));
+    }
+
+    @Test
+    public void matchingTagGivesNotModified() {
+        Request request = createMock(Request.class);
+        expect(request.evaluatePreconditions(tag(BODY))).andReturn(Response.notModified());
+        replay(request);
+
+        Response response = JsonOutput.ok(request, BODY);
+
+        verify(request);
+        Assert.assertEquals(304, response.getStatus());
+        Assert.assertFalse(response.hasEntity());
+        Assert.assertTrue(response.getHeaderString("Cache-Control").contains("no-cache"));
+    }
+
+    @Test
+    public void tagFollowsContent() {
+        Assert.assertEquals(tag(BODY), tag(json -> json.writeStartObject().write("name", "value").writeEnd()));
+        Assert.assertNotEquals(tag(BODY), tag(json -> json.writeStartObject().write("name", "other").writeEnd()));
+    }
+
+    @Test
+    public void pageWritesNextToken() throws Exception {
+        Page<String> page = new Page<>(Arrays.asList("a", "b"), "next");
+        Response response = JsonOutput.ok(createNiceMock(Request.class),
+                json -> JsonOutput.page(json, page, (item, s) -> item.write(s)));
+        Assert.assertEquals("{\"items\":[\"a\",\"b\"],\"next\":\"next\"}", entity(response));
+
+        response = JsonOutput.ok(createNiceMock(Request.class),
+                json -> JsonOutput.page(json, Page.<String>empty(), (item, s) -> item.write(s)));
+        Assert.assertEquals("{\"items\":[],\"next\":null}", entity(response));
+    }
+
+    @Test
+    public void limit() {
+        Assert.assertEquals(JsonOutput.DEFAULT_LIMIT, JsonOutput.limit(null));
+        Assert.assertEquals(1, JsonOutput.limit(1));
+        Assert.assertEquals(100, JsonOutput.limit(100));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void limitTooSmall() {
+        JsonOutput.limit(0);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void limitTooLarge() {
+        JsonOutput.limit(101);
+    }
+
+    @Test
+    public void cursor() {
+        Post post = new Post(null, null, new User("user", "password"), "text", new Date(1000L));
+        post.setId(7);
+        String token = KeysetCursor.of(post).encode();
+
+        Assert.assertEquals(token, JsonOutput.cursor(token));
+        Assert.assertNull(JsonOutput.cursor(null));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void malformedCursor() {
+        JsonOutput.cursor("not a cursor");
+    }
+
+    @Test
+    public void id() {
+        Assert.assertEquals("7", JsonOutput.id("7"));
+        Assert.assertNull(JsonOutput.id(null));
+        Assert.assertEquals("", JsonOutput.id(""));
+        for (String invalid : Arrays.asList("0", "-1", "x7")) {
+            try {
+                JsonOutput.id(invalid);
+                Assert.fail("accepted " + invalid);
+            } catch (BadRequestException e) {
+                // expected
+            }
+        }
+    }
+}